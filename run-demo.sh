@@ -138,6 +138,8 @@ EOF
     # Create topics
     kafka-topics.sh --create --bootstrap-server localhost:9092 --topic transactions --partitions 3 --replication-factor 1 || true
     kafka-topics.sh --create --bootstrap-server localhost:9092 --topic fraud-alerts --partitions 3 --replication-factor 1 || true
+    kafka-topics.sh --create --bootstrap-server localhost:9092 --topic merchant-alerts --partitions 3 --replication-factor 1 || true
+    kafka-topics.sh --create --bootstrap-server localhost:9092 --topic fraud-rules --partitions 1 --replication-factor 1 --config cleanup.policy=compact || true
 fi
 
 # Compile the application
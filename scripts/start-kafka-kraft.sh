@@ -184,6 +184,23 @@ create_topics() {
         --config cleanup.policy=delete \
         --config retention.ms=3600000
     
+    # Create merchant-alerts topic
+    kafka-topics.sh --create \
+        --bootstrap-server localhost:9092 \
+        --topic merchant-alerts \
+        --partitions 3 \
+        --replication-factor 1 \
+        --config cleanup.policy=delete \
+        --config retention.ms=3600000
+    
+    # Create fraud-rules topic (compacted: the latest definition of every rule is kept)
+    kafka-topics.sh --create \
+        --bootstrap-server localhost:9092 \
+        --topic fraud-rules \
+        --partitions 1 \
+        --replication-factor 1 \
+        --config cleanup.policy=compact
+    
     print_status "Topics created successfully"
     
     # List topics to verify
@@ -213,7 +230,7 @@ main() {
     
     print_status "✅ Kafka KRaft setup completed successfully!"
     print_status "🚀 Kafka is running on localhost:9092"
-    print_status "📊 Topics created: transactions, fraud-alerts"
+    print_status "📊 Topics created: transactions, fraud-alerts, merchant-alerts, fraud-rules"
     print_status "📝 Logs available in: $KAFKA_LOGS_DIR/kafka.log"
     print_status ""
     print_status "🎯 Ready to run FraudLens application!"
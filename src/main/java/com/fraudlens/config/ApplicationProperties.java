@@ -3,6 +3,10 @@ package com.fraudlens.config;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Configuration properties for FraudLens application
  * This class defines all custom properties to avoid IDE warnings
@@ -14,6 +18,21 @@ public class ApplicationProperties {
     private Demo demo = new Demo();
     private Fraud fraud = new Fraud();
     private Kafka kafka = new Kafka();
+    private State state = new State();
+    private Serde serde = new Serde();
+    private Streams streams = new Streams();
+    private RocksDb rocksdb = new RocksDb();
+    private Alerts alerts = new Alerts();
+    private Query query = new Query();
+    private Preauth preauth = new Preauth();
+    private Rules rules = new Rules();
+    private Profile profile = new Profile();
+    private Travel travel = new Travel();
+    private Merchant merchant = new Merchant();
+    private Dedup dedup = new Dedup();
+    private Loadgen loadgen = new Loadgen();
+    private Ingest ingest = new Ingest();
+    private Replay replay = new Replay();
 
     public static class Demo {
         private boolean enabled = true;
@@ -30,13 +49,13 @@ public class ApplicationProperties {
     }
 
     public static class Fraud {
-        private double amountThreshold = 1000.00;
+        private BigDecimal amountThreshold = new BigDecimal("1000.00");
         private int countryThreshold = 3;
         private int windowSizeMinutes = 5;
 
         // Getters and setters
-        public double getAmountThreshold() { return amountThreshold; }
-        public void setAmountThreshold(double amountThreshold) { this.amountThreshold = amountThreshold; }
+        public BigDecimal getAmountThreshold() { return amountThreshold; }
+        public void setAmountThreshold(BigDecimal amountThreshold) { this.amountThreshold = amountThreshold; }
         public int getCountryThreshold() { return countryThreshold; }
         public void setCountryThreshold(int countryThreshold) { this.countryThreshold = countryThreshold; }
         public int getWindowSizeMinutes() { return windowSizeMinutes; }
@@ -45,10 +64,301 @@ public class ApplicationProperties {
 
     public static class Kafka {
         private String applicationId = "fraudlens-app";
+        private String producerProfile = "balanced";
 
         // Getters and setters
         public String getApplicationId() { return applicationId; }
         public void setApplicationId(String applicationId) { this.applicationId = applicationId; }
+        public String getProducerProfile() { return producerProfile; }
+        public void setProducerProfile(String producerProfile) { this.producerProfile = producerProfile; }
+    }
+
+    public static class State {
+        private String windowSerde = "binary";
+
+        // Getters and setters
+        public String getWindowSerde() { return windowSerde; }
+        public void setWindowSerde(String windowSerde) { this.windowSerde = windowSerde; }
+    }
+
+    public static class Serde {
+        private String jsonAccessors = "reflection";
+        private boolean lazyTransactions = true;
+
+        // Getters and setters
+        public String getJsonAccessors() { return jsonAccessors; }
+        public void setJsonAccessors(String jsonAccessors) { this.jsonAccessors = jsonAccessors; }
+        public boolean isLazyTransactions() { return lazyTransactions; }
+        public void setLazyTransactions(boolean lazyTransactions) { this.lazyTransactions = lazyTransactions; }
+    }
+
+    public static class Streams {
+        private String windowMode = "tumbling";
+        private String engine = "dsl";
+        private long sweepIntervalMs = 60000;
+        private String sweepPunctuation = "stream-time";
+        private int sweepBatchSize = 10000;
+        private int cachedAccounts = 10000;
+        private String applicationServer = "localhost:8081";
+        private List<String> horizons = new ArrayList<>(List.of("1m", "5m", "1h", "24h"));
+        private long horizonPaneMs = 60000;
+        private long horizonSketchBlockMs = 3600000;
+
+        // Getters and setters
+        public String getWindowMode() { return windowMode; }
+        public void setWindowMode(String windowMode) { this.windowMode = windowMode; }
+        public String getEngine() { return engine; }
+        public void setEngine(String engine) { this.engine = engine; }
+        public long getSweepIntervalMs() { return sweepIntervalMs; }
+        public void setSweepIntervalMs(long sweepIntervalMs) { this.sweepIntervalMs = sweepIntervalMs; }
+        public String getSweepPunctuation() { return sweepPunctuation; }
+        public void setSweepPunctuation(String sweepPunctuation) { this.sweepPunctuation = sweepPunctuation; }
+        public int getSweepBatchSize() { return sweepBatchSize; }
+        public void setSweepBatchSize(int sweepBatchSize) { this.sweepBatchSize = sweepBatchSize; }
+        public int getCachedAccounts() { return cachedAccounts; }
+        public void setCachedAccounts(int cachedAccounts) { this.cachedAccounts = cachedAccounts; }
+        public String getApplicationServer() { return applicationServer; }
+        public void setApplicationServer(String applicationServer) { this.applicationServer = applicationServer; }
+        public List<String> getHorizons() { return horizons; }
+        public void setHorizons(List<String> horizons) { this.horizons = horizons; }
+        public long getHorizonPaneMs() { return horizonPaneMs; }
+        public void setHorizonPaneMs(long horizonPaneMs) { this.horizonPaneMs = horizonPaneMs; }
+        public long getHorizonSketchBlockMs() { return horizonSketchBlockMs; }
+        public void setHorizonSketchBlockMs(long horizonSketchBlockMs) { this.horizonSketchBlockMs = horizonSketchBlockMs; }
+    }
+
+    public static class RocksDb {
+        private long blockCacheBytes = 256L * 1024 * 1024;
+        private long writeBufferManagerBytes = 64L * 1024 * 1024;
+        private double highPriorityPoolRatio = 0.1;
+        private long writeBufferBytes = 8L * 1024 * 1024;
+        private int maxWriteBuffers = 3;
+        private long blockSizeBytes = 16L * 1024;
+        private double bloomFilterBitsPerKey = 10;
+        private String compactionStyle = "level";
+        private String compression = "lz4";
+        private String metricsRecordingLevel = "INFO";
+
+        // Getters and setters
+        public long getBlockCacheBytes() { return blockCacheBytes; }
+        public void setBlockCacheBytes(long blockCacheBytes) { this.blockCacheBytes = blockCacheBytes; }
+        public long getWriteBufferManagerBytes() { return writeBufferManagerBytes; }
+        public void setWriteBufferManagerBytes(long writeBufferManagerBytes) { this.writeBufferManagerBytes = writeBufferManagerBytes; }
+        public double getHighPriorityPoolRatio() { return highPriorityPoolRatio; }
+        public void setHighPriorityPoolRatio(double highPriorityPoolRatio) { this.highPriorityPoolRatio = highPriorityPoolRatio; }
+        public long getWriteBufferBytes() { return writeBufferBytes; }
+        public void setWriteBufferBytes(long writeBufferBytes) { this.writeBufferBytes = writeBufferBytes; }
+        public int getMaxWriteBuffers() { return maxWriteBuffers; }
+        public void setMaxWriteBuffers(int maxWriteBuffers) { this.maxWriteBuffers = maxWriteBuffers; }
+        public long getBlockSizeBytes() { return blockSizeBytes; }
+        public void setBlockSizeBytes(long blockSizeBytes) { this.blockSizeBytes = blockSizeBytes; }
+        public double getBloomFilterBitsPerKey() { return bloomFilterBitsPerKey; }
+        public void setBloomFilterBitsPerKey(double bloomFilterBitsPerKey) { this.bloomFilterBitsPerKey = bloomFilterBitsPerKey; }
+        public String getCompactionStyle() { return compactionStyle; }
+        public void setCompactionStyle(String compactionStyle) { this.compactionStyle = compactionStyle; }
+        public String getCompression() { return compression; }
+        public void setCompression(String compression) { this.compression = compression; }
+        public String getMetricsRecordingLevel() { return metricsRecordingLevel; }
+        public void setMetricsRecordingLevel(String metricsRecordingLevel) { this.metricsRecordingLevel = metricsRecordingLevel; }
+    }
+
+    public static class Alerts {
+        private String mode = "escalation";
+
+        // Getters and setters
+        public String getMode() { return mode; }
+        public void setMode(String mode) { this.mode = mode; }
+    }
+
+    public static class Query {
+        private long cacheTtlMs = 1000;
+        private int cacheMaxEntries = 100000;
+        private int remoteTimeoutMs = 2000;
+        private int maxBatchSize = 1000;
+
+        // Getters and setters
+        public long getCacheTtlMs() { return cacheTtlMs; }
+        public void setCacheTtlMs(long cacheTtlMs) { this.cacheTtlMs = cacheTtlMs; }
+        public int getCacheMaxEntries() { return cacheMaxEntries; }
+        public void setCacheMaxEntries(int cacheMaxEntries) { this.cacheMaxEntries = cacheMaxEntries; }
+        public int getRemoteTimeoutMs() { return remoteTimeoutMs; }
+        public void setRemoteTimeoutMs(int remoteTimeoutMs) { this.remoteTimeoutMs = remoteTimeoutMs; }
+        public int getMaxBatchSize() { return maxBatchSize; }
+        public void setMaxBatchSize(int maxBatchSize) { this.maxBatchSize = maxBatchSize; }
+    }
+
+    public static class Preauth {
+        private boolean forwardToOwner = true;
+
+        // Getters and setters
+        public boolean isForwardToOwner() { return forwardToOwner; }
+        public void setForwardToOwner(boolean forwardToOwner) { this.forwardToOwner = forwardToOwner; }
+    }
+
+    public static class Rules {
+        private List<String> definitions = new ArrayList<>();
+        private String file;
+        private String topic = "fraud-rules";
+
+        // Getters and setters
+        public List<String> getDefinitions() { return definitions; }
+        public void setDefinitions(List<String> definitions) { this.definitions = definitions; }
+        public String getFile() { return file; }
+        public void setFile(String file) { this.file = file; }
+        public String getTopic() { return topic; }
+        public void setTopic(String topic) { this.topic = topic; }
+    }
+
+    public static class Profile {
+        private boolean enabled = true;
+        private double alpha = 0.05;
+        private long minTransactions = 20;
+
+        // Getters and setters
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public double getAlpha() { return alpha; }
+        public void setAlpha(double alpha) { this.alpha = alpha; }
+        public long getMinTransactions() { return minTransactions; }
+        public void setMinTransactions(long minTransactions) { this.minTransactions = minTransactions; }
+    }
+
+    public static class Travel {
+        private boolean enabled = true;
+        private int minMinutes = 60;
+
+        // Getters and setters
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public int getMinMinutes() { return minMinutes; }
+        public void setMinMinutes(int minMinutes) { this.minMinutes = minMinutes; }
+    }
+
+    public static class Merchant {
+        private boolean enabled = true;
+        private long windowMs = 300000;
+        private long minAccounts = 50;
+        private long expectedPairs = 100000;
+        private int sketchDepth = 4;
+        private int sketchWidth = 2048;
+        private int topK = 100;
+        private long graceMs = 60000;
+
+        // Getters and setters
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public long getWindowMs() { return windowMs; }
+        public void setWindowMs(long windowMs) { this.windowMs = windowMs; }
+        public long getMinAccounts() { return minAccounts; }
+        public void setMinAccounts(long minAccounts) { this.minAccounts = minAccounts; }
+        public long getExpectedPairs() { return expectedPairs; }
+        public void setExpectedPairs(long expectedPairs) { this.expectedPairs = expectedPairs; }
+        public int getSketchDepth() { return sketchDepth; }
+        public void setSketchDepth(int sketchDepth) { this.sketchDepth = sketchDepth; }
+        public int getSketchWidth() { return sketchWidth; }
+        public void setSketchWidth(int sketchWidth) { this.sketchWidth = sketchWidth; }
+        public int getTopK() { return topK; }
+        public void setTopK(int topK) { this.topK = topK; }
+        public long getGraceMs() { return graceMs; }
+        public void setGraceMs(long graceMs) { this.graceMs = graceMs; }
+    }
+
+    public static class Dedup {
+        private boolean enabled = true;
+        private long horizonMs = 600000;
+        private int generations = 3;
+        private long expectedIds = 100000;
+        private double falsePositiveRate = 0.01;
+        private boolean exactCheck = true;
+
+        // Getters and setters
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public long getHorizonMs() { return horizonMs; }
+        public void setHorizonMs(long horizonMs) { this.horizonMs = horizonMs; }
+        public int getGenerations() { return generations; }
+        public void setGenerations(int generations) { this.generations = generations; }
+        public long getExpectedIds() { return expectedIds; }
+        public void setExpectedIds(long expectedIds) { this.expectedIds = expectedIds; }
+        public double getFalsePositiveRate() { return falsePositiveRate; }
+        public void setFalsePositiveRate(double falsePositiveRate) { this.falsePositiveRate = falsePositiveRate; }
+        public boolean isExactCheck() { return exactCheck; }
+        public void setExactCheck(boolean exactCheck) { this.exactCheck = exactCheck; }
+    }
+
+    public static class Loadgen {
+        private boolean enabled = false;
+        private double rate = 10000;
+        private long durationSeconds = 60;
+        private int accounts = 1000000;
+        private double zipfExponent = 1.0;
+        private double fraudRatio = 0.01;
+        private int senders = 4;
+        private long reportIntervalMs = 5000;
+
+        // Getters and setters
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public double getRate() { return rate; }
+        public void setRate(double rate) { this.rate = rate; }
+        public long getDurationSeconds() { return durationSeconds; }
+        public void setDurationSeconds(long durationSeconds) { this.durationSeconds = durationSeconds; }
+        public int getAccounts() { return accounts; }
+        public void setAccounts(int accounts) { this.accounts = accounts; }
+        public double getZipfExponent() { return zipfExponent; }
+        public void setZipfExponent(double zipfExponent) { this.zipfExponent = zipfExponent; }
+        public double getFraudRatio() { return fraudRatio; }
+        public void setFraudRatio(double fraudRatio) { this.fraudRatio = fraudRatio; }
+        public int getSenders() { return senders; }
+        public void setSenders(int senders) { this.senders = senders; }
+        public long getReportIntervalMs() { return reportIntervalMs; }
+        public void setReportIntervalMs(long reportIntervalMs) { this.reportIntervalMs = reportIntervalMs; }
+    }
+
+    public static class Ingest {
+        private int batchSize = 1000;
+        private int maxRecordBytes = 65536;
+        private int maxInFlight = 50000;
+        private double minFreeBufferRatio = 0.25;
+        private long backpressureTimeoutMs = 30000;
+
+        // Getters and setters
+        public int getBatchSize() { return batchSize; }
+        public void setBatchSize(int batchSize) { this.batchSize = batchSize; }
+        public int getMaxRecordBytes() { return maxRecordBytes; }
+        public void setMaxRecordBytes(int maxRecordBytes) { this.maxRecordBytes = maxRecordBytes; }
+        public int getMaxInFlight() { return maxInFlight; }
+        public void setMaxInFlight(int maxInFlight) { this.maxInFlight = maxInFlight; }
+        public double getMinFreeBufferRatio() { return minFreeBufferRatio; }
+        public void setMinFreeBufferRatio(double minFreeBufferRatio) { this.minFreeBufferRatio = minFreeBufferRatio; }
+        public long getBackpressureTimeoutMs() { return backpressureTimeoutMs; }
+        public void setBackpressureTimeoutMs(long backpressureTimeoutMs) { this.backpressureTimeoutMs = backpressureTimeoutMs; }
+    }
+
+    public static class Replay {
+        private String input = "";
+        private String output = "replay-alerts.ndjson";
+        private String format = "ndjson";
+        private int partitions = 0;
+        private int parallelism = 0;
+        private String engine = "topology";
+        private boolean exitWhenDone = true;
+
+        // Getters and setters
+        public String getInput() { return input; }
+        public void setInput(String input) { this.input = input; }
+        public String getOutput() { return output; }
+        public void setOutput(String output) { this.output = output; }
+        public String getFormat() { return format; }
+        public void setFormat(String format) { this.format = format; }
+        public int getPartitions() { return partitions; }
+        public void setPartitions(int partitions) { this.partitions = partitions; }
+        public int getParallelism() { return parallelism; }
+        public void setParallelism(int parallelism) { this.parallelism = parallelism; }
+        public String getEngine() { return engine; }
+        public void setEngine(String engine) { this.engine = engine; }
+        public boolean isExitWhenDone() { return exitWhenDone; }
+        public void setExitWhenDone(boolean exitWhenDone) { this.exitWhenDone = exitWhenDone; }
     }
 
     // Main getters
@@ -58,4 +368,34 @@ public class ApplicationProperties {
     public void setFraud(Fraud fraud) { this.fraud = fraud; }
     public Kafka getKafka() { return kafka; }
     public void setKafka(Kafka kafka) { this.kafka = kafka; }
+    public State getState() { return state; }
+    public void setState(State state) { this.state = state; }
+    public Serde getSerde() { return serde; }
+    public void setSerde(Serde serde) { this.serde = serde; }
+    public Streams getStreams() { return streams; }
+    public void setStreams(Streams streams) { this.streams = streams; }
+    public RocksDb getRocksdb() { return rocksdb; }
+    public void setRocksdb(RocksDb rocksdb) { this.rocksdb = rocksdb; }
+    public Alerts getAlerts() { return alerts; }
+    public void setAlerts(Alerts alerts) { this.alerts = alerts; }
+    public Query getQuery() { return query; }
+    public void setQuery(Query query) { this.query = query; }
+    public Preauth getPreauth() { return preauth; }
+    public void setPreauth(Preauth preauth) { this.preauth = preauth; }
+    public Rules getRules() { return rules; }
+    public void setRules(Rules rules) { this.rules = rules; }
+    public Profile getProfile() { return profile; }
+    public void setProfile(Profile profile) { this.profile = profile; }
+    public Travel getTravel() { return travel; }
+    public void setTravel(Travel travel) { this.travel = travel; }
+    public Merchant getMerchant() { return merchant; }
+    public void setMerchant(Merchant merchant) { this.merchant = merchant; }
+    public Dedup getDedup() { return dedup; }
+    public void setDedup(Dedup dedup) { this.dedup = dedup; }
+    public Loadgen getLoadgen() { return loadgen; }
+    public void setLoadgen(Loadgen loadgen) { this.loadgen = loadgen; }
+    public Ingest getIngest() { return ingest; }
+    public void setIngest(Ingest ingest) { this.ingest = ingest; }
+    public Replay getReplay() { return replay; }
+    public void setReplay(Replay replay) { this.replay = replay; }
 } 
\ No newline at end of file
@@ -0,0 +1,54 @@
+package com.fraudlens.config;
+
+import com.fraudlens.domain.model.Money;
+import com.fraudlens.domain.rules.CompiledRuleSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Compiles the fraud rule set once at startup: from {@code fraudlens.rules.file} if set,
+ * else from {@code fraudlens.rules.definitions}, else the built-in rule with the
+ * {@code fraudlens.fraud.*} thresholds. Risk scores use {@code fraudlens.fraud.amount-threshold}
+ * as the reference amount unless the rules set {@code @scoring-threshold}. A rule set that does
+ * not parse fails startup.
+ */
+@Configuration
+public class FraudRulesConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(FraudRulesConfig.class);
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Bean
+    public CompiledRuleSet fraudRules() throws IOException {
+        ApplicationProperties.Rules rules = applicationProperties.getRules();
+        ApplicationProperties.Fraud fraud = applicationProperties.getFraud();
+        Money scoringThreshold = Money.of(fraud.getAmountThreshold());
+        CompiledRuleSet compiled;
+        String source;
+        if (rules.getFile() != null && !rules.getFile().isBlank()) {
+            Path file = Path.of(rules.getFile().trim());
+            compiled = CompiledRuleSet.parse(Files.readAllLines(file, StandardCharsets.UTF_8), scoringThreshold);
+            source = file.toString();
+        } else if (!rules.getDefinitions().isEmpty()) {
+            compiled = CompiledRuleSet.parse(rules.getDefinitions(), scoringThreshold);
+            source = "fraudlens.rules.definitions";
+        } else {
+            compiled = CompiledRuleSet.defaults(fraud.getAmountThreshold(), fraud.getCountryThreshold());
+            source = "fraudlens.fraud thresholds";
+        }
+        logger.info("📏 Compiled {} fraud rules from {}, scoring against {}", compiled.size(), source,
+                    compiled.getScoringThreshold());
+        compiled.getRules().forEach(rule -> logger.info("   {}", rule));
+        return compiled;
+    }
+}
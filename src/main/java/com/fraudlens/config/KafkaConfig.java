@@ -1,12 +1,31 @@
 package com.fraudlens.config;
 
-import com.fraudlens.domain.model.AccountActivityWindow;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fraudlens.domain.model.AccountActivityAggregate;
+import com.fraudlens.domain.model.AccountEventBuffer;
+import com.fraudlens.domain.model.AccountHorizonPanes;
+import com.fraudlens.domain.model.AccountProfile;
 import com.fraudlens.domain.model.FraudAlert;
+import com.fraudlens.domain.model.MerchantAlert;
+import com.fraudlens.domain.model.MerchantFanInWindow;
 import com.fraudlens.domain.model.Transaction;
+import com.fraudlens.infrastructure.kafka.BoundedMemoryRocksDBConfig;
+import com.fraudlens.infrastructure.serde.AccountActivityAggregateSerde;
+import com.fraudlens.infrastructure.serde.AccountEventBufferSerde;
+import com.fraudlens.infrastructure.serde.AccountHorizonPanesSerde;
+import com.fraudlens.infrastructure.serde.AccountProfileSerde;
+import com.fraudlens.infrastructure.serde.MerchantFanInWindowSerde;
+import com.fraudlens.infrastructure.serde.JsonMappers;
 import com.fraudlens.infrastructure.serde.JsonSerde;
+import com.fraudlens.infrastructure.serde.LazyTransactionSerde;
+import com.fraudlens.infrastructure.serde.TransactionJsonSerde;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.Serde;
 import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.serialization.StringSerializer;
 import org.apache.kafka.streams.StreamsConfig;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -18,9 +37,9 @@ import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.config.KafkaStreamsConfiguration;
 import org.springframework.kafka.core.*;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
-import org.springframework.kafka.support.serializer.JsonSerializer;
 
 import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
 
 @Configuration
@@ -37,6 +56,54 @@ public class KafkaConfig {
     @Value("${fraudlens.kafka.consumer.group-id:fraudlens-consumer-group}")
     private String consumerGroupId;
 
+    @Value("${fraudlens.kafka.producer-profile:balanced}")
+    private String producerProfile;
+
+    @Value("${fraudlens.state.window-serde:binary}")
+    private String windowSerde;
+
+    @Value("${fraudlens.serde.json-accessors:reflection}")
+    private String jsonAccessors;
+
+    @Value("${fraudlens.serde.lazy-transactions:true}")
+    private boolean lazyTransactions;
+
+    @Value("${fraudlens.streams.application-server:localhost:8081}")
+    private String applicationServer;
+
+    @Value("${spring.kafka.streams.state-dir:/tmp/kafka-streams}")
+    private String stateDir;
+
+    @Value("${fraudlens.rocksdb.block-cache-bytes:268435456}")
+    private long rocksDbBlockCacheBytes;
+
+    @Value("${fraudlens.rocksdb.write-buffer-manager-bytes:67108864}")
+    private long rocksDbWriteBufferManagerBytes;
+
+    @Value("${fraudlens.rocksdb.high-priority-pool-ratio:0.1}")
+    private double rocksDbHighPriorityPoolRatio;
+
+    @Value("${fraudlens.rocksdb.write-buffer-bytes:8388608}")
+    private long rocksDbWriteBufferBytes;
+
+    @Value("${fraudlens.rocksdb.max-write-buffers:3}")
+    private int rocksDbMaxWriteBuffers;
+
+    @Value("${fraudlens.rocksdb.block-size-bytes:16384}")
+    private long rocksDbBlockSizeBytes;
+
+    @Value("${fraudlens.rocksdb.bloom-filter-bits-per-key:10}")
+    private double rocksDbBloomFilterBitsPerKey;
+
+    @Value("${fraudlens.rocksdb.compaction-style:level}")
+    private String rocksDbCompactionStyle;
+
+    @Value("${fraudlens.rocksdb.compression:lz4}")
+    private String rocksDbCompression;
+
+    @Value("${fraudlens.rocksdb.metrics-recording-level:INFO}")
+    private String metricsRecordingLevel;
+
     // Configuration for Kafka Streams with EOS V2
     @Bean(name = KafkaStreamsDefaultConfiguration.DEFAULT_STREAMS_CONFIG_BEAN_NAME)
     public KafkaStreamsConfiguration kStreamsConfig() {
@@ -54,12 +121,28 @@ public class KafkaConfig {
         // Performance and reliability configuration
         props.put(StreamsConfig.COMMIT_INTERVAL_MS_CONFIG, 10000); // 10 seconds
         props.put(StreamsConfig.STATESTORE_CACHE_MAX_BYTES_CONFIG, 10 * 1024 * 1024); // 10MB
-        props.put(StreamsConfig.STATE_DIR_CONFIG, "/tmp/kafka-streams");
+        props.put(StreamsConfig.STATE_DIR_CONFIG, stateDir);
+        // Advertised to the other instances so interactive queries can be routed to a key's owner
+        props.put(StreamsConfig.APPLICATION_SERVER_CONFIG, applicationServer.trim());
         props.put(StreamsConfig.REPLICATION_FACTOR_CONFIG, 1); // For development
         
         // Window configuration
         props.put(StreamsConfig.WINDOW_STORE_CHANGE_LOG_ADDITIONAL_RETENTION_MS_CONFIG, 60000); // 1 minute
         
+        // RocksDB: shared bounded memory across all store instances (read by the config setter)
+        props.put(StreamsConfig.ROCKSDB_CONFIG_SETTER_CLASS_CONFIG, BoundedMemoryRocksDBConfig.class);
+        props.put(BoundedMemoryRocksDBConfig.BLOCK_CACHE_BYTES, rocksDbBlockCacheBytes);
+        props.put(BoundedMemoryRocksDBConfig.WRITE_BUFFER_MANAGER_BYTES, rocksDbWriteBufferManagerBytes);
+        props.put(BoundedMemoryRocksDBConfig.HIGH_PRIORITY_POOL_RATIO, rocksDbHighPriorityPoolRatio);
+        props.put(BoundedMemoryRocksDBConfig.WRITE_BUFFER_BYTES, rocksDbWriteBufferBytes);
+        props.put(BoundedMemoryRocksDBConfig.MAX_WRITE_BUFFERS, rocksDbMaxWriteBuffers);
+        props.put(BoundedMemoryRocksDBConfig.BLOCK_SIZE_BYTES, rocksDbBlockSizeBytes);
+        props.put(BoundedMemoryRocksDBConfig.BLOOM_FILTER_BITS_PER_KEY, rocksDbBloomFilterBitsPerKey);
+        props.put(BoundedMemoryRocksDBConfig.COMPACTION_STYLE, rocksDbCompactionStyle);
+        props.put(BoundedMemoryRocksDBConfig.COMPRESSION, rocksDbCompression);
+        // INFO records the RocksDB property metrics (memtable size, pending compaction...); DEBUG adds statistics
+        props.put(StreamsConfig.METRICS_RECORDING_LEVEL_CONFIG, metricsRecordingLevel.trim().toUpperCase(Locale.ROOT));
+        
         // Error handling configuration
         props.put(StreamsConfig.DEFAULT_DESERIALIZATION_EXCEPTION_HANDLER_CLASS_CONFIG, 
                   "org.apache.kafka.streams.errors.LogAndContinueExceptionHandler");
@@ -67,23 +150,43 @@ public class KafkaConfig {
         return new KafkaStreamsConfiguration(props);
     }
 
-    // Producer configuration
+    // Shared RocksDB memory as metrics; per-store RocksDB metrics come from the Kafka Streams Micrometer binding
+    @Bean
+    public MeterBinder rocksDbMemoryMetrics() {
+        return registry -> {
+            Gauge.builder("fraudlens.rocksdb.block-cache.usage", BoundedMemoryRocksDBConfig::blockCacheUsageBytes)
+                    .description("Bytes in the shared RocksDB block cache, memtables included")
+                    .baseUnit("bytes")
+                    .register(registry);
+            Gauge.builder("fraudlens.rocksdb.block-cache.pinned-usage", BoundedMemoryRocksDBConfig::blockCachePinnedUsageBytes)
+                    .description("Bytes pinned in the shared RocksDB block cache")
+                    .baseUnit("bytes")
+                    .register(registry);
+            Gauge.builder("fraudlens.rocksdb.block-cache.capacity", BoundedMemoryRocksDBConfig::blockCacheCapacityBytes)
+                    .description("Capacity of the shared RocksDB block cache")
+                    .baseUnit("bytes")
+                    .register(registry);
+            Gauge.builder("fraudlens.rocksdb.open-stores", BoundedMemoryRocksDBConfig::openStoreInstances)
+                    .description("RocksDB instances using the shared cache")
+                    .register(registry);
+        };
+    }
+
+    // Producer configuration; the value serializer is the transaction serde's, bound to Transaction once
     @Bean
     public ProducerFactory<String, Transaction> transactionProducerFactory() {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, 
-                       org.apache.kafka.common.serialization.StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
         
-        // Reliability and performance configuration
+        // Reliability configuration
         configProps.put(ProducerConfig.ACKS_CONFIG, "all");
         configProps.put(ProducerConfig.RETRIES_CONFIG, 3);
         configProps.put(ProducerConfig.RETRY_BACKOFF_MS_CONFIG, 1000);
-        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
-        configProps.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 1);
+
+        // Batching, compression and requests in flight
+        ProducerProfile.of(producerProfile).applyTo(configProps);
         
-        return new DefaultKafkaProducerFactory<>(configProps);
+        return new DefaultKafkaProducerFactory<>(configProps, new StringSerializer(), transactionSerde().serializer());
     }
 
     @Bean
@@ -121,19 +224,51 @@ public class KafkaConfig {
     // Note: We don't need manual KafkaMessageListenerContainer because 
     // we use @KafkaListener in FraudAlertConsumer
 
-    // Custom Serdes for Kafka Streams
+    // Custom Serdes for Kafka Streams, all bound to one shared mapper
     @Bean
     public JsonSerde<Transaction> transactionSerde() {
-        return new JsonSerde<>(Transaction.class);
+        return lazyTransactions ? new LazyTransactionSerde(jsonMapper()) : new TransactionJsonSerde(jsonMapper());
+    }
+
+    // Window store serde: "binary" (default) or "json"; both formats are always readable
+    @Bean
+    public Serde<AccountActivityAggregate> accountActivityAggregateSerde() {
+        return new AccountActivityAggregateSerde(
+                AccountActivityAggregateSerde.Format.valueOf(windowSerde.trim().toUpperCase(Locale.ROOT)));
     }
 
     @Bean
-    public JsonSerde<AccountActivityWindow> accountActivityWindowSerde() {
-        return new JsonSerde<>(AccountActivityWindow.class);
+    public Serde<AccountEventBuffer> accountEventBufferSerde() {
+        return new AccountEventBufferSerde();
+    }
+
+    @Bean
+    public Serde<AccountHorizonPanes> accountHorizonPanesSerde() {
+        return new AccountHorizonPanesSerde();
+    }
+
+    @Bean
+    public Serde<AccountProfile> accountProfileSerde() {
+        return new AccountProfileSerde();
     }
 
     @Bean
     public JsonSerde<FraudAlert> fraudAlertSerde() {
-        return new JsonSerde<>(FraudAlert.class);
+        return new JsonSerde<>(FraudAlert.class, jsonMapper());
+    }
+
+    @Bean
+    public Serde<MerchantFanInWindow> merchantFanInWindowSerde() {
+        return new MerchantFanInWindowSerde();
+    }
+
+    @Bean
+    public JsonSerde<MerchantAlert> merchantAlertSerde() {
+        return new JsonSerde<>(MerchantAlert.class, jsonMapper());
+    }
+
+    private ObjectMapper jsonMapper() {
+        return JsonMappers.forMode(
+                JsonMappers.AccessorMode.valueOf(jsonAccessors.trim().toUpperCase(Locale.ROOT)));
     }
 } 
\ No newline at end of file
@@ -0,0 +1,93 @@
+package com.fraudlens.controller;
+
+import com.fraudlens.domain.model.AccountActivityWindow;
+import com.fraudlens.infrastructure.kafka.AccountActivityQueryService;
+import org.apache.kafka.streams.errors.InvalidStateStoreException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.client.RestClientException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Current activity of accounts, read from the Kafka Streams state through interactive queries: the
+ * tumbling bucket containing now, the sliding window ending now, or the detection horizon, depending
+ * on the configured window mode and size.
+ *
+ * Any instance can be asked; requests for accounts owned by another instance are forwarded to it.
+ * {@code local=true} is used for those forwarded calls and only reads this instance's stores.
+ */
+@RestController
+@RequestMapping("/api/accounts")
+public class AccountActivityController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountActivityController.class);
+
+    @Autowired
+    private AccountActivityQueryService accountActivityQueryService;
+
+    @Value("${fraudlens.query.max-batch-size:1000}")
+    private int maxBatchSize;
+
+    @GetMapping("/{accountId}/activity")
+    public ResponseEntity<?> getActivity(@PathVariable String accountId) {
+        try {
+            Optional<AccountActivityWindow> activity = accountActivityQueryService.currentActivity(accountId);
+            if (activity.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
+                    "accountId", accountId,
+                    "message", "No activity in the current window"
+                ));
+            }
+            return ResponseEntity.ok(activity.get());
+        } catch (InvalidStateStoreException e) {
+            return unavailable(e);
+        } catch (RestClientException e) {
+            return ownerUnreachable(e);
+        }
+    }
+
+    @PostMapping("/activity")
+    public ResponseEntity<?> getActivities(@RequestBody List<String> accountIds,
+                                           @RequestParam(defaultValue = "false") boolean local) {
+        if (accountIds.size() > maxBatchSize) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "message", "Too many accounts in one request",
+                "maxBatchSize", maxBatchSize
+            ));
+        }
+        try {
+            Map<String, AccountActivityWindow> activities = local
+                    ? accountActivityQueryService.localActivity(accountIds)
+                    : accountActivityQueryService.currentActivity(accountIds);
+            return ResponseEntity.ok(activities);
+        } catch (InvalidStateStoreException e) {
+            return unavailable(e);
+        } catch (RestClientException e) {
+            return ownerUnreachable(e);
+        }
+    }
+
+    private ResponseEntity<Map<String, Object>> unavailable(InvalidStateStoreException e) {
+        logger.warn("Account activity not queryable right now: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of(
+            "message", "Account activity is not queryable right now, retry shortly",
+            "error", e.getMessage()
+        ));
+    }
+
+    private ResponseEntity<Map<String, Object>> ownerUnreachable(RestClientException e) {
+        logger.error("Error fetching account activity from the owning instance: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_GATEWAY).body(Map.of(
+            "message", "Owning instance could not be reached",
+            "error", String.valueOf(e.getMessage())
+        ));
+    }
+}
@@ -1,9 +1,13 @@
 package com.fraudlens.controller;
 
+import com.fraudlens.infrastructure.kafka.LoadGenerator;
+import com.fraudlens.infrastructure.kafka.LoadReport;
 import com.fraudlens.infrastructure.kafka.TransactionProducer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -18,6 +22,15 @@ public class DemoController {
     @Autowired
     private TransactionProducer transactionProducer;
 
+    @Autowired
+    private LoadGenerator loadGenerator;
+
+    @Value("${fraudlens.loadgen.rate:10000}")
+    private double defaultLoadRate;
+
+    @Value("${fraudlens.loadgen.duration-seconds:60}")
+    private long defaultLoadSeconds;
+
     @PostMapping("/fraud/{accountId}")
     public ResponseEntity<Map<String, Object>> generateFraudScenario(@PathVariable String accountId) {
         logger.info("🎯 Manual fraud scenario requested for account: {}", accountId);
@@ -68,6 +81,38 @@ public class DemoController {
         }
     }
 
+    @PostMapping("/load")
+    public ResponseEntity<?> startLoad(@RequestParam(required = false) Double rate,
+                                       @RequestParam(required = false) Long seconds) {
+        try {
+            return ResponseEntity.ok(loadGenerator.start(rate != null ? rate : defaultLoadRate,
+                                                         seconds != null ? seconds : defaultLoadSeconds));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                "success", false,
+                "message", e.getMessage(),
+                "current", loadGenerator.report()
+            ));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        }
+    }
+
+    @GetMapping("/load")
+    public ResponseEntity<?> getLoadReport() {
+        LoadReport report = loadGenerator.report();
+        return report != null ? ResponseEntity.ok(report) : ResponseEntity.notFound().build();
+    }
+
+    @DeleteMapping("/load")
+    public ResponseEntity<?> stopLoad() {
+        LoadReport report = loadGenerator.stop();
+        return report != null ? ResponseEntity.ok(report) : ResponseEntity.notFound().build();
+    }
+
     @GetMapping("/status")
     public ResponseEntity<Map<String, Object>> getSystemStatus() {
         return ResponseEntity.ok(Map.of(
@@ -83,7 +128,11 @@ public class DemoController {
             "endpoints", Map.of(
                 "generateFraud", "POST /api/demo/fraud/{accountId}",
                 "generateNormal", "POST /api/demo/normal/{count}",
-                "systemStatus", "GET /api/demo/status"
+                "loadTest", "POST|GET|DELETE /api/demo/load?rate={perSecond}&seconds={seconds}",
+                "systemStatus", "GET /api/demo/status",
+                "accountActivity", "GET /api/accounts/{accountId}/activity",
+                "accountActivityBatch", "POST /api/accounts/activity",
+                "preAuthorization", "POST /api/preauth/score"
             )
         ));
     }
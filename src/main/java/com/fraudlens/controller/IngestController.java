@@ -0,0 +1,44 @@
+package com.fraudlens.controller;
+
+import com.fraudlens.infrastructure.kafka.BulkIngestService;
+import com.fraudlens.infrastructure.kafka.IngestResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.InputStream;
+
+/**
+ * Bulk transaction ingest over HTTP for systems that cannot produce to Kafka.
+ *
+ * The body is a stream of transactions, either NDJSON ({@code application/x-ndjson}) or
+ * length-prefixed JSON records ({@code application/octet-stream}), read and sent as it
+ * arrives. The response carries accepted, rejected and failed counts per batch. Ingest can
+ * stop early: 503 when the producer could not keep up, 400 when the body is cut off or its
+ * framing is invalid; the counts then show how far it got.
+ */
+@RestController
+@RequestMapping("/api/transactions")
+public class IngestController {
+
+    static final String NDJSON = "application/x-ndjson";
+
+    @Autowired
+    private BulkIngestService bulkIngestService;
+
+    @PostMapping(value = "/bulk", consumes = {NDJSON, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<IngestResult> ingest(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                               InputStream body) {
+        BulkIngestService.Format format = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.APPLICATION_OCTET_STREAM)
+                ? BulkIngestService.Format.BINARY : BulkIngestService.Format.NDJSON;
+        IngestResult result = bulkIngestService.ingest(body, format);
+        switch (result.getStatus()) {
+            case BACKPRESSURE: return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(result);
+            case BAD_BODY: return ResponseEntity.badRequest().body(result);
+            default: return ResponseEntity.ok(result);
+        }
+    }
+}
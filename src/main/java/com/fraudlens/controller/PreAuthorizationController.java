@@ -0,0 +1,151 @@
+package com.fraudlens.controller;
+
+import com.fraudlens.domain.model.AccountActivityAggregate;
+import com.fraudlens.domain.model.PreAuthorizationResult;
+import com.fraudlens.domain.model.Transaction;
+import com.fraudlens.domain.service.FraudDetectionService;
+import com.fraudlens.infrastructure.kafka.AccountActivityQueryService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.apache.kafka.streams.errors.InvalidStateStoreException;
+import org.apache.kafka.streams.state.HostInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.client.RestClientException;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Synchronous pre-authorisation scoring: would this transaction trigger a fraud alert if it
+ * were approved now? Nothing is written to Kafka.
+ *
+ * The account's current activity is read from the streams state and the candidate is scored
+ * against it in place. In horizons mode the candidate is added to a copy of the account's panes
+ * instead, so rules over any horizon and over merchants see it.
+ *
+ * The 1 ms p99 objective holds for accounts this instance owns: a local store read plus
+ * scoring. An account owned by another instance costs an HTTP round trip to its owner, so with
+ * {@code fraudlens.preauth.forward-to-owner=false} such requests are refused with 421 and the
+ * owner's address, for the caller to resend there. Every request, whatever its outcome, is
+ * recorded in the {@code fraudlens.preauth.latency} histogram, tagged with the outcome and
+ * whether the account was local or remote.
+ */
+@RestController
+@RequestMapping("/api/preauth")
+public class PreAuthorizationController {
+
+    private static final Logger logger = LoggerFactory.getLogger(PreAuthorizationController.class);
+
+    // 421 Misdirected Request, which HttpStatus does not define
+    private static final int MISDIRECTED_REQUEST = 421;
+
+    private enum Outcome { SCORED, REJECTED, MISDIRECTED, UNAVAILABLE, OWNER_UNREACHABLE }
+
+    @Autowired
+    private AccountActivityQueryService accountActivityQueryService;
+
+    @Autowired
+    private FraudDetectionService fraudDetectionService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${fraudlens.preauth.forward-to-owner:true}")
+    private boolean forwardToOwner = true;
+
+    // By local/remote owner, then outcome; registered up front so the request path only indexes
+    private final Timer[][] latency = new Timer[2][Outcome.values().length];
+
+    @PostConstruct
+    void init() {
+        for (int remote = 0; remote < 2; remote++) {
+            for (Outcome outcome : Outcome.values()) {
+                latency[remote][outcome.ordinal()] = Timer.builder("fraudlens.preauth.latency")
+                        .description("Pre-authorisation time: activity lookup and rule evaluation, or the failure")
+                        .tag("owner", remote == 1 ? "remote" : "local")
+                        .tag("outcome", outcome.name().toLowerCase(Locale.ROOT).replace('_', '-'))
+                        .publishPercentiles(0.5, 0.99, 0.999)
+                        .publishPercentileHistogram()
+                        .serviceLevelObjectives(Duration.ofMillis(1))
+                        .register(meterRegistry);
+            }
+        }
+    }
+
+    private void record(long start, boolean remote, Outcome outcome) {
+        latency[remote ? 1 : 0][outcome.ordinal()].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    // local=true: asked by another instance, so score here against this instance's store and never forward
+    @PostMapping("/score")
+    public ResponseEntity<?> score(@RequestBody Transaction transaction,
+                                   @RequestParam(defaultValue = "false") boolean local) {
+        long start = System.nanoTime();
+        if (!transaction.hasAccountId() || transaction.getAmount() == null) {
+            record(start, false, Outcome.REJECTED);
+            return ResponseEntity.badRequest().body(Map.of(
+                "message", "accountId and amount are required"
+            ));
+        }
+
+        boolean remote = false;
+        try {
+            Optional<HostInfo> owner = local ? Optional.empty()
+                    : accountActivityQueryService.remoteOwner(transaction.getAccountId());
+            remote = owner.isPresent();
+            if (remote && !forwardToOwner) {
+                record(start, true, Outcome.MISDIRECTED);
+                return ResponseEntity.status(MISDIRECTED_REQUEST).body(Map.of(
+                    "message", "Account is owned by another instance, send the request there",
+                    "owner", owner.get().host() + ":" + owner.get().port()
+                ));
+            }
+            PreAuthorizationResult result = accountActivityQueryService.tracksHorizons()
+                    ? horizonScore(transaction, owner) : windowScore(transaction, owner);
+            record(start, remote, Outcome.SCORED);
+            return ResponseEntity.ok(result);
+        } catch (InvalidStateStoreException e) {
+            record(start, remote, Outcome.UNAVAILABLE);
+            logger.warn("Pre-authorisation unavailable for account {}: {}", transaction.getAccountId(), e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of(
+                "message", "Account activity is not queryable right now, retry shortly",
+                "error", e.getMessage()
+            ));
+        } catch (RestClientException e) {
+            record(start, remote, Outcome.OWNER_UNREACHABLE);
+            logger.error("Error fetching activity of account {} from its owner: {}", transaction.getAccountId(), e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_GATEWAY).body(Map.of(
+                "message", "Owning instance could not be reached",
+                "error", String.valueOf(e.getMessage())
+            ));
+        }
+    }
+
+    private PreAuthorizationResult windowScore(Transaction transaction, Optional<HostInfo> owner) {
+        String accountId = transaction.getAccountId();
+        AccountActivityAggregate current = (owner.isPresent()
+                ? accountActivityQueryService.remoteAggregate(owner.get(), accountId)
+                : accountActivityQueryService.localAggregate(accountId))
+                .orElse(null);
+        return fraudDetectionService.preAuthorize(transaction, current);
+    }
+
+    // Horizon and merchant rules need the panes themselves, so the instance that owns them does the scoring
+    private PreAuthorizationResult horizonScore(Transaction transaction, Optional<HostInfo> owner) {
+        if (owner.isPresent()) {
+            return accountActivityQueryService.preAuthorizeOnOwner(owner.get(), transaction);
+        }
+        return fraudDetectionService.preAuthorizeOnHorizons(transaction,
+                accountActivityQueryService.localPanes(transaction.getAccountId()));
+    }
+}
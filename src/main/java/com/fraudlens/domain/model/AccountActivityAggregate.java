@@ -0,0 +1,150 @@
+package com.fraudlens.domain.model;
+
+import com.fraudlens.domain.rules.RuleFeatures;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * Mutable, primitive form of {@link AccountActivityWindow} used as the stream aggregate.
+ *
+ * The aggregator updates one instance in place: the total is an unscaled long at
+ * {@link #getAmountScale()} (cents unless a transaction carries more decimals),
+ * countries are a {@link CountrySet} bitset, and timestamps are epoch millis.
+ * Convert with {@link #toWindow()} wherever the immutable domain view is required.
+ */
+public class AccountActivityAggregate implements RuleFeatures {
+
+    public static final int DEFAULT_AMOUNT_SCALE = 2;
+
+    private String accountId;
+    private long windowStartMillis;
+    private long windowEndMillis;
+    private long lastUpdatedMillis;
+    private long totalUnscaled;
+    private int amountScale = DEFAULT_AMOUNT_SCALE;
+    private int transactionCount;
+    private CountrySet countries;
+
+    public AccountActivityAggregate() {
+        this.countries = new CountrySet();
+    }
+
+    public AccountActivityAggregate(String accountId, long windowStartMillis, long windowEndMillis,
+                                    long lastUpdatedMillis, long totalUnscaled, int amountScale,
+                                    int transactionCount, CountrySet countries) {
+        this.accountId = accountId;
+        this.windowStartMillis = windowStartMillis;
+        this.windowEndMillis = windowEndMillis;
+        this.lastUpdatedMillis = lastUpdatedMillis;
+        this.totalUnscaled = totalUnscaled;
+        this.amountScale = amountScale;
+        this.transactionCount = transactionCount;
+        this.countries = countries != null ? countries : new CountrySet();
+    }
+
+    public static AccountActivityAggregate fromWindow(AccountActivityWindow window) {
+        Money total = Money.of(window.getTotalAmount());
+        int scale = Math.max(DEFAULT_AMOUNT_SCALE, total.getScale());
+        AccountActivityAggregate aggregate = new AccountActivityAggregate();
+        aggregate.accountId = window.getAccountId();
+        aggregate.windowStartMillis = window.getWindowStart().toEpochMilli();
+        aggregate.windowEndMillis = window.getWindowEnd().toEpochMilli();
+        aggregate.lastUpdatedMillis = window.getLastUpdated().toEpochMilli();
+        aggregate.totalUnscaled = Money.rescale(total.getUnits(), total.getScale(), scale);
+        aggregate.amountScale = scale;
+        aggregate.transactionCount = window.getTransactionCount();
+        aggregate.countries = CountrySet.of(window.getCountries());
+        return aggregate;
+    }
+
+    /** True until the first transaction sets the account and window bounds */
+    public boolean isEmpty() {
+        return accountId == null || accountId.isEmpty();
+    }
+
+    public void start(String accountId, long windowStartMillis, long windowEndMillis) {
+        this.accountId = accountId;
+        this.windowStartMillis = windowStartMillis;
+        this.windowEndMillis = windowEndMillis;
+    }
+
+    /** Sets the window bounds, e.g. from the key of a windowed aggregate */
+    public AccountActivityAggregate withWindow(long windowStartMillis, long windowEndMillis) {
+        this.windowStartMillis = windowStartMillis;
+        this.windowEndMillis = windowEndMillis;
+        return this;
+    }
+
+    /**
+     * Adds one transaction in place. The amount and country are resolved before anything
+     * is mutated, so an amount that does not fit leaves the aggregate unchanged. The last-updated
+     * time is the newest event time seen; an older or missing ({@code Long.MIN_VALUE}) one leaves it.
+     */
+    public AccountActivityAggregate add(Money amount, String country, long timestampMillis) {
+        int scale = Math.max(amountScale, amount.getScale());
+        long total = Math.addExact(Money.rescale(totalUnscaled, amountScale, scale),
+                                   Money.rescale(amount.getUnits(), amount.getScale(), scale));
+        int countryId = country != null ? CountryDictionary.idOf(country) : -1;
+
+        totalUnscaled = total;
+        amountScale = scale;
+        transactionCount++;
+        if (countryId >= 0) {
+            countries.addId(countryId);
+        }
+        lastUpdatedMillis = Math.max(lastUpdatedMillis, timestampMillis);
+        return this;
+    }
+
+    @Override
+    public int getCountryCount() {
+        return countries.cardinality();
+    }
+
+    public Set<String> getCountries() {
+        return countries.toCodes();
+    }
+
+    public Money getTotal() {
+        return Money.ofUnits(totalUnscaled, amountScale);
+    }
+
+    public BigDecimal getTotalAmount() {
+        return BigDecimal.valueOf(totalUnscaled, amountScale);
+    }
+
+    public AccountActivityWindow toWindow() {
+        return new AccountActivityWindow(accountId,
+                                         Instant.ofEpochMilli(windowStartMillis),
+                                         Instant.ofEpochMilli(windowEndMillis),
+                                         getTotalAmount(),
+                                         transactionCount,
+                                         getCountries(),
+                                         Instant.ofEpochMilli(lastUpdatedMillis));
+    }
+
+    // Getters
+    public String getAccountId() { return accountId; }
+    public long getWindowStartMillis() { return windowStartMillis; }
+    public long getWindowEndMillis() { return windowEndMillis; }
+    public long getLastUpdatedMillis() { return lastUpdatedMillis; }
+    @Override public long getTotalUnscaled() { return totalUnscaled; }
+    @Override public int getAmountScale() { return amountScale; }
+    @Override public int getTransactionCount() { return transactionCount; }
+    public CountrySet getCountrySet() { return countries; }
+
+    @Override
+    public String toString() {
+        return "AccountActivityAggregate{" +
+                "accountId='" + accountId + '\'' +
+                ", windowStartMillis=" + windowStartMillis +
+                ", windowEndMillis=" + windowEndMillis +
+                ", totalAmount=" + getTotalAmount() +
+                ", transactionCount=" + transactionCount +
+                ", countries=" + countries +
+                ", lastUpdatedMillis=" + lastUpdatedMillis +
+                '}';
+    }
+}
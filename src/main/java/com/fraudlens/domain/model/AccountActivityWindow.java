@@ -6,11 +6,17 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
 
 public class AccountActivityWindow {
+
+    /** Minimum window total for the multi-country rule (€1000.00) */
+    public static final Money AMOUNT_THRESHOLD = Money.ofUnits(100_000L, 2);
+
+    private static final BigDecimal AMOUNT_THRESHOLD_DECIMAL = AMOUNT_THRESHOLD.toBigDecimal();
     
     @JsonProperty("accountId")
     private final String accountId;
@@ -96,7 +102,7 @@ public class AccountActivityWindow {
 
     @JsonIgnore
     public boolean exceedsAmountThreshold() {
-        return totalAmount.compareTo(new BigDecimal("1000.00")) >= 0;
+        return totalAmount.compareTo(AMOUNT_THRESHOLD_DECIMAL) >= 0;
     }
 
     @JsonIgnore
@@ -109,6 +115,12 @@ public class AccountActivityWindow {
         return countries.size();
     }
 
+    /** Total as fixed-point money; throws ArithmeticException if it does not fit a long */
+    @JsonIgnore
+    public Money getTotal() {
+        return Money.of(totalAmount);
+    }
+
     @JsonIgnore
     public boolean isWindowExpired(Instant currentTime) {
         return currentTime.isAfter(windowEnd);
@@ -120,7 +132,7 @@ public class AccountActivityWindow {
     public Instant getWindowEnd() { return windowEnd; }
     public BigDecimal getTotalAmount() { return totalAmount; }
     public int getTransactionCount() { return transactionCount; }
-    public Set<String> getCountries() { return new HashSet<>(countries); }
+    public Set<String> getCountries() { return Collections.unmodifiableSet(countries); }
     public Instant getLastUpdated() { return lastUpdated; }
 
     @Override
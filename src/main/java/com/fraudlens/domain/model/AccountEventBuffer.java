@@ -0,0 +1,229 @@
+package com.fraudlens.domain.model;
+
+import com.fraudlens.domain.rules.RuleFeatures;
+
+import java.util.Arrays;
+
+/**
+ * Per-account ring buffer of recent transactions for sliding-window detection.
+ *
+ * Holds the events of the window [newest - size, newest], both ends included as in Kafka's
+ * sliding windows, ordered by event time, with running aggregates that are updated
+ * incrementally: adding an event and evicting the ones that slid out cost O(1) amortised,
+ * so the window can move on every record instead of in fixed buckets. Events older than
+ * the current window are rejected. A buffer that empties starts over as a new one would.
+ *
+ * Amounts are minor units at a shared scale and countries are {@link CountryDictionary}
+ * ids with a per-id event count, so the distinct-country count is maintained directly.
+ */
+public class AccountEventBuffer implements RuleFeatures {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private String accountId;
+    private long windowSizeMillis;
+
+    // Ring storage: events occupy [head, head + size) modulo capacity, oldest first
+    private long[] timestamps;
+    private long[] amounts;
+    private int[] countries;
+    private int head;
+    private int size;
+
+    private long newestTimestamp = Long.MIN_VALUE;
+    private long lastUpdatedMillis;
+    private long totalUnits;
+    private int amountScale = AccountActivityAggregate.DEFAULT_AMOUNT_SCALE;
+    private int[] countryCounts = new int[0];
+    private int distinctCountries;
+
+    public AccountEventBuffer(String accountId, long windowSizeMillis) {
+        this(accountId, windowSizeMillis, INITIAL_CAPACITY);
+    }
+
+    private AccountEventBuffer(String accountId, long windowSizeMillis, int capacity) {
+        this.accountId = accountId;
+        this.windowSizeMillis = windowSizeMillis;
+        this.timestamps = new long[capacity];
+        this.amounts = new long[capacity];
+        this.countries = new int[capacity];
+    }
+
+    /**
+     * Evicts everything the event pushes out of the window, then adds it.
+     *
+     * @return false (and no change) if the event is already older than the window
+     */
+    public boolean add(long timestamp, Money amount, String country, long updatedMillis) {
+        if (size > 0 && timestamp < newestTimestamp - windowSizeMillis) {
+            return false;
+        }
+        long newest = Math.max(newestTimestamp, timestamp);
+        evictBefore(newest - windowSizeMillis);
+        // Convert and check for overflow before anything else is mutated
+        int scale = Math.max(amountScale, amount.getScale());
+        long units = Money.rescale(amount.getUnits(), amount.getScale(), scale);
+        long newTotal = Math.addExact(Money.rescale(totalUnits, amountScale, scale), units);
+        int countryId = country != null ? CountryDictionary.idOf(country) : -1;
+        if (scale != amountScale) {
+            rescaleAll(scale);
+        }
+        totalUnits = newTotal;
+
+        if (size == timestamps.length) {
+            grow();
+        }
+        // Walk back from the tail for the rare out-of-order event; in-order events append directly
+        int position = size;
+        while (position > 0 && timestamps[index(position - 1)] > timestamp) {
+            int from = index(position - 1);
+            int to = index(position);
+            timestamps[to] = timestamps[from];
+            amounts[to] = amounts[from];
+            countries[to] = countries[from];
+            position--;
+        }
+        int slot = index(position);
+        timestamps[slot] = timestamp;
+        amounts[slot] = units;
+        countries[slot] = countryId;
+        size++;
+        countCountry(countryId, 1);
+
+        newestTimestamp = newest;
+        lastUpdatedMillis = updatedMillis;
+        return true;
+    }
+
+    /** Drops events older than {@code cutoff}, keeping any at exactly the cutoff; used on add and by sweeps */
+    public int evictBefore(long cutoff) {
+        int evicted = 0;
+        while (size > 0 && timestamps[head] < cutoff) {
+            totalUnits -= amounts[head];
+            countCountry(countries[head], -1);
+            head = index(1);
+            size--;
+            evicted++;
+        }
+        if (size == 0) {
+            head = 0;
+            totalUnits = 0L;
+            amountScale = AccountActivityAggregate.DEFAULT_AMOUNT_SCALE;
+        }
+        return evicted;
+    }
+
+    /** Snapshot of the current window as an aggregate, for detection and alerts */
+    public AccountActivityAggregate toAggregate() {
+        CountrySet countrySet = new CountrySet();
+        for (int id = 0; id < countryCounts.length; id++) {
+            if (countryCounts[id] > 0) {
+                countrySet.addId(id);
+            }
+        }
+        return new AccountActivityAggregate(accountId, getWindowStartMillis(), newestTimestamp, lastUpdatedMillis,
+                                            totalUnits, amountScale, size, countrySet);
+    }
+
+    private void countCountry(int countryId, int delta) {
+        if (countryId < 0) {
+            return;
+        }
+        if (countryId >= countryCounts.length) {
+            countryCounts = Arrays.copyOf(countryCounts, Math.max(countryId + 1, countryCounts.length * 2));
+        }
+        int before = countryCounts[countryId];
+        countryCounts[countryId] = before + delta;
+        if (before == 0) {
+            distinctCountries++;
+        } else if (before + delta == 0) {
+            distinctCountries--;
+        }
+    }
+
+    private void rescaleAll(int scale) {
+        totalUnits = Money.rescale(totalUnits, amountScale, scale);
+        for (int i = 0; i < size; i++) {
+            int slot = index(i);
+            amounts[slot] = Money.rescale(amounts[slot], amountScale, scale);
+        }
+        amountScale = scale;
+    }
+
+    private void grow() {
+        int capacity = timestamps.length * 2;
+        long[] newTimestamps = new long[capacity];
+        long[] newAmounts = new long[capacity];
+        int[] newCountries = new int[capacity];
+        for (int i = 0; i < size; i++) {
+            int slot = index(i);
+            newTimestamps[i] = timestamps[slot];
+            newAmounts[i] = amounts[slot];
+            newCountries[i] = countries[slot];
+        }
+        timestamps = newTimestamps;
+        amounts = newAmounts;
+        countries = newCountries;
+        head = 0;
+    }
+
+    private int index(int offset) {
+        int slot = head + offset;
+        return slot >= timestamps.length ? slot - timestamps.length : slot;
+    }
+
+    // Event access in time order, for serialization
+    public long timestampAt(int i) { return timestamps[index(i)]; }
+    public long amountAt(int i) { return amounts[index(i)]; }
+    public int countryAt(int i) { return countries[index(i)]; }
+
+    /** Rebuilds a buffer from serialized events (oldest first), recomputing the running aggregates */
+    public static AccountEventBuffer restore(String accountId, long windowSizeMillis, long newestTimestamp,
+                                             long lastUpdatedMillis, int amountScale,
+                                             long[] timestamps, long[] amounts, int[] countries) {
+        int count = timestamps.length;
+        AccountEventBuffer buffer = new AccountEventBuffer(accountId, windowSizeMillis,
+                                                           Math.max(INITIAL_CAPACITY, Integer.highestOneBit(Math.max(1, count)) << 1));
+        buffer.amountScale = amountScale;
+        for (int i = 0; i < count; i++) {
+            buffer.timestamps[i] = timestamps[i];
+            buffer.amounts[i] = amounts[i];
+            buffer.countries[i] = countries[i];
+            buffer.totalUnits = Math.addExact(buffer.totalUnits, amounts[i]);
+            buffer.countCountry(countries[i], 1);
+        }
+        buffer.size = count;
+        buffer.newestTimestamp = newestTimestamp;
+        buffer.lastUpdatedMillis = lastUpdatedMillis;
+        return buffer;
+    }
+
+    // Getters
+    public String getAccountId() { return accountId; }
+    public long getWindowSizeMillis() { return windowSizeMillis; }
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+    public long getNewestTimestamp() { return newestTimestamp; }
+    public long getWindowStartMillis() { return newestTimestamp - windowSizeMillis; }
+    public long getLastUpdatedMillis() { return lastUpdatedMillis; }
+    public long getTotalUnits() { return totalUnits; }
+    @Override public int getAmountScale() { return amountScale; }
+    public int getDistinctCountries() { return distinctCountries; }
+    public Money getTotal() { return Money.ofUnits(totalUnits, amountScale); }
+
+    // Rule features
+    @Override public long getTotalUnscaled() { return totalUnits; }
+    @Override public int getCountryCount() { return distinctCountries; }
+    @Override public int getTransactionCount() { return size; }
+
+    @Override
+    public String toString() {
+        return "AccountEventBuffer{" +
+                "accountId='" + accountId + '\'' +
+                ", events=" + size +
+                ", newestTimestamp=" + newestTimestamp +
+                ", total=" + getTotal() +
+                ", distinctCountries=" + distinctCountries +
+                '}';
+    }
+}
@@ -0,0 +1,732 @@
+package com.fraudlens.domain.model;
+
+import com.fraudlens.domain.rules.RuleFeatures;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Per-account activity over several trailing horizons (e.g. 1m, 5m, 1h, 24h), all derived
+ * from one set of fine-grained panes.
+ *
+ * A transaction is added to the pane of its event time. Every horizon keeps running
+ * aggregates (amount, count, per-country event counts) over the panes it covers: the
+ * newest pane and the ones before it up to the horizon's length. An event updates its
+ * pane and each horizon covering it; when the newest pane moves forward, each horizon
+ * subtracts the panes that slid out of it. Nothing is recomputed from scratch, and panes
+ * older than the longest horizon are dropped. Horizons are pane-aligned, so a horizon
+ * covers between its length minus one pane and its full length of event time.
+ *
+ * The plain rule features are those of the detection horizon; the others are reached
+ * through {@link #horizon(long)}.
+ *
+ * With a sketch block size, horizons at least that long count distinct countries and
+ * merchants approximately instead: each block of event time keeps a fixed-size
+ * {@link HyperLogLog} per dimension, and a horizon's estimate merges the blocks it covers
+ * (block-aligned, so between its length minus one block and its full length). Panes then
+ * keep their exact countries only as far back as the longest exact horizon. Merchants are
+ * only counted by sketched horizons.
+ *
+ * Blocks also keep their amount and event count, and horizons longer than one block take
+ * their totals from the blocks too, block-aligned like their distinct counts. Panes are
+ * then only kept as far back as the longest horizon of at most one block: with 1m panes,
+ * 1h blocks and horizons up to 24h, 60 panes and 25 blocks per account instead of 1440
+ * panes. Events older than the panes still count in the blocks.
+ */
+public class AccountHorizonPanes implements RuleFeatures {
+
+    private static final int INITIAL_CAPACITY = 8;
+    private static final long[] NO_COUNTRIES = new long[0];
+
+    private final String accountId;
+    private final long paneSizeMillis;
+    private final long[] horizonMillis;
+    private final int detectionIndex;
+    private final Horizon[] views;
+
+    // Panes occupy [head, tail), oldest first, at most one per pane start
+    private long[] paneStarts;
+    private long[] paneUnits;
+    private int[] paneCounts;
+    private long[][] paneCountries; // per pane: country id << 32 | event count
+    private int head;
+    private int tail;
+
+    // Per horizon: index of its oldest pane and running aggregates over [first, tail)
+    private final int[] first;
+    private final long[] totalUnits;
+    private final int[] counts;
+    private final int[][] countryCounts;
+    private final int[] distinctCountries;
+
+    // Horizons [0, exactHorizons) count exact countries; the longer ones use the sketch blocks,
+    // a ring indexed by block number covering the longest horizon plus one block for late events.
+    // Horizons [0, paneHorizons) total the panes, the longer ones the blocks
+    private final long sketchBlockMillis;
+    private final int exactHorizons;
+    private final int paneHorizons;
+    private final long[] blockStarts;
+    private final long[] blockUnits;
+    private final int[] blockCounts;
+    private final HyperLogLog[] countryBlocks;
+    private final HyperLogLog[] merchantBlocks;
+    private final int[] sketchedCountries;
+    private final int[] sketchedMerchants;
+    private final long[] blockTotalUnits;
+    private final int[] blockTotalCounts;
+    private boolean blocksStale = true;
+
+    private long newestPaneStart = Long.MIN_VALUE;
+    private long newestTimestamp = Long.MIN_VALUE;
+    private long lastUpdatedMillis;
+    private int amountScale = AccountActivityAggregate.DEFAULT_AMOUNT_SCALE;
+
+    /**
+     * @param horizonMillis distinct horizons, ascending, each a multiple of the pane size
+     * @param detectionHorizonMillis the horizon behind the plain rule features; one of the horizons
+     */
+    public AccountHorizonPanes(String accountId, long paneSizeMillis, long[] horizonMillis, long detectionHorizonMillis) {
+        this(accountId, paneSizeMillis, horizonMillis, detectionHorizonMillis, 0L, INITIAL_CAPACITY);
+    }
+
+    /**
+     * @param sketchBlockMillis block size for approximate distinct counts; horizons at least this
+     *        long use them. 0 for exact counts on every horizon
+     */
+    public AccountHorizonPanes(String accountId, long paneSizeMillis, long[] horizonMillis, long detectionHorizonMillis,
+                               long sketchBlockMillis) {
+        this(accountId, paneSizeMillis, horizonMillis, detectionHorizonMillis, sketchBlockMillis, INITIAL_CAPACITY);
+    }
+
+    private AccountHorizonPanes(String accountId, long paneSizeMillis, long[] horizonMillis,
+                                long detectionHorizonMillis, long sketchBlockMillis, int capacity) {
+        validate(paneSizeMillis, horizonMillis, sketchBlockMillis);
+        int detection = Arrays.binarySearch(horizonMillis, detectionHorizonMillis);
+        if (detection < 0) {
+            throw new IllegalArgumentException("Detection horizon " + detectionHorizonMillis + " ms is not one of the horizons");
+        }
+        if (sketchBlockMillis > 0 && detectionHorizonMillis >= sketchBlockMillis) {
+            throw new IllegalArgumentException("The detection horizon must be shorter than the " + sketchBlockMillis
+                                               + " ms sketch block, alerts need its exact countries");
+        }
+        this.accountId = accountId;
+        this.paneSizeMillis = paneSizeMillis;
+        this.horizonMillis = horizonMillis.clone();
+        this.detectionIndex = detection;
+
+        int horizons = horizonMillis.length;
+        this.views = new Horizon[horizons];
+        for (int h = 0; h < horizons; h++) {
+            views[h] = new Horizon(h);
+        }
+        this.first = new int[horizons];
+        this.totalUnits = new long[horizons];
+        this.counts = new int[horizons];
+        this.countryCounts = new int[horizons][0];
+        this.distinctCountries = new int[horizons];
+
+        this.sketchBlockMillis = sketchBlockMillis;
+        int exact = 0;
+        while (exact < horizons && (sketchBlockMillis <= 0 || horizonMillis[exact] < sketchBlockMillis)) {
+            exact++;
+        }
+        this.exactHorizons = exact;
+        int paned = exact;
+        while (paned < horizons && horizonMillis[paned] <= sketchBlockMillis) {
+            paned++;
+        }
+        this.paneHorizons = paned;
+        int blocks = exact < horizons ? (int) (horizonMillis[horizons - 1] / sketchBlockMillis) + 1 : 0;
+        this.blockStarts = new long[blocks];
+        Arrays.fill(blockStarts, Long.MIN_VALUE);
+        this.blockUnits = new long[blocks];
+        this.blockCounts = new int[blocks];
+        this.countryBlocks = new HyperLogLog[blocks];
+        this.merchantBlocks = new HyperLogLog[blocks];
+        this.sketchedCountries = new int[horizons];
+        this.sketchedMerchants = new int[horizons];
+        this.blockTotalUnits = new long[horizons];
+        this.blockTotalCounts = new int[horizons];
+
+        this.paneStarts = new long[capacity];
+        this.paneUnits = new long[capacity];
+        this.paneCounts = new int[capacity];
+        this.paneCountries = new long[capacity][];
+    }
+
+    /** Horizons must be positive, ascending and whole multiples of the pane size */
+    public static void validate(long paneSizeMillis, long[] horizonMillis) {
+        validate(paneSizeMillis, horizonMillis, 0L);
+    }
+
+    /** ... and the sketch block a multiple of the pane size, dividing every horizon it applies to */
+    public static void validate(long paneSizeMillis, long[] horizonMillis, long sketchBlockMillis) {
+        if (sketchBlockMillis < 0 || (sketchBlockMillis > 0 && sketchBlockMillis % paneSizeMillis != 0)) {
+            throw new IllegalArgumentException("Sketch block " + sketchBlockMillis + " ms is not a multiple of the "
+                                               + paneSizeMillis + " ms pane");
+        }
+        for (long horizon : horizonMillis) {
+            if (sketchBlockMillis > 0 && horizon >= sketchBlockMillis && horizon % sketchBlockMillis != 0) {
+                throw new IllegalArgumentException("Horizon " + horizon + " ms is not a multiple of the "
+                                                   + sketchBlockMillis + " ms sketch block");
+            }
+        }
+        if (paneSizeMillis <= 0) {
+            throw new IllegalArgumentException("Pane size must be positive");
+        }
+        if (horizonMillis.length == 0) {
+            throw new IllegalArgumentException("At least one horizon is needed");
+        }
+        for (int h = 0; h < horizonMillis.length; h++) {
+            if (horizonMillis[h] <= 0 || horizonMillis[h] % paneSizeMillis != 0) {
+                throw new IllegalArgumentException("Horizon " + horizonMillis[h] + " ms is not a multiple of the "
+                                                   + paneSizeMillis + " ms pane");
+            }
+            if (h > 0 && horizonMillis[h] <= horizonMillis[h - 1]) {
+                throw new IllegalArgumentException("Horizons must be distinct and ascending");
+            }
+        }
+    }
+
+    /**
+     * Adds an event to its pane and to every horizon that covers it.
+     *
+     * @return false (and no change) if the event is older than the longest horizon
+     */
+    public boolean add(long timestamp, Money amount, String country, long updatedMillis) {
+        return add(timestamp, amount, country, null, updatedMillis);
+    }
+
+    /** Same, also counting the merchant in the sketched horizons */
+    public boolean add(long timestamp, Money amount, String country, String merchant, long updatedMillis) {
+        long paneStart = Math.floorDiv(timestamp, paneSizeMillis) * paneSizeMillis;
+        int longest = horizonMillis.length - 1;
+        if (newestPaneStart != Long.MIN_VALUE && paneStart <= newestPaneStart - horizonMillis[longest]) {
+            return false;
+        }
+        int countryId = country != null ? CountryDictionary.idOf(country) : -1;
+        // Advancing first lets an account whose horizons have all expired start over at the default scale
+        boolean newest = newestPaneStart == Long.MIN_VALUE || paneStart > newestPaneStart;
+        if (newest) {
+            advance(paneStart);
+        }
+        // Convert and check for overflow before the event is counted anywhere
+        int scale = Math.max(amountScale, amount.getScale());
+        long units = Money.rescale(amount.getUnits(), amount.getScale(), scale);
+        Math.addExact(Money.rescale(totalUnits[paneHorizons - 1], amountScale, scale), units);
+        if (scale != amountScale) {
+            rescaleAll(scale);
+        }
+
+        // Late events before the oldest pane only count in their block
+        int slot = -1;
+        if (newest) {
+            slot = appendPane(paneStart);
+        } else if (paneStart > newestPaneStart - horizonMillis[paneHorizons - 1]) {
+            slot = paneFor(paneStart);
+        }
+        if (slot >= 0) {
+            paneUnits[slot] += units;
+            paneCounts[slot]++;
+            if (slot >= first[exactHorizons - 1]) {
+                paneCountries[slot] = countPaneCountry(paneCountries[slot], countryId);
+            }
+            for (int h = 0; h < paneHorizons; h++) {
+                if (slot >= first[h]) {
+                    totalUnits[h] += units;
+                    counts[h]++;
+                    if (h < exactHorizons) {
+                        countCountry(h, countryId, 1);
+                    }
+                }
+            }
+        }
+        if (blockStarts.length > 0) {
+            addToBlock(timestamp, units, countryId, merchant);
+        }
+
+        newestTimestamp = Math.max(newestTimestamp, timestamp);
+        lastUpdatedMillis = updatedMillis;
+        return true;
+    }
+
+    /** Moves the horizons forward to end at {@code timestamp}'s pane; used to read current activity */
+    public void advanceTo(long timestamp) {
+        long paneStart = Math.floorDiv(timestamp, paneSizeMillis) * paneSizeMillis;
+        if (newestPaneStart != Long.MIN_VALUE && paneStart > newestPaneStart) {
+            advance(paneStart);
+        }
+    }
+
+    private void addToBlock(long timestamp, long units, int countryId, String merchant) {
+        long blockStart = Math.floorDiv(timestamp, sketchBlockMillis) * sketchBlockMillis;
+        int slot = blockSlot(blockStart);
+        if (blockStarts[slot] != blockStart) {
+            // The slot held a block too old for any horizon; reuse its sketches
+            blockStarts[slot] = blockStart;
+            blockUnits[slot] = 0L;
+            blockCounts[slot] = 0;
+            if (countryBlocks[slot] == null) {
+                countryBlocks[slot] = new HyperLogLog();
+                merchantBlocks[slot] = new HyperLogLog();
+            } else {
+                countryBlocks[slot].clear();
+                merchantBlocks[slot].clear();
+            }
+        }
+        blockUnits[slot] += units;
+        blockCounts[slot]++;
+        if (countryId >= 0) {
+            countryBlocks[slot].add(countryId);
+        }
+        if (merchant != null) {
+            merchantBlocks[slot].add(merchant);
+        }
+        blocksStale = true;
+    }
+
+    private int blockSlot(long blockStart) {
+        return (int) Math.floorMod(blockStart / sketchBlockMillis, (long) blockStarts.length);
+    }
+
+    // Every block-based horizon's estimates and totals in one pass over the blocks, newest first
+    private void refreshBlocks() {
+        if (!blocksStale) {
+            return;
+        }
+        blocksStale = false;
+        if (newestPaneStart == Long.MIN_VALUE) {
+            return;
+        }
+        HyperLogLog countries = new HyperLogLog();
+        HyperLogLog merchants = new HyperLogLog();
+        long units = 0L;
+        int events = 0;
+        long newestBlock = Math.floorDiv(newestPaneStart, sketchBlockMillis) * sketchBlockMillis;
+        int h = exactHorizons;
+        for (long block = newestBlock; h < horizonMillis.length; block -= sketchBlockMillis) {
+            while (h < horizonMillis.length && block <= newestBlock - horizonMillis[h]) {
+                sketchedCountries[h] = (int) countries.estimate();
+                sketchedMerchants[h] = (int) merchants.estimate();
+                blockTotalUnits[h] = units;
+                blockTotalCounts[h] = events;
+                h++;
+            }
+            int slot = blockSlot(block);
+            if (h < horizonMillis.length && blockStarts[slot] == block) {
+                countries.merge(countryBlocks[slot]);
+                merchants.merge(merchantBlocks[slot]);
+                units += blockUnits[slot];
+                events += blockCounts[slot];
+            }
+        }
+    }
+
+    private int countryCount(int h) {
+        if (h < exactHorizons) {
+            return distinctCountries[h];
+        }
+        refreshBlocks();
+        return sketchedCountries[h];
+    }
+
+    private int merchantCount(int h) {
+        if (h < exactHorizons) {
+            return UNTRACKED;
+        }
+        refreshBlocks();
+        return sketchedMerchants[h];
+    }
+
+    private long horizonUnits(int h) {
+        if (h < paneHorizons) {
+            return totalUnits[h];
+        }
+        refreshBlocks();
+        return blockTotalUnits[h];
+    }
+
+    private int horizonCount(int h) {
+        if (h < paneHorizons) {
+            return counts[h];
+        }
+        refreshBlocks();
+        return blockTotalCounts[h];
+    }
+
+    // Each pane horizon drops the panes that are no longer within its length of the new newest pane
+    private void advance(long paneStart) {
+        newestPaneStart = paneStart;
+        blocksStale = true;
+        for (int h = 0; h < paneHorizons; h++) {
+            long cutoff = paneStart - horizonMillis[h];
+            while (first[h] < tail && paneStarts[first[h]] <= cutoff) {
+                int slot = first[h];
+                totalUnits[h] -= paneUnits[slot];
+                counts[h] -= paneCounts[slot];
+                if (h < exactHorizons) {
+                    for (long entry : paneCountries[slot]) {
+                        countCountry(h, (int) (entry >>> 32), -(int) entry);
+                    }
+                    if (h == exactHorizons - 1) {
+                        // Only sketched horizons cover this pane now, they need no exact countries
+                        paneCountries[slot] = NO_COUNTRIES;
+                    }
+                }
+                first[h]++;
+            }
+        }
+        // The longest pane horizon reaches back furthest; panes before its first are not needed by any
+        int longest = paneHorizons - 1;
+        for (int slot = head; slot < first[longest]; slot++) {
+            paneCountries[slot] = null;
+        }
+        head = first[longest];
+        if (head == tail) {
+            head = 0;
+            tail = 0;
+            Arrays.fill(first, 0);
+            if (!hasLiveBlocks()) {
+                amountScale = AccountActivityAggregate.DEFAULT_AMOUNT_SCALE;
+            }
+        }
+    }
+
+    private boolean hasLiveBlocks() {
+        for (int slot = 0; slot < blockStarts.length; slot++) {
+            if (hasBlock(slot)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int appendPane(long paneStart) {
+        if (tail == paneStarts.length) {
+            makeRoom();
+        }
+        int slot = tail++;
+        paneStarts[slot] = paneStart;
+        paneUnits[slot] = 0L;
+        paneCounts[slot] = 0;
+        paneCountries[slot] = NO_COUNTRIES;
+        return slot;
+    }
+
+    // Late event within the longest horizon: its pane, inserted in order if it had no events yet
+    private int paneFor(long paneStart) {
+        int position = tail;
+        while (position > head && paneStarts[position - 1] > paneStart) {
+            position--;
+        }
+        if (position > head && paneStarts[position - 1] == paneStart) {
+            return position - 1;
+        }
+        if (tail == paneStarts.length) {
+            position -= head;
+            makeRoom();
+        }
+        System.arraycopy(paneStarts, position, paneStarts, position + 1, tail - position);
+        System.arraycopy(paneUnits, position, paneUnits, position + 1, tail - position);
+        System.arraycopy(paneCounts, position, paneCounts, position + 1, tail - position);
+        System.arraycopy(paneCountries, position, paneCountries, position + 1, tail - position);
+        tail++;
+        for (int h = 0; h < paneHorizons; h++) {
+            // Panes before the insertion point are older, so a horizon not covering the new pane starts after it
+            if (paneStart <= newestPaneStart - horizonMillis[h]) {
+                first[h]++;
+            }
+        }
+        paneStarts[position] = paneStart;
+        paneUnits[position] = 0L;
+        paneCounts[position] = 0;
+        paneCountries[position] = NO_COUNTRIES;
+        return position;
+    }
+
+    // Compacts live panes to the front, growing the arrays only if they are mostly in use
+    private void makeRoom() {
+        int live = tail - head;
+        int capacity = live * 2 > paneStarts.length ? paneStarts.length * 2 : paneStarts.length;
+        long[] starts = new long[capacity];
+        long[] units = new long[capacity];
+        int[] paneEventCounts = new int[capacity];
+        long[][] countries = new long[capacity][];
+        System.arraycopy(paneStarts, head, starts, 0, live);
+        System.arraycopy(paneUnits, head, units, 0, live);
+        System.arraycopy(paneCounts, head, paneEventCounts, 0, live);
+        System.arraycopy(paneCountries, head, countries, 0, live);
+        paneStarts = starts;
+        paneUnits = units;
+        paneCounts = paneEventCounts;
+        paneCountries = countries;
+        for (int h = 0; h < first.length; h++) {
+            first[h] -= head;
+        }
+        tail = live;
+        head = 0;
+    }
+
+    private static long[] countPaneCountry(long[] entries, int countryId) {
+        if (countryId < 0) {
+            return entries;
+        }
+        for (int i = 0; i < entries.length; i++) {
+            if ((int) (entries[i] >>> 32) == countryId) {
+                entries[i]++;
+                return entries;
+            }
+        }
+        long[] grown = Arrays.copyOf(entries, entries.length + 1);
+        grown[entries.length] = ((long) countryId << 32) | 1L;
+        return grown;
+    }
+
+    private void countCountry(int h, int countryId, int delta) {
+        if (countryId < 0) {
+            return;
+        }
+        int[] perCountry = countryCounts[h];
+        if (countryId >= perCountry.length) {
+            perCountry = Arrays.copyOf(perCountry, Math.max(countryId + 1, perCountry.length * 2));
+            countryCounts[h] = perCountry;
+        }
+        int before = perCountry[countryId];
+        perCountry[countryId] = before + delta;
+        if (before == 0) {
+            distinctCountries[h]++;
+        } else if (before + delta == 0) {
+            distinctCountries[h]--;
+        }
+    }
+
+    private void rescaleAll(int scale) {
+        for (int h = 0; h < totalUnits.length; h++) {
+            totalUnits[h] = Money.rescale(totalUnits[h], amountScale, scale);
+        }
+        for (int slot = head; slot < tail; slot++) {
+            paneUnits[slot] = Money.rescale(paneUnits[slot], amountScale, scale);
+        }
+        for (int slot = 0; slot < blockStarts.length; slot++) {
+            if (hasBlock(slot)) {
+                blockUnits[slot] = Money.rescale(blockUnits[slot], amountScale, scale);
+            } else {
+                // Dead blocks are reset when their slot is reused
+                blockStarts[slot] = Long.MIN_VALUE;
+            }
+        }
+        amountScale = scale;
+        blocksStale = true;
+    }
+
+    /** Snapshot of the detection horizon as an aggregate, for alerts */
+    public AccountActivityAggregate toAggregate() {
+        return views[detectionIndex].toAggregate();
+    }
+
+    /** The horizon of exactly this length, or null if it is not tracked */
+    @Override
+    public Horizon horizon(long horizonMillis) {
+        for (int h = 0; h < this.horizonMillis.length; h++) {
+            if (this.horizonMillis[h] == horizonMillis) {
+                return views[h];
+            }
+        }
+        return null;
+    }
+
+    public Horizon[] getHorizons() {
+        return views.clone();
+    }
+
+    /** One horizon's view of the panes; reflects later updates */
+    public final class Horizon implements RuleFeatures {
+
+        private final int index;
+
+        private Horizon(int index) {
+            this.index = index;
+        }
+
+        public Duration getLength() { return Duration.ofMillis(horizonMillis[index]); }
+        public Money getTotal() { return Money.ofUnits(horizonUnits(index), amountScale); }
+        /** The exact countries; empty for sketched horizons, which only estimate their number */
+        public Set<String> getCountries() { return countrySet().toCodes(); }
+        public boolean isSketched() { return index >= exactHorizons; }
+        /** True if the totals come from whole blocks rather than panes */
+        public boolean isBlockAligned() { return index >= paneHorizons; }
+        public long getWindowEndMillis() { return newestPaneStart + paneSizeMillis; }
+
+        public long getWindowStartMillis() {
+            if (index < paneHorizons) {
+                return getWindowEndMillis() - horizonMillis[index];
+            }
+            long newestBlock = Math.floorDiv(newestPaneStart, sketchBlockMillis) * sketchBlockMillis;
+            return newestBlock + sketchBlockMillis - horizonMillis[index];
+        }
+
+        @Override public long getTotalUnscaled() { return horizonUnits(index); }
+        @Override public int getAmountScale() { return amountScale; }
+        @Override public int getCountryCount() { return countryCount(index); }
+        @Override public int getTransactionCount() { return horizonCount(index); }
+        @Override public int getMerchantCount() { return merchantCount(index); }
+
+        public AccountActivityAggregate toAggregate() {
+            return new AccountActivityAggregate(accountId, getWindowStartMillis(), getWindowEndMillis(), lastUpdatedMillis,
+                                                horizonUnits(index), amountScale, horizonCount(index), countrySet());
+        }
+
+        private CountrySet countrySet() {
+            CountrySet countries = new CountrySet();
+            int[] perCountry = countryCounts[index];
+            for (int id = 0; id < perCountry.length; id++) {
+                if (perCountry[id] > 0) {
+                    countries.addId(id);
+                }
+            }
+            return countries;
+        }
+    }
+
+    // Pane access in time order, for serialization
+    public int paneCount() { return tail - head; }
+    public long paneStartAt(int i) { return paneStarts[head + i]; }
+    public long paneUnitsAt(int i) { return paneUnits[head + i]; }
+    public int paneEventsAt(int i) { return paneCounts[head + i]; }
+    /** The pane's countries as {@code id << 32 | event count} entries; not to be modified */
+    public long[] paneCountriesAt(int i) { return paneCountries[head + i]; }
+
+    // Block access by ring slot, for serialization; only slots with a live block count
+    public int blockSlots() { return blockStarts.length; }
+    public long blockStartAt(int slot) { return blockStarts[slot]; }
+    public long blockUnitsAt(int slot) { return blockUnits[slot]; }
+    public int blockEventsAt(int slot) { return blockCounts[slot]; }
+    public HyperLogLog countryBlockAt(int slot) { return countryBlocks[slot]; }
+    public HyperLogLog merchantBlockAt(int slot) { return merchantBlocks[slot]; }
+
+    /** True if the slot holds a block that a horizon or a late event can still reach */
+    public boolean hasBlock(int slot) {
+        long newestBlock = Math.floorDiv(newestPaneStart, sketchBlockMillis) * sketchBlockMillis;
+        return blockStarts[slot] != Long.MIN_VALUE
+                && blockStarts[slot] >= newestBlock - horizonMillis[horizonMillis.length - 1];
+    }
+
+    /** Rebuilds the panes from serialized form (oldest first), recomputing every horizon's aggregates */
+    public static AccountHorizonPanes restore(String accountId, long paneSizeMillis, long[] horizonMillis,
+                                              long detectionHorizonMillis, long newestPaneStart, long newestTimestamp,
+                                              long lastUpdatedMillis, int amountScale, long[] paneStarts,
+                                              long[] paneUnits, int[] paneCounts, long[][] paneCountries) {
+        return restore(accountId, paneSizeMillis, horizonMillis, detectionHorizonMillis, newestPaneStart, newestTimestamp,
+                       lastUpdatedMillis, amountScale, paneStarts, paneUnits, paneCounts, paneCountries,
+                       0L, new long[0], null, null, new HyperLogLog[0], new HyperLogLog[0]);
+    }
+
+    /**
+     * ... with blocks, given by start with their amount, event count and country and merchant
+     * sketches. Without amounts and counts ({@code null}, as stored before blocks had them) they
+     * are summed from the panes, which then reached back over the longest horizon; panes older
+     * than the longest pane horizon are dropped.
+     */
+    public static AccountHorizonPanes restore(String accountId, long paneSizeMillis, long[] horizonMillis,
+                                              long detectionHorizonMillis, long newestPaneStart, long newestTimestamp,
+                                              long lastUpdatedMillis, int amountScale, long[] paneStarts,
+                                              long[] paneUnits, int[] paneCounts, long[][] paneCountries,
+                                              long sketchBlockMillis, long[] blockStarts, long[] blockUnits,
+                                              int[] blockCounts, HyperLogLog[] countryBlocks,
+                                              HyperLogLog[] merchantBlocks) {
+        int panes = paneStarts.length;
+        AccountHorizonPanes restored = new AccountHorizonPanes(accountId, paneSizeMillis, horizonMillis, detectionHorizonMillis,
+                sketchBlockMillis, Math.max(INITIAL_CAPACITY, Integer.highestOneBit(Math.max(1, panes)) << 1));
+        restored.amountScale = amountScale;
+        restored.newestPaneStart = newestPaneStart;
+        restored.newestTimestamp = newestTimestamp;
+        restored.lastUpdatedMillis = lastUpdatedMillis;
+        for (int b = 0; b < blockStarts.length; b++) {
+            int slot = restored.blockSlot(blockStarts[b]);
+            restored.blockStarts[slot] = blockStarts[b];
+            restored.blockUnits[slot] = blockUnits != null ? blockUnits[b] : 0L;
+            restored.blockCounts[slot] = blockCounts != null ? blockCounts[b] : 0;
+            restored.countryBlocks[slot] = countryBlocks[b];
+            restored.merchantBlocks[slot] = merchantBlocks[b];
+        }
+
+        long paneReach = newestPaneStart - horizonMillis[restored.paneHorizons - 1];
+        Arrays.fill(restored.first, Integer.MAX_VALUE);
+        int kept = 0;
+        for (int i = 0; i < panes; i++) {
+            if (blockUnits == null && restored.blockStarts.length > 0) {
+                restored.countInBlock(paneStarts[i], paneUnits[i], paneCounts[i]);
+            }
+            if (paneStarts[i] <= paneReach) {
+                continue;
+            }
+            int slot = kept++;
+            restored.paneStarts[slot] = paneStarts[i];
+            restored.paneUnits[slot] = paneUnits[i];
+            restored.paneCounts[slot] = paneCounts[i];
+            restored.paneCountries[slot] = NO_COUNTRIES;
+            for (int h = 0; h < restored.paneHorizons; h++) {
+                if (paneStarts[i] > newestPaneStart - horizonMillis[h]) {
+                    restored.first[h] = Math.min(restored.first[h], slot);
+                    restored.totalUnits[h] = Math.addExact(restored.totalUnits[h], paneUnits[i]);
+                    restored.counts[h] += paneCounts[i];
+                    if (h < restored.exactHorizons) {
+                        restored.paneCountries[slot] = paneCountries[i];
+                        for (long entry : paneCountries[i]) {
+                            restored.countCountry(h, (int) (entry >>> 32), (int) entry);
+                        }
+                    }
+                }
+            }
+        }
+        restored.tail = kept;
+        for (int h = 0; h < restored.first.length; h++) {
+            restored.first[h] = Math.min(restored.first[h], kept);
+        }
+        return restored;
+    }
+
+    // A restored pane's amount and events, added to its block (created without sketch entries if missing)
+    private void countInBlock(long paneStart, long units, int events) {
+        long blockStart = Math.floorDiv(paneStart, sketchBlockMillis) * sketchBlockMillis;
+        int slot = blockSlot(blockStart);
+        if (blockStarts[slot] != blockStart) {
+            blockStarts[slot] = blockStart;
+            blockUnits[slot] = 0L;
+            blockCounts[slot] = 0;
+            countryBlocks[slot] = new HyperLogLog();
+            merchantBlocks[slot] = new HyperLogLog();
+        }
+        blockUnits[slot] += units;
+        blockCounts[slot] += events;
+    }
+
+    // Getters
+    public String getAccountId() { return accountId; }
+    public long getPaneSizeMillis() { return paneSizeMillis; }
+    public long[] getHorizonMillis() { return horizonMillis.clone(); }
+    public long getDetectionHorizonMillis() { return horizonMillis[detectionIndex]; }
+    public long getSketchBlockMillis() { return sketchBlockMillis; }
+    public boolean isEmpty() { return head == tail && !hasLiveBlocks(); }
+    public long getNewestPaneStart() { return newestPaneStart; }
+    public long getNewestTimestamp() { return newestTimestamp; }
+    public long getLastUpdatedMillis() { return lastUpdatedMillis; }
+
+    // Rule features of the detection horizon
+    @Override public long getTotalUnscaled() { return totalUnits[detectionIndex]; }
+    @Override public int getAmountScale() { return amountScale; }
+    @Override public int getCountryCount() { return distinctCountries[detectionIndex]; }
+    @Override public int getTransactionCount() { return counts[detectionIndex]; }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("AccountHorizonPanes{accountId='").append(accountId)
+                .append("', panes=").append(paneCount());
+        for (Horizon horizon : views) {
+            text.append(", ").append(horizon.getLength()).append('=').append(horizon.getTransactionCount())
+                .append('/').append(horizon.getTotal()).append('/').append(horizon.getCountryCount());
+        }
+        return text.append('}').toString();
+    }
+}
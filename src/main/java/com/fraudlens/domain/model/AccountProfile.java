@@ -0,0 +1,265 @@
+package com.fraudlens.domain.model;
+
+import java.util.Arrays;
+
+/**
+ * Behavioural baseline of one account, updated incrementally with every transaction.
+ *
+ * Holds exponentially weighted moving averages (weight {@code alpha} per transaction) of
+ * the amount, its variance and the time between transactions, the account's usual
+ * countries as a few decayed-weight slots, and its transaction-type mix. Every field is a
+ * primitive in a fixed-size layout, so memory and update cost are the same after ten
+ * transactions or ten million.
+ *
+ * Countries are tracked by their fixed {@link CountryDictionary} id; codes outside the
+ * static table are not part of the baseline.
+ *
+ * Alerts are scored against the baseline as it was before their window, not against the live
+ * averages that the window's own transactions have already moved. {@link #rollBaseline} keeps
+ * two snapshots of the profile at least a period apart, and {@link #baselineBefore} picks the
+ * newest one taken no later than a window's start. With the period set to the detection window,
+ * the older snapshot always precedes a window that ends at the latest transaction.
+ */
+public final class AccountProfile {
+
+    /** How many usual countries are tracked */
+    public static final int COUNTRY_SLOTS = 4;
+
+    /** A country is usual once it carries at least this share of the country weight */
+    public static final double USUAL_COUNTRY_SHARE = 0.1;
+
+    /** Transaction types with their own share in the mix; anything else counts as other */
+    public static final String[] TRANSACTION_TYPES = {"PURCHASE", "WITHDRAWAL", "TRANSFER", "PAYMENT", "DEPOSIT"};
+    public static final int OTHER_TYPE = TRANSACTION_TYPES.length;
+
+    public static final int NO_COUNTRY = -1;
+
+    /** Last event time of a profile without a timed transaction yet; also a transaction's missing timestamp */
+    public static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    private long transactionCount;
+    private long lastTimestamp = NO_TIMESTAMP;
+    private int lastCountryId = NO_COUNTRY;
+
+    private double meanAmount;
+    private double amountVariance;
+    private double meanInterArrivalMillis;
+
+    private final int[] countryIds = new int[COUNTRY_SLOTS];
+    private final float[] countryWeights = new float[COUNTRY_SLOTS];
+    private final float[] typeShares = new float[TRANSACTION_TYPES.length + 1];
+
+    // Snapshots without snapshots of their own, each with the event time it was taken at
+    private AccountProfile baseline;
+    private long baselineAsOf;
+    private AccountProfile previousBaseline;
+    private long previousBaselineAsOf;
+
+    public AccountProfile() {
+        Arrays.fill(countryIds, NO_COUNTRY);
+    }
+
+    /**
+     * Folds one transaction into the baseline; amounts in major units. A transaction without a
+     * timestamp ({@link #NO_TIMESTAMP}) moves the averages but neither the time between
+     * transactions nor the last known position.
+     */
+    public void update(long timestamp, double amount, String country, String transactionType, double alpha) {
+        update(timestamp, amount, staticCountryId(country), transactionType, alpha);
+    }
+
+    /** Same, with the country already resolved by {@link #staticCountryId(String)} */
+    public void update(long timestamp, double amount, int countryId, String transactionType, double alpha) {
+        if (transactionCount == 0) {
+            meanAmount = amount;
+        } else {
+            // West's incremental weighted variance
+            double diff = amount - meanAmount;
+            double increment = alpha * diff;
+            meanAmount += increment;
+            amountVariance = (1 - alpha) * (amountVariance + diff * increment);
+
+            if (timestamp != NO_TIMESTAMP && lastTimestamp != NO_TIMESTAMP && timestamp > lastTimestamp) {
+                long gap = timestamp - lastTimestamp;
+                meanInterArrivalMillis = meanInterArrivalMillis == 0 ? gap
+                        : meanInterArrivalMillis + alpha * (gap - meanInterArrivalMillis);
+            }
+        }
+
+        updateCountries(countryId, (float) alpha);
+        int type = typeIndex(transactionType);
+        for (int i = 0; i < typeShares.length; i++) {
+            typeShares[i] = transactionCount == 0
+                    ? (i == type ? 1f : 0f)
+                    : typeShares[i] + (float) alpha * ((i == type ? 1f : 0f) - typeShares[i]);
+        }
+
+        transactionCount++;
+        if (timestamp != NO_TIMESTAMP && timestamp >= lastTimestamp) {
+            lastTimestamp = timestamp;
+            lastCountryId = countryId;
+        }
+    }
+
+    /**
+     * Snapshots the profile as it stands when {@code timestamp} is at least {@code periodMillis}
+     * past the newest snapshot, keeping the one before it. Call before folding in the transaction
+     * at {@code timestamp}; a missing ({@link #NO_TIMESTAMP}) or older timestamp takes none.
+     */
+    public void rollBaseline(long timestamp, long periodMillis) {
+        if (timestamp == NO_TIMESTAMP || (baseline != null && timestamp - baselineAsOf < periodMillis)) {
+            return;
+        }
+        previousBaseline = baseline;
+        previousBaselineAsOf = baselineAsOf;
+        baseline = restore(transactionCount, lastTimestamp, lastCountryId, meanAmount, amountVariance,
+                           meanInterArrivalMillis, countryIds, countryWeights, typeShares);
+        baselineAsOf = timestamp;
+    }
+
+    /**
+     * The newest snapshot taken no later than {@code windowStartMillis}, so none of the window's
+     * transactions are in it. For a window longer than the period, the older snapshot, which has
+     * the fewest of them; null before the first snapshot.
+     */
+    public AccountProfile baselineBefore(long windowStartMillis) {
+        if (baseline != null && baselineAsOf <= windowStartMillis) {
+            return baseline;
+        }
+        return previousBaseline != null ? previousBaseline : baseline;
+    }
+
+    // Decay every slot; the country's slot gains alpha, or takes over the lightest slot
+    private void updateCountries(int countryId, float alpha) {
+        int match = -1;
+        int lightest = 0;
+        for (int i = 0; i < COUNTRY_SLOTS; i++) {
+            countryWeights[i] *= 1f - alpha;
+            if (countryIds[i] == countryId) {
+                match = i;
+            }
+            if (countryWeights[i] < countryWeights[lightest]) {
+                lightest = i;
+            }
+        }
+        if (countryId == NO_COUNTRY) {
+            return;
+        }
+        if (match < 0) {
+            match = lightest;
+            countryIds[match] = countryId;
+            countryWeights[match] = 0f;
+        }
+        countryWeights[match] += transactionCount == 0 ? 1f : alpha;
+    }
+
+    /** Standard deviations between {@code amount} and the mean amount; 0 without variance yet */
+    public double amountDeviation(double amount) {
+        double deviation = Math.sqrt(amountVariance);
+        return deviation > 0 ? (amount - meanAmount) / deviation : 0.0;
+    }
+
+    public boolean isUsualCountry(String country) {
+        int countryId = staticCountryId(country);
+        if (countryId == NO_COUNTRY) {
+            return false;
+        }
+        float total = 0f;
+        float weight = 0f;
+        for (int i = 0; i < COUNTRY_SLOTS; i++) {
+            total += countryWeights[i];
+            if (countryIds[i] == countryId) {
+                weight = countryWeights[i];
+            }
+        }
+        return total > 0f && weight / total >= USUAL_COUNTRY_SHARE;
+    }
+
+    /** Weighted share of recent transactions with this type, 0..1 */
+    public double typeShare(String transactionType) {
+        return typeShares[typeIndex(transactionType)];
+    }
+
+    public static int typeIndex(String transactionType) {
+        if (transactionType != null) {
+            for (int i = 0; i < TRANSACTION_TYPES.length; i++) {
+                if (TRANSACTION_TYPES[i].equals(transactionType)) {
+                    return i;
+                }
+            }
+        }
+        return OTHER_TYPE;
+    }
+
+    /** Fixed dictionary id of the country, or {@link #NO_COUNTRY} for null, unknown or runtime-assigned codes */
+    public static int staticCountryId(String country) {
+        if (country == null) {
+            return NO_COUNTRY;
+        }
+        int id = CountryDictionary.lookup(country);
+        return CountryDictionary.isStatic(id) && id != CountryDictionary.UNKNOWN_ID ? id : NO_COUNTRY;
+    }
+
+    // Field access for serialization
+    public int countryIdAt(int slot) { return countryIds[slot]; }
+    public float countryWeightAt(int slot) { return countryWeights[slot]; }
+    public float typeShareAt(int index) { return typeShares[index]; }
+
+    /** Rebuilds a profile from its serialized fields */
+    public static AccountProfile restore(long transactionCount, long lastTimestamp, int lastCountryId, double meanAmount,
+                                         double amountVariance, double meanInterArrivalMillis, int[] countryIds,
+                                         float[] countryWeights, float[] typeShares) {
+        AccountProfile profile = new AccountProfile();
+        profile.transactionCount = transactionCount;
+        profile.lastTimestamp = lastTimestamp;
+        profile.lastCountryId = lastCountryId;
+        profile.meanAmount = meanAmount;
+        profile.amountVariance = amountVariance;
+        profile.meanInterArrivalMillis = meanInterArrivalMillis;
+        System.arraycopy(countryIds, 0, profile.countryIds, 0, COUNTRY_SLOTS);
+        System.arraycopy(countryWeights, 0, profile.countryWeights, 0, COUNTRY_SLOTS);
+        System.arraycopy(typeShares, 0, profile.typeShares, 0, profile.typeShares.length);
+        return profile;
+    }
+
+    /** Restores the snapshots of a profile from their serialized forms; a null snapshot is absent */
+    public void restoreBaselines(AccountProfile baseline, long baselineAsOf,
+                                 AccountProfile previousBaseline, long previousBaselineAsOf) {
+        this.baseline = baseline;
+        this.baselineAsOf = baselineAsOf;
+        this.previousBaseline = previousBaseline;
+        this.previousBaselineAsOf = previousBaselineAsOf;
+    }
+
+    // Getters
+    public AccountProfile getBaseline() { return baseline; }
+    public long getBaselineAsOf() { return baselineAsOf; }
+    public AccountProfile getPreviousBaseline() { return previousBaseline; }
+    public long getPreviousBaselineAsOf() { return previousBaselineAsOf; }
+    public long getTransactionCount() { return transactionCount; }
+    public long getLastTimestamp() { return lastTimestamp; }
+    public int getLastCountryId() { return lastCountryId; }
+    public double getMeanAmount() { return meanAmount; }
+    public double getAmountVariance() { return amountVariance; }
+    public double getAmountStdDev() { return Math.sqrt(amountVariance); }
+    public double getMeanInterArrivalMillis() { return meanInterArrivalMillis; }
+
+    @Override
+    public String toString() {
+        StringBuilder countries = new StringBuilder();
+        for (int i = 0; i < COUNTRY_SLOTS; i++) {
+            if (countryIds[i] != NO_COUNTRY) {
+                countries.append(countries.length() > 0 ? "," : "")
+                         .append(CountryDictionary.codeOf(countryIds[i])).append('=')
+                         .append(String.format("%.2f", countryWeights[i]));
+            }
+        }
+        return "AccountProfile{" +
+                "transactions=" + transactionCount +
+                ", meanAmount=" + String.format("%.2f", meanAmount) +
+                ", amountStdDev=" + String.format("%.2f", getAmountStdDev()) +
+                ", meanInterArrivalMillis=" + Math.round(meanInterArrivalMillis) +
+                ", countries=[" + countries + "]" +
+                '}';
+    }
+}
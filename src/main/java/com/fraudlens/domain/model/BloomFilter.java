@@ -0,0 +1,109 @@
+package com.fraudlens.domain.model;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Fixed-size Bloom filter over 64-bit item hashes.
+ *
+ * The bit positions come from the two halves of the hash (double hashing), so callers hash
+ * an item once, with any well-mixed 64-bit function. Membership answers never miss an
+ * added item; a false positive happens with about the probability the filter was sized for
+ * once it holds its expected number of items, and {@link #estimatedFalsePositiveRate()}
+ * tracks the actual rate from the share of bits set.
+ */
+public final class BloomFilter {
+
+    private final long[] words;
+    private final int bits;
+    private final int hashes;
+    private int bitsSet;
+
+    public BloomFilter(int bits, int hashes) {
+        if (bits <= 0 || hashes <= 0) {
+            throw new IllegalArgumentException("A Bloom filter needs bits and hashes");
+        }
+        this.words = new long[(bits + 63) >>> 6];
+        this.bits = words.length * 64;
+        this.hashes = hashes;
+    }
+
+    /** Sized for {@code expectedItems} at false-positive rate {@code fpp} */
+    public static BloomFilter forExpected(long expectedItems, double fpp) {
+        if (expectedItems <= 0 || fpp <= 0 || fpp >= 1) {
+            throw new IllegalArgumentException("Expected items must be positive and the rate between 0 and 1");
+        }
+        double ln2 = Math.log(2);
+        long bits = (long) Math.ceil(-expectedItems * Math.log(fpp) / (ln2 * ln2));
+        if (bits > Integer.MAX_VALUE - 63) {
+            throw new IllegalArgumentException("Bloom filter for " + expectedItems + " items at " + fpp + " is too large");
+        }
+        int hashes = Math.max(1, (int) Math.round((double) bits / expectedItems * ln2));
+        return new BloomFilter((int) bits, hashes);
+    }
+
+    /** Adds the item; true if it was not (probably) present before */
+    public boolean put(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        boolean added = false;
+        for (int i = 0; i < hashes; i++) {
+            int bit = Math.floorMod(h1 + i * h2, bits);
+            long mask = 1L << bit;
+            if ((words[bit >>> 6] & mask) == 0) {
+                words[bit >>> 6] |= mask;
+                bitsSet++;
+                added = true;
+            }
+        }
+        return added;
+    }
+
+    public boolean mightContain(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashes; i++) {
+            int bit = Math.floorMod(h1 + i * h2, bits);
+            if ((words[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Probability that an item never added is reported present, at the current fill */
+    public double estimatedFalsePositiveRate() {
+        return Math.pow((double) bitsSet / bits, hashes);
+    }
+
+    public void clear() {
+        Arrays.fill(words, 0L);
+        bitsSet = 0;
+    }
+
+    public int getBits() { return bits; }
+    public int getHashes() { return hashes; }
+    public int getBitsSet() { return bitsSet; }
+
+    /** Serialized size in bytes of a filter with this many bits */
+    public static int sizeBytes(int bits) {
+        return 8 + ((bits + 63) >>> 6) * 8;
+    }
+
+    public void writeTo(ByteBuffer out) {
+        out.putInt(bits);
+        out.putInt(hashes);
+        for (long word : words) {
+            out.putLong(word);
+        }
+    }
+
+    public static BloomFilter readFrom(ByteBuffer in) {
+        BloomFilter filter = new BloomFilter(in.getInt(), in.getInt());
+        for (int i = 0; i < filter.words.length; i++) {
+            filter.words[i] = in.getLong();
+            filter.bitsSet += Long.bitCount(filter.words[i]);
+        }
+        return filter;
+    }
+}
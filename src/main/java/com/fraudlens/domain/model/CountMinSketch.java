@@ -0,0 +1,89 @@
+package com.fraudlens.domain.model;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Count-min sketch: approximate counts for any number of keys in {@code depth * width} ints.
+ *
+ * Each row maps a key hash to one counter; the estimate is the smallest of the key's
+ * counters, which is never below the true count and exceeds it by at most about
+ * {@code e / width} of the total with probability {@code 1 - e^-depth}. Updates are
+ * conservative (only counters at the current minimum grow), which keeps the
+ * overestimate lower for heavy keys.
+ */
+public final class CountMinSketch {
+
+    private final int depth;
+    private final int width;
+    private final int[] counters;
+    private long total;
+
+    /** @param width counters per row, a power of two */
+    public CountMinSketch(int depth, int width) {
+        if (depth <= 0 || width <= 0 || Integer.bitCount(width) != 1) {
+            throw new IllegalArgumentException("Depth must be positive and width a power of two");
+        }
+        this.depth = depth;
+        this.width = width;
+        this.counters = new int[depth * width];
+    }
+
+    /** Counts one occurrence of the key; returns its new estimate */
+    public int add(long hash) {
+        int estimate = estimate(hash) + 1;
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int row = 0; row < depth; row++) {
+            int index = row * width + ((h1 + row * h2) & (width - 1));
+            if (counters[index] < estimate) {
+                counters[index] = estimate;
+            }
+        }
+        total++;
+        return estimate;
+    }
+
+    public int estimate(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counters[row * width + ((h1 + row * h2) & (width - 1))]);
+        }
+        return min;
+    }
+
+    public void clear() {
+        Arrays.fill(counters, 0);
+        total = 0;
+    }
+
+    public int getDepth() { return depth; }
+    public int getWidth() { return width; }
+    /** Number of additions since the last clear */
+    public long getTotal() { return total; }
+
+    /** Serialized size in bytes of a sketch with these dimensions */
+    public static int sizeBytes(int depth, int width) {
+        return 16 + depth * width * 4;
+    }
+
+    public void writeTo(ByteBuffer out) {
+        out.putInt(depth);
+        out.putInt(width);
+        out.putLong(total);
+        for (int counter : counters) {
+            out.putInt(counter);
+        }
+    }
+
+    public static CountMinSketch readFrom(ByteBuffer in) {
+        CountMinSketch sketch = new CountMinSketch(in.getInt(), in.getInt());
+        sketch.total = in.getLong();
+        for (int i = 0; i < sketch.counters.length; i++) {
+            sketch.counters[i] = in.getInt();
+        }
+        return sketch;
+    }
+}
@@ -0,0 +1,143 @@
+package com.fraudlens.domain.model;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide dictionary from country codes to small int ids used as {@link CountrySet} bits.
+ *
+ * The first {@link #STATIC_SIZE} ids are a fixed table: the 64 codes tracked by the first
+ * binary window format, in their original bit order, followed by the remaining ISO 3166-1
+ * alpha-2 codes, then {@link #UNKNOWN_CODE}. These ids are persisted in the window store and
+ * changelog: append only, never reorder. Codes are normalised to two uppercase letters; any
+ * other well-formed code gets the next free id at runtime (such ids are only meaningful
+ * inside this JVM and are serialized as strings), and anything else maps to
+ * {@link #UNKNOWN_ID}. At most 26 × 26 codes can exist, so malformed input cannot fill
+ * the dictionary.
+ */
+public final class CountryDictionary {
+
+    private static final String[] STATIC_CODES = {
+        // Bit order of the version 1 country mask
+        "ES", "FR", "DE", "IT", "UK", "US", "CA", "JP", "AU", "BR", "MX", "AR", "CN", "IN", "RU", "GB",
+        "PT", "NL", "BE", "CH", "AT", "IE", "SE", "NO", "DK", "FI", "PL", "CZ", "GR", "HU", "RO", "BG",
+        "HR", "SK", "SI", "LU", "MT", "CY", "EE", "LV", "LT", "IS", "TR", "UA", "IL", "AE", "SA", "EG",
+        "ZA", "NG", "KE", "MA", "KR", "SG", "HK", "TW", "TH", "MY", "ID", "PH", "VN", "NZ", "CL", "CO",
+        // Remaining ISO 3166-1 alpha-2 codes
+        "AD", "AF", "AG", "AI", "AL", "AM", "AO", "AQ", "AS", "AW", "AX", "AZ", "BA", "BB", "BD", "BF",
+        "BH", "BI", "BJ", "BL", "BM", "BN", "BO", "BQ", "BS", "BT", "BV", "BW", "BY", "BZ", "CC", "CD",
+        "CF", "CG", "CI", "CK", "CM", "CR", "CU", "CV", "CW", "CX", "DJ", "DM", "DO", "DZ", "EC", "EH",
+        "ER", "ET", "FJ", "FK", "FM", "FO", "GA", "GD", "GE", "GF", "GG", "GH", "GI", "GL", "GM", "GN",
+        "GP", "GQ", "GS", "GT", "GU", "GW", "GY", "HM", "HN", "HT", "IM", "IO", "IQ", "IR", "JE", "JM",
+        "JO", "KG", "KH", "KI", "KM", "KN", "KP", "KW", "KY", "KZ", "LA", "LB", "LC", "LI", "LK", "LR",
+        "LS", "LY", "MC", "MD", "ME", "MF", "MG", "MH", "MK", "ML", "MM", "MN", "MO", "MP", "MQ", "MR",
+        "MS", "MU", "MV", "MW", "MZ", "NA", "NC", "NE", "NF", "NI", "NP", "NR", "NU", "OM", "PA", "PE",
+        "PF", "PG", "PK", "PM", "PN", "PR", "PS", "PW", "PY", "QA", "RE", "RS", "RW", "SB", "SC", "SD",
+        "SH", "SJ", "SL", "SM", "SN", "SO", "SR", "SS", "ST", "SV", "SX", "SY", "SZ", "TC", "TD", "TF",
+        "TG", "TJ", "TK", "TL", "TM", "TN", "TO", "TT", "TV", "TZ", "UG", "UM", "UY", "UZ", "VA", "VC",
+        "VE", "VG", "VI", "VU", "WF", "WS", "YE", "YT", "ZM", "ZW",
+        // User-assigned "unknown or unspecified" code
+        "ZZ"
+    };
+
+    /** Number of ids with a fixed, persisted meaning */
+    public static final int STATIC_SIZE = STATIC_CODES.length;
+
+    /** Code that malformed country codes are counted as */
+    public static final String UNKNOWN_CODE = "ZZ";
+
+    /** Id of {@link #UNKNOWN_CODE} */
+    public static final int UNKNOWN_ID = STATIC_CODES.length - 1;
+
+    private static final Map<String, Integer> IDS = new ConcurrentHashMap<>(512);
+
+    private static volatile String[] codes = Arrays.copyOf(STATIC_CODES, 512);
+    private static volatile int size;
+
+    static {
+        for (int i = 0; i < STATIC_CODES.length; i++) {
+            if (IDS.putIfAbsent(STATIC_CODES[i], i) != null) {
+                throw new ExceptionInInitializerError("Duplicate country code: " + STATIC_CODES[i]);
+            }
+        }
+        size = STATIC_CODES.length;
+    }
+
+    private CountryDictionary() {
+    }
+
+    /** Id of the code, assigning the next free id if it has not been seen yet */
+    public static int idOf(String code) {
+        Integer id = IDS.get(code);
+        if (id != null) {
+            return id;
+        }
+        String normalized = normalize(code);
+        return normalized != null ? register(normalized) : UNKNOWN_ID;
+    }
+
+    /** Id of the code, or -1 if it has not been assigned */
+    public static int lookup(String code) {
+        Integer id = IDS.get(code);
+        if (id != null) {
+            return id;
+        }
+        String normalized = normalize(code);
+        if (normalized == null) {
+            return UNKNOWN_ID;
+        }
+        id = IDS.get(normalized);
+        return id != null ? id : -1;
+    }
+
+    /** The code as two uppercase ASCII letters, or null if it is not a two-letter code */
+    static String normalize(String code) {
+        if (code == null) {
+            return null;
+        }
+        String trimmed = code.trim();
+        if (trimmed.length() != 2) {
+            return null;
+        }
+        char first = Character.toUpperCase(trimmed.charAt(0));
+        char second = Character.toUpperCase(trimmed.charAt(1));
+        if (first < 'A' || first > 'Z' || second < 'A' || second > 'Z') {
+            return null;
+        }
+        return new String(new char[] {first, second});
+    }
+
+    public static String codeOf(int id) {
+        if (id < 0 || id >= size) {
+            throw new IllegalArgumentException("Unknown country id: " + id);
+        }
+        return codes[id];
+    }
+
+    public static boolean isStatic(int id) {
+        return id >= 0 && id < STATIC_SIZE;
+    }
+
+    public static int size() {
+        return size;
+    }
+
+    private static synchronized int register(String code) {
+        Integer existing = IDS.get(code);
+        if (existing != null) {
+            return existing;
+        }
+        int id = size;
+        String[] current = codes;
+        if (id == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        current[id] = code;
+        // Publish the code before the id so readers that see the id can resolve it
+        codes = current;
+        size = id + 1;
+        IDS.put(code, id);
+        return id;
+    }
+}
@@ -0,0 +1,154 @@
+package com.fraudlens.domain.model;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Mutable set of countries as a {@code long[]} bitset over {@link CountryDictionary} ids.
+ *
+ * Membership, union and cardinality are word operations; the array only grows to the
+ * highest id actually present, so the common case is a single word.
+ */
+public final class CountrySet {
+
+    private static final long[] EMPTY = new long[0];
+
+    private long[] words;
+
+    public CountrySet() {
+        this.words = EMPTY;
+    }
+
+    private CountrySet(long[] words) {
+        this.words = words;
+    }
+
+    /** Wraps the words without copying; trailing zero words are allowed */
+    public static CountrySet ofWords(long[] words) {
+        return new CountrySet(words);
+    }
+
+    public static CountrySet of(Iterable<String> codes) {
+        CountrySet set = new CountrySet();
+        for (String code : codes) {
+            set.add(code);
+        }
+        return set;
+    }
+
+    public void add(String code) {
+        if (code != null) {
+            addId(CountryDictionary.idOf(code));
+        }
+    }
+
+    public void addId(int id) {
+        int word = id >>> 6;
+        if (word >= words.length) {
+            words = Arrays.copyOf(words, Math.max(word + 1, words.length * 2));
+        }
+        words[word] |= 1L << id;
+    }
+
+    public boolean contains(String code) {
+        int id = CountryDictionary.lookup(code);
+        return id >= 0 && containsId(id);
+    }
+
+    public boolean containsId(int id) {
+        int word = id >>> 6;
+        return word < words.length && (words[word] & (1L << id)) != 0L;
+    }
+
+    public void union(CountrySet other) {
+        long[] theirs = other.words;
+        if (theirs.length > words.length) {
+            words = Arrays.copyOf(words, theirs.length);
+        }
+        for (int i = 0; i < theirs.length; i++) {
+            words[i] |= theirs[i];
+        }
+    }
+
+    public int cardinality() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    public boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0L) return false;
+        }
+        return true;
+    }
+
+    /** Next id present at or after {@code fromId}, or -1 */
+    public int nextId(int fromId) {
+        int word = fromId >>> 6;
+        if (word >= words.length) {
+            return -1;
+        }
+        long bits = words[word] & (-1L << fromId);
+        while (true) {
+            if (bits != 0L) {
+                return (word << 6) + Long.numberOfTrailingZeros(bits);
+            }
+            if (++word == words.length) {
+                return -1;
+            }
+            bits = words[word];
+        }
+    }
+
+    /** Number of words up to and including the last non-zero one */
+    public int wordsInUse() {
+        int n = words.length;
+        while (n > 0 && words[n - 1] == 0L) {
+            n--;
+        }
+        return n;
+    }
+
+    public long word(int index) {
+        return index < words.length ? words[index] : 0L;
+    }
+
+    public Set<String> toCodes() {
+        Set<String> codes = new HashSet<>(cardinality() * 2);
+        for (int id = nextId(0); id >= 0; id = nextId(id + 1)) {
+            codes.add(CountryDictionary.codeOf(id));
+        }
+        return codes;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CountrySet)) return false;
+        CountrySet that = (CountrySet) o;
+        int n = wordsInUse();
+        if (n != that.wordsInUse()) return false;
+        for (int i = 0; i < n; i++) {
+            if (words[i] != that.words[i]) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (int i = 0, n = wordsInUse(); i < n; i++) {
+            hash = 31 * hash + Long.hashCode(words[i]);
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return toCodes().toString();
+    }
+}
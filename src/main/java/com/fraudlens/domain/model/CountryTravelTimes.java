@@ -0,0 +1,86 @@
+package com.fraudlens.domain.model;
+
+/**
+ * Precomputed minimum travel time between countries, indexed by fixed {@link CountryDictionary} id.
+ *
+ * Built once at class load into a flat {@code short[]} of minutes, so a lookup is two bounds
+ * checks and one array read. Each country is approximated by a centroid and a radius that
+ * covers most of its territory; the minimum time is the great-circle gap between the two
+ * circles at airliner cruising speed, deliberately optimistic so that only journeys no
+ * traveller could make are flagged. Neighbouring or overlapping countries, and countries
+ * without coordinates below, have no minimum (0).
+ */
+public final class CountryTravelTimes {
+
+    /** Cruising speed assumed for the fastest possible journey */
+    public static final double SPEED_KM_PER_HOUR = 900.0;
+
+    private static final double EARTH_RADIUS_KM = 6371.0;
+
+    // Code, centroid latitude and longitude, radius in km
+    private static final Object[][] LOCATIONS = {
+        {"ES", 40.4, -3.7, 450}, {"FR", 46.6, 2.4, 450}, {"DE", 51.1, 10.4, 350}, {"IT", 42.8, 12.6, 500},
+        {"UK", 54.0, -2.5, 400}, {"US", 39.8, -98.6, 2300}, {"CA", 56.1, -106.3, 2400}, {"JP", 36.2, 138.3, 800},
+        {"AU", -25.3, 133.8, 1900}, {"BR", -10.3, -53.1, 1900}, {"MX", 23.6, -102.6, 1100}, {"AR", -35.0, -65.0, 1300},
+        {"CN", 35.9, 104.2, 2100}, {"IN", 22.0, 79.0, 1400}, {"RU", 61.5, 105.3, 3700}, {"GB", 54.0, -2.5, 400},
+        {"PT", 39.6, -8.0, 300}, {"NL", 52.2, 5.3, 150}, {"BE", 50.6, 4.6, 130}, {"CH", 46.8, 8.2, 160},
+        {"AT", 47.6, 14.1, 280}, {"IE", 53.2, -8.2, 220}, {"SE", 62.0, 15.0, 750}, {"NO", 64.5, 17.9, 900},
+        {"DK", 56.0, 10.0, 220}, {"FI", 64.0, 26.0, 600}, {"PL", 52.1, 19.4, 350}, {"CZ", 49.8, 15.5, 230},
+        {"GR", 39.1, 22.0, 400}, {"HU", 47.2, 19.5, 230}, {"RO", 45.9, 25.0, 320}, {"BG", 42.7, 25.5, 230},
+        {"HR", 45.1, 15.2, 280}, {"SK", 48.7, 19.7, 200}, {"SI", 46.1, 14.8, 110}, {"LU", 49.8, 6.1, 45},
+        {"MT", 35.9, 14.4, 25}, {"CY", 35.1, 33.4, 110}, {"EE", 58.6, 25.0, 170}, {"LV", 56.9, 24.6, 200},
+        {"LT", 55.2, 23.9, 200}, {"IS", 64.9, -18.6, 280}, {"TR", 39.0, 35.2, 850}, {"UA", 49.0, 31.4, 650},
+        {"IL", 31.4, 35.0, 230}, {"AE", 23.9, 54.3, 280}, {"SA", 23.9, 45.1, 1200}, {"EG", 26.8, 30.8, 650},
+        {"ZA", -30.6, 22.9, 850}, {"NG", 9.1, 8.7, 650}, {"KE", 0.0, 37.9, 550}, {"MA", 31.8, -7.1, 650},
+        {"KR", 36.5, 127.9, 280}, {"SG", 1.35, 103.8, 25}, {"HK", 22.3, 114.2, 35}, {"TW", 23.7, 121.0, 220},
+        {"TH", 15.9, 100.9, 800}, {"MY", 4.2, 102.0, 1000}, {"ID", -2.5, 118.0, 2700}, {"PH", 12.9, 121.8, 1000},
+        {"VN", 14.1, 108.3, 900}, {"NZ", -41.0, 174.0, 850}, {"CL", -35.7, -71.5, 2100}, {"CO", 4.6, -74.1, 750}
+    };
+
+    private static final int SIZE = CountryDictionary.STATIC_SIZE;
+
+    // Row-major: MINUTES[from * SIZE + to]
+    private static final short[] MINUTES = new short[SIZE * SIZE];
+
+    static {
+        int count = LOCATIONS.length;
+        int[] ids = new int[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = CountryDictionary.lookup((String) LOCATIONS[i][0]);
+            if (!CountryDictionary.isStatic(ids[i])) {
+                throw new ExceptionInInitializerError("Country without a fixed id: " + LOCATIONS[i][0]);
+            }
+        }
+        for (int a = 0; a < count; a++) {
+            for (int b = a + 1; b < count; b++) {
+                double gapKm = distanceKm(LOCATIONS[a], LOCATIONS[b])
+                        - ((Number) LOCATIONS[a][3]).doubleValue() - ((Number) LOCATIONS[b][3]).doubleValue();
+                short minutes = (short) Math.max(0, Math.floor(gapKm / SPEED_KM_PER_HOUR * 60));
+                MINUTES[ids[a] * SIZE + ids[b]] = minutes;
+                MINUTES[ids[b] * SIZE + ids[a]] = minutes;
+            }
+        }
+    }
+
+    private CountryTravelTimes() {
+    }
+
+    /** Minimum minutes to get from one country to the other; 0 when unknown or not constrained */
+    public static int minimumMinutes(int fromId, int toId) {
+        if (fromId < 0 || toId < 0 || fromId >= SIZE || toId >= SIZE) {
+            return 0;
+        }
+        return MINUTES[fromId * SIZE + toId];
+    }
+
+    // Haversine distance between two centroids
+    private static double distanceKm(Object[] from, Object[] to) {
+        double lat1 = Math.toRadians(((Number) from[1]).doubleValue());
+        double lat2 = Math.toRadians(((Number) to[1]).doubleValue());
+        double dLat = lat2 - lat1;
+        double dLon = Math.toRadians(((Number) to[2]).doubleValue() - ((Number) from[2]).doubleValue());
+        double h = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(lat1) * Math.cos(lat2) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(h)));
+    }
+}
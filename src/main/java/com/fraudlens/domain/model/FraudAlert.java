@@ -45,11 +45,22 @@ public class FraudAlert {
     
     @JsonProperty("description")
     private final String description;
+    
+    @JsonProperty("rulesVersion")
+    private final String rulesVersion;
 
     public FraudAlert(String alertId, String accountId, String alertType, 
                      BigDecimal totalAmount, Set<String> countriesInvolved, 
                      int transactionCount, Instant windowStart, Instant windowEnd,
                      Instant alertTimestamp, int riskScore, String description) {
+        this(alertId, accountId, alertType, totalAmount, countriesInvolved, transactionCount,
+             windowStart, windowEnd, alertTimestamp, riskScore, description, null);
+    }
+
+    public FraudAlert(String alertId, String accountId, String alertType, 
+                     BigDecimal totalAmount, Set<String> countriesInvolved, 
+                     int transactionCount, Instant windowStart, Instant windowEnd,
+                     Instant alertTimestamp, int riskScore, String description, String rulesVersion) {
         this.alertId = Objects.requireNonNull(alertId, "Alert ID cannot be null");
         this.accountId = Objects.requireNonNull(accountId, "Account ID cannot be null");
         this.alertType = Objects.requireNonNull(alertType, "Alert type cannot be null");
@@ -61,6 +72,7 @@ public class FraudAlert {
         this.alertTimestamp = Objects.requireNonNull(alertTimestamp, "Alert timestamp cannot be null");
         this.riskScore = riskScore;
         this.description = description;
+        this.rulesVersion = rulesVersion;
     }
 
     // No-args constructor for Jackson
@@ -76,6 +88,7 @@ public class FraudAlert {
         this.alertTimestamp = null;
         this.riskScore = 0;
         this.description = null;
+        this.rulesVersion = null;
     }
 
     // Domain methods
@@ -107,6 +120,7 @@ public class FraudAlert {
     public Instant getAlertTimestamp() { return alertTimestamp; }
     public int getRiskScore() { return riskScore; }
     public String getDescription() { return description; }
+    public String getRulesVersion() { return rulesVersion; }
 
     @Override
     public boolean equals(Object o) {
@@ -135,6 +149,7 @@ public class FraudAlert {
                 ", alertTimestamp=" + alertTimestamp +
                 ", riskScore=" + riskScore +
                 ", description='" + description + '\'' +
+                ", rulesVersion='" + rulesVersion + '\'' +
                 '}';
     }
 } 
\ No newline at end of file
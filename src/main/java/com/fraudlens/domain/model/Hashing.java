@@ -0,0 +1,36 @@
+package com.fraudlens.domain.model;
+
+/**
+ * 64-bit hashes for the probabilistic structures ({@link HyperLogLog}, {@link BloomFilter},
+ * {@link CountMinSketch}): every output bit depends on every input bit, so callers can
+ * slice the result into independent-looking parts.
+ */
+public final class Hashing {
+
+    private Hashing() {
+    }
+
+    /** FNV-1a over the characters, then mixed */
+    public static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    /** Hash of an ordered pair of hashes */
+    public static long combine(long first, long second) {
+        return mix(first * 0x9E3779B97F4A7C15L + second);
+    }
+
+    /** MurmurHash3 finalizer */
+    public static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
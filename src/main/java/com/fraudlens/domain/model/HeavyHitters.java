@@ -0,0 +1,109 @@
+package com.fraudlens.domain.model;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@code capacity} keys with the highest estimated counts seen so far, fed with the
+ * estimates of a {@link CountMinSketch}. A key outside the table replaces the lightest
+ * entry once its estimate is higher, so memory stays at {@code capacity} entries however
+ * many keys there are. Each entry also carries whether it has been reported.
+ */
+public final class HeavyHitters {
+
+    /** One tracked key */
+    public static final class Entry {
+        private final String key;
+        private long estimate;
+        private boolean reported;
+
+        Entry(String key, long estimate, boolean reported) {
+            this.key = key;
+            this.estimate = estimate;
+            this.reported = reported;
+        }
+
+        public String getKey() { return key; }
+        public long getEstimate() { return estimate; }
+        public boolean isReported() { return reported; }
+        public void markReported() { this.reported = true; }
+    }
+
+    private final int capacity;
+    private final Map<String, Entry> entries;
+    private Entry lightest;
+
+    public HeavyHitters(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.entries = new HashMap<>(capacity * 2);
+    }
+
+    /**
+     * Records the key's latest estimate.
+     *
+     * @return its entry, or null if the estimate is too low to be among the heaviest
+     */
+    public Entry offer(String key, long estimate) {
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            entry.estimate = Math.max(entry.estimate, estimate);
+            if (entry == lightest) {
+                lightest = null;
+            }
+            return entry;
+        }
+        if (entries.size() >= capacity) {
+            Entry min = lightest();
+            if (estimate <= min.estimate) {
+                return null;
+            }
+            entries.remove(min.key);
+            lightest = null;
+        }
+        entry = new Entry(key, estimate, false);
+        entries.put(key, entry);
+        if (lightest != null && estimate < lightest.estimate) {
+            lightest = entry;
+        }
+        return entry;
+    }
+
+    // Found by a scan only when the cached one may have changed
+    private Entry lightest() {
+        if (lightest == null) {
+            for (Entry entry : entries.values()) {
+                if (lightest == null || entry.estimate < lightest.estimate) {
+                    lightest = entry;
+                }
+            }
+        }
+        return lightest;
+    }
+
+    /** Tracked keys, heaviest first */
+    public List<Entry> top() {
+        List<Entry> top = new ArrayList<>(entries.values());
+        top.sort(Comparator.comparingLong(Entry::getEstimate).reversed());
+        return top;
+    }
+
+    /** Restores an entry from serialized form */
+    public void restore(String key, long estimate, boolean reported) {
+        entries.put(key, new Entry(key, estimate, reported));
+        lightest = null;
+    }
+
+    public void clear() {
+        entries.clear();
+        lightest = null;
+    }
+
+    public int size() { return entries.size(); }
+    public int getCapacity() { return capacity; }
+}
@@ -0,0 +1,155 @@
+package com.fraudlens.domain.model;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Approximate distinct count in a fixed {@link #SIZE_BYTES} bytes (HyperLogLog, 128 registers).
+ *
+ * Each item is hashed to 64 bits; the top bits pick a register, which keeps the longest run
+ * of leading zeros seen in the rest. Sketches of disjoint or overlapping item streams merge
+ * by taking the register-wise maximum, which gives the sketch of the union. The standard
+ * error is about 9%; small counts use linear counting and are close to exact.
+ */
+public final class HyperLogLog {
+
+    public static final int PRECISION = 7;
+    public static final int REGISTERS = 1 << PRECISION;
+    public static final int SIZE_BYTES = REGISTERS;
+
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS);
+
+    // Compact form marker for a sketch written with all its registers
+    private static final int DENSE = -1;
+
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this.registers = new byte[REGISTERS];
+    }
+
+    private HyperLogLog(byte[] registers) {
+        this.registers = registers;
+    }
+
+    /** Adds an item already identified by a number, e.g. a country dictionary id */
+    public void add(long item) {
+        addHash(Hashing.mix(item));
+    }
+
+    public void add(String item) {
+        addHash(Hashing.hash(item));
+    }
+
+    private void addHash(long hash) {
+        int index = (int) (hash >>> (64 - PRECISION));
+        // The sentinel bit bounds the rank when the remaining bits are all zero
+        byte rank = (byte) (Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    /** Folds another sketch into this one; afterwards this sketch counts the union */
+    public void merge(HyperLogLog other) {
+        byte[] theirs = other.registers;
+        for (int i = 0; i < REGISTERS; i++) {
+            if (theirs[i] > registers[i]) {
+                registers[i] = theirs[i];
+            }
+        }
+    }
+
+    public long estimate() {
+        double sum = 0.0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += Double.longBitsToDouble((1023L - register) << 52); // 2^-register
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = ALPHA * REGISTERS * REGISTERS / sum;
+        if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+            estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    public boolean isEmpty() {
+        for (byte register : registers) {
+            if (register != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void clear() {
+        Arrays.fill(registers, (byte) 0);
+    }
+
+    public void writeTo(ByteBuffer out) {
+        out.put(registers);
+    }
+
+    public static HyperLogLog readFrom(ByteBuffer in) {
+        byte[] registers = new byte[REGISTERS];
+        in.get(registers);
+        return new HyperLogLog(registers);
+    }
+
+    /**
+     * Writes the set registers as (index, value) pairs after their count when that is shorter,
+     * as for the few countries or merchants of one account, else a marker and all registers
+     */
+    public void writeCompactTo(DataOutput out) throws IOException {
+        int set = 0;
+        for (byte register : registers) {
+            if (register != 0) {
+                set++;
+            }
+        }
+        if (set >= REGISTERS / 2) {
+            out.writeByte(DENSE);
+            out.write(registers);
+            return;
+        }
+        out.writeByte(set);
+        for (int i = 0; i < REGISTERS; i++) {
+            if (registers[i] != 0) {
+                out.writeByte(i);
+                out.writeByte(registers[i]);
+            }
+        }
+    }
+
+    public static HyperLogLog readCompactFrom(ByteBuffer in) {
+        int set = in.get();
+        if (set == DENSE) {
+            return readFrom(in);
+        }
+        byte[] registers = new byte[REGISTERS];
+        for (int i = 0; i < set; i++) {
+            registers[in.get()] = in.get();
+        }
+        return new HyperLogLog(registers);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof HyperLogLog && Arrays.equals(registers, ((HyperLogLog) o).registers));
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(registers);
+    }
+
+    @Override
+    public String toString() {
+        return "HyperLogLog{estimate=" + estimate() + "}";
+    }
+}
@@ -0,0 +1,90 @@
+package com.fraudlens.domain.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/** Many distinct accounts at one merchant within one window: a possibly compromised merchant */
+public class MerchantAlert {
+
+    @JsonProperty("alertId")
+    private final String alertId;
+
+    @JsonProperty("merchantName")
+    private final String merchantName;
+
+    @JsonProperty("distinctAccounts")
+    private final long distinctAccounts;
+
+    @JsonProperty("windowStart")
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", timezone = "UTC")
+    private final Instant windowStart;
+
+    @JsonProperty("windowEnd")
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", timezone = "UTC")
+    private final Instant windowEnd;
+
+    @JsonProperty("alertTimestamp")
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", timezone = "UTC")
+    private final Instant alertTimestamp;
+
+    @JsonProperty("description")
+    private final String description;
+
+    public MerchantAlert(String alertId, String merchantName, long distinctAccounts, Instant windowStart,
+                         Instant windowEnd, Instant alertTimestamp, String description) {
+        this.alertId = Objects.requireNonNull(alertId, "Alert ID cannot be null");
+        this.merchantName = Objects.requireNonNull(merchantName, "Merchant name cannot be null");
+        this.distinctAccounts = distinctAccounts;
+        this.windowStart = Objects.requireNonNull(windowStart, "Window start cannot be null");
+        this.windowEnd = Objects.requireNonNull(windowEnd, "Window end cannot be null");
+        this.alertTimestamp = Objects.requireNonNull(alertTimestamp, "Alert timestamp cannot be null");
+        this.description = description;
+    }
+
+    // No-args constructor for Jackson
+    public MerchantAlert() {
+        this.alertId = null;
+        this.merchantName = null;
+        this.distinctAccounts = 0;
+        this.windowStart = null;
+        this.windowEnd = null;
+        this.alertTimestamp = null;
+        this.description = null;
+    }
+
+    // Getters
+    public String getAlertId() { return alertId; }
+    public String getMerchantName() { return merchantName; }
+    public long getDistinctAccounts() { return distinctAccounts; }
+    public Instant getWindowStart() { return windowStart; }
+    public Instant getWindowEnd() { return windowEnd; }
+    public Instant getAlertTimestamp() { return alertTimestamp; }
+    public String getDescription() { return description; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        MerchantAlert that = (MerchantAlert) o;
+        return Objects.equals(alertId, that.alertId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(alertId);
+    }
+
+    @Override
+    public String toString() {
+        return "MerchantAlert{" +
+                "alertId='" + alertId + '\'' +
+                ", merchantName='" + merchantName + '\'' +
+                ", distinctAccounts=" + distinctAccounts +
+                ", windowStart=" + windowStart +
+                ", windowEnd=" + windowEnd +
+                '}';
+    }
+}
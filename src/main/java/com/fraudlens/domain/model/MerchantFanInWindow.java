@@ -0,0 +1,64 @@
+package com.fraudlens.domain.model;
+
+/**
+ * Distinct accounts per merchant over one tumbling window, in bounded memory however many
+ * merchants and accounts there are.
+ *
+ * A Bloom filter of (merchant, account) pairs lets each account count once per merchant;
+ * a {@link CountMinSketch} counts the new pairs per merchant, which estimates its distinct
+ * accounts; {@link HeavyHitters} keeps the merchants with the highest estimates. Estimates
+ * can be slightly high (count-min collisions) or low (a new pair taken for a seen one).
+ */
+public final class MerchantFanInWindow {
+
+    private long windowStart;
+    private final BloomFilter seenPairs;
+    private final CountMinSketch accountsPerMerchant;
+    private final HeavyHitters heaviest;
+
+    public MerchantFanInWindow(long windowStart, BloomFilter seenPairs, CountMinSketch accountsPerMerchant,
+                               HeavyHitters heaviest) {
+        this.windowStart = windowStart;
+        this.seenPairs = seenPairs;
+        this.accountsPerMerchant = accountsPerMerchant;
+        this.heaviest = heaviest;
+    }
+
+    public static MerchantFanInWindow create(long windowStart, long expectedPairs, int sketchDepth, int sketchWidth,
+                                             int topK) {
+        return new MerchantFanInWindow(windowStart, BloomFilter.forExpected(expectedPairs, 0.01),
+                                       new CountMinSketch(sketchDepth, sketchWidth), new HeavyHitters(topK));
+    }
+
+    /**
+     * Counts the account at the merchant.
+     *
+     * @return the merchant's heavy-hitter entry with its updated estimate, or null if the pair
+     *         was already counted or the merchant is not among the heaviest
+     */
+    public HeavyHitters.Entry add(String merchant, long accountHash) {
+        long merchantHash = Hashing.hash(merchant);
+        if (!seenPairs.put(Hashing.combine(merchantHash, accountHash))) {
+            return null;
+        }
+        return heaviest.offer(merchant, accountsPerMerchant.add(merchantHash));
+    }
+
+    /** Estimated distinct accounts seen at the merchant in this window */
+    public int estimate(String merchant) {
+        return accountsPerMerchant.estimate(Hashing.hash(merchant));
+    }
+
+    /** Starts a new window, reusing the structures */
+    public void roll(long windowStart) {
+        this.windowStart = windowStart;
+        seenPairs.clear();
+        accountsPerMerchant.clear();
+        heaviest.clear();
+    }
+
+    public long getWindowStart() { return windowStart; }
+    public BloomFilter getSeenPairs() { return seenPairs; }
+    public CountMinSketch getAccountsPerMerchant() { return accountsPerMerchant; }
+    public HeavyHitters getHeaviest() { return heaviest; }
+}
@@ -0,0 +1,180 @@
+package com.fraudlens.domain.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fixed-point amount: a long count of minor units at a decimal scale (1250.75 is 125075 at scale 2).
+ *
+ * Used for totals, threshold checks and risk scoring so the detection path does no
+ * BigDecimal arithmetic. Results match the BigDecimal operations they replace; values
+ * that do not fit a long are rejected with {@link ArithmeticException}.
+ * Convert with {@link #of(BigDecimal)} and {@link #toBigDecimal()} at the serialization edges.
+ */
+public final class Money implements Comparable<Money> {
+
+    public static final int MAX_SCALE = 18;
+
+    private static final long[] POWERS_OF_TEN = new long[MAX_SCALE + 1];
+
+    static {
+        POWERS_OF_TEN[0] = 1L;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private static final Map<String, Integer> CURRENCY_SCALES = new ConcurrentHashMap<>();
+    private static final int DEFAULT_CURRENCY_SCALE = 2;
+
+    private final long units;
+    private final int scale;
+
+    private Money(long units, int scale) {
+        this.units = units;
+        this.scale = scale;
+    }
+
+    public static Money ofUnits(long units, int scale) {
+        checkScale(scale);
+        return new Money(units, scale);
+    }
+
+    /** Exact conversion; the scale is the amount's own, or 0 for negative scales */
+    public static Money of(BigDecimal amount) {
+        int scale = Math.max(0, amount.scale());
+        checkScale(scale);
+        BigDecimal exact = amount.scale() == scale ? amount : amount.setScale(scale);
+        return new Money(exact.unscaledValue().longValueExact(), scale);
+    }
+
+    /** Minor-unit digits of an ISO 4217 currency (2 for unknown codes) */
+    public static int currencyScale(String currencyCode) {
+        if (currencyCode == null) {
+            return DEFAULT_CURRENCY_SCALE;
+        }
+        return CURRENCY_SCALES.computeIfAbsent(currencyCode, code -> {
+            try {
+                int digits = Currency.getInstance(code).getDefaultFractionDigits();
+                return digits >= 0 ? digits : DEFAULT_CURRENCY_SCALE;
+            } catch (IllegalArgumentException e) {
+                return DEFAULT_CURRENCY_SCALE;
+            }
+        });
+    }
+
+    /** Same value with at least the currency's minor-unit scale, e.g. 12.5 EUR as 1250 */
+    public Money atCurrencyScale(String currencyCode) {
+        int target = currencyScale(currencyCode);
+        return target > scale ? new Money(rescale(units, scale, target), target) : this;
+    }
+
+    public Money plus(Money other) {
+        int target = Math.max(scale, other.scale);
+        return new Money(Math.addExact(rescale(units, scale, target), rescale(other.units, other.scale, target)),
+                         target);
+    }
+
+    /**
+     * Quotient rounded HALF_UP to {@code resultScale} digits, as unscaled units:
+     * the same value as {@code a.divide(b, resultScale, HALF_UP).unscaledValue()}.
+     */
+    public long divideHalfUp(Money divisor, int resultScale) {
+        checkScale(resultScale);
+        if (divisor.units == 0L) {
+            throw new ArithmeticException("Division by zero");
+        }
+        int common = Math.max(scale, divisor.scale);
+        try {
+            long numerator = Math.multiplyExact(rescale(units, scale, common), POWERS_OF_TEN[resultScale]);
+            long denominator = rescale(divisor.units, divisor.scale, common);
+            long quotient = numerator / denominator;
+            long remainder = Math.abs(numerator % denominator);
+            if (remainder >= Math.abs(denominator) - remainder) {
+                quotient += Long.signum(numerator) * Long.signum(denominator);
+            }
+            return quotient;
+        } catch (ArithmeticException e) {
+            // Only for amounts near the long range; exact but slow
+            return toBigDecimal().divide(divisor.toBigDecimal(), resultScale, RoundingMode.HALF_UP)
+                                 .unscaledValue().longValueExact();
+        }
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return compare(units, scale, other.units, other.scale);
+    }
+
+    /** Compares two unscaled amounts numerically, without overflow */
+    public static int compare(long units, int scale, long otherUnits, int otherScale) {
+        if (scale == otherScale) {
+            return Long.compare(units, otherUnits);
+        }
+        if (scale < otherScale) {
+            return -compare(otherUnits, otherScale, units, scale);
+        }
+        // Bring the other side up to this scale; if that overflows, its magnitude is larger
+        long factor = POWERS_OF_TEN[scale - otherScale];
+        long low = otherUnits * factor;
+        if (Math.multiplyHigh(otherUnits, factor) == (low >> 63)) {
+            return Long.compare(units, low);
+        }
+        return otherUnits > 0 ? -1 : 1;
+    }
+
+    public boolean isAtLeast(Money other) {
+        return compareTo(other) >= 0;
+    }
+
+    /** Nearest double, for statistics such as averages that need no exact cents */
+    public double toDouble() {
+        return (double) units / POWERS_OF_TEN[scale];
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(units, scale);
+    }
+
+    static long rescale(long units, int fromScale, int toScale) {
+        int shift = toScale - fromScale;
+        if (shift == 0) {
+            return units;
+        }
+        if (shift < 0 || toScale > MAX_SCALE) {
+            throw new ArithmeticException("Cannot rescale from " + fromScale + " to " + toScale);
+        }
+        return Math.multiplyExact(units, POWERS_OF_TEN[shift]);
+    }
+
+    private static void checkScale(int scale) {
+        if (scale < 0 || scale > MAX_SCALE) {
+            throw new ArithmeticException("Unsupported scale: " + scale);
+        }
+    }
+
+    // Getters
+    public long getUnits() { return units; }
+    public int getScale() { return scale; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Money)) return false;
+        Money money = (Money) o;
+        return units == money.units && scale == money.scale;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(units) + scale;
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
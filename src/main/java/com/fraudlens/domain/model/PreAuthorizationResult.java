@@ -0,0 +1,78 @@
+package com.fraudlens.domain.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.math.BigDecimal;
+
+/**
+ * Verdict for a candidate transaction: the fraud rule and risk score evaluated on the
+ * account's current window as if the transaction had been added to it.
+ */
+public class PreAuthorizationResult {
+
+    @JsonProperty("accountId")
+    private final String accountId;
+
+    @JsonProperty("transactionId")
+    private final String transactionId;
+
+    @JsonProperty("wouldTriggerAlert")
+    private final boolean wouldTriggerAlert;
+
+    @JsonProperty("riskScore")
+    private final int riskScore;
+
+    @JsonProperty("projectedTotalAmount")
+    private final BigDecimal projectedTotalAmount;
+
+    @JsonProperty("projectedCountryCount")
+    private final int projectedCountryCount;
+
+    @JsonProperty("projectedTransactionCount")
+    private final int projectedTransactionCount;
+
+    public PreAuthorizationResult(String accountId, String transactionId, boolean wouldTriggerAlert, int riskScore,
+                                  BigDecimal projectedTotalAmount, int projectedCountryCount,
+                                  int projectedTransactionCount) {
+        this.accountId = accountId;
+        this.transactionId = transactionId;
+        this.wouldTriggerAlert = wouldTriggerAlert;
+        this.riskScore = riskScore;
+        this.projectedTotalAmount = projectedTotalAmount;
+        this.projectedCountryCount = projectedCountryCount;
+        this.projectedTransactionCount = projectedTransactionCount;
+    }
+
+    // No-args constructor for Jackson: owners answer pre-authorisation for the accounts they host
+    public PreAuthorizationResult() {
+        this.accountId = null;
+        this.transactionId = null;
+        this.wouldTriggerAlert = false;
+        this.riskScore = 0;
+        this.projectedTotalAmount = null;
+        this.projectedCountryCount = 0;
+        this.projectedTransactionCount = 0;
+    }
+
+    // Getters
+    public String getAccountId() { return accountId; }
+    public String getTransactionId() { return transactionId; }
+    public boolean isWouldTriggerAlert() { return wouldTriggerAlert; }
+    public int getRiskScore() { return riskScore; }
+    public BigDecimal getProjectedTotalAmount() { return projectedTotalAmount; }
+    public int getProjectedCountryCount() { return projectedCountryCount; }
+    public int getProjectedTransactionCount() { return projectedTransactionCount; }
+
+    @Override
+    public String toString() {
+        return "PreAuthorizationResult{" +
+                "accountId='" + accountId + '\'' +
+                ", transactionId='" + transactionId + '\'' +
+                ", wouldTriggerAlert=" + wouldTriggerAlert +
+                ", riskScore=" + riskScore +
+                ", projectedTotalAmount=" + projectedTotalAmount +
+                ", projectedCountryCount=" + projectedCountryCount +
+                ", projectedTransactionCount=" + projectedTransactionCount +
+                '}';
+    }
+}
@@ -0,0 +1,78 @@
+package com.fraudlens.domain.model;
+
+/**
+ * Bloom filters over a sliding time horizon: {@code generations} filters, each covering one
+ * period of {@code horizon / (generations - 1)}. Items go into the newest filter and are looked
+ * up in all of them; when time enters a new period, the oldest filter is cleared and becomes
+ * the newest. An item is therefore remembered for at least the horizon and at most one period
+ * longer, and memory stays at {@code generations} filters however long the stream runs.
+ */
+public final class RotatingBloomFilter {
+
+    private final BloomFilter[] generations;
+    private final long periodMillis;
+    private int newest;
+    private long newestStart = Long.MIN_VALUE;
+
+    public RotatingBloomFilter(BloomFilter[] generations, long periodMillis) {
+        if (generations.length < 2 || periodMillis <= 0) {
+            throw new IllegalArgumentException("Rotation needs at least two generations and a positive period");
+        }
+        this.generations = generations;
+        this.periodMillis = periodMillis;
+    }
+
+    /** Sized for {@code expectedPerGeneration} items per period at false-positive rate {@code fpp} each */
+    public static RotatingBloomFilter create(int generations, long horizonMillis, long expectedPerGeneration,
+                                             double fpp) {
+        if (generations < 2) {
+            throw new IllegalArgumentException("Rotation needs at least two generations");
+        }
+        BloomFilter[] filters = new BloomFilter[generations];
+        for (int i = 0; i < generations; i++) {
+            filters[i] = BloomFilter.forExpected(expectedPerGeneration, fpp);
+        }
+        return new RotatingBloomFilter(filters, Math.max(1, horizonMillis / (generations - 1)));
+    }
+
+    /** Moves the newest generation forward to the period containing {@code timeMillis}; earlier times are ignored */
+    public void advanceTo(long timeMillis) {
+        long start = timeMillis - Math.floorMod(timeMillis, periodMillis);
+        if (newestStart == Long.MIN_VALUE) {
+            newestStart = start;
+            return;
+        }
+        for (int step = 0; newestStart < start && step < generations.length; step++) {
+            newest = (newest + 1) % generations.length;
+            generations[newest].clear();
+            newestStart += periodMillis;
+        }
+        newestStart = Math.max(newestStart, start);
+    }
+
+    public boolean mightContain(long hash) {
+        for (BloomFilter generation : generations) {
+            if (generation.mightContain(hash)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void put(long hash) {
+        generations[newest].put(hash);
+    }
+
+    /** Probability that an item never added is reported present by any generation, at the current fill */
+    public double estimatedFalsePositiveRate() {
+        double none = 1.0;
+        for (BloomFilter generation : generations) {
+            none *= 1.0 - generation.estimatedFalsePositiveRate();
+        }
+        return 1.0 - none;
+    }
+
+    public int getGenerations() { return generations.length; }
+    public long getPeriodMillis() { return periodMillis; }
+    public long getNewestStart() { return newestStart; }
+}
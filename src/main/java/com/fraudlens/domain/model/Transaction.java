@@ -11,6 +11,8 @@ import java.time.Instant;
 import java.util.Objects;
 
 public class Transaction {
+
+    private static final Money HIGH_VALUE_THRESHOLD = Money.ofUnits(100_000L, 2); // €1000.00
     
     @NotNull
     @JsonProperty("transactionId")
@@ -84,24 +86,46 @@ public class Transaction {
         }
     }
 
-    // Domain methods
+    // Domain methods (through getters, so decoded views can supply the values)
     @JsonIgnore
     public boolean isHighValue() {
-        return amount != null && amount.compareTo(new BigDecimal("1000.00")) >= 0;
+        Money money = getMoney();
+        return money != null && money.isAtLeast(HIGH_VALUE_THRESHOLD);
+    }
+
+    /** Amount as fixed-point money; throws ArithmeticException if it does not fit a long */
+    @JsonIgnore
+    public Money getMoney() {
+        BigDecimal amount = getAmount();
+        return amount != null ? Money.of(amount) : null;
     }
 
     @JsonIgnore
     public boolean isFromCountry(String targetCountry) {
+        String country = getCountry();
         return country != null && country.equalsIgnoreCase(targetCountry);
     }
 
     @JsonIgnore
     public boolean isWithinTimeWindow(Instant windowStart, Instant windowEnd) {
+        Instant timestamp = getTimestamp();
         return timestamp != null && 
                !timestamp.isBefore(windowStart) && 
                !timestamp.isAfter(windowEnd);
     }
 
+    @JsonIgnore
+    public boolean hasAccountId() {
+        return accountId != null;
+    }
+
+    /** Event time as epoch millis; {@link Long#MIN_VALUE} if absent */
+    @JsonIgnore
+    public long getTimestampMillis() {
+        Instant time = getTimestamp();
+        return time != null ? time.toEpochMilli() : Long.MIN_VALUE;
+    }
+
     // Getters
     public String getTransactionId() { return transactionId; }
     public String getAccountId() { return accountId; }
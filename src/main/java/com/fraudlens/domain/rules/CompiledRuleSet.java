@@ -0,0 +1,351 @@
+package com.fraudlens.domain.rules;
+
+import com.fraudlens.domain.model.Money;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A rule set compiled into one flat predicate program.
+ *
+ * Every condition of every rule becomes one slot, and the slots are grouped at compile time by
+ * the view of the window they read (the window itself or one horizon) and then by feature.
+ * Each group holds parallel arrays of the thresholds as fixed-point units and scale, the rule
+ * they belong to and the operator as a mask of accepted comparison outcomes (less, equal,
+ * greater). {@link #evaluate} reads each feature once and runs its group as a tight loop of
+ * comparisons: each comparison is turned into a pass bit by shifting the mask, and a failing
+ * condition clears its rule's bit in the result. No per-condition dispatch and no allocation;
+ * the result is a bit mask of the rules that matched, in definition order. A window that does
+ * not track a horizon, or a feature ({@link RuleFeatures#UNTRACKED}), fails every rule with a
+ * condition on it.
+ *
+ * The set also carries the scoring threshold, the reference amount for the amount part of the
+ * risk score, so a published rule set changes scoring and matching together. The version is a
+ * hash of the rules' canonical text and the threshold, so every instance that compiles the same
+ * rules reports the same version, across restarts too.
+ *
+ * Instances are immutable and can be shared between threads.
+ */
+public final class CompiledRuleSet {
+
+    /** Rule results are bits of a long */
+    public static final int MAX_RULES = 64;
+
+    public static final String DEFAULT_RULE = "MULTI_COUNTRY_HIGH_VALUE: total >= 1000.00 && countries >= 3";
+
+    /** Definition key of the scoring threshold; not a valid rule name, so it cannot clash with one */
+    public static final String SCORING_THRESHOLD = "@scoring-threshold";
+
+    public static final Money DEFAULT_SCORING_THRESHOLD = Money.ofUnits(100_000L, 2);
+
+    // Accepted outcomes of compare(value, threshold) + 1: bit 0 less, bit 1 equal, bit 2 greater
+    private static final int LESS = 0b001;
+    private static final int EQUAL = 0b010;
+    private static final int GREATER = 0b100;
+
+    private static final long NO_HORIZON = 0L;
+
+    private final List<FraudRule> rules;
+    private final Money scoringThreshold;
+    private final String version;
+    private final String[] ruleNames;
+    private final long allRules;
+
+    private final View window;
+    private final View[] horizons;
+
+    private CompiledRuleSet(List<FraudRule> rules, Money scoringThreshold) {
+        this.rules = List.copyOf(rules);
+        this.scoringThreshold = scoringThreshold;
+        this.version = version(rules, scoringThreshold);
+        this.ruleNames = new String[rules.size()];
+        this.allRules = rules.size() == MAX_RULES ? -1L : (1L << rules.size()) - 1;
+
+        Map<Long, View.Builder> views = new LinkedHashMap<>();
+        for (int r = 0; r < rules.size(); r++) {
+            FraudRule rule = rules.get(r);
+            ruleNames[r] = rule.getName();
+            for (FraudRule.Condition condition : rule.getConditions()) {
+                long horizon = condition.horizon() != null ? condition.horizon().toMillis() : NO_HORIZON;
+                views.computeIfAbsent(horizon, View.Builder::new).add(condition, r);
+            }
+        }
+        View.Builder windowView = views.remove(NO_HORIZON);
+        this.window = (windowView != null ? windowView : new View.Builder(NO_HORIZON)).build();
+        this.horizons = views.values().stream().map(View.Builder::build).toArray(View[]::new);
+    }
+
+    public static CompiledRuleSet compile(List<FraudRule> rules) {
+        return compile(rules, DEFAULT_SCORING_THRESHOLD);
+    }
+
+    public static CompiledRuleSet compile(List<FraudRule> rules, Money scoringThreshold) {
+        if (scoringThreshold.getUnits() <= 0) {
+            throw new IllegalArgumentException("The scoring threshold must be positive, got " + scoringThreshold);
+        }
+        if (rules.isEmpty()) {
+            throw new IllegalArgumentException("A rule set needs at least one rule");
+        }
+        if (rules.size() > MAX_RULES) {
+            throw new IllegalArgumentException("At most " + MAX_RULES + " rules are supported, got " + rules.size());
+        }
+        Set<String> names = new HashSet<>();
+        for (FraudRule rule : rules) {
+            if (!names.add(rule.getName())) {
+                throw new IllegalArgumentException("Duplicate rule name " + rule.getName());
+            }
+        }
+        return new CompiledRuleSet(rules, scoringThreshold);
+    }
+
+    /** Parses and compiles {@code NAME: conditions} definitions; blank lines and # comments are skipped */
+    public static CompiledRuleSet parse(Collection<String> definitions) {
+        return parse(definitions, DEFAULT_SCORING_THRESHOLD);
+    }
+
+    /**
+     * As {@link #parse(Collection)}, scoring against {@code scoringThreshold} unless a
+     * {@code @scoring-threshold: amount} line sets it
+     */
+    public static CompiledRuleSet parse(Collection<String> definitions, Money scoringThreshold) {
+        List<FraudRule> rules = new ArrayList<>();
+        Money threshold = scoringThreshold;
+        for (String definition : definitions) {
+            String line = definition.trim();
+            if (line.startsWith(SCORING_THRESHOLD + ":")) {
+                threshold = parseScoringThreshold(line.substring(SCORING_THRESHOLD.length() + 1));
+            } else if (!line.isEmpty() && !line.startsWith("#")) {
+                rules.add(FraudRule.parse(line));
+            }
+        }
+        return compile(rules, threshold);
+    }
+
+    public static Money parseScoringThreshold(String amount) {
+        try {
+            return Money.of(new BigDecimal(amount.trim()));
+        } catch (NumberFormatException | ArithmeticException e) {
+            throw new IllegalArgumentException("Invalid scoring threshold '" + amount.trim() + "'");
+        }
+    }
+
+    /** The built-in rule: €1000 across 3 countries */
+    public static CompiledRuleSet defaults() {
+        return parse(List.of(DEFAULT_RULE));
+    }
+
+    /** The built-in rule with configured thresholds, scoring against the amount threshold */
+    public static CompiledRuleSet defaults(BigDecimal amountThreshold, int countryThreshold) {
+        return parse(List.of("MULTI_COUNTRY_HIGH_VALUE: total >= " + amountThreshold.toPlainString()
+                             + " && countries >= " + countryThreshold), Money.of(amountThreshold));
+    }
+
+    /** Bit mask of the rules that match, bit i for rule i; 0 when none does */
+    public long evaluate(RuleFeatures features) {
+        long failed = window.failed(features);
+        for (View view : horizons) {
+            RuleFeatures horizon = features.horizon(view.horizonMillis);
+            failed |= horizon != null ? view.failed(horizon) : view.rules;
+        }
+        return allRules & ~failed;
+    }
+
+    /** True if any rule reads a horizon other than the detection window */
+    public boolean usesHorizons() {
+        return horizons.length > 0;
+    }
+
+    public boolean matchesAny(RuleFeatures window) {
+        return evaluate(window) != 0L;
+    }
+
+    /** Name of the first matching rule in a result mask, or null if it is empty */
+    public String firstMatch(long matched) {
+        return matched != 0L ? ruleNames[Long.numberOfTrailingZeros(matched)] : null;
+    }
+
+    public String ruleName(int index) {
+        return ruleNames[index];
+    }
+
+    public int size() {
+        return ruleNames.length;
+    }
+
+    public List<FraudRule> getRules() {
+        return rules;
+    }
+
+    /** Reference amount for the amount part of the risk score */
+    public Money getScoringThreshold() {
+        return scoringThreshold;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    private static String version(List<FraudRule> rules, Money scoringThreshold) {
+        StringBuilder canonical = new StringBuilder();
+        for (FraudRule rule : rules) {
+            canonical.append(rule).append('\n');
+        }
+        // Left out at the default, so rule sets that never set it keep their earlier versions
+        if (scoringThreshold.compareTo(DEFAULT_SCORING_THRESHOLD) != 0) {
+            canonical.append(SCORING_THRESHOLD).append(": ")
+                     .append(scoringThreshold.toBigDecimal().stripTrailingZeros().toPlainString()).append('\n');
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonical.toString().getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder("r");
+            for (int i = 0; i < 4; i++) {
+                hex.append(Character.forDigit((digest[i] >> 4) & 0xF, 16)).append(Character.forDigit(digest[i] & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static int acceptMask(FraudRule.Operator operator) {
+        switch (operator) {
+            case LESS: return LESS;
+            case LESS_OR_EQUAL: return LESS | EQUAL;
+            case EQUAL: return EQUAL;
+            case NOT_EQUAL: return LESS | GREATER;
+            case GREATER_OR_EQUAL: return GREATER | EQUAL;
+            case GREATER: return GREATER;
+            default: throw new IllegalArgumentException("Unsupported operator " + operator);
+        }
+    }
+
+    /** The conditions on one view of the window, grouped by the feature they read */
+    private static final class View {
+
+        final long horizonMillis;
+        /** Rules with a condition on this view, all failed when the window does not track it */
+        final long rules;
+        final Comparisons total;
+        final Comparisons countries;
+        final Comparisons transactions;
+        final Comparisons merchants;
+
+        private View(long horizonMillis, Comparisons total, Comparisons countries,
+                     Comparisons transactions, Comparisons merchants) {
+            this.horizonMillis = horizonMillis;
+            this.rules = total.rules | countries.rules | transactions.rules | merchants.rules;
+            this.total = total;
+            this.countries = countries;
+            this.transactions = transactions;
+            this.merchants = merchants;
+        }
+
+        long failed(RuleFeatures features) {
+            long failed = total.failed(features.getTotalUnscaled(), features.getAmountScale())
+                    | countries.failed(features.getCountryCount(), 0)
+                    | transactions.failed(features.getTransactionCount(), 0);
+            int merchantCount = features.getMerchantCount();
+            return failed | (merchantCount != RuleFeatures.UNTRACKED ? merchants.failed(merchantCount, 0) : merchants.rules);
+        }
+
+        static final class Builder {
+
+            private final long horizonMillis;
+            private final Map<RuleFeature, Comparisons.Builder> byFeature = new EnumMap<>(RuleFeature.class);
+
+            Builder(long horizonMillis) {
+                this.horizonMillis = horizonMillis;
+                for (RuleFeature feature : RuleFeature.values()) {
+                    byFeature.put(feature, new Comparisons.Builder());
+                }
+            }
+
+            void add(FraudRule.Condition condition, int ruleIndex) {
+                byFeature.get(condition.feature()).add(condition, ruleIndex);
+            }
+
+            View build() {
+                return new View(horizonMillis,
+                                byFeature.get(RuleFeature.TOTAL_AMOUNT).build(),
+                                byFeature.get(RuleFeature.COUNTRY_COUNT).build(),
+                                byFeature.get(RuleFeature.TRANSACTION_COUNT).build(),
+                                byFeature.get(RuleFeature.MERCHANT_COUNT).build());
+            }
+        }
+    }
+
+    /** The conditions on one feature of one view: the value is compared with each threshold in turn */
+    private static final class Comparisons {
+
+        final long[] thresholdUnits;
+        final int[] thresholdScales;
+        final int[] acceptMasks;
+        final int[] ruleIndexes;
+        final long rules;
+
+        private Comparisons(long[] thresholdUnits, int[] thresholdScales, int[] acceptMasks, int[] ruleIndexes) {
+            this.thresholdUnits = thresholdUnits;
+            this.thresholdScales = thresholdScales;
+            this.acceptMasks = acceptMasks;
+            this.ruleIndexes = ruleIndexes;
+            long rules = 0L;
+            for (int ruleIndex : ruleIndexes) {
+                rules |= 1L << ruleIndex;
+            }
+            this.rules = rules;
+        }
+
+        /** Bits of the rules whose condition the value fails */
+        long failed(long value, int scale) {
+            long failed = 0L;
+            for (int i = 0; i < thresholdUnits.length; i++) {
+                int comparison = Money.compare(value, scale, thresholdUnits[i], thresholdScales[i]);
+                long pass = (acceptMasks[i] >>> (Integer.signum(comparison) + 1)) & 1;
+                failed |= (pass ^ 1L) << ruleIndexes[i];
+            }
+            return failed;
+        }
+
+        static final class Builder {
+
+            private final List<FraudRule.Condition> conditions = new ArrayList<>();
+            private final List<Integer> ruleIndexes = new ArrayList<>();
+
+            void add(FraudRule.Condition condition, int ruleIndex) {
+                conditions.add(condition);
+                ruleIndexes.add(ruleIndex);
+            }
+
+            Comparisons build() {
+                int size = conditions.size();
+                long[] units = new long[size];
+                int[] scales = new int[size];
+                int[] masks = new int[size];
+                int[] indexes = new int[size];
+                for (int i = 0; i < size; i++) {
+                    Money threshold = Money.of(conditions.get(i).value());
+                    units[i] = threshold.getUnits();
+                    scales[i] = threshold.getScale();
+                    masks[i] = acceptMask(conditions.get(i).operator());
+                    indexes[i] = ruleIndexes.get(i);
+                }
+                return new Comparisons(units, scales, masks, indexes);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CompiledRuleSet{" + version + ", " + rules + ", scoring threshold " + scoringThreshold + "}";
+    }
+}
@@ -0,0 +1,148 @@
+package com.fraudlens.domain.rules;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * One declarative rule: a name and a conjunction of feature comparisons, written as
+ * {@code NAME: feature op value && feature op value ...}, for example
+ * {@code MULTI_COUNTRY_HIGH_VALUE: total >= 1000.00 && countries >= 3}.
+ *
+ * A feature reads the detection window unless it names a trailing horizon in brackets,
+ * as in {@code RAPID_FIRE: transactions[1m] >= 10 && total[24h] >= 5000}; horizons are
+ * written as a number and a unit (ms, s, m, h or d).
+ *
+ * Alternatives are separate rules. The name becomes the alert type when the rule fires.
+ */
+public class FraudRule {
+
+    public enum Operator {
+        LESS("<"), LESS_OR_EQUAL("<="), EQUAL("=="), NOT_EQUAL("!="), GREATER_OR_EQUAL(">="), GREATER(">");
+
+        private final String symbol;
+
+        Operator(String symbol) {
+            this.symbol = symbol;
+        }
+
+        public String getSymbol() {
+            return symbol;
+        }
+
+        static Operator fromSymbol(String symbol) {
+            for (Operator operator : values()) {
+                if (operator.symbol.equals(symbol)) {
+                    return operator;
+                }
+            }
+            throw new IllegalArgumentException("Unknown operator '" + symbol + "'");
+        }
+    }
+
+    /** A comparison of one feature; {@code horizon} is null for the detection window */
+    public record Condition(RuleFeature feature, Duration horizon, Operator operator, BigDecimal value) {
+
+        public Condition(RuleFeature feature, Operator operator, BigDecimal value) {
+            this(feature, null, operator, value);
+        }
+
+        @Override
+        public String toString() {
+            String name = horizon != null ? feature.getRuleName() + "[" + formatHorizon(horizon) + "]" : feature.getRuleName();
+            return name + " " + operator.getSymbol() + " " + value.toPlainString();
+        }
+    }
+
+    private static final Pattern NAME = Pattern.compile("[A-Za-z][A-Za-z0-9_\\-]*");
+    private static final Pattern CONDITION = Pattern.compile(
+            "\\s*([A-Za-z_]+)\\s*(?:\\[\\s*([0-9A-Za-z]+)\\s*\\])?\\s*(<=|>=|==|!=|<|>)\\s*(-?[0-9]+(?:\\.[0-9]+)?)\\s*");
+    private static final Pattern HORIZON = Pattern.compile("([0-9]+)(ms|s|m|h|d)");
+
+    private final String name;
+    private final List<Condition> conditions;
+
+    public FraudRule(String name, List<Condition> conditions) {
+        if (name == null || !NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid rule name '" + name + "'");
+        }
+        if (conditions == null || conditions.isEmpty()) {
+            throw new IllegalArgumentException("Rule " + name + " has no conditions");
+        }
+        this.name = name;
+        this.conditions = List.copyOf(conditions);
+    }
+
+    /** Parses {@code NAME: condition && condition ...}; throws IllegalArgumentException on bad syntax */
+    public static FraudRule parse(String definition) {
+        int colon = definition.indexOf(':');
+        if (colon < 0) {
+            throw new IllegalArgumentException("Rule definition needs 'NAME: conditions': " + definition);
+        }
+        String name = definition.substring(0, colon).trim();
+        List<Condition> conditions = new ArrayList<>();
+        for (String part : definition.substring(colon + 1).split("&&")) {
+            Matcher matcher = CONDITION.matcher(part);
+            if (!matcher.matches()) {
+                throw new IllegalArgumentException("Invalid condition '" + part.trim() + "' in rule " + name);
+            }
+            conditions.add(new Condition(RuleFeature.fromRuleName(matcher.group(1)),
+                                         matcher.group(2) != null ? parseHorizon(matcher.group(2)) : null,
+                                         Operator.fromSymbol(matcher.group(3)),
+                                         new BigDecimal(matcher.group(4))));
+        }
+        return new FraudRule(name, conditions);
+    }
+
+    /** Parses a horizon such as {@code 30s}, {@code 5m}, {@code 1h} or {@code 1d} */
+    public static Duration parseHorizon(String text) {
+        Matcher matcher = HORIZON.matcher(text.trim());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Invalid horizon '" + text.trim() + "', expected e.g. 30s, 5m, 1h or 1d");
+        }
+        long amount = Long.parseLong(matcher.group(1));
+        Duration horizon;
+        switch (matcher.group(2)) {
+            case "ms": horizon = Duration.ofMillis(amount); break;
+            case "s": horizon = Duration.ofSeconds(amount); break;
+            case "m": horizon = Duration.ofMinutes(amount); break;
+            case "h": horizon = Duration.ofHours(amount); break;
+            default: horizon = Duration.ofDays(amount); break;
+        }
+        if (horizon.isZero()) {
+            throw new IllegalArgumentException("Horizon must be positive: " + text.trim());
+        }
+        return horizon;
+    }
+
+    /** Shortest spelling of a horizon in the largest whole unit up to hours, e.g. {@code 24h} */
+    public static String formatHorizon(Duration horizon) {
+        long millis = horizon.toMillis();
+        if (millis % 3_600_000L == 0) {
+            return millis / 3_600_000L + "h";
+        }
+        if (millis % 60_000L == 0) {
+            return millis / 60_000L + "m";
+        }
+        return millis % 1_000L == 0 ? millis / 1_000L + "s" : millis + "ms";
+    }
+
+    public String getName() { return name; }
+    public List<Condition> getConditions() { return Collections.unmodifiableList(conditions); }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(name).append(": ");
+        for (int i = 0; i < conditions.size(); i++) {
+            if (i > 0) {
+                text.append(" && ");
+            }
+            text.append(conditions.get(i));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,32 @@
+package com.fraudlens.domain.rules;
+
+import java.util.Locale;
+
+/** The features a rule condition can name, with their spelling in rule definitions */
+public enum RuleFeature {
+
+    TOTAL_AMOUNT("total"),
+    COUNTRY_COUNT("countries"),
+    TRANSACTION_COUNT("transactions"),
+    MERCHANT_COUNT("merchants");
+
+    private final String ruleName;
+
+    RuleFeature(String ruleName) {
+        this.ruleName = ruleName;
+    }
+
+    public String getRuleName() {
+        return ruleName;
+    }
+
+    public static RuleFeature fromRuleName(String name) {
+        String normalized = name.trim().toLowerCase(Locale.ROOT);
+        for (RuleFeature feature : values()) {
+            if (feature.ruleName.equals(normalized)) {
+                return feature;
+            }
+        }
+        throw new IllegalArgumentException("Unknown rule feature '" + name + "'");
+    }
+}
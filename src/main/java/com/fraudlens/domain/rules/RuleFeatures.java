@@ -0,0 +1,30 @@
+package com.fraudlens.domain.rules;
+
+/**
+ * Window features that fraud rules can test, read as primitives so a rule set can be
+ * evaluated without copying or converting the window.
+ */
+public interface RuleFeatures {
+
+    /** Value of a feature the window does not track; conditions on it fail */
+    int UNTRACKED = -1;
+
+    /** Window total as unscaled units at {@link #getAmountScale()} */
+    long getTotalUnscaled();
+
+    int getAmountScale();
+
+    int getCountryCount();
+
+    int getTransactionCount();
+
+    /** Distinct merchants, or {@link #UNTRACKED} if this window does not count them */
+    default int getMerchantCount() {
+        return UNTRACKED;
+    }
+
+    /** The same features over a trailing horizon, or null if this window does not track that horizon */
+    default RuleFeatures horizon(long horizonMillis) {
+        return null;
+    }
+}
@@ -1,15 +1,30 @@
 package com.fraudlens.domain.service;
 
+import com.fraudlens.domain.model.AccountActivityAggregate;
 import com.fraudlens.domain.model.AccountActivityWindow;
+import com.fraudlens.domain.model.AccountHorizonPanes;
+import com.fraudlens.domain.model.AccountProfile;
+import com.fraudlens.domain.model.CountryDictionary;
+import com.fraudlens.domain.model.CountryTravelTimes;
 import com.fraudlens.domain.model.FraudAlert;
+import com.fraudlens.domain.model.Money;
+import com.fraudlens.domain.model.PreAuthorizationResult;
 import com.fraudlens.domain.model.Transaction;
+import com.fraudlens.domain.rules.CompiledRuleSet;
+import com.fraudlens.domain.rules.RuleFeatures;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
 
 @Service
@@ -17,35 +32,91 @@ public class FraudDetectionService {
     
     private static final Logger logger = LoggerFactory.getLogger(FraudDetectionService.class);
     
-    private static final BigDecimal FRAUD_THRESHOLD = new BigDecimal("1000.00");
-    private static final String MULTI_COUNTRY_FRAUD_TYPE = "MULTI_COUNTRY_HIGH_VALUE";
+    // Rules from configuration; the built-in rule unless a rule set bean is configured
+    @Autowired(required = false)
+    private CompiledRuleSet configuredRules = CompiledRuleSet.defaults();
+
+    // Rules published at runtime (fraud-rules topic). Read once per evaluation, swapped whole,
+    // so every decision sees one consistent rule set without locking
+    private volatile CompiledRuleSet publishedRules;
+
+    // Transactions a profile needs before deviation from it counts in the risk score
+    private long baselineMinTransactions = 20;
+
+    @Value("${fraudlens.profile.min-transactions:20}")
+    void setBaselineMinTransactions(long baselineMinTransactions) {
+        this.baselineMinTransactions = baselineMinTransactions;
+    }
+
+    @Value("${fraudlens.travel.enabled:true}")
+    private boolean travelEnabled = true;
+
+    // Country positions are too coarse to judge shorter journeys, e.g. between neighbours
+    @Value("${fraudlens.travel.min-minutes:60}")
+    private int travelMinMinutes = 60;
+
+    public static final String IMPOSSIBLE_TRAVEL = "IMPOSSIBLE_TRAVEL";
 
     public boolean isFraudulent(AccountActivityWindow activityWindow) {
         if (activityWindow == null) {
             return false;
         }
         
-        boolean exceedsAmount = activityWindow.exceedsAmountThreshold();
-        boolean hasMultipleCountries = activityWindow.hasMultipleCountries();
+        long matched = getRules().evaluate(AccountActivityAggregate.fromWindow(activityWindow));
         
-        logger.debug("Fraud detection for account {}: Amount exceeds threshold={}, Country count={}", 
-                    activityWindow.getAccountId(), exceedsAmount, activityWindow.getCountryCount());
+        logger.debug("Fraud detection for account {}: matched rules={}, Country count={}", 
+                    activityWindow.getAccountId(), Long.bitCount(matched), activityWindow.getCountryCount());
         
-        return exceedsAmount && hasMultipleCountries;
+        return matched != 0L;
+    }
+
+    // Same rules evaluated on the stream aggregate, without building the window view
+    public boolean isFraudulent(AccountActivityAggregate aggregate) {
+        if (aggregate == null || aggregate.isEmpty()) {
+            return false;
+        }
+        return getRules().matchesAny(aggregate);
+    }
+
+    /** Cheap pre-check on any window form (e.g. an event buffer) before building an aggregate */
+    public boolean matchesAnyRule(RuleFeatures window) {
+        return getRules().matchesAny(window);
+    }
+
+    /** The rules in effect: the last published set, or the configured one */
+    public CompiledRuleSet getRules() {
+        CompiledRuleSet published = publishedRules;
+        return published != null ? published : configuredRules;
+    }
+
+    public CompiledRuleSet getConfiguredRules() {
+        return configuredRules;
+    }
+
+    /** Atomically replaces the rules in effect for all subsequent evaluations */
+    public void publishRules(CompiledRuleSet rules) {
+        publishedRules = rules;
     }
 
     public FraudAlert generateFraudAlert(AccountActivityWindow activityWindow) {
-        if (!isFraudulent(activityWindow)) {
+        CompiledRuleSet rules = getRules();
+        long matched = activityWindow != null ? rules.evaluate(AccountActivityAggregate.fromWindow(activityWindow)) : 0L;
+        if (matched == 0L) {
             throw new IllegalArgumentException("Activity window does not meet fraud criteria");
         }
         
-        int riskScore = calculateRiskScore(activityWindow);
-        String description = generateDescription(activityWindow);
+        int riskScore = calculateRiskScore(activityWindow.getAccountId(), activityWindow.getTotal(),
+                                           activityWindow.getCountryCount(), activityWindow.getTransactionCount(),
+                                           rules.getScoringThreshold());
+        String description = generateDescription(activityWindow.getTotalAmount(),
+                                                 activityWindow.getCountryCount(), activityWindow.getTransactionCount(),
+                                                 activityWindow.getWindowEnd().toEpochMilli()
+                                                         - activityWindow.getWindowStart().toEpochMilli());
         
         return new FraudAlert(
-            generateAlertId(),
+            generateAlertId(activityWindow.getAccountId(), activityWindow.getWindowStart().toEpochMilli(), riskScore),
             activityWindow.getAccountId(),
-            MULTI_COUNTRY_FRAUD_TYPE,
+            rules.firstMatch(matched),
             activityWindow.getTotalAmount(),
             activityWindow.getCountries(),
             activityWindow.getTransactionCount(),
@@ -53,42 +124,241 @@ public class FraudDetectionService {
             activityWindow.getWindowEnd(),
             Instant.now(),
             riskScore,
-            description
+            description,
+            rules.getVersion()
         );
     }
 
-    private int calculateRiskScore(AccountActivityWindow activityWindow) {
+    public FraudAlert generateFraudAlert(AccountActivityAggregate aggregate) {
+        FraudAlert alert = detectFraud(aggregate);
+        if (alert == null) {
+            throw new IllegalArgumentException("Activity window does not meet fraud criteria");
+        }
+        return alert;
+    }
+
+    /**
+     * Stream path: evaluates the rules once and returns the alert, or null if no rule matches.
+     * Scored from the aggregate's primitives, BigDecimal only for the alert payload.
+     */
+    public FraudAlert detectFraud(AccountActivityAggregate aggregate) {
+        CompiledRuleSet rules = getRules();
+        long matched = aggregate != null && !aggregate.isEmpty() ? rules.evaluate(aggregate) : 0L;
+        if (matched == 0L) {
+            return null;
+        }
+        return alert(rules, matched, aggregate);
+    }
+
+    /**
+     * Multi-horizon path: rules see the detection horizon plus any horizon they name; the alert
+     * describes the detection horizon. Null if no rule matches.
+     */
+    public FraudAlert detectFraud(AccountHorizonPanes panes) {
+        CompiledRuleSet rules = getRules();
+        long matched = panes != null && !panes.isEmpty() ? rules.evaluate(panes) : 0L;
+        if (matched == 0L) {
+            return null;
+        }
+        return alert(rules, matched, panes.toAggregate());
+    }
+
+    private FraudAlert alert(CompiledRuleSet rules, long matched, AccountActivityAggregate aggregate) {
+        BigDecimal totalAmount = aggregate.getTotalAmount();
+        int riskScore = calculateRiskScore(aggregate.getAccountId(), aggregate.getTotal(),
+                                           aggregate.getCountryCount(), aggregate.getTransactionCount(),
+                                           rules.getScoringThreshold());
+        String description = generateDescription(totalAmount, aggregate.getCountryCount(), aggregate.getTransactionCount(),
+                                                 aggregate.getWindowEndMillis() - aggregate.getWindowStartMillis());
+
+        return new FraudAlert(
+            generateAlertId(aggregate.getAccountId(), aggregate.getWindowStartMillis(), riskScore),
+            aggregate.getAccountId(),
+            rules.firstMatch(matched),
+            totalAmount,
+            aggregate.getCountries(),
+            aggregate.getTransactionCount(),
+            Instant.ofEpochMilli(aggregate.getWindowStartMillis()),
+            Instant.ofEpochMilli(aggregate.getWindowEndMillis()),
+            Instant.now(),
+            riskScore,
+            description,
+            rules.getVersion()
+        );
+    }
+
+    // scoringThreshold: the reference amount of the rule set that decided the alert
+    int calculateRiskScore(String accountId, Money totalAmount, int countryCount, int transactionCount,
+                           Money scoringThreshold) {
         int baseScore = 50;
         
-        // Score by amount
-        BigDecimal amountMultiplier = activityWindow.getTotalAmount().divide(FRAUD_THRESHOLD, 2, RoundingMode.HALF_UP);
-        int amountScore = Math.min(30, amountMultiplier.intValue() * 10);
+        // Score by amount: whole multiples of the threshold, after HALF_UP rounding to 2 decimals
+        long amountMultiplier = totalAmount.divideHalfUp(scoringThreshold, 2) / 100;
+        int amountScore = (int) Math.min(30L, amountMultiplier * 10);
         
         // Score by number of countries
-        int countryScore = Math.min(20, (activityWindow.getCountryCount() - 2) * 5);
+        int countryScore = Math.min(20, (countryCount - 2) * 5);
         
         // Score by number of transactions
-        int transactionScore = Math.min(10, activityWindow.getTransactionCount() * 2);
+        int transactionScore = Math.min(10, transactionCount * 2);
         
         int totalScore = baseScore + amountScore + countryScore + transactionScore;
         
-        logger.debug("Risk score calculation for account {}: base={}, amount={}, countries={}, transactions={}, total={}", 
-                    activityWindow.getAccountId(), baseScore, amountScore, countryScore, transactionScore, totalScore);
+        // Guarded: pre-authorisation calls this on the request path, where the boxed varargs would show up
+        if (logger.isDebugEnabled()) {
+            logger.debug("Risk score calculation for account {}: base={}, amount={}, countries={}, transactions={}, total={}", 
+                        accountId, baseScore, amountScore, countryScore, transactionScore, totalScore);
+        }
         
         return Math.min(100, totalScore);
     }
 
-    private String generateDescription(AccountActivityWindow activityWindow) {
+    private String generateDescription(BigDecimal totalAmount, int countryCount, int transactionCount, long windowMillis) {
         return String.format(
-            "Suspicious activity detected: €%.2f across %d countries in %d transactions within 5-minute window",
-            activityWindow.getTotalAmount(),
-            activityWindow.getCountryCount(),
-            activityWindow.getTransactionCount()
+            "Suspicious activity detected: €%.2f across %d countries in %d transactions within %s window",
+            totalAmount,
+            countryCount,
+            transactionCount,
+            windowLength(windowMillis)
+        );
+    }
+
+    // e.g. "5-minute", "24-hour"; in the largest unit that divides the length
+    static String windowLength(long millis) {
+        if (millis > 0 && millis % 3_600_000L == 0) {
+            return millis / 3_600_000L + "-hour";
+        }
+        if (millis > 0 && millis % 60_000L == 0) {
+            return millis / 60_000L + "-minute";
+        }
+        if (millis > 0 && millis % 1_000L == 0) {
+            return millis / 1_000L + "-second";
+        }
+        return millis + " ms";
+    }
+
+    /**
+     * Re-scores an alert by how far its window departs from the account's behavioural baseline:
+     * average amount in standard deviations above the usual, countries outside the usual set and
+     * a transaction rate well above the usual one. The baseline is the profile's snapshot from
+     * before the window ({@link AccountProfile#baselineBefore}), so a burst is not measured
+     * against averages it has already moved. Unchanged while that snapshot is too young.
+     */
+    public FraudAlert applyBaseline(FraudAlert alert, AccountProfile profile) {
+        if (alert == null || profile == null) {
+            return alert;
+        }
+        AccountProfile baseline = profile.baselineBefore(alert.getWindowStart().toEpochMilli());
+        if (baseline == null || baseline.getTransactionCount() < baselineMinTransactions) {
+            return alert;
+        }
+        long windowMillis = alert.getWindowEnd().toEpochMilli() - alert.getWindowStart().toEpochMilli();
+        int deviationScore = calculateDeviationScore(alert.getTotalAmount(), alert.getTransactionCount(),
+                                                     alert.getCountriesInvolved(), windowMillis, baseline);
+        if (deviationScore == 0) {
+            return alert;
+        }
+        int riskScore = Math.min(100, alert.getRiskScore() + deviationScore);
+        return new FraudAlert(
+            generateAlertId(alert.getAccountId(), alert.getWindowStart().toEpochMilli(), riskScore),
+            alert.getAccountId(),
+            alert.getAlertType(),
+            alert.getTotalAmount(),
+            alert.getCountriesInvolved(),
+            alert.getTransactionCount(),
+            alert.getWindowStart(),
+            alert.getWindowEnd(),
+            alert.getAlertTimestamp(),
+            riskScore,
+            alert.getDescription() + String.format(" (+%d for deviation from the account's baseline)", deviationScore),
+            alert.getRulesVersion()
         );
     }
 
-    private String generateAlertId() {
-        return "FRAUD-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+    /**
+     * Impossible-travel check of a transaction against the account's last known position, read
+     * from the profile before the transaction is folded in. Returns null when the journey from
+     * the last country is possible in the time between the two transactions, and when either
+     * time is unknown ({@link AccountProfile#NO_TIMESTAMP}).
+     */
+    public FraudAlert detectImpossibleTravel(String accountId, AccountProfile profile, long timestamp, int countryId,
+                                             BigDecimal amount) {
+        if (!travelEnabled || profile == null || timestamp == AccountProfile.NO_TIMESTAMP
+                || profile.getLastTimestamp() == AccountProfile.NO_TIMESTAMP) {
+            return null;
+        }
+        int fromId = profile.getLastCountryId();
+        int requiredMinutes = CountryTravelTimes.minimumMinutes(fromId, countryId);
+        if (requiredMinutes == 0 || requiredMinutes < travelMinMinutes) {
+            return null;
+        }
+        long requiredMillis = requiredMinutes * 60_000L;
+        long elapsedMillis = Math.abs(timestamp - profile.getLastTimestamp());
+        if (elapsedMillis >= requiredMillis) {
+            return null;
+        }
+
+        // 50 for a barely impossible journey up to 95 for an instant one
+        int riskScore = (int) (95 - 45 * elapsedMillis / requiredMillis);
+        long startMillis = Math.min(timestamp, profile.getLastTimestamp());
+        long endMillis = Math.max(timestamp, profile.getLastTimestamp());
+        String from = CountryDictionary.codeOf(fromId);
+        String to = CountryDictionary.codeOf(countryId);
+        String identity = accountId + '|' + IMPOSSIBLE_TRAVEL + '|' + startMillis + '|' + endMillis;
+        return new FraudAlert(
+            "FRAUD-" + UUID.nameUUIDFromBytes(identity.getBytes(StandardCharsets.UTF_8))
+                           .toString().substring(0, 8).toUpperCase(Locale.ROOT),
+            accountId,
+            IMPOSSIBLE_TRAVEL,
+            amount,
+            new LinkedHashSet<>(List.of(from, to)),
+            2,
+            Instant.ofEpochMilli(startMillis),
+            Instant.ofEpochMilli(endMillis),
+            Instant.now(),
+            riskScore,
+            String.format("Transactions in %s and %s %d minutes apart; the journey takes at least %d minutes",
+                         from, to, elapsedMillis / 60_000, requiredMinutes),
+            getRules().getVersion()
+        );
+    }
+
+    int calculateDeviationScore(BigDecimal totalAmount, int transactionCount, Collection<String> countries,
+                                long windowMillis, AccountProfile profile) {
+        // Up to 15: average amount from 2 to 5 standard deviations above the usual
+        double averageAmount = totalAmount.doubleValue() / Math.max(1, transactionCount);
+        double amountDeviation = profile.amountDeviation(averageAmount);
+        int amountScore = (int) Math.max(0, Math.min(15, Math.round((amountDeviation - 2) * 5)));
+
+        // 5 per country outside the usual set, up to 10
+        int unusualCountries = 0;
+        for (String country : countries) {
+            if (!profile.isUsualCountry(country)) {
+                unusualCountries++;
+            }
+        }
+        int countryScore = Math.min(10, unusualCountries * 5);
+
+        // 5 when transactions arrive at least 4 times as often as usual
+        int rateScore = 0;
+        if (transactionCount > 1 && windowMillis > 0 && profile.getMeanInterArrivalMillis() > 0) {
+            double interArrivalMillis = (double) windowMillis / transactionCount;
+            rateScore = profile.getMeanInterArrivalMillis() >= 4 * interArrivalMillis ? 5 : 0;
+        }
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("Baseline deviation: amount={} ({} sd), unusual countries={}, rate={}",
+                        amountScore, String.format("%.1f", amountDeviation), unusualCountries, rateScore);
+        }
+        return amountScore + countryScore + rateScore;
+    }
+
+    // Deterministic: the same account, window and score always give the same ID, so replays and
+    // reprocessing do not create new alerts downstream, while an escalation gets a new one
+    String generateAlertId(String accountId, long windowStartMillis, int riskScore) {
+        String identity = accountId + '|' + windowStartMillis + '|' + riskScore;
+        return "FRAUD-" + UUID.nameUUIDFromBytes(identity.getBytes(StandardCharsets.UTF_8))
+                              .toString().substring(0, 8).toUpperCase(Locale.ROOT);
     }
 
     public boolean shouldTriggerAlert(Transaction transaction, AccountActivityWindow currentWindow) {
@@ -101,4 +371,75 @@ public class FraudDetectionService {
         
         return isFraudulent(updatedWindow);
     }
-} 
\ No newline at end of file
+
+    // Same question on the stream aggregate, without copying the window
+    public boolean shouldTriggerAlert(Transaction transaction, AccountActivityAggregate current) {
+        return transaction != null && preAuthorize(transaction, current).isWouldTriggerAlert();
+    }
+
+    /**
+     * Pre-authorisation verdict: the fraud rule and risk score as if the transaction were added to
+     * the account's current activity ({@code null} or empty when there is none). Computed from the
+     * aggregate's primitives; the aggregate itself is left untouched.
+     */
+    public PreAuthorizationResult preAuthorize(Transaction transaction, AccountActivityAggregate current) {
+        boolean hasActivity = current != null && !current.isEmpty();
+        Money amount = transaction.getMoney();
+        Money total = hasActivity ? current.getTotal().plus(amount) : amount;
+
+        String country = transaction.getCountry();
+        int countryCount = hasActivity ? current.getCountryCount() : 0;
+        if (country != null && !(hasActivity && current.getCountrySet().contains(country))) {
+            countryCount++;
+        }
+        int transactionCount = (hasActivity ? current.getTransactionCount() : 0) + 1;
+
+        CompiledRuleSet rules = getRules();
+        boolean wouldTriggerAlert = rules.matchesAny(new ProjectedWindow(total, countryCount, transactionCount));
+        int riskScore = calculateRiskScore(transaction.getAccountId(), total, countryCount, transactionCount,
+                                           rules.getScoringThreshold());
+
+        return new PreAuthorizationResult(transaction.getAccountId(), transaction.getTransactionId(),
+                                          wouldTriggerAlert, riskScore, total.toBigDecimal(),
+                                          countryCount, transactionCount);
+    }
+
+    /**
+     * Horizons-mode pre-authorisation: the candidate (at its timestamp, or now) is added to
+     * {@code panes}, which must be the caller's own copy of the account's panes, so rules over any
+     * horizon and over merchants see it exactly as the stream would. Scored on the detection horizon.
+     */
+    public PreAuthorizationResult preAuthorizeOnHorizons(Transaction transaction, AccountHorizonPanes panes) {
+        long now = System.currentTimeMillis();
+        long timestamp = transaction.getTimestamp() != null ? transaction.getTimestampMillis() : now;
+        panes.add(timestamp, transaction.getMoney(), transaction.getCountry(), transaction.getMerchantName(), now);
+
+        CompiledRuleSet rules = getRules();
+        boolean wouldTriggerAlert = rules.matchesAny(panes);
+        Money total = Money.ofUnits(panes.getTotalUnscaled(), panes.getAmountScale());
+        int riskScore = calculateRiskScore(transaction.getAccountId(), total, panes.getCountryCount(),
+                                           panes.getTransactionCount(), rules.getScoringThreshold());
+
+        return new PreAuthorizationResult(transaction.getAccountId(), transaction.getTransactionId(),
+                                          wouldTriggerAlert, riskScore, total.toBigDecimal(),
+                                          panes.getCountryCount(), panes.getTransactionCount());
+    }
+
+    // Current activity plus the candidate, as rule input
+    private static final class ProjectedWindow implements RuleFeatures {
+        private final Money total;
+        private final int countryCount;
+        private final int transactionCount;
+
+        ProjectedWindow(Money total, int countryCount, int transactionCount) {
+            this.total = total;
+            this.countryCount = countryCount;
+            this.transactionCount = transactionCount;
+        }
+
+        @Override public long getTotalUnscaled() { return total.getUnits(); }
+        @Override public int getAmountScale() { return total.getScale(); }
+        @Override public int getCountryCount() { return countryCount; }
+        @Override public int getTransactionCount() { return transactionCount; }
+    }
+}
@@ -0,0 +1,301 @@
+package com.fraudlens.infrastructure.kafka;
+
+import com.fraudlens.domain.model.AccountActivityAggregate;
+import com.fraudlens.domain.model.AccountActivityWindow;
+import com.fraudlens.domain.model.AccountEventBuffer;
+import com.fraudlens.domain.model.AccountHorizonPanes;
+import com.fraudlens.domain.model.PreAuthorizationResult;
+import com.fraudlens.domain.model.Transaction;
+import jakarta.annotation.PostConstruct;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.KeyQueryMetadata;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StoreQueryParameters;
+import org.apache.kafka.streams.errors.InvalidStateStoreException;
+import org.apache.kafka.streams.state.HostInfo;
+import org.apache.kafka.streams.state.QueryableStoreTypes;
+import org.apache.kafka.streams.state.ReadOnlyKeyValueStore;
+import org.apache.kafka.streams.state.ReadOnlyWindowStore;
+import org.apache.kafka.streams.state.WindowStoreIterator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Interactive queries for an account's current activity, straight from the detection state stores.
+ *
+ * Every account is owned by the one instance that hosts its partition. Lookups ask the streams
+ * metadata for the owner: local accounts are read from the local store, the others are fetched
+ * from their owners over HTTP, with one request per instance for a batch. Results, including
+ * "no activity", are cached for a short TTL so hot accounts do not hit the store or the network
+ * on every call.
+ *
+ * Throws {@link InvalidStateStoreException} while the stores cannot be queried (startup,
+ * rebalance) and lets {@link org.springframework.web.client.RestClientException} through when
+ * an owner cannot be reached.
+ */
+@Service
+public class AccountActivityQueryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountActivityQueryService.class);
+    private static final Serializer<String> KEY_SERIALIZER = Serdes.String().serializer();
+    private static final ParameterizedTypeReference<Map<String, AccountActivityWindow>> WINDOWS_BY_ACCOUNT =
+            new ParameterizedTypeReference<>() { };
+
+    public static final String BATCH_PATH = "/api/accounts/activity";
+    public static final String PREAUTH_PATH = "/api/preauth/score";
+
+    @Autowired
+    private StreamsBuilderFactoryBean streamsBuilderFactoryBean;
+
+    @Autowired
+    private FraudDetectionProcessor fraudDetectionProcessor;
+
+    @Autowired
+    private RestClient.Builder restClientBuilder;
+
+    @Value("${fraudlens.streams.application-server:localhost:8081}")
+    private String applicationServer;
+
+    @Value("${fraudlens.query.cache-ttl-ms:1000}")
+    private long cacheTtlMs;
+
+    @Value("${fraudlens.query.cache-max-entries:100000}")
+    private int cacheMaxEntries;
+
+    @Value("${fraudlens.query.remote-timeout-ms:2000}")
+    private int remoteTimeoutMs;
+
+    private HostInfo self;
+    private ExpiringCache<String, Optional<AccountActivityWindow>> cache;
+    private RestClient restClient;
+
+    @PostConstruct
+    void init() {
+        self = HostInfo.buildFromEndpoint(applicationServer.trim());
+        cache = new ExpiringCache<>(Duration.ofMillis(cacheTtlMs), cacheMaxEntries);
+
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(remoteTimeoutMs);
+        requestFactory.setReadTimeout(remoteTimeoutMs);
+        restClient = restClientBuilder.requestFactory(requestFactory).build();
+    }
+
+    public Optional<AccountActivityWindow> currentActivity(String accountId) {
+        return Optional.ofNullable(currentActivity(List.of(accountId)).get(accountId));
+    }
+
+    /** Current activity of each account that has any, routed to the owning instances; in request order */
+    public Map<String, AccountActivityWindow> currentActivity(Collection<String> accountIds) {
+        Map<String, Optional<AccountActivityWindow>> resolved = new HashMap<>();
+        List<String> local = new ArrayList<>();
+        Map<HostInfo, List<String>> remote = new HashMap<>();
+
+        Collection<String> distinctIds = new LinkedHashSet<>(accountIds);
+        KafkaStreams streams = null;
+        for (String accountId : distinctIds) {
+            Optional<AccountActivityWindow> cached = cache.get(accountId);
+            if (cached != null) {
+                resolved.put(accountId, cached);
+                continue;
+            }
+            if (streams == null) {
+                streams = runningStreams();
+            }
+            HostInfo owner = ownerOf(streams, accountId);
+            if (owner.equals(self)) {
+                local.add(accountId);
+            } else {
+                remote.computeIfAbsent(owner, host -> new ArrayList<>()).add(accountId);
+            }
+        }
+
+        Map<String, AccountActivityWindow> fetched = new HashMap<>();
+        if (!local.isEmpty()) {
+            fetched.putAll(localActivity(local));
+        }
+        remote.forEach((host, ids) -> fetched.putAll(fetchRemote(host, ids)));
+
+        Map<String, AccountActivityWindow> result = new LinkedHashMap<>();
+        for (String accountId : distinctIds) {
+            Optional<AccountActivityWindow> activity = resolved.get(accountId);
+            if (activity == null) {
+                activity = Optional.ofNullable(fetched.get(accountId));
+                cache.put(accountId, activity);
+            }
+            activity.ifPresent(window -> result.put(accountId, window));
+        }
+        return result;
+    }
+
+    /** Current activity from this instance's stores only; accounts owned elsewhere come back absent */
+    public Map<String, AccountActivityWindow> localActivity(Collection<String> accountIds) {
+        Function<String, Optional<AccountActivityAggregate>> reader = localReader(runningStreams(), System.currentTimeMillis());
+        Map<String, AccountActivityWindow> result = new LinkedHashMap<>();
+        for (String accountId : accountIds) {
+            reader.apply(accountId).ifPresent(aggregate -> result.put(accountId, aggregate.toWindow()));
+        }
+        return result;
+    }
+
+    /**
+     * The instance that owns the account, when it is not this one. Pre-authorisation reads a
+     * local account from this instance's store; a remote one costs an HTTP round trip.
+     */
+    public Optional<HostInfo> remoteOwner(String accountId) {
+        HostInfo owner = ownerOf(runningStreams(), accountId);
+        return owner.equals(self) ? Optional.empty() : Optional.of(owner);
+    }
+
+    /** Uncached current aggregate from this instance's store, for pre-authorisation */
+    public Optional<AccountActivityAggregate> localAggregate(String accountId) {
+        return localReader(runningStreams(), System.currentTimeMillis()).apply(accountId);
+    }
+
+    /** Uncached current aggregate fetched from the owning instance */
+    public Optional<AccountActivityAggregate> remoteAggregate(HostInfo owner, String accountId) {
+        return Optional.ofNullable(fetchRemote(owner, List.of(accountId)).get(accountId))
+                       .map(AccountActivityAggregate::fromWindow);
+    }
+
+    /** True when current activity lives in horizon panes, which pre-authorisation scores against directly */
+    public boolean tracksHorizons() {
+        return fraudDetectionProcessor.usesHorizonPanes();
+    }
+
+    /** Copy of the account's horizon panes from this instance's store, new empty panes if it has none */
+    public AccountHorizonPanes localPanes(String accountId) {
+        ReadOnlyKeyValueStore<String, AccountHorizonPanes> store = runningStreams().store(
+                StoreQueryParameters.fromNameAndType(FraudDetectionProcessor.HORIZON_STORE,
+                                                     QueryableStoreTypes.keyValueStore()));
+        AccountHorizonPanes panes = store.get(accountId);
+        return panes != null ? panes : fraudDetectionProcessor.newHorizonPanes(accountId);
+    }
+
+    /** Has the owning instance score the candidate against its panes */
+    public PreAuthorizationResult preAuthorizeOnOwner(HostInfo owner, Transaction transaction) {
+        logger.debug("Pre-authorising transaction {} on {}:{}", transaction.getTransactionId(), owner.host(), owner.port());
+        return restClient.post()
+                .uri("http://{host}:{port}" + PREAUTH_PATH + "?local=true", owner.host(), owner.port())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(transaction)
+                .retrieve()
+                .body(PreAuthorizationResult.class);
+    }
+
+    // Reads from whichever store holds current activity in the configured detection mode
+    private Function<String, Optional<AccountActivityAggregate>> localReader(KafkaStreams streams, long nowMillis) {
+        long windowSizeMillis = fraudDetectionProcessor.windowSize().toMillis();
+        if (fraudDetectionProcessor.usesHorizonPanes()) {
+            ReadOnlyKeyValueStore<String, AccountHorizonPanes> store = streams.store(
+                    StoreQueryParameters.fromNameAndType(FraudDetectionProcessor.HORIZON_STORE,
+                                                         QueryableStoreTypes.keyValueStore()));
+            return accountId -> horizonAggregate(store, accountId, nowMillis);
+        }
+        if (fraudDetectionProcessor.usesEventBuffers()) {
+            ReadOnlyKeyValueStore<String, AccountEventBuffer> store = streams.store(
+                    StoreQueryParameters.fromNameAndType(FraudDetectionProcessor.EVENT_BUFFER_STORE,
+                                                         QueryableStoreTypes.keyValueStore()));
+            return accountId -> bufferedAggregate(store, accountId, nowMillis, windowSizeMillis);
+        }
+        ReadOnlyWindowStore<String, AccountActivityAggregate> store = streams.store(
+                StoreQueryParameters.fromNameAndType(FraudDetectionProcessor.ACTIVITY_STORE,
+                                                     QueryableStoreTypes.windowStore()));
+        return accountId -> currentWindowAggregate(store, accountId, nowMillis, windowSizeMillis);
+    }
+
+    // The tumbling bucket containing now, i.e. the latest one that started within the last window size
+    public static Optional<AccountActivityAggregate> currentWindowAggregate(
+            ReadOnlyWindowStore<String, AccountActivityAggregate> store, String accountId, long nowMillis,
+            long windowSizeMillis) {
+        Instant from = Instant.ofEpochMilli(nowMillis - windowSizeMillis + 1);
+        try (WindowStoreIterator<AccountActivityAggregate> windows =
+                     store.backwardFetch(accountId, from, Instant.ofEpochMilli(nowMillis))) {
+            if (!windows.hasNext()) {
+                return Optional.empty();
+            }
+            KeyValue<Long, AccountActivityAggregate> window = windows.next();
+            return Optional.of(window.value.withWindow(window.key, window.key + windowSizeMillis));
+        }
+    }
+
+    // The sliding window ending now; events that expired since the last write are dropped from the copy
+    static Optional<AccountActivityAggregate> bufferedAggregate(
+            ReadOnlyKeyValueStore<String, AccountEventBuffer> store, String accountId, long nowMillis,
+            long windowSizeMillis) {
+        AccountEventBuffer buffer = store.get(accountId);
+        if (buffer == null) {
+            return Optional.empty();
+        }
+        buffer.evictBefore(nowMillis - windowSizeMillis);
+        return buffer.isEmpty() ? Optional.empty() : Optional.of(buffer.toAggregate());
+    }
+
+    // The detection horizon ending at now's pane; panes that slid out since the last write are dropped from the copy
+    static Optional<AccountActivityAggregate> horizonAggregate(
+            ReadOnlyKeyValueStore<String, AccountHorizonPanes> store, String accountId, long nowMillis) {
+        AccountHorizonPanes panes = store.get(accountId);
+        if (panes == null) {
+            return Optional.empty();
+        }
+        panes.advanceTo(nowMillis);
+        return panes.getTransactionCount() == 0 ? Optional.empty() : Optional.of(panes.toAggregate());
+    }
+
+    private String storeName() {
+        if (fraudDetectionProcessor.usesHorizonPanes()) {
+            return FraudDetectionProcessor.HORIZON_STORE;
+        }
+        return fraudDetectionProcessor.usesEventBuffers()
+                ? FraudDetectionProcessor.EVENT_BUFFER_STORE : FraudDetectionProcessor.ACTIVITY_STORE;
+    }
+
+    private KafkaStreams runningStreams() {
+        KafkaStreams streams = streamsBuilderFactoryBean.getKafkaStreams();
+        if (streams == null || streams.state() != KafkaStreams.State.RUNNING) {
+            throw new InvalidStateStoreException("Kafka Streams is not running ("
+                    + (streams != null ? streams.state() : "not started") + ")");
+        }
+        return streams;
+    }
+
+    private HostInfo ownerOf(KafkaStreams streams, String accountId) {
+        KeyQueryMetadata metadata = streams.queryMetadataForKey(storeName(), accountId, KEY_SERIALIZER);
+        if (metadata == null || KeyQueryMetadata.NOT_AVAILABLE.equals(metadata)) {
+            throw new InvalidStateStoreException("No owner known yet for account " + accountId);
+        }
+        return metadata.activeHost();
+    }
+
+    private Map<String, AccountActivityWindow> fetchRemote(HostInfo host, List<String> accountIds) {
+        logger.debug("Fetching activity of {} accounts from {}:{}", accountIds.size(), host.host(), host.port());
+        Map<String, AccountActivityWindow> windows = restClient.post()
+                .uri("http://{host}:{port}" + BATCH_PATH + "?local=true", host.host(), host.port())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(accountIds)
+                .retrieve()
+                .body(WINDOWS_BY_ACCOUNT);
+        return windows != null ? windows : Map.of();
+    }
+}
@@ -0,0 +1,368 @@
+package com.fraudlens.infrastructure.kafka;
+
+import com.fraudlens.domain.model.AccountActivityAggregate;
+import com.fraudlens.domain.model.AccountEventBuffer;
+import com.fraudlens.domain.model.AccountHorizonPanes;
+import com.fraudlens.domain.model.AccountProfile;
+import com.fraudlens.domain.model.FraudAlert;
+import com.fraudlens.domain.model.Hashing;
+import com.fraudlens.domain.model.RotatingBloomFilter;
+import com.fraudlens.domain.model.Transaction;
+import com.fraudlens.domain.rules.CompiledRuleSet;
+import com.fraudlens.domain.rules.RuleFeatures;
+import com.fraudlens.domain.service.FraudDetectionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The account-keyed branches of {@link FraudDetectionProcessor} as plain sequential code, for
+ * batch scoring. One instance stands for one stream task: it is fed that partition's
+ * transactions in input order and keeps the state the task's stores would, in heap maps.
+ *
+ * Per transaction, in topology order: the duplicate check against the transaction IDs of the
+ * horizon ({@link TransactionDeduplicationProcessor}), the profile update with its
+ * impossible-travel check ({@link AccountProfileProcessor}), then the window (tumbling bucket,
+ * {@link SlidingWindowProcessor}'s event buffer or {@link MultiHorizonProcessor}'s panes), the
+ * rules, the baseline re-score and escalation-only deduplication ({@link AlertDeduplicationProcessor});
+ * impossible-travel alerts are deduplicated by alert ID.
+ * Stream time is tracked per instance as each processor tracks it, so late records and
+ * expired store entries are treated as the streams would treat them, and the alerts are the
+ * ones the topology emits without a record cache, as in the offline replay.
+ */
+final class AccountBatchScorer {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountBatchScorer.class);
+
+    enum Detection { TUMBLING, SLIDING, HORIZONS }
+
+    // Kafka Streams' initial stream time, before any record
+    private static final long NO_TIMESTAMP = -1L;
+
+    private final FraudDetectionService fraudDetectionService;
+    private final CompiledRuleSet rules;
+    private final Detection detection;
+    private final long windowSizeMillis;
+    private final long graceMillis;
+    private final boolean escalation;
+    private final boolean profilesEnabled;
+    private final double profileAlpha;
+    private final long paneSizeMillis;
+    private final long[] horizonMillis;
+    private final long sketchBlockMillis;
+
+    // Duplicate transactions: the filters, and the exact ID hash store (null to trust the filters alone)
+    private final RotatingBloomFilter seenIds;
+    private final Map<Long, Long> storedIds;
+    private final long dedupHorizonMillis;
+    private long storedIdsStreamTime = NO_TIMESTAMP;
+    private long taskStreamTime = NO_TIMESTAMP;
+
+    private final Map<String, AccountProfile> profiles = new HashMap<>();
+    private final Map<String, Map<Long, AccountActivityAggregate>> buckets = new HashMap<>();
+    private long aggregateStreamTime = NO_TIMESTAMP;
+    private final Map<String, AccountEventBuffer> buffers = new HashMap<>();
+    private final Map<String, AccountHorizonPanes> panes = new HashMap<>();
+
+    // Escalation: risk scores sent per account, by alert window end
+    private final Map<String, TreeMap<Long, Integer>> emittedScores = new HashMap<>();
+    private final long emittedRetentionMillis;
+    private long emittedStreamTime = NO_TIMESTAMP;
+
+    // Impossible travel: journeys sent, by alert ID, in a store of their own
+    private record SentJourney(long windowEnd, int riskScore) { }
+    private final Map<String, SentJourney> sentJourneys = new HashMap<>();
+    private long journeyStreamTime = NO_TIMESTAMP;
+
+    private final long[] ruleHits;
+    private long travelHits;
+    private final List<FraudAlert> alerts = new ArrayList<>();
+    private long nextPurge = Long.MIN_VALUE;
+
+    AccountBatchScorer(FraudDetectionService fraudDetectionService, Detection detection, long windowSizeMillis,
+                       long graceMillis, boolean escalation, boolean profilesEnabled, double profileAlpha,
+                       RotatingBloomFilter seenIds, boolean exactCheck, long dedupHorizonMillis,
+                       long paneSizeMillis, long[] horizonMillis, long sketchBlockMillis) {
+        this.fraudDetectionService = fraudDetectionService;
+        this.rules = fraudDetectionService.getRules();
+        this.detection = detection;
+        this.windowSizeMillis = windowSizeMillis;
+        this.graceMillis = graceMillis;
+        this.escalation = escalation;
+        this.profilesEnabled = profilesEnabled;
+        this.profileAlpha = profileAlpha;
+        this.seenIds = seenIds;
+        this.storedIds = seenIds != null && exactCheck ? new HashMap<>() : null;
+        this.dedupHorizonMillis = dedupHorizonMillis;
+        this.paneSizeMillis = paneSizeMillis;
+        this.horizonMillis = horizonMillis;
+        this.sketchBlockMillis = sketchBlockMillis;
+        // As the alert deduplication store's retention
+        this.emittedRetentionMillis = 2 * (windowSizeMillis + graceMillis);
+        this.ruleHits = new long[rules.size()];
+    }
+
+    /** Scores one transaction, with {@code timestamp} as its record time; alerts collect until {@link #drainAlerts()} */
+    void score(Transaction transaction, long timestamp) {
+        String accountId = transaction.getAccountId();
+        taskStreamTime = Math.max(taskStreamTime, timestamp);
+        if (isDuplicate(transaction, timestamp)) {
+            return;
+        }
+        if (profilesEnabled) {
+            updateProfile(accountId, transaction);
+        }
+        switch (detection) {
+            case TUMBLING -> aggregate(accountId, transaction, timestamp);
+            case SLIDING -> slide(accountId, transaction);
+            case HORIZONS -> addToPanes(accountId, transaction);
+        }
+        if (taskStreamTime >= nextPurge) {
+            purge();
+            nextPurge = taskStreamTime + Math.max(dedupHorizonMillis, emittedRetentionMillis);
+        }
+    }
+
+    private boolean isDuplicate(Transaction transaction, long timestamp) {
+        String transactionId = transaction.getTransactionId();
+        if (seenIds == null || transactionId == null) {
+            return false;
+        }
+        long now = Math.max(taskStreamTime, timestamp);
+        seenIds.advanceTo(now);
+        long hash = Hashing.hash(transactionId);
+        if (seenIds.mightContain(hash) && (storedIds == null || isStored(hash, now))) {
+            return true;
+        }
+        seenIds.put(hash);
+        if (storedIds != null) {
+            storedIdsStreamTime = Math.max(storedIdsStreamTime, now);
+            storedIds.put(hash, now);
+        }
+        return false;
+    }
+
+    // A window store fetch of [now - horizon, now], which also skips what retention has expired
+    private boolean isStored(long hash, long now) {
+        Long stored = storedIds.get(hash);
+        long from = Math.max(now - dedupHorizonMillis, storedIdsStreamTime - dedupHorizonMillis + 1);
+        return stored != null && stored >= from && stored <= now;
+    }
+
+    private void updateProfile(String accountId, Transaction transaction) {
+        try {
+            AccountProfile profile = profiles.get(accountId);
+            if (profile == null) {
+                profile = new AccountProfile();
+            }
+            long timestamp = transaction.getTimestampMillis();
+            int countryId = AccountProfile.staticCountryId(transaction.getCountry());
+            FraudAlert alert = fraudDetectionService.detectImpossibleTravel(accountId, profile, timestamp, countryId,
+                                                                            transaction.getAmount());
+            profile.rollBaseline(timestamp, windowSizeMillis);
+            profile.update(timestamp, transaction.getMoney().toDouble(), countryId,
+                           transaction.getTransactionType(), profileAlpha);
+            profiles.put(accountId, profile);
+
+            if (alert != null && (!escalation || isNewJourney(alert))) {
+                travelHits++;
+                alerts.add(alert);
+            }
+        } catch (Exception e) {
+            logger.error("Error updating the profile of account {} with transaction {}: {}",
+                        accountId, transaction.getTransactionId(), e.getMessage());
+        }
+    }
+
+    // The windowed aggregate: one tumbling bucket per record, dropped once stream time passes its end plus grace
+    private void aggregate(String accountId, Transaction transaction, long timestamp) {
+        aggregateStreamTime = Math.max(aggregateStreamTime, timestamp);
+        if (timestamp < 0) {
+            return;
+        }
+        long bucketStart = timestamp - timestamp % windowSizeMillis;
+        if (bucketStart + windowSizeMillis <= aggregateStreamTime - graceMillis) {
+            logger.debug("Dropping late transaction {} for account {}: its window has closed",
+                       transaction.getTransactionId(), accountId);
+            return;
+        }
+        AccountActivityAggregate aggregate = buckets.computeIfAbsent(accountId, id -> new HashMap<>())
+                .computeIfAbsent(bucketStart, start -> new AccountActivityAggregate());
+        try {
+            if (aggregate.isEmpty()) {
+                aggregate.start(accountId, bucketStart, bucketStart + windowSizeMillis);
+            }
+            aggregate.add(transaction.getMoney(), transaction.getCountry(), transaction.getTimestampMillis());
+        } catch (Exception e) {
+            logger.error("Error aggregating transaction {} for account {}: {}",
+                        transaction.getTransactionId(), accountId, e.getMessage());
+        }
+        emit(fraudDetectionService.detectFraud(aggregate), aggregate);
+    }
+
+    private void slide(String accountId, Transaction transaction) {
+        try {
+            long timestamp = transaction.getTimestampMillis();
+            if (timestamp < Math.max(taskStreamTime, timestamp) - windowSizeMillis - graceMillis) {
+                return;
+            }
+            AccountEventBuffer buffer = buffers.get(accountId);
+            if (buffer == null) {
+                buffer = new AccountEventBuffer(accountId, windowSizeMillis);
+            }
+            if (!buffer.add(timestamp, transaction.getMoney(), transaction.getCountry(), System.currentTimeMillis())) {
+                return;
+            }
+            buffers.put(accountId, buffer);
+
+            if (fraudDetectionService.matchesAnyRule(buffer)) {
+                AccountActivityAggregate aggregate = buffer.toAggregate();
+                emit(fraudDetectionService.detectFraud(aggregate), aggregate);
+            }
+        } catch (Exception e) {
+            logger.error("Error adding transaction {} to sliding window for account {}: {}",
+                        transaction.getTransactionId(), accountId, e.getMessage());
+        }
+    }
+
+    private void addToPanes(String accountId, Transaction transaction) {
+        try {
+            long timestamp = transaction.getTimestampMillis();
+            if (MultiHorizonProcessor.isLate(timestamp, taskStreamTime, paneSizeMillis, horizonMillis[horizonMillis.length - 1])) {
+                return;
+            }
+            AccountHorizonPanes accountPanes = panes.get(accountId);
+            if (accountPanes == null) {
+                accountPanes = new AccountHorizonPanes(accountId, paneSizeMillis, horizonMillis, windowSizeMillis,
+                                                       sketchBlockMillis);
+            }
+            if (!accountPanes.add(timestamp, transaction.getMoney(), transaction.getCountry(),
+                                  transaction.getMerchantName(), System.currentTimeMillis())) {
+                return;
+            }
+            panes.put(accountId, accountPanes);
+            emit(fraudDetectionService.detectFraud(accountPanes), accountPanes);
+        } catch (Exception e) {
+            logger.error("Error adding transaction {} to the horizons of account {}: {}",
+                        transaction.getTransactionId(), accountId, e.getMessage());
+        }
+    }
+
+    // Baseline re-score, then escalation-only deduplication, as the alerts leave the detectors
+    private void emit(FraudAlert alert, RuleFeatures window) {
+        if (alert == null) {
+            return;
+        }
+        if (profilesEnabled) {
+            alert = fraudDetectionService.applyBaseline(alert, profiles.get(alert.getAccountId()));
+        }
+        if (escalation && !escalates(alert)) {
+            return;
+        }
+        long matched = rules.evaluate(window);
+        for (int rule = 0; rule < ruleHits.length; rule++) {
+            if ((matched & (1L << rule)) != 0) {
+                ruleHits[rule]++;
+            }
+        }
+        alerts.add(alert);
+    }
+
+    // The alert deduplication store: scores sent for this tumbling bucket or windows overlapping this one, within retention
+    private boolean escalates(FraudAlert alert) {
+        long windowStart = detection == Detection.TUMBLING ? alert.getWindowEnd().toEpochMilli()
+                                                           : alert.getWindowStart().toEpochMilli();
+        long windowEnd = alert.getWindowEnd().toEpochMilli();
+        TreeMap<Long, Integer> sent = emittedScores.computeIfAbsent(alert.getAccountId(), id -> new TreeMap<>());
+
+        int emittedScore = -1;
+        long from = Math.max(windowStart, emittedStreamTime - emittedRetentionMillis + 1);
+        if (from <= windowEnd) {
+            for (int score : sent.subMap(from, true, windowEnd, true).values()) {
+                emittedScore = Math.max(emittedScore, score);
+            }
+        }
+        if (alert.getRiskScore() <= emittedScore) {
+            return false;
+        }
+        emittedStreamTime = Math.max(emittedStreamTime, windowEnd);
+        if (windowEnd > emittedStreamTime - emittedRetentionMillis) {
+            sent.put(windowEnd, alert.getRiskScore());
+        }
+        return true;
+    }
+
+    // The travel alert deduplication store: a journey with this ID and a score as high, within retention
+    private boolean isNewJourney(FraudAlert alert) {
+        long windowEnd = alert.getWindowEnd().toEpochMilli();
+        SentJourney sent = sentJourneys.get(alert.getAlertId());
+        if (sent != null && sent.windowEnd() > journeyStreamTime - emittedRetentionMillis
+                && alert.getRiskScore() <= sent.riskScore()) {
+            return false;
+        }
+        journeyStreamTime = Math.max(journeyStreamTime, windowEnd);
+        if (windowEnd > journeyStreamTime - emittedRetentionMillis) {
+            sentJourneys.put(alert.getAlertId(), new SentJourney(windowEnd, alert.getRiskScore()));
+        }
+        return true;
+    }
+
+    // Drops state that no later record can reach, as store retention and closed windows would
+    private void purge() {
+        if (storedIds != null) {
+            long expired = taskStreamTime - dedupHorizonMillis;
+            storedIds.values().removeIf(stored -> stored < expired);
+        }
+        long closed = aggregateStreamTime - graceMillis;
+        for (Iterator<Map<Long, AccountActivityAggregate>> accounts = buckets.values().iterator(); accounts.hasNext(); ) {
+            Map<Long, AccountActivityAggregate> accountBuckets = accounts.next();
+            accountBuckets.keySet().removeIf(start -> start + windowSizeMillis <= closed);
+            if (accountBuckets.isEmpty()) {
+                accounts.remove();
+            }
+        }
+        // As the sliding and horizon sweeps: buffers and panes no record that is not late can reach
+        buffers.values().removeIf(buffer -> buffer.isEmpty()
+                || SlidingWindowProcessor.isIdle(buffer.getNewestTimestamp(), taskStreamTime, windowSizeMillis, graceMillis));
+        if (horizonMillis != null) {
+            long longest = horizonMillis[horizonMillis.length - 1];
+            panes.values().removeIf(accountPanes -> accountPanes.isEmpty()
+                    || MultiHorizonProcessor.isIdle(accountPanes.getNewestPaneStart(), taskStreamTime, paneSizeMillis, longest));
+        }
+        sentJourneys.values().removeIf(sent -> sent.windowEnd() <= journeyStreamTime - emittedRetentionMillis);
+        long retained = emittedStreamTime - emittedRetentionMillis + 1;
+        for (Iterator<TreeMap<Long, Integer>> accounts = emittedScores.values().iterator(); accounts.hasNext(); ) {
+            TreeMap<Long, Integer> sent = accounts.next();
+            sent.headMap(retained).clear();
+            if (sent.isEmpty()) {
+                accounts.remove();
+            }
+        }
+    }
+
+    /** Alerts since the last call, in emission order */
+    List<FraudAlert> drainAlerts() {
+        List<FraudAlert> drained = new ArrayList<>(alerts);
+        alerts.clear();
+        return drained;
+    }
+
+    /** Emitted alerts per rule, in rule order; an alert counts for every rule its window matched */
+    long[] getRuleHits() {
+        return ruleHits.clone();
+    }
+
+    long getTravelHits() {
+        return travelHits;
+    }
+
+    CompiledRuleSet getRules() {
+        return rules;
+    }
+}
@@ -0,0 +1,113 @@
+package com.fraudlens.infrastructure.kafka;
+
+import com.fraudlens.domain.model.AccountEventBuffer;
+import com.fraudlens.domain.model.FraudAlert;
+import com.fraudlens.domain.model.Transaction;
+import com.fraudlens.domain.service.FraudDetectionService;
+import org.apache.kafka.streams.processor.Cancellable;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+
+/**
+ * Processor-API detection engine: one compact {@link AccountEventBuffer} per account in a
+ * key-value store, rules evaluated in place, and only alerts forwarded.
+ *
+ * Buffers live in an {@link AccountStateStore}, which keeps busy accounts as objects.
+ * Expired events of idle accounts are removed by a punctuation that sweeps the store
+ * incrementally, a bounded batch of keys per run, and deletes buffers that became empty.
+ */
+class AccountBufferFraudProcessor implements Processor<String, Transaction, String, FraudAlert> {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountBufferFraudProcessor.class);
+
+    private final String storeName;
+    private final long windowSizeMillis;
+    private final FraudDetectionService fraudDetectionService;
+    private final Duration sweepInterval;
+    private final PunctuationType punctuationType;
+    private final int sweepBatchSize;
+    private final int cachedAccounts;
+
+    private ProcessorContext<String, FraudAlert> context;
+    private AccountStateStore<AccountEventBuffer> buffers;
+    private Cancellable sweep;
+
+    AccountBufferFraudProcessor(String storeName, Duration windowSize, FraudDetectionService fraudDetectionService,
+                                Duration sweepInterval, PunctuationType punctuationType,
+                                int sweepBatchSize, int cachedAccounts) {
+        this.storeName = storeName;
+        this.windowSizeMillis = windowSize.toMillis();
+        this.fraudDetectionService = fraudDetectionService;
+        this.sweepInterval = sweepInterval;
+        this.punctuationType = punctuationType;
+        this.sweepBatchSize = sweepBatchSize;
+        this.cachedAccounts = cachedAccounts;
+    }
+
+    @Override
+    public void init(ProcessorContext<String, FraudAlert> context) {
+        this.context = context;
+        this.buffers = new AccountStateStore<>(context.getStateStore(storeName),
+                                               accountId -> new AccountEventBuffer(accountId, windowSizeMillis),
+                                               sweepBatchSize, cachedAccounts);
+        this.sweep = context.schedule(sweepInterval, punctuationType, this::sweepExpired);
+    }
+
+    @Override
+    public void process(Record<String, Transaction> record) {
+        String accountId = record.key();
+        Transaction transaction = record.value();
+        try {
+            AccountEventBuffer buffer = buffers.get(accountId);
+            if (!buffer.add(transaction.getTimestampMillis(), transaction.getMoney(),
+                            transaction.getCountry(), System.currentTimeMillis())) {
+                logger.debug("Dropping late transaction {} for account {}: older than the sliding window",
+                           transaction.getTransactionId(), accountId);
+                return;
+            }
+            buffers.put(accountId, buffer);
+
+            // Rules run on the buffer's primitives; the snapshot is only built for matching windows.
+            // The rules may be swapped in between, so the alert decides again on one rule set
+            if (fraudDetectionService.matchesAnyRule(buffer)) {
+                FraudAlert alert = fraudDetectionService.detectFraud(buffer.toAggregate());
+                if (alert != null) {
+                    logger.info("🚨 Generated fraud alert: {} for account: {} with risk score: {}",
+                              alert.getAlertId(), alert.getAccountId(), alert.getRiskScore());
+                    context.forward(new Record<>(accountId, alert, record.timestamp()));
+                }
+            }
+        } catch (Exception e) {
+            // The cached object may be ahead of the store now; drop it so the store stays the source of truth
+            buffers.invalidate(accountId);
+            logger.error("Error processing transaction {} for account {}: {}",
+                        transaction.getTransactionId(), accountId, e.getMessage());
+        }
+    }
+
+    private void sweepExpired(long timestamp) {
+        long cutoff = context.currentStreamTimeMs() - windowSizeMillis;
+        buffers.sweep(buffer -> {
+            if (buffer.isEmpty() || buffer.getNewestTimestamp() < cutoff) {
+                return AccountStateStore.Sweep.DELETE;
+            }
+            return buffer.evictBefore(cutoff) > 0 ? AccountStateStore.Sweep.UPDATE : AccountStateStore.Sweep.KEEP;
+        });
+    }
+
+    @Override
+    public void close() {
+        if (sweep != null) {
+            sweep.cancel();
+        }
+        if (buffers != null) {
+            buffers.clear();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.fraudlens.infrastructure.kafka;
+
+import com.fraudlens.domain.model.AccountProfile;
+import com.fraudlens.domain.model.FraudAlert;
+import com.fraudlens.domain.model.Transaction;
+import com.fraudlens.domain.service.FraudDetectionService;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessor;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessorContext;
+import org.apache.kafka.streams.processor.api.FixedKeyRecord;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Folds every transaction into its account's {@link AccountProfile}, one fixed-size read and
+ * write per transaction, after rolling the profile's baseline snapshots a detection window
+ * behind. Before the update, the transaction is checked against the last country and time in
+ * the profile for impossible travel; only those alerts are forwarded.
+ */
+class AccountProfileProcessor implements FixedKeyProcessor<String, Transaction, FraudAlert> {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountProfileProcessor.class);
+
+    private final String storeName;
+    private final double alpha;
+    private final long baselinePeriodMillis;
+    private final FraudDetectionService fraudDetectionService;
+
+    private FixedKeyProcessorContext<String, FraudAlert> context;
+    private KeyValueStore<String, AccountProfile> store;
+
+    AccountProfileProcessor(String storeName, double alpha, long baselinePeriodMillis,
+                            FraudDetectionService fraudDetectionService) {
+        this.storeName = storeName;
+        this.alpha = alpha;
+        this.baselinePeriodMillis = baselinePeriodMillis;
+        this.fraudDetectionService = fraudDetectionService;
+    }
+
+    @Override
+    public void init(FixedKeyProcessorContext<String, FraudAlert> context) {
+        this.context = context;
+        this.store = context.getStateStore(storeName);
+    }
+
+    @Override
+    public void process(FixedKeyRecord<String, Transaction> record) {
+        String accountId = record.key();
+        Transaction transaction = record.value();
+        try {
+            AccountProfile profile = store.get(accountId);
+            if (profile == null) {
+                profile = new AccountProfile();
+            }
+            long timestamp = transaction.getTimestampMillis();
+            int countryId = AccountProfile.staticCountryId(transaction.getCountry());
+            FraudAlert alert = fraudDetectionService.detectImpossibleTravel(accountId, profile, timestamp, countryId,
+                                                                            transaction.getAmount());
+            profile.rollBaseline(timestamp, baselinePeriodMillis);
+            profile.update(timestamp, transaction.getMoney().toDouble(), countryId,
+                           transaction.getTransactionType(), alpha);
+            store.put(accountId, profile);
+
+            if (alert != null) {
+                logger.warn("🚨 IMPOSSIBLE TRAVEL for account {}: {}", accountId, alert.getDescription());
+                logger.info("🚨 Generated fraud alert: {} for account: {} with risk score: {}",
+                          alert.getAlertId(), alert.getAccountId(), alert.getRiskScore());
+                context.forward(record.withValue(alert));
+            }
+        } catch (Exception e) {
+            logger.error("Error updating the profile of account {} with transaction {}: {}",
+                        accountId, transaction.getTransactionId(), e.getMessage());
+        }
+    }
+}
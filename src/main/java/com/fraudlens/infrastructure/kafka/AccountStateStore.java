@@ -0,0 +1,120 @@
+package com.fraudlens.infrastructure.kafka;
+
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * The per-account state of one processor (event buffers, horizon panes): a key-value store,
+ * with the recently used values kept as objects so a busy account is not deserialized on
+ * every record.
+ *
+ * Writes go through to the store (with the streams record cache collapsing repeated writes of
+ * a key into one per commit). {@link #sweep} visits the store incrementally, a bounded batch of
+ * keys per call, and lets the processor trim or delete each value it visits.
+ */
+final class AccountStateStore<V> {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountStateStore.class);
+
+    /** What a sweep does with a visited value */
+    enum Sweep { KEEP, UPDATE, DELETE }
+
+    private final KeyValueStore<String, V> store;
+    private final Function<String, V> newValue;
+    private final int sweepBatchSize;
+    private final Map<String, V> recentValues;
+    private String sweepCursor;
+
+    AccountStateStore(KeyValueStore<String, V> store, Function<String, V> newValue, int sweepBatchSize,
+                      int cachedAccounts) {
+        this.store = store;
+        this.newValue = newValue;
+        this.sweepBatchSize = sweepBatchSize;
+        this.recentValues = new LinkedHashMap<>(Math.min(cachedAccounts, 1024), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > cachedAccounts;
+            }
+        };
+    }
+
+    /** The account's value, from the object cache or the store, or a new empty one */
+    V get(String accountId) {
+        V value = recentValues.get(accountId);
+        if (value == null) {
+            value = store.get(accountId);
+            if (value == null) {
+                value = newValue.apply(accountId);
+            }
+            recentValues.put(accountId, value);
+        }
+        return value;
+    }
+
+    void put(String accountId, V value) {
+        store.put(accountId, value);
+    }
+
+    /** Forgets the cached object, which may be ahead of the store after a failed update */
+    void invalidate(String accountId) {
+        recentValues.remove(accountId);
+    }
+
+    /**
+     * Visits up to sweepBatchSize values from where the last call stopped. {@code action} may
+     * modify the value it is given: UPDATE writes it back, DELETE removes the account.
+     */
+    void sweep(Function<V, Sweep> action) {
+        List<KeyValue<String, V>> updates = new ArrayList<>();
+        int visited = 0;
+        boolean finished = true;
+
+        try (KeyValueIterator<String, V> iterator = store.range(sweepCursor, null)) {
+            while (iterator.hasNext()) {
+                KeyValue<String, V> entry = iterator.next();
+                if (visited == sweepBatchSize) {
+                    sweepCursor = entry.key;
+                    finished = false;
+                    break;
+                }
+                visited++;
+                V value = recentValues.getOrDefault(entry.key, entry.value);
+                switch (action.apply(value)) {
+                    case DELETE -> updates.add(KeyValue.pair(entry.key, null));
+                    case UPDATE -> updates.add(KeyValue.pair(entry.key, value));
+                    default -> { }
+                }
+            }
+        }
+        if (finished) {
+            sweepCursor = null;
+        }
+
+        int deleted = 0;
+        for (KeyValue<String, V> update : updates) {
+            if (update.value == null) {
+                store.delete(update.key);
+                recentValues.remove(update.key);
+                deleted++;
+            } else {
+                store.put(update.key, update.value);
+            }
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("Swept {} accounts: {} trimmed, {} removed", visited, updates.size() - deleted, deleted);
+        }
+    }
+
+    void clear() {
+        recentValues.clear();
+    }
+}
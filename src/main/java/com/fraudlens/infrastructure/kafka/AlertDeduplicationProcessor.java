@@ -0,0 +1,88 @@
+package com.fraudlens.infrastructure.kafka;
+
+import com.fraudlens.domain.model.FraudAlert;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessor;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessorContext;
+import org.apache.kafka.streams.processor.api.FixedKeyRecord;
+import org.apache.kafka.streams.state.WindowStore;
+import org.apache.kafka.streams.state.WindowStoreIterator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Emits the first alert of an account's window and afterwards only escalations.
+ *
+ * Emitted risk scores are kept in a window store keyed by account and timestamped with
+ * the alert's window end. An alert counts as the same window as an earlier one and is
+ * forwarded only if its score is higher than everything emitted for that window so far.
+ * Tumbling buckets are the same window only when they are the same bucket (same end);
+ * the per-record windows of sliding and horizon detection are the same window when they
+ * overlap, i.e. an earlier alert ended inside this one. The store's retention expires
+ * old entries.
+ *
+ * Impossible-travel alerts are deduplicated by {@link #byAlertId} instead: their ID already
+ * identifies the journey (account and both transaction times), so they are keyed by it and
+ * an alert is a duplicate of one with the same ID and a score at least as high. They do not
+ * share the window alerts' store, where a journey would suppress an unrelated window alert.
+ */
+class AlertDeduplicationProcessor implements FixedKeyProcessor<String, FraudAlert, FraudAlert> {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertDeduplicationProcessor.class);
+
+    private final String storeName;
+    private final boolean tumbling;
+    private final boolean keyedByAlertId;
+
+    private FixedKeyProcessorContext<String, FraudAlert> context;
+    private WindowStore<String, Integer> store;
+
+    AlertDeduplicationProcessor(String storeName, boolean tumbling) {
+        this(storeName, tumbling, false);
+    }
+
+    private AlertDeduplicationProcessor(String storeName, boolean tumbling, boolean keyedByAlertId) {
+        this.storeName = storeName;
+        this.tumbling = tumbling;
+        this.keyedByAlertId = keyedByAlertId;
+    }
+
+    static AlertDeduplicationProcessor byAlertId(String storeName) {
+        return new AlertDeduplicationProcessor(storeName, true, true);
+    }
+
+    @Override
+    public void init(FixedKeyProcessorContext<String, FraudAlert> context) {
+        this.context = context;
+        this.store = context.getStateStore(storeName);
+    }
+
+    @Override
+    public void process(FixedKeyRecord<String, FraudAlert> record) {
+        FraudAlert alert = record.value();
+        String accountId = alert.getAccountId();
+        String key = keyedByAlertId ? alert.getAlertId() : accountId;
+        long windowStart = alert.getWindowStart().toEpochMilli();
+        long windowEnd = alert.getWindowEnd().toEpochMilli();
+
+        int emittedScore = -1;
+        try (WindowStoreIterator<Integer> earlier = store.fetch(key, tumbling ? windowEnd : windowStart, windowEnd)) {
+            while (earlier.hasNext()) {
+                KeyValue<Long, Integer> entry = earlier.next();
+                emittedScore = Math.max(emittedScore, entry.value);
+            }
+        }
+
+        if (alert.getRiskScore() <= emittedScore) {
+            logger.debug("Suppressed duplicate alert {} for account {}: risk score {} (already sent {})",
+                       alert.getAlertId(), accountId, alert.getRiskScore(), emittedScore);
+            return;
+        }
+        store.put(key, alert.getRiskScore(), windowEnd);
+        if (emittedScore >= 0) {
+            logger.info("📈 Escalated alert {} for account {}: risk score {} -> {}",
+                      alert.getAlertId(), accountId, emittedScore, alert.getRiskScore());
+        }
+        context.forward(record);
+    }
+}
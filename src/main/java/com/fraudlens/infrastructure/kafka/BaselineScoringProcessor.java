@@ -0,0 +1,39 @@
+package com.fraudlens.infrastructure.kafka;
+
+import com.fraudlens.domain.model.AccountProfile;
+import com.fraudlens.domain.model.FraudAlert;
+import com.fraudlens.domain.service.FraudDetectionService;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessor;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessorContext;
+import org.apache.kafka.streams.processor.api.FixedKeyRecord;
+import org.apache.kafka.streams.state.ReadOnlyKeyValueStore;
+
+/**
+ * Adjusts each alert's risk score by the account's deviation from its behavioural baseline,
+ * read from the profile store that {@link AccountProfileProcessor} maintains.
+ */
+class BaselineScoringProcessor implements FixedKeyProcessor<String, FraudAlert, FraudAlert> {
+
+    private final String storeName;
+    private final FraudDetectionService fraudDetectionService;
+
+    private FixedKeyProcessorContext<String, FraudAlert> context;
+    private ReadOnlyKeyValueStore<String, AccountProfile> store;
+
+    BaselineScoringProcessor(String storeName, FraudDetectionService fraudDetectionService) {
+        this.storeName = storeName;
+        this.fraudDetectionService = fraudDetectionService;
+    }
+
+    @Override
+    public void init(FixedKeyProcessorContext<String, FraudAlert> context) {
+        this.context = context;
+        this.store = context.getStateStore(storeName);
+    }
+
+    @Override
+    public void process(FixedKeyRecord<String, FraudAlert> record) {
+        FraudAlert alert = record.value();
+        context.forward(record.withValue(fraudDetectionService.applyBaseline(alert, store.get(alert.getAccountId()))));
+    }
+}
@@ -0,0 +1,271 @@
+package com.fraudlens.infrastructure.kafka;
+
+import com.fraudlens.domain.model.FraudAlert;
+import com.fraudlens.domain.model.Transaction;
+import com.fraudlens.domain.rules.CompiledRuleSet;
+import com.fraudlens.domain.service.FraudDetectionService;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Batch scoring for back-tests: the account-keyed detection of {@link FraudDetectionProcessor}
+ * run over a local transaction file as plain code on a fork-join pool, without Kafka Streams.
+ *
+ * Records are split into partitions by the producers' partitioner on the account, as the
+ * stream tasks split them, and each partition is scored in input order by its own
+ * {@link AccountBatchScorer}, so the fraud alerts are those of the offline topology replay
+ * with the same number of partitions. The tasks keep one stream time each, so out-of-order
+ * records can give other alerts with another partition count: the count is not defaulted but
+ * must be the transactions topic's. The partitions are scored on {@code parallelism} threads,
+ * which only changes how fast. Merchant fan-in, keyed by merchant, is not scored.
+ *
+ * The file is read a block of records at a time. Each block is decoded in parallel chunks,
+ * then its partitions are scored in parallel while the next block is read and decoded; only
+ * the framing of records and the routing of each one to its partition run on one thread.
+ */
+@Service
+public class BatchScoringEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchScoringEngine.class);
+    private static final int BLOCK_RECORDS = 1 << 16;
+    private static final int DECODE_CHUNK = 4_096;
+    private static final int NO_PARTITION = -1;
+    private static final long PROGRESS_EVERY = 1_000_000L;
+
+    @Autowired
+    private FraudDetectionProcessor fraudDetectionProcessor;
+
+    @Autowired
+    private Serde<Transaction> transactionSerde;
+
+    @Autowired
+    private Serde<FraudAlert> fraudAlertSerde;
+
+    // Required: the transactions topic's partition count
+    @Value("${fraudlens.replay.partitions:0}")
+    private int partitions = 0;
+
+    // Scoring threads (0 = one per core)
+    @Value("${fraudlens.replay.parallelism:0}")
+    private int parallelism = 0;
+
+    /** Scores every record of {@code inputFile} and writes the fraud alerts to {@code outputFile}, replacing it */
+    public ReplayReport score(Path inputFile, BulkIngestService.Format inputFormat, Path outputFile) throws IOException {
+        long startNanos = System.nanoTime();
+        if (partitions <= 0) {
+            throw new IllegalStateException(
+                "Batch scoring needs fraudlens.replay.partitions set to the partition count of the transactions topic");
+        }
+        int partitionCount = partitions;
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        logger.info("⏪ Batch scoring {} ({}) into {} on {} partitions, {} threads",
+                   inputFile, inputFormat, outputFile, partitionCount, threads);
+
+        AccountBatchScorer[] scorers = new AccountBatchScorer[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            scorers[i] = fraudDetectionProcessor.newAccountBatchScorer();
+        }
+        Deserializer<Transaction> deserializer = transactionSerde.deserializer();
+        Serializer<FraudAlert> serializer = fraudAlertSerde.serializer();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long events = 0;
+        long rejected = 0;
+        long fraudAlerts = 0;
+        long firstEventMs = Long.MIN_VALUE;
+        long lastEventMs = Long.MIN_VALUE;
+        try (MappedTransactionFile file = new MappedTransactionFile(inputFile, inputFormat);
+             OutputStream out = new BufferedOutputStream(Files.newOutputStream(outputFile), 1 << 16)) {
+            Block scoring = null;
+            ForkJoinTask<?> scored = null;
+            Block block;
+            while ((block = Block.read(file)) != null) {
+                Block decoding = block;
+                pool.invoke(ForkJoinTask.adapt(() -> decoding.decode(deserializer, partitionCount)));
+
+                // Routing is sequential: a record without a timestamp takes the previous record's
+                for (int i = 0; i < block.size; i++) {
+                    long eventMs = block.timestamps[i];
+                    if (eventMs == Long.MIN_VALUE) {
+                        eventMs = lastEventMs;
+                    }
+                    if (block.partitions[i] == NO_PARTITION || eventMs == Long.MIN_VALUE) {
+                        rejected++;
+                        continue;
+                    }
+                    block.timestamps[i] = eventMs;
+                    block.route(i, partitionCount);
+                    if (events == 0) {
+                        firstEventMs = eventMs;
+                    }
+                    lastEventMs = eventMs;
+                    if (++events % PROGRESS_EVERY == 0) {
+                        double seconds = (System.nanoTime() - startNanos) / 1e9;
+                        logger.info("⏩ Scored {} events up to {} ({}% of the file), {}/s",
+                                   events, Instant.ofEpochMilli(eventMs), 100 * file.position() / Math.max(1, file.size()),
+                                   Math.round(events / seconds));
+                    }
+                }
+
+                if (scored != null) {
+                    scored.join();
+                    fraudAlerts += scoring.write(out);
+                }
+                scoring = block;
+                scored = pool.submit(ForkJoinTask.adapt(() -> decoding.score(scorers, serializer)));
+            }
+            if (scored != null) {
+                scored.join();
+                fraudAlerts += scoring.write(out);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        ReplayReport report = new ReplayReport(events, rejected, fraudAlerts, 0, partitionCount, ruleHits(scorers),
+                                               firstEventMs, lastEventMs, (System.nanoTime() - startNanos) / 1e9);
+        logger.info("✅ Batch scoring done: {}", report);
+        return report;
+    }
+
+    // Summed over partitions, in rule order, then impossible travel when profiles found any
+    private static Map<String, Long> ruleHits(AccountBatchScorer[] scorers) {
+        CompiledRuleSet rules = scorers[0].getRules();
+        long[] hits = new long[rules.size()];
+        long travelHits = 0;
+        for (AccountBatchScorer scorer : scorers) {
+            long[] partitionHits = scorer.getRuleHits();
+            for (int rule = 0; rule < hits.length; rule++) {
+                hits[rule] += partitionHits[rule];
+            }
+            travelHits += scorer.getTravelHits();
+        }
+        Map<String, Long> ruleHits = new LinkedHashMap<>();
+        for (int rule = 0; rule < hits.length; rule++) {
+            ruleHits.put(rules.ruleName(rule), hits[rule]);
+        }
+        if (travelHits > 0) {
+            ruleHits.put(FraudDetectionService.IMPOSSIBLE_TRAVEL, travelHits);
+        }
+        return ruleHits;
+    }
+
+    // Up to BLOCK_RECORDS records on their way through decoding, routing and scoring
+    private static final class Block {
+        final byte[][] records = new byte[BLOCK_RECORDS][];
+        final Transaction[] transactions = new Transaction[BLOCK_RECORDS];
+        final long[] timestamps = new long[BLOCK_RECORDS];
+        final int[] partitions = new int[BLOCK_RECORDS];
+        int size;
+        // Record indexes per partition, in input order
+        int[][] routed;
+        int[] routedSizes;
+        List<List<byte[]>> alerts;
+
+        static Block read(MappedTransactionFile file) throws IOException {
+            Block block = new Block();
+            byte[] record;
+            while (block.size < BLOCK_RECORDS && (record = file.next()) != null) {
+                block.records[block.size++] = record;
+            }
+            return block.size > 0 ? block : null;
+        }
+
+        // Parallel chunks; records that do not decode or have no account get no partition
+        void decode(Deserializer<Transaction> deserializer, int partitionCount) {
+            List<ForkJoinTask<?>> chunks = new ArrayList<>();
+            for (int start = 0; start < size; start += DECODE_CHUNK) {
+                int from = start;
+                int to = Math.min(size, start + DECODE_CHUNK);
+                chunks.add(ForkJoinTask.adapt(() -> {
+                    for (int i = from; i < to; i++) {
+                        Transaction transaction;
+                        try {
+                            transaction = deserializer.deserialize(FraudDetectionProcessor.TRANSACTIONS_TOPIC, records[i]);
+                        } catch (RuntimeException e) {
+                            transaction = null;
+                        }
+                        transactions[i] = transaction;
+                        timestamps[i] = transaction != null ? transaction.getTimestampMillis() : Long.MIN_VALUE;
+                        partitions[i] = transaction != null && transaction.hasAccountId()
+                                ? ZipfAccounts.partitionOf(transaction.getAccountId(), partitionCount) : NO_PARTITION;
+                        records[i] = null;
+                    }
+                }));
+            }
+            ForkJoinTask.invokeAll(chunks);
+        }
+
+        void route(int index, int partitionCount) {
+            if (routed == null) {
+                routed = new int[partitionCount][];
+                routedSizes = new int[partitionCount];
+            }
+            int partition = partitions[index];
+            int[] indexes = routed[partition];
+            if (indexes == null) {
+                indexes = routed[partition] = new int[Math.max(16, size / partitionCount)];
+            } else if (routedSizes[partition] == indexes.length) {
+                indexes = routed[partition] = Arrays.copyOf(indexes, indexes.length * 2);
+            }
+            indexes[routedSizes[partition]++] = index;
+        }
+
+        // Every partition in parallel, each in input order; alerts serialized where they are found
+        void score(AccountBatchScorer[] scorers, Serializer<FraudAlert> serializer) {
+            alerts = new ArrayList<>();
+            List<ForkJoinTask<?>> tasks = new ArrayList<>();
+            for (int p = 0; p < scorers.length; p++) {
+                List<byte[]> partitionAlerts = new ArrayList<>();
+                alerts.add(partitionAlerts);
+                if (routed == null || routed[p] == null) {
+                    continue;
+                }
+                AccountBatchScorer scorer = scorers[p];
+                int[] indexes = routed[p];
+                int count = routedSizes[p];
+                tasks.add(ForkJoinTask.adapt(() -> {
+                    for (int i = 0; i < count; i++) {
+                        int index = indexes[i];
+                        scorer.score(transactions[index], timestamps[index]);
+                    }
+                    for (FraudAlert alert : scorer.drainAlerts()) {
+                        partitionAlerts.add(serializer.serialize(FraudDetectionProcessor.FRAUD_ALERTS_TOPIC, alert));
+                    }
+                }));
+            }
+            ForkJoinTask.invokeAll(tasks);
+        }
+
+        long write(OutputStream out) throws IOException {
+            long written = 0;
+            for (List<byte[]> partitionAlerts : alerts) {
+                for (byte[] alert : partitionAlerts) {
+                    out.write(alert);
+                    out.write('\n');
+                    written++;
+                }
+            }
+            return written;
+        }
+    }
+}
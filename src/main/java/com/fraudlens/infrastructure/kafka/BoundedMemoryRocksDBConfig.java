@@ -0,0 +1,153 @@
+package com.fraudlens.infrastructure.kafka;
+
+import org.apache.kafka.streams.state.RocksDBConfigSetter;
+import org.rocksdb.BlockBasedTableConfig;
+import org.rocksdb.BloomFilter;
+import org.rocksdb.Cache;
+import org.rocksdb.CompactionStyle;
+import org.rocksdb.CompressionType;
+import org.rocksdb.LRUCache;
+import org.rocksdb.Options;
+import org.rocksdb.WriteBufferManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * RocksDB settings for every state store of the application.
+ *
+ * All store instances (one per store and partition, plus one per segment for window
+ * stores) share a single bounded LRU block cache, and their memtables are charged to
+ * that cache through one {@link WriteBufferManager}. Off-heap memory is therefore
+ * capped by {@link #BLOCK_CACHE_BYTES} however many partitions an instance owns.
+ * Index and filter blocks live in the cache too (high priority, top level pinned).
+ *
+ * Kafka Streams instantiates this class by reflection, so settings arrive through the
+ * streams config map under the {@code fraudlens.rocksdb.*} keys set by KafkaConfig.
+ */
+public class BoundedMemoryRocksDBConfig implements RocksDBConfigSetter {
+
+    private static final Logger logger = LoggerFactory.getLogger(BoundedMemoryRocksDBConfig.class);
+
+    public static final String BLOCK_CACHE_BYTES = "fraudlens.rocksdb.block-cache-bytes";
+    public static final String WRITE_BUFFER_MANAGER_BYTES = "fraudlens.rocksdb.write-buffer-manager-bytes";
+    public static final String HIGH_PRIORITY_POOL_RATIO = "fraudlens.rocksdb.high-priority-pool-ratio";
+    public static final String WRITE_BUFFER_BYTES = "fraudlens.rocksdb.write-buffer-bytes";
+    public static final String MAX_WRITE_BUFFERS = "fraudlens.rocksdb.max-write-buffers";
+    public static final String BLOCK_SIZE_BYTES = "fraudlens.rocksdb.block-size-bytes";
+    public static final String BLOOM_FILTER_BITS_PER_KEY = "fraudlens.rocksdb.bloom-filter-bits-per-key";
+    public static final String COMPACTION_STYLE = "fraudlens.rocksdb.compaction-style";
+    public static final String COMPRESSION = "fraudlens.rocksdb.compression";
+
+    // Shared across all store instances in the JVM; never closed while stores may use them
+    private static volatile Cache sharedCache;
+    private static WriteBufferManager sharedWriteBufferManager;
+    private static volatile long sharedCacheCapacity;
+    private static final AtomicInteger OPEN_INSTANCES = new AtomicInteger();
+
+    private BloomFilter filter;
+
+    @Override
+    public void setConfig(String storeName, Options options, Map<String, Object> configs) {
+        long blockCacheBytes = longValue(configs, BLOCK_CACHE_BYTES, 256L * 1024 * 1024);
+        long writeBufferManagerBytes = longValue(configs, WRITE_BUFFER_MANAGER_BYTES, 64L * 1024 * 1024);
+        double highPriorityRatio = doubleValue(configs, HIGH_PRIORITY_POOL_RATIO, 0.1);
+        initSharedMemory(blockCacheBytes, writeBufferManagerBytes, highPriorityRatio);
+
+        BlockBasedTableConfig tableConfig = (BlockBasedTableConfig) options.tableFormatConfig();
+        tableConfig.setBlockCache(sharedCache);
+        tableConfig.setBlockSize(longValue(configs, BLOCK_SIZE_BYTES, 16L * 1024));
+        tableConfig.setCacheIndexAndFilterBlocks(true);
+        tableConfig.setCacheIndexAndFilterBlocksWithHighPriority(true);
+        tableConfig.setPinTopLevelIndexAndFilter(true);
+
+        double bitsPerKey = doubleValue(configs, BLOOM_FILTER_BITS_PER_KEY, 10.0);
+        if (bitsPerKey > 0) {
+            filter = new BloomFilter(bitsPerKey);
+            tableConfig.setFilterPolicy(filter);
+        }
+        options.setTableFormatConfig(tableConfig);
+
+        options.setWriteBufferManager(sharedWriteBufferManager);
+        options.setWriteBufferSize(longValue(configs, WRITE_BUFFER_BYTES, 8L * 1024 * 1024));
+        options.setMaxWriteBufferNumber((int) longValue(configs, MAX_WRITE_BUFFERS, 3));
+        options.setCompactionStyle(CompactionStyle.valueOf(
+                stringValue(configs, COMPACTION_STYLE, "level").toUpperCase(Locale.ROOT)));
+        options.setCompressionType(compressionType(stringValue(configs, COMPRESSION, "lz4")));
+
+        OPEN_INSTANCES.incrementAndGet();
+        logger.debug("RocksDB config applied to store {}", storeName);
+    }
+
+    @Override
+    public void close(String storeName, Options options) {
+        // Only per-instance objects; the shared cache and write buffer manager outlive single stores
+        if (filter != null) {
+            filter.close();
+            filter = null;
+        }
+        OPEN_INSTANCES.decrementAndGet();
+    }
+
+    private static synchronized void initSharedMemory(long blockCacheBytes, long writeBufferManagerBytes,
+                                                      double highPriorityRatio) {
+        if (sharedCache != null) {
+            return;
+        }
+        sharedCache = new LRUCache(blockCacheBytes, -1, false, highPriorityRatio);
+        sharedWriteBufferManager = new WriteBufferManager(writeBufferManagerBytes, sharedCache);
+        sharedCacheCapacity = blockCacheBytes;
+        logger.info("🗄️ RocksDB shared block cache {} MB (memtables up to {} MB charged to it)",
+                   blockCacheBytes / (1024 * 1024), writeBufferManagerBytes / (1024 * 1024));
+    }
+
+    static CompressionType compressionType(String name) {
+        switch (name.trim().toLowerCase(Locale.ROOT)) {
+            case "none": return CompressionType.NO_COMPRESSION;
+            case "snappy": return CompressionType.SNAPPY_COMPRESSION;
+            case "zlib": return CompressionType.ZLIB_COMPRESSION;
+            case "lz4": return CompressionType.LZ4_COMPRESSION;
+            case "lz4hc": return CompressionType.LZ4HC_COMPRESSION;
+            case "zstd": return CompressionType.ZSTD_COMPRESSION;
+            default: throw new IllegalArgumentException("Unknown RocksDB compression: " + name);
+        }
+    }
+
+    // Shared memory figures for metrics; NaN until the first store is opened
+
+    public static double blockCacheUsageBytes() {
+        Cache cache = sharedCache;
+        return cache != null ? cache.getUsage() : Double.NaN;
+    }
+
+    public static double blockCachePinnedUsageBytes() {
+        Cache cache = sharedCache;
+        return cache != null ? cache.getPinnedUsage() : Double.NaN;
+    }
+
+    public static double blockCacheCapacityBytes() {
+        return sharedCache != null ? sharedCacheCapacity : Double.NaN;
+    }
+
+    public static double openStoreInstances() {
+        return OPEN_INSTANCES.get();
+    }
+
+    private static long longValue(Map<String, Object> configs, String key, long defaultValue) {
+        Object value = configs.get(key);
+        return value != null ? Long.parseLong(value.toString().trim()) : defaultValue;
+    }
+
+    private static double doubleValue(Map<String, Object> configs, String key, double defaultValue) {
+        Object value = configs.get(key);
+        return value != null ? Double.parseDouble(value.toString().trim()) : defaultValue;
+    }
+
+    private static String stringValue(Map<String, Object> configs, String key, String defaultValue) {
+        Object value = configs.get(key);
+        return value != null ? value.toString() : defaultValue;
+    }
+}
@@ -0,0 +1,209 @@
+package com.fraudlens.infrastructure.kafka;
+
+import com.fraudlens.domain.model.Transaction;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Streams transaction batches from an HTTP body into the transactions topic.
+ *
+ * Records are read one at a time ({@link TransactionRecordReader}) and decoded with the
+ * streams' transaction serde; with lazy transactions that is a scan of the IDs, and the
+ * producer then sends the original bytes unchanged. Sends are pipelined: reading only stops
+ * when {@code maxInFlight} records await acknowledgement or the producer's buffer has less
+ * than {@code minFreeBufferRatio} free, so a fast client is slowed to what the brokers take
+ * through TCP flow control instead of filling memory. The result is returned once every
+ * record sent has been acknowledged or has failed.
+ */
+@Service
+public class BulkIngestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkIngestService.class);
+
+    /** Body formats; see {@link TransactionRecordReader} */
+    public enum Format { NDJSON, BINARY }
+
+    @Autowired
+    private KafkaTemplate<String, Transaction> kafkaTemplate;
+
+    @Autowired
+    private Serde<Transaction> transactionSerde;
+
+    @Value("${fraudlens.ingest.batch-size:1000}")
+    private int batchSize = 1000;
+
+    @Value("${fraudlens.ingest.max-record-bytes:65536}")
+    private int maxRecordBytes = 65536;
+
+    @Value("${fraudlens.ingest.max-in-flight:50000}")
+    private int maxInFlight = 50000;
+
+    @Value("${fraudlens.ingest.min-free-buffer-ratio:0.25}")
+    private double minFreeBufferRatio = 0.25;
+
+    @Value("${fraudlens.ingest.backpressure-timeout-ms:30000}")
+    private long backpressureTimeoutMs = 30000;
+
+    // Producer buffer gauges, looked up once the producer exists
+    private volatile Metric bufferAvailable;
+    private volatile Metric bufferTotal;
+
+    private static final class BatchCounts {
+        private final int batch;
+        private int received;
+        private int rejected;
+        private final AtomicInteger accepted = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+
+        BatchCounts(int batch) {
+            this.batch = batch;
+        }
+
+        IngestResult.Batch result() {
+            return new IngestResult.Batch(batch, received, accepted.get(), rejected, failed.get());
+        }
+    }
+
+    public IngestResult ingest(InputStream body, Format format) {
+        long start = System.nanoTime();
+        TransactionRecordReader reader = new TransactionRecordReader(body, format, maxRecordBytes);
+        Deserializer<Transaction> deserializer = transactionSerde.deserializer();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        List<BatchCounts> batches = new ArrayList<>();
+        IngestResult.Status status = IngestResult.Status.COMPLETE;
+        String message = null;
+
+        try {
+            BatchCounts batch = null;
+            byte[] record;
+            while ((record = reader.next()) != null) {
+                if (batch == null || batch.received == batchSize) {
+                    if (!awaitBufferSpace()) {
+                        status = IngestResult.Status.BACKPRESSURE;
+                        message = "Producer buffer stayed full for " + backpressureTimeoutMs + " ms";
+                        break;
+                    }
+                    batch = new BatchCounts(batches.size());
+                    batches.add(batch);
+                }
+                batch.received++;
+                Transaction transaction = decode(deserializer, record);
+                if (transaction == null) {
+                    batch.rejected++;
+                    continue;
+                }
+                if (!inFlight.tryAcquire(backpressureTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    batch.received--;
+                    status = IngestResult.Status.BACKPRESSURE;
+                    message = "No acknowledgements for " + backpressureTimeoutMs + " ms";
+                    break;
+                }
+                send(transaction, batch, inFlight);
+            }
+        } catch (IOException e) {
+            status = IngestResult.Status.BAD_BODY;
+            message = "Body could not be read: " + e.getMessage();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            status = IngestResult.Status.BACKPRESSURE;
+            message = "Interrupted";
+        }
+
+        awaitAcknowledgements(inFlight);
+        List<IngestResult.Batch> results = batches.stream().map(BatchCounts::result).toList();
+        IngestResult result = new IngestResult(status, message, results,
+                                               TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        logger.info("📥 Bulk ingest: {} accepted, {} rejected, {} failed in {} ms ({}/s){}",
+                   result.getAccepted(), result.getRejected(), result.getFailed(), result.getElapsedMs(),
+                   Math.round(result.getRecordsPerSecond()), message != null ? ", stopped: " + message : "");
+        return result;
+    }
+
+    private Transaction decode(Deserializer<Transaction> deserializer, byte[] record) {
+        if (record == TransactionRecordReader.OVERSIZED) {
+            return null;
+        }
+        try {
+            Transaction transaction = deserializer.deserialize(TransactionProducer.TOPIC, record);
+            return transaction != null && transaction.hasAccountId() && transaction.getTransactionId() != null
+                    ? transaction : null;
+        } catch (RuntimeException e) {
+            logger.debug("Rejected ingest record: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void send(Transaction transaction, BatchCounts batch, Semaphore inFlight) {
+        try {
+            kafkaTemplate.send(TransactionProducer.TOPIC, transaction.getAccountId(), transaction)
+                    .whenComplete((result, exception) -> {
+                        (exception == null ? batch.accepted : batch.failed).incrementAndGet();
+                        inFlight.release();
+                    });
+        } catch (RuntimeException e) {
+            // Serialization or buffer timeout before the record was queued
+            batch.failed.incrementAndGet();
+            inFlight.release();
+        }
+    }
+
+    // All permits back means every send has completed
+    private void awaitAcknowledgements(Semaphore inFlight) {
+        try {
+            inFlight.acquire(maxInFlight);
+            inFlight.release(maxInFlight);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean awaitBufferSpace() {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backpressureTimeoutMs);
+        while (freeBufferRatio() < minFreeBufferRatio) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            LockSupport.parkNanos(1_000_000);
+        }
+        return true;
+    }
+
+    /** Share of the producer's record buffer that is free; 1 when the producer reports no buffer metrics */
+    double freeBufferRatio() {
+        if (bufferTotal == null) {
+            for (Map.Entry<MetricName, ? extends Metric> metric : kafkaTemplate.metrics().entrySet()) {
+                if ("producer-metrics".equals(metric.getKey().group())) {
+                    if ("buffer-available-bytes".equals(metric.getKey().name())) {
+                        bufferAvailable = metric.getValue();
+                    } else if ("buffer-total-bytes".equals(metric.getKey().name())) {
+                        bufferTotal = metric.getValue();
+                    }
+                }
+            }
+            if (bufferTotal == null || bufferAvailable == null) {
+                bufferTotal = null;
+                return 1.0;
+            }
+        }
+        double total = ((Number) bufferTotal.metricValue()).doubleValue();
+        return total > 0 ? ((Number) bufferAvailable.metricValue()).doubleValue() / total : 1.0;
+    }
+}
@@ -0,0 +1,67 @@
+package com.fraudlens.infrastructure.kafka;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Meters of one transaction deduplication task, tagged with its task ID and removed from the
+ * registry when the task closes.
+ *
+ * The measured false-positive rate is the share of distinct transactions the Bloom filters
+ * took for possible duplicates, i.e. the exact checks that found nothing. Without the exact
+ * check a false positive cannot be told from a duplicate, so the rate is not registered at all
+ * rather than read as 0; the configured rate is the only estimate then.
+ */
+final class DuplicateTransactionMetrics {
+
+    private final MeterRegistry registry;
+    private final List<Meter> meters = new ArrayList<>();
+    private final Counter checked;
+    private final Counter possibleDuplicates;
+    private final Counter duplicates;
+    private final Counter falsePositives;
+
+    DuplicateTransactionMetrics(MeterRegistry registry, String taskId, boolean exactCheck) {
+        this.registry = registry;
+        this.checked = counter("fraudlens.dedup.checked", "Transactions checked for a duplicate ID", taskId);
+        this.possibleDuplicates = counter("fraudlens.dedup.possible-duplicates",
+                                          "Transactions the Bloom filters reported as possibly seen", taskId);
+        this.duplicates = counter("fraudlens.dedup.duplicates", "Duplicate transactions dropped", taskId);
+        this.falsePositives = counter("fraudlens.dedup.false-positives",
+                                      "Possible duplicates the exact check did not confirm", taskId);
+        if (exactCheck) {
+            meters.add(Gauge.builder("fraudlens.dedup.false-positive-rate", this,
+                                     DuplicateTransactionMetrics::falsePositiveRate)
+                    .description("Share of distinct transactions the Bloom filters took for possible duplicates")
+                    .tag("task.id", taskId)
+                    .register(registry));
+        }
+    }
+
+    private Counter counter(String name, String description, String taskId) {
+        Counter counter = Counter.builder(name).description(description).tag("task.id", taskId).register(registry);
+        meters.add(counter);
+        return counter;
+    }
+
+    void recordChecked() { checked.increment(); }
+    void recordPossibleDuplicate() { possibleDuplicates.increment(); }
+    void recordDuplicate() { duplicates.increment(); }
+    void recordFalsePositive() { falsePositives.increment(); }
+
+    /** False positives per distinct transaction checked; NaN before the first one */
+    double falsePositiveRate() {
+        double distinct = checked.count() - duplicates.count();
+        return distinct > 0 ? falsePositives.count() / distinct : Double.NaN;
+    }
+
+    void close() {
+        meters.forEach(registry::remove);
+        meters.clear();
+    }
+}
@@ -0,0 +1,64 @@
+package com.fraudlens.infrastructure.kafka;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Small thread-safe cache whose entries expire a fixed time after they were stored.
+ *
+ * Meant for read-through caching of values that are allowed to be slightly stale. Size is
+ * bounded loosely: once {@code maxEntries} is exceeded, expired entries are purged and, if
+ * that is not enough, the cache starts over empty. A zero TTL disables caching.
+ */
+final class ExpiringCache<K, V> {
+
+    private record Entry<V>(V value, long expiresAtNanos) {
+    }
+
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final LongSupplier nanoClock;
+
+    ExpiringCache(Duration ttl, int maxEntries) {
+        this(ttl, maxEntries, System::nanoTime);
+    }
+
+    ExpiringCache(Duration ttl, int maxEntries, LongSupplier nanoClock) {
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+        this.nanoClock = nanoClock;
+    }
+
+    /** The cached value, or null if there is none or it has expired */
+    V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (nanoClock.getAsLong() - entry.expiresAtNanos >= 0) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.value;
+    }
+
+    void put(K key, V value) {
+        if (ttlNanos <= 0) {
+            return;
+        }
+        long now = nanoClock.getAsLong();
+        entries.put(key, new Entry<>(value, now + ttlNanos));
+        if (entries.size() > maxEntries) {
+            entries.values().removeIf(entry -> now - entry.expiresAtNanos >= 0);
+            if (entries.size() > maxEntries) {
+                entries.clear();
+            }
+        }
+    }
+
+    int size() {
+        return entries.size();
+    }
+}
@@ -1,8 +1,8 @@
 package com.fraudlens.infrastructure.kafka;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fraudlens.domain.model.FraudAlert;
+import com.fraudlens.infrastructure.serde.JsonMappers;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.kafka.annotation.KafkaListener;
@@ -17,19 +17,14 @@ public class FraudAlertConsumer {
     
     private static final Logger logger = LoggerFactory.getLogger(FraudAlertConsumer.class);
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("HH:mm:ss");
-    private final ObjectMapper objectMapper;
+    private static final ObjectReader ALERT_READER = JsonMappers.shared().readerFor(FraudAlert.class);
 
-    public FraudAlertConsumer() {
-        this.objectMapper = new ObjectMapper();
-        this.objectMapper.registerModule(new JavaTimeModule());
-        this.objectMapper.configure(com.fasterxml.jackson.databind.DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-    }
-
-    @KafkaListener(topics = "fraud-alerts", groupId = "fraudlens-consumer-group")
+    @KafkaListener(topics = "fraud-alerts", groupId = "fraudlens-consumer-group",
+                   autoStartup = "${spring.kafka.listener.auto-startup:true}")
     public void handleFraudAlert(@Payload String alertJson) {
         
         try {
-            FraudAlert alert = objectMapper.readValue(alertJson, FraudAlert.class);
+            FraudAlert alert = ALERT_READER.readValue(alertJson);
             
             logger.info("Received fraud alert: {} for account: {}", alert.getAlertId(), alert.getAccountId());
             
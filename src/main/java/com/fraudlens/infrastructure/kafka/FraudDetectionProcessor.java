@@ -1,162 +1,640 @@
 package com.fraudlens.infrastructure.kafka;
 
-import com.fraudlens.domain.model.AccountActivityWindow;
+import com.fraudlens.domain.model.AccountActivityAggregate;
+import com.fraudlens.domain.model.AccountEventBuffer;
+import com.fraudlens.domain.model.AccountHorizonPanes;
+import com.fraudlens.domain.model.AccountProfile;
 import com.fraudlens.domain.model.FraudAlert;
+import com.fraudlens.domain.model.Hashing;
+import com.fraudlens.domain.model.MerchantAlert;
+import com.fraudlens.domain.model.MerchantFanInWindow;
+import com.fraudlens.domain.model.RotatingBloomFilter;
 import com.fraudlens.domain.model.Transaction;
+import com.fraudlens.domain.rules.FraudRule;
 import com.fraudlens.domain.service.FraudDetectionService;
-import com.fraudlens.infrastructure.serde.JsonSerde;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.apache.kafka.common.serialization.Serde;
 import org.apache.kafka.common.serialization.Serdes;
 import org.apache.kafka.streams.StreamsBuilder;
 import org.apache.kafka.streams.kstream.*;
+import org.apache.kafka.streams.processor.PunctuationType;
 import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.processor.StateStore;
+import org.apache.kafka.streams.state.KeyValueBytesStoreSupplier;
+import org.apache.kafka.streams.state.StoreBuilder;
+import org.apache.kafka.streams.state.Stores;
+import org.apache.kafka.streams.state.WindowBytesStoreSupplier;
 import org.apache.kafka.streams.state.WindowStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.math.BigDecimal;
 import java.time.Duration;
-import java.time.Instant;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.Arrays;
+import java.util.Locale;
 
 @Component
 public class FraudDetectionProcessor {
 
     private static final Logger logger = LoggerFactory.getLogger(FraudDetectionProcessor.class);
-    private static final String TRANSACTIONS_TOPIC = "transactions";
-    private static final String FRAUD_ALERTS_TOPIC = "fraud-alerts";
-    private static final Duration WINDOW_SIZE = Duration.ofMinutes(5);
+    static final String TRANSACTIONS_TOPIC = "transactions";
+    static final String FRAUD_ALERTS_TOPIC = "fraud-alerts";
+    static final String MERCHANT_ALERTS_TOPIC = "merchant-alerts";
     private static final Duration GRACE_PERIOD = Duration.ofMinutes(1);
+    static final String ACTIVITY_STORE = "account-activity-store";
+    static final String EVENT_BUFFER_STORE = "account-event-buffer-store";
+    private static final String ALERT_DEDUP_STORE = "alert-dedup-store";
+    private static final String TRAVEL_DEDUP_STORE = "travel-alert-dedup-store";
+    private static final String RULES_STORE = "fraud-rules-store";
+    static final String HORIZON_STORE = "account-horizon-store";
+    static final String PROFILE_STORE = "account-profile-store";
+    static final String MERCHANT_FAN_IN_STORE = "merchant-fan-in-store";
+    static final String TRANSACTION_ID_STORE = "transaction-id-hash-store";
 
     @Autowired
     private FraudDetectionService fraudDetectionService;
 
+    @Autowired
+    private Serde<Transaction> transactionSerde;
+
+    @Autowired
+    private Serde<AccountActivityAggregate> accountActivityAggregateSerde;
+
+    @Autowired
+    private Serde<FraudAlert> fraudAlertSerde;
+
+    @Autowired
+    private Serde<AccountEventBuffer> accountEventBufferSerde;
+
+    @Autowired
+    private Serde<AccountHorizonPanes> accountHorizonPanesSerde;
+
+    @Autowired
+    private Serde<AccountProfile> accountProfileSerde;
+
+    @Autowired
+    private Serde<MerchantFanInWindow> merchantFanInWindowSerde;
+
+    @Autowired
+    private Serde<MerchantAlert> merchantAlertSerde;
+
+    // Per-task deduplication meters; the global registry when built outside Spring
+    @Autowired
+    private MeterRegistry meterRegistry = Metrics.globalRegistry;
+
+    @Value("${fraudlens.streams.window-mode:tumbling}")
+    private String windowMode;
+
+    @Value("${fraudlens.streams.engine:dsl}")
+    private String engine;
+
+    @Value("${fraudlens.streams.sweep-interval-ms:60000}")
+    private long sweepIntervalMs = 60_000L;
+
+    @Value("${fraudlens.streams.sweep-punctuation:stream-time}")
+    private String sweepPunctuation = "stream-time";
+
+    @Value("${fraudlens.streams.sweep-batch-size:10000}")
+    private int sweepBatchSize = 10_000;
+
+    @Value("${fraudlens.streams.cached-accounts:10000}")
+    private int cachedAccounts = 10_000;
+
+    @Value("${fraudlens.alerts.mode:escalation}")
+    private String alertMode;
+
+    @Value("${fraudlens.fraud.window-size-minutes:5}")
+    private long windowSizeMinutes = 5;
+
+    @Value("${fraudlens.streams.horizons:1m,5m,1h,24h}")
+    private String horizons = "1m,5m,1h,24h";
+
+    @Value("${fraudlens.streams.horizon-pane-ms:60000}")
+    private long horizonPaneMs = 60_000L;
+
+    @Value("${fraudlens.streams.horizon-sketch-block-ms:3600000}")
+    private long horizonSketchBlockMs = 3_600_000L;
+
+    @Value("${fraudlens.profile.enabled:true}")
+    private boolean profilesEnabled = true;
+
+    @Value("${fraudlens.profile.alpha:0.05}")
+    private double profileAlpha = 0.05;
+
+    @Value("${fraudlens.dedup.enabled:true}")
+    private boolean dedupEnabled = true;
+
+    @Value("${fraudlens.dedup.horizon-ms:600000}")
+    private long dedupHorizonMs = 600_000L;
+
+    @Value("${fraudlens.dedup.generations:3}")
+    private int dedupGenerations = 3;
+
+    @Value("${fraudlens.dedup.expected-ids:100000}")
+    private long dedupExpectedIds = 100_000L;
+
+    @Value("${fraudlens.dedup.false-positive-rate:0.01}")
+    private double dedupFalsePositiveRate = 0.01;
+
+    @Value("${fraudlens.dedup.exact-check:true}")
+    private boolean dedupExactCheck = true;
+
+    @Value("${fraudlens.merchant.enabled:true}")
+    private boolean merchantFanInEnabled = true;
+
+    @Value("${fraudlens.merchant.window-ms:300000}")
+    private long merchantWindowMs = 300_000L;
+
+    @Value("${fraudlens.merchant.min-accounts:50}")
+    private long merchantMinAccounts = 50;
+
+    @Value("${fraudlens.merchant.expected-pairs:100000}")
+    private long merchantExpectedPairs = 100_000L;
+
+    @Value("${fraudlens.merchant.sketch-depth:4}")
+    private int merchantSketchDepth = 4;
+
+    @Value("${fraudlens.merchant.sketch-width:2048}")
+    private int merchantSketchWidth = 2048;
+
+    @Value("${fraudlens.merchant.top-k:100}")
+    private int merchantTopK = 100;
+
+    @Value("${fraudlens.merchant.grace-ms:60000}")
+    private long merchantGraceMs = 60_000L;
+
+    @Value("${fraudlens.rules.topic:fraud-rules}")
+    private String rulesTopic = "fraud-rules";
+
+    // The branches an offline build includes; null while building the live topology
+    enum OfflineBranches { ACCOUNTS, MERCHANTS }
+    private OfflineBranches offlineBranches;
+
     @Autowired
     @SuppressWarnings("unchecked")
-    public void buildPipeline(StreamsBuilder streamsBuilder) {
+    public synchronized void buildPipeline(StreamsBuilder streamsBuilder) {
         logger.info("🔧 Building Kafka Streams topology for fraud detection");
+        if (!effectiveAlertMode().equalsIgnoreCase(alertMode.trim())) {
+            logger.warn("Alert mode '{}' needs tumbling windows; using '{}'", alertMode, effectiveAlertMode());
+        }
+
+        addRulesStore(streamsBuilder);
 
         // Input transaction stream
         KStream<String, Transaction> transactionStream = streamsBuilder
-                .stream(TRANSACTIONS_TOPIC, Consumed.with(Serdes.String(), new JsonSerde<>(Transaction.class)))
-                .peek((key, transaction) -> 
-                    logger.debug("Processing transaction: {} for account: {} amount: €{} country: {}", 
-                               transaction.getTransactionId(), 
-                               transaction.getAccountId(), 
-                               transaction.getAmount(), 
-                               transaction.getCountry()));
-
-        // Group by accountId and process in sliding windows
-        KTable<Windowed<String>, AccountActivityWindow> accountActivityTable = transactionStream
-                .filter((key, transaction) -> transaction.getAccountId() != null)
-                .groupByKey(Grouped.with(Serdes.String(), new JsonSerde<>(Transaction.class)))
-                .windowedBy(TimeWindows.ofSizeAndGrace(WINDOW_SIZE, GRACE_PERIOD))
+                .stream(TRANSACTIONS_TOPIC, Consumed.with(Serdes.String(), transactionSerde))
+                .peek((key, transaction) -> {
+                    // Guarded so lazily decoded transactions are not fully decoded just for logging
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("Processing transaction: {} for account: {} amount: €{} country: {}", 
+                                   transaction.getTransactionId(), 
+                                   transaction.getAccountId(), 
+                                   transaction.getAmount(), 
+                                   transaction.getCountry());
+                    }
+                });
+
+        KStream<String, Transaction> accountTransactions = dropDuplicateTransactions(streamsBuilder,
+                transactionStream.filter((key, transaction) -> transaction.hasAccountId()));
+        if (offlineBranches == OfflineBranches.MERCHANTS) {
+            detectMerchantFanIn(streamsBuilder, accountTransactions);
+            return;
+        }
+        updateProfiles(streamsBuilder, accountTransactions);
+        if (offlineBranches == null) {
+            detectMerchantFanIn(streamsBuilder, accountTransactions);
+        }
+
+        if (isProcessorEngine()) {
+            buildProcessorEngine(streamsBuilder, accountTransactions);
+            return;
+        }
+        if (usesHorizonPanes()) {
+            buildHorizonPipeline(streamsBuilder, accountTransactions);
+            return;
+        }
+        if (fraudDetectionService.getRules().usesHorizons()) {
+            logger.warn("Fraud rules name horizons, which only window mode 'horizons' tracks; those rules will not fire");
+        }
+
+        // Activity per account: true sliding windows, or the tumbling buckets
+        KStream<String, AccountActivityAggregate> activityStream = isSlidingMode()
+                ? slidingActivity(streamsBuilder, accountTransactions)
+                : tumblingActivity(accountTransactions);
+
+        // Detect fraud and generate alerts; one rule evaluation against one rule set per update
+        KStream<String, FraudAlert> fraudAlertStream = activityStream
+                .mapValues((accountId, aggregate) -> {
+                    FraudAlert alert = fraudDetectionService.detectFraud(aggregate);
+                    if (alert != null) {
+                        logger.warn("🚨 FRAUD DETECTED for account {}: €{} across {} countries", 
+                                  accountId, 
+                                  aggregate.getTotalAmount(), 
+                                  aggregate.getCountryCount());
+                        logger.info("🚨 Generated fraud alert: {} for account: {} with risk score: {}", 
+                                  alert.getAlertId(), 
+                                  alert.getAccountId(), 
+                                  alert.getRiskScore());
+                    }
+                    return alert;
+                })
+                .filter((accountId, alert) -> alert != null);
+
+        // Send alerts to output topic
+        deduplicate(streamsBuilder, scoreAgainstBaseline(fraudAlertStream))
+                .to(FRAUD_ALERTS_TOPIC, 
+                    Produced.with(Serdes.String(), fraudAlertSerde));
+
+        logger.info("✅ Fraud detection pipeline built successfully ({} windows, {} alerts)",
+                   isSlidingMode() ? "sliding" : "tumbling", effectiveAlertMode());
+    }
+
+    /**
+     * The account-keyed branches (all but merchant fan-in) for offline replay, which partitions
+     * the input by account. Every store is on the heap and without a changelog: the replay driver
+     * commits after each record, which would flush and checkpoint RocksDB each time
+     */
+    public void buildOfflineAccountPipeline(StreamsBuilder streamsBuilder) {
+        buildOffline(streamsBuilder, OfflineBranches.ACCOUNTS);
+    }
+
+    /** Merchant fan-in alone for offline replay, which partitions its input by merchant */
+    public void buildOfflineMerchantPipeline(StreamsBuilder streamsBuilder) {
+        buildOffline(streamsBuilder, OfflineBranches.MERCHANTS);
+    }
+
+    /**
+     * A sequential scorer with the semantics of the account-keyed branches, for batch scoring; one
+     * per partition. The processor engine and final alerts are not supported: what they emit
+     * depends on when punctuations and suppression fire, which only the topology reproduces
+     */
+    AccountBatchScorer newAccountBatchScorer() {
+        if (isProcessorEngine()) {
+            throw new IllegalStateException("Batch scoring does not support the processor engine; use the topology replay");
+        }
+        if ("final".equals(effectiveAlertMode())) {
+            throw new IllegalStateException("Batch scoring does not support final alerts; use the topology replay");
+        }
+        AccountBatchScorer.Detection detection = usesHorizonPanes() ? AccountBatchScorer.Detection.HORIZONS
+                : isSlidingMode() ? AccountBatchScorer.Detection.SLIDING : AccountBatchScorer.Detection.TUMBLING;
+        return new AccountBatchScorer(fraudDetectionService, detection, windowSize().toMillis(), GRACE_PERIOD.toMillis(),
+                                      "escalation".equals(effectiveAlertMode()), profilesEnabled, profileAlpha,
+                                      dedupEnabled ? RotatingBloomFilter.create(dedupGenerations, dedupHorizonMs,
+                                                                                dedupExpectedIds, dedupFalsePositiveRate)
+                                                   : null,
+                                      dedupExactCheck, dedupHorizonMs,
+                                      horizonPaneMs, detection == AccountBatchScorer.Detection.HORIZONS ? horizonMillis() : null,
+                                      horizonSketchBlockMs);
+    }
+
+    private synchronized void buildOffline(StreamsBuilder streamsBuilder, OfflineBranches branches) {
+        offlineBranches = branches;
+        try {
+            buildPipeline(streamsBuilder);
+        } finally {
+            offlineBranches = null;
+        }
+    }
+
+    private boolean isOffline() {
+        return offlineBranches != null;
+    }
+
+    // RocksDB with a changelog when live; in memory without one for offline replay
+    private KeyValueBytesStoreSupplier keyValueStore(String name) {
+        return isOffline() ? Stores.inMemoryKeyValueStore(name) : Stores.persistentKeyValueStore(name);
+    }
+
+    private WindowBytesStoreSupplier windowStore(String name, Duration retention, Duration windowSize) {
+        return isOffline() ? Stores.inMemoryWindowStore(name, retention, windowSize, false)
+                           : Stores.persistentWindowStore(name, retention, windowSize, false);
+    }
+
+    private <S extends StateStore> StoreBuilder<S> logged(StoreBuilder<S> builder) {
+        return isOffline() ? builder.withLoggingDisabled() : builder;
+    }
+
+    // all: every fraudulent update; escalation: first alert per window, then higher scores only;
+    // final: one alert per closed tumbling window (sliding windows never close, so escalation there)
+    private String effectiveAlertMode() {
+        String mode = alertMode.trim().toLowerCase(Locale.ROOT);
+        return "final".equals(mode) && (usesEventBuffers() || usesHorizonPanes()) ? "escalation" : mode;
+    }
+
+    // Idempotency ahead of every consumer: retried or re-sent transaction IDs would otherwise count twice.
+    // Relies on producers keying by account, so that copies of a transaction meet on one partition
+    private KStream<String, Transaction> dropDuplicateTransactions(StreamsBuilder streamsBuilder,
+                                                                   KStream<String, Transaction> transactions) {
+        if (!dedupEnabled) {
+            return transactions;
+        }
+        if (!dedupExactCheck) {
+            return transactions.processValues(this::transactionDeduplicator, Named.as("transaction-deduplicator"));
+        }
+        streamsBuilder.addStateStore(logged(
+                Stores.windowStoreBuilder(
+                        windowStore(TRANSACTION_ID_STORE, Duration.ofMillis(dedupHorizonMs), Duration.ofMillis(dedupHorizonMs)),
+                        Serdes.Long(),
+                        Serdes.Long())));
+        return transactions.processValues(this::transactionDeduplicator, Named.as("transaction-deduplicator"),
+                                          TRANSACTION_ID_STORE);
+    }
+
+    private TransactionDeduplicationProcessor transactionDeduplicator() {
+        return new TransactionDeduplicationProcessor(dedupExactCheck ? TRANSACTION_ID_STORE : null, dedupHorizonMs,
+                                                     dedupGenerations, dedupExpectedIds, dedupFalsePositiveRate,
+                                                     meterRegistry);
+    }
+
+    // Behavioural baselines: a branch beside the detection engines keeps every account's fixed-size
+    // profile up to date and sends impossible-travel alerts found against it, deduplicated, to the alerts topic
+    private void updateProfiles(StreamsBuilder streamsBuilder, KStream<String, Transaction> transactions) {
+        if (!profilesEnabled) {
+            return;
+        }
+        streamsBuilder.addStateStore(logged(
+                Stores.keyValueStoreBuilder(
+                        keyValueStore(PROFILE_STORE),
+                        Serdes.String(),
+                        accountProfileSerde)
+                        .withCachingEnabled()));
+        KStream<String, FraudAlert> travelAlerts = transactions.processValues(
+                () -> new AccountProfileProcessor(PROFILE_STORE, profileAlpha, windowSize().toMillis(),
+                                                  fraudDetectionService),
+                Named.as("account-profile-updater"), PROFILE_STORE);
+        deduplicateTravel(streamsBuilder, travelAlerts)
+                .to(FRAUD_ALERTS_TOPIC, Produced.with(Serdes.String(), fraudAlertSerde));
+    }
+
+    // A journey's alert ID names it, so travel alerts are deduplicated by ID in a store of their own;
+    // they have no window to close, so final mode deduplicates them as escalation does
+    private KStream<String, FraudAlert> deduplicateTravel(StreamsBuilder streamsBuilder, KStream<String, FraudAlert> alerts) {
+        if ("all".equals(effectiveAlertMode())) {
+            return alerts;
+        }
+        streamsBuilder.addStateStore(logged(
+                Stores.windowStoreBuilder(
+                        windowStore(TRAVEL_DEDUP_STORE,
+                                windowSize().plus(GRACE_PERIOD).multipliedBy(2), windowSize().plus(GRACE_PERIOD)),
+                        Serdes.String(),
+                        Serdes.Integer())));
+        return alerts.processValues(() -> AlertDeduplicationProcessor.byAlertId(TRAVEL_DEDUP_STORE),
+                                    Named.as("travel-alert-deduplicator"), TRAVEL_DEDUP_STORE);
+    }
+
+    // ... and alerts are re-scored against it before deduplication
+    private KStream<String, FraudAlert> scoreAgainstBaseline(KStream<String, FraudAlert> alerts) {
+        if (!profilesEnabled) {
+            return alerts;
+        }
+        return alerts.processValues(() -> new BaselineScoringProcessor(PROFILE_STORE, fraudDetectionService),
+                                    Named.as("baseline-scorer"), PROFILE_STORE);
+    }
+
+    // Merchant fan-in: a second sub-topology keyed by merchant. Only the account's 64-bit hash crosses the
+    // repartition topic, not the transaction JSON, so it adds a small fraction of the input's broker I/O
+    private void detectMerchantFanIn(StreamsBuilder streamsBuilder, KStream<String, Transaction> transactions) {
+        if (!merchantFanInEnabled) {
+            return;
+        }
+        streamsBuilder.addStateStore(logged(
+                Stores.keyValueStoreBuilder(
+                        keyValueStore(MERCHANT_FAN_IN_STORE),
+                        Serdes.String(),
+                        merchantFanInWindowSerde)
+                        .withCachingEnabled()));
+        transactions
+                .filter((accountId, transaction) -> transaction.getMerchantName() != null
+                        && !transaction.getMerchantName().isBlank())
+                .map((accountId, transaction) -> KeyValue.pair(transaction.getMerchantName(),
+                                                               Hashing.hash(transaction.getAccountId())),
+                     Named.as("merchant-key"))
+                .repartition(Repartitioned.with(Serdes.String(), Serdes.Long()).withName("merchant-fan-in"))
+                .processValues(() -> new MerchantFanInProcessor(MERCHANT_FAN_IN_STORE, merchantWindowMs, merchantGraceMs,
+                                                                merchantMinAccounts, merchantExpectedPairs,
+                                                                merchantSketchDepth, merchantSketchWidth, merchantTopK,
+                                                                !isOffline()),
+                               Named.as("merchant-fan-in-detector"), MERCHANT_FAN_IN_STORE)
+                .to(MERCHANT_ALERTS_TOPIC, Produced.with(Serdes.String(), merchantAlertSerde));
+    }
+
+    private KStream<String, FraudAlert> deduplicate(StreamsBuilder streamsBuilder, KStream<String, FraudAlert> alerts) {
+        if (!"escalation".equals(effectiveAlertMode())) {
+            return alerts;
+        }
+        // Retention covers any earlier alert window that a new one can still overlap (or, for tumbling buckets, update)
+        streamsBuilder.addStateStore(logged(
+                Stores.windowStoreBuilder(
+                        windowStore(ALERT_DEDUP_STORE,
+                                windowSize().plus(GRACE_PERIOD).multipliedBy(2), windowSize().plus(GRACE_PERIOD)),
+                        Serdes.String(),
+                        Serdes.Integer())));
+        boolean tumbling = !usesEventBuffers() && !usesHorizonPanes();
+        return alerts.processValues(() -> new AlertDeduplicationProcessor(ALERT_DEDUP_STORE, tumbling),
+                                    Named.as("alert-deduplicator"), ALERT_DEDUP_STORE);
+    }
+
+    // Every instance reads the whole compacted rules topic and swaps in each new rule set
+    private void addRulesStore(StreamsBuilder streamsBuilder) {
+        if (rulesTopic == null || rulesTopic.isBlank()) {
+            return;
+        }
+        streamsBuilder.addGlobalStore(
+                Stores.keyValueStoreBuilder(
+                        Stores.inMemoryKeyValueStore(RULES_STORE),
+                        Serdes.String(),
+                        Serdes.String())
+                        .withLoggingDisabled(),
+                rulesTopic.trim(),
+                Consumed.with(Serdes.String(), Serdes.String()),
+                () -> new RuleUpdateProcessor(RULES_STORE, fraudDetectionService));
+    }
+
+    private boolean isProcessorEngine() {
+        return "processor".equalsIgnoreCase(engine.trim());
+    }
+
+    // Processor API engine: per-account buffers with in-place rule evaluation, only alerts leave the processor
+    private void buildProcessorEngine(StreamsBuilder streamsBuilder, KStream<String, Transaction> transactions) {
+        addEventBufferStore(streamsBuilder);
+        PunctuationType punctuationType = sweepPunctuationType();
+
+        KStream<String, FraudAlert> alerts = transactions
+                .process(() -> new AccountBufferFraudProcessor(EVENT_BUFFER_STORE, windowSize(), fraudDetectionService,
+                                                               Duration.ofMillis(sweepIntervalMs), punctuationType,
+                                                               sweepBatchSize, cachedAccounts),
+                         Named.as("account-buffer-fraud-detector"), EVENT_BUFFER_STORE);
+        deduplicate(streamsBuilder, scoreAgainstBaseline(alerts))
+                .to(FRAUD_ALERTS_TOPIC, Produced.with(Serdes.String(), fraudAlertSerde));
+
+        logger.info("✅ Fraud detection pipeline built successfully (processor engine, {} sweep every {} ms, {} alerts)",
+                   punctuationType, sweepIntervalMs, effectiveAlertMode());
+    }
+
+    // Multi-horizon detection: one pane store per account feeds every horizon, only alerts leave the processor
+    private void buildHorizonPipeline(StreamsBuilder streamsBuilder, KStream<String, Transaction> transactions) {
+        long[] horizonMillis = horizonMillis();
+        streamsBuilder.addStateStore(logged(
+                Stores.keyValueStoreBuilder(
+                        keyValueStore(HORIZON_STORE),
+                        Serdes.String(),
+                        accountHorizonPanesSerde)
+                        .withCachingEnabled()));
+
+        KStream<String, FraudAlert> alerts = transactions
+                .processValues(() -> new MultiHorizonProcessor(HORIZON_STORE, horizonPaneMs, horizonMillis,
+                                                               windowSize().toMillis(), horizonSketchBlockMs,
+                                                               fraudDetectionService, Duration.ofMillis(sweepIntervalMs),
+                                                               sweepPunctuationType(), sweepBatchSize, cachedAccounts),
+                               Named.as("multi-horizon-fraud-detector"), HORIZON_STORE);
+        deduplicate(streamsBuilder, scoreAgainstBaseline(alerts))
+                .to(FRAUD_ALERTS_TOPIC, Produced.with(Serdes.String(), fraudAlertSerde));
+
+        logger.info("✅ Fraud detection pipeline built successfully (horizons {} over {} ms panes, {} alerts)",
+                   horizons, horizonPaneMs, effectiveAlertMode());
+    }
+
+    /** Configured horizons plus the detection window, ascending; validated against the pane and sketch block sizes */
+    long[] horizonMillis() {
+        long[] millis = Arrays.stream(horizons.split(","))
+                .map(String::trim)
+                .filter(horizon -> !horizon.isEmpty())
+                .mapToLong(horizon -> FraudRule.parseHorizon(horizon).toMillis())
+                .toArray();
+        millis = Arrays.copyOf(millis, millis.length + 1);
+        millis[millis.length - 1] = windowSize().toMillis();
+        millis = Arrays.stream(millis).sorted().distinct().toArray();
+        AccountHorizonPanes.validate(horizonPaneMs, millis, horizonSketchBlockMs);
+        if (horizonSketchBlockMs > 0 && windowSize().toMillis() >= horizonSketchBlockMs) {
+            throw new IllegalArgumentException("Sketch block " + horizonSketchBlockMs + " ms must be longer than the "
+                                               + windowSizeMinutes + " minute detection window");
+        }
+        return millis;
+    }
+
+    /** Empty panes shaped like the horizon store's, for an account with no activity yet */
+    AccountHorizonPanes newHorizonPanes(String accountId) {
+        return new AccountHorizonPanes(accountId, horizonPaneMs, horizonMillis(), windowSize().toMillis(),
+                                       horizonSketchBlockMs);
+    }
+
+    private void addEventBufferStore(StreamsBuilder streamsBuilder) {
+        // Record cache on: repeated writes of a busy account collapse into one store and changelog write per commit
+        streamsBuilder.addStateStore(logged(
+                Stores.keyValueStoreBuilder(
+                        keyValueStore(EVENT_BUFFER_STORE),
+                        Serdes.String(),
+                        accountEventBufferSerde)
+                        .withCachingEnabled()));
+    }
+
+    private boolean isSlidingMode() {
+        return "sliding".equalsIgnoreCase(windowMode.trim());
+    }
+
+    // Current activity lives in the horizon panes in horizons mode (DSL engine)
+    boolean usesHorizonPanes() {
+        return !isProcessorEngine() && "horizons".equalsIgnoreCase(windowMode.trim());
+    }
+
+    Duration windowSize() {
+        return Duration.ofMinutes(windowSizeMinutes);
+    }
+
+    // Current activity lives in the event buffers for sliding windows and the processor engine
+    boolean usesEventBuffers() {
+        return isProcessorEngine() || isSlidingMode();
+    }
+
+    // Tumbling buckets: one windowed aggregate per account and bucket
+    private KStream<String, AccountActivityAggregate> tumblingActivity(KStream<String, Transaction> transactions) {
+        KTable<Windowed<String>, AccountActivityAggregate> accountActivityTable = transactions
+                .groupByKey(Grouped.with(Serdes.String(), transactionSerde))
+                .windowedBy(TimeWindows.ofSizeAndGrace(windowSize(), GRACE_PERIOD))
                 .aggregate(
-                    // Initializer: create empty window
-                    () -> {
-                        Instant now = Instant.now();
-                        return AccountActivityWindow.createNew("", now.minus(WINDOW_SIZE), now);
-                    },
-                    // Aggregator: add transaction to window
-                    (accountId, transaction, window) -> {
-                        logger.debug("Aggregating transaction {} for account {} in window", 
-                                   transaction.getTransactionId(), accountId);
-                        return aggregateTransaction(accountId, transaction, window);
+                    // Initializer: create empty aggregate, the account is set by the first transaction
+                    AccountActivityAggregate::new,
+                    // Aggregator: add transaction to the aggregate in place
+                    (accountId, transaction, aggregate) -> {
+                        if (logger.isDebugEnabled()) {
+                            logger.debug("Aggregating transaction {} for account {} in window", 
+                                       transaction.getTransactionId(), accountId);
+                        }
+                        return aggregateTransaction(accountId, transaction, aggregate);
                     },
                     // Materializer: configure store with serdes
-                    Materialized.<String, AccountActivityWindow, WindowStore<org.apache.kafka.common.utils.Bytes, byte[]>>as("account-activity-store")
+                    activityMaterialized()
                             .withKeySerde(Serdes.String())
-                            .withValueSerde(new JsonSerde<>(AccountActivityWindow.class))
-                            .withRetention(WINDOW_SIZE.plus(GRACE_PERIOD))
+                            .withValueSerde(accountActivityAggregateSerde)
                 );
 
-        // Activity window stream
-        KStream<Windowed<String>, AccountActivityWindow> activityStream = accountActivityTable
+        if ("final".equals(effectiveAlertMode())) {
+            // Only the final result of each window, once stream time passes its end plus grace
+            accountActivityTable = accountActivityTable
+                    .suppress(Suppressed.untilWindowCloses(isOffline()
+                            ? Suppressed.BufferConfig.unbounded().withLoggingDisabled()
+                            : Suppressed.BufferConfig.unbounded()));
+        }
+
+        // The bucket's bounds come from its window key: [start, end), end exclusive as in Kafka
+        return accountActivityTable
                 .toStream()
-                .peek((windowedKey, window) -> 
-                    logger.debug("Activity window for account {}: €{} across {} countries with {} transactions",
-                               windowedKey.key(),
-                               window.getTotalAmount(),
-                               window.getCountryCount(),
-                               window.getTransactionCount()));
-
-        // Detect fraud and generate alerts
-        KStream<String, FraudAlert> fraudAlertStream = activityStream
-                .filter((windowedKey, window) -> {
-                    boolean isFraud = fraudDetectionService.isFraudulent(window);
-                    if (isFraud) {
-                        logger.warn("🚨 FRAUD DETECTED for account {}: €{} across {} countries", 
-                                  windowedKey.key(), 
-                                  window.getTotalAmount(), 
-                                  window.getCountryCount());
+                .map((windowedKey, aggregate) -> KeyValue.pair(windowedKey.key(),
+                             aggregate.withWindow(windowedKey.window().start(), windowedKey.window().end())),
+                     Named.as("activity-window-bounds"))
+                .peek((accountId, aggregate) -> {
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("Activity window for account {}: €{} across {} countries with {} transactions",
+                                   accountId,
+                                   aggregate.getTotalAmount(),
+                                   aggregate.getCountryCount(),
+                                   aggregate.getTransactionCount());
                     }
-                    return isFraud;
-                })
-                .map((windowedKey, window) -> {
-                    FraudAlert alert = fraudDetectionService.generateFraudAlert(window);
-                    logger.info("🚨 Generated fraud alert: {} for account: {} with risk score: {}", 
-                              alert.getAlertId(), 
-                              alert.getAccountId(), 
-                              alert.getRiskScore());
-                    return KeyValue.pair(alert.getAccountId(), alert);
                 });
+    }
 
-        // Send alerts to output topic
-        fraudAlertStream.to(FRAUD_ALERTS_TOPIC, 
-                          Produced.with(Serdes.String(), new JsonSerde<>(FraudAlert.class)));
+    private Materialized<String, AccountActivityAggregate, WindowStore<org.apache.kafka.common.utils.Bytes, byte[]>> activityMaterialized() {
+        if (isOffline()) {
+            return Materialized.<String, AccountActivityAggregate>as(
+                    windowStore(ACTIVITY_STORE, windowSize().plus(GRACE_PERIOD), windowSize()))
+                    .withLoggingDisabled();
+        }
+        return Materialized.<String, AccountActivityAggregate, WindowStore<org.apache.kafka.common.utils.Bytes, byte[]>>as(ACTIVITY_STORE)
+                .withRetention(windowSize().plus(GRACE_PERIOD));
+    }
 
-        // Simplified additional statistics log
-        activityStream
-                .foreach((windowedKey, window) -> 
-                    logger.debug("Processing activity window for account {}: {} transactions", 
-                               windowedKey.key(), window.getTransactionCount()));
+    // Sliding windows: a per-account event buffer that moves with every transaction
+    private KStream<String, AccountActivityAggregate> slidingActivity(StreamsBuilder streamsBuilder,
+                                                                      KStream<String, Transaction> transactions) {
+        addEventBufferStore(streamsBuilder);
 
-        logger.info("✅ Fraud detection pipeline built successfully");
+        return transactions
+                .processValues(() -> new SlidingWindowProcessor(EVENT_BUFFER_STORE, windowSize(), GRACE_PERIOD,
+                                                                fraudDetectionService, Duration.ofMillis(sweepIntervalMs),
+                                                                sweepPunctuationType(), sweepBatchSize, cachedAccounts),
+                               Named.as("sliding-window-detector"), EVENT_BUFFER_STORE);
     }
 
-    private AccountActivityWindow aggregateTransaction(String accountId, Transaction transaction, AccountActivityWindow currentWindow) {
+    private PunctuationType sweepPunctuationType() {
+        return "wall-clock".equalsIgnoreCase(sweepPunctuation.trim())
+                ? PunctuationType.WALL_CLOCK_TIME : PunctuationType.STREAM_TIME;
+    }
+
+    private AccountActivityAggregate aggregateTransaction(String accountId, Transaction transaction, AccountActivityAggregate aggregate) {
         try {
-            // If window is empty, initialize it with transaction data
-            if (currentWindow.getAccountId() == null || currentWindow.getAccountId().isEmpty()) {
-                Instant windowStart = transaction.getTimestamp().minus(WINDOW_SIZE);
-                Instant windowEnd = transaction.getTimestamp();
-                
-                Set<String> countries = new HashSet<>();
-                countries.add(transaction.getCountry());
-                
-                return new AccountActivityWindow(
-                    accountId,
-                    windowStart,
-                    windowEnd,
-                    transaction.getAmount(),
-                    1,
-                    countries,
-                    Instant.now()
-                );
+            // The aggregator does not see the bucket; its bounds are set from the window key downstream
+            if (aggregate.isEmpty()) {
+                aggregate.start(accountId, 0L, 0L);
             }
-            
-            // Add transaction to existing window
-            BigDecimal newTotal = currentWindow.getTotalAmount().add(transaction.getAmount());
-            int newCount = currentWindow.getTransactionCount() + 1;
-            Set<String> newCountries = new HashSet<>(currentWindow.getCountries());
-            newCountries.add(transaction.getCountry());
-            
-            return new AccountActivityWindow(
-                accountId,
-                currentWindow.getWindowStart(),
-                currentWindow.getWindowEnd(),
-                newTotal,
-                newCount,
-                newCountries,
-                Instant.now()
-            );
-            
+            return aggregate.add(transaction.getMoney(), transaction.getCountry(), transaction.getTimestampMillis());
+
         } catch (Exception e) {
             logger.error("Error aggregating transaction {} for account {}: {}", 
                         transaction.getTransactionId(), accountId, e.getMessage());
-            return currentWindow;
+            return aggregate;
         }
     }
-} 
\ No newline at end of file
+}
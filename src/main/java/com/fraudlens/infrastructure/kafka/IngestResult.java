@@ -0,0 +1,71 @@
+package com.fraudlens.infrastructure.kafka;
+
+import java.util.List;
+
+/**
+ * Outcome of one bulk-ingest request, in total and per batch of records.
+ *
+ * received = accepted + rejected + failed: rejected records could not be read as a
+ * transaction with IDs; failed ones were not acknowledged by the broker.
+ */
+public class IngestResult {
+
+    /** Whether the whole body was ingested, and if not, why it stopped */
+    public enum Status { COMPLETE, BACKPRESSURE, BAD_BODY }
+
+    /** Counts of one batch, in request order */
+    public static class Batch {
+        private final int batch;
+        private final int received;
+        private final int accepted;
+        private final int rejected;
+        private final int failed;
+
+        Batch(int batch, int received, int accepted, int rejected, int failed) {
+            this.batch = batch;
+            this.received = received;
+            this.accepted = accepted;
+            this.rejected = rejected;
+            this.failed = failed;
+        }
+
+        public int getBatch() { return batch; }
+        public int getReceived() { return received; }
+        public int getAccepted() { return accepted; }
+        public int getRejected() { return rejected; }
+        public int getFailed() { return failed; }
+    }
+
+    private final Status status;
+    private final String message;
+    private final long received;
+    private final long accepted;
+    private final long rejected;
+    private final long failed;
+    private final long elapsedMs;
+    private final double recordsPerSecond;
+    private final List<Batch> batches;
+
+    IngestResult(Status status, String message, List<Batch> batches, long elapsedMs) {
+        this.status = status;
+        this.message = message;
+        this.batches = batches;
+        this.received = batches.stream().mapToLong(Batch::getReceived).sum();
+        this.accepted = batches.stream().mapToLong(Batch::getAccepted).sum();
+        this.rejected = batches.stream().mapToLong(Batch::getRejected).sum();
+        this.failed = batches.stream().mapToLong(Batch::getFailed).sum();
+        this.elapsedMs = elapsedMs;
+        this.recordsPerSecond = elapsedMs > 0 ? accepted * 1000.0 / elapsedMs : 0.0;
+    }
+
+    // Getters
+    public Status getStatus() { return status; }
+    public String getMessage() { return message; }
+    public long getReceived() { return received; }
+    public long getAccepted() { return accepted; }
+    public long getRejected() { return rejected; }
+    public long getFailed() { return failed; }
+    public long getElapsedMs() { return elapsedMs; }
+    public double getRecordsPerSecond() { return recordsPerSecond; }
+    public List<Batch> getBatches() { return batches; }
+}
@@ -0,0 +1,267 @@
+package com.fraudlens.infrastructure.kafka;
+
+import com.fraudlens.domain.model.Transaction;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Capacity-test traffic on the transactions topic at a target rate, on top of the demo
+ * {@link TransactionProducer}'s countries, merchants and transaction types.
+ *
+ * Accounts follow a Zipf distribution ({@link ZipfAccounts}) and each sender thread writes
+ * only its own partitions, paced against its share of the target rate. With probability
+ * {@code fraudRatio}, a transaction belongs to an injected fraud burst: four high-value
+ * purchases on one account in four countries, which the multi-country rule detects.
+ * Latency is measured from send to broker acknowledgement.
+ */
+@Service
+public class LoadGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadGenerator.class);
+    private static final int BURST_SIZE = 4;
+
+    @Autowired
+    private KafkaTemplate<String, Transaction> kafkaTemplate;
+
+    @Value("${fraudlens.loadgen.enabled:false}")
+    private boolean enabled;
+
+    @Value("${fraudlens.loadgen.rate:10000}")
+    private double rate;
+
+    @Value("${fraudlens.loadgen.duration-seconds:60}")
+    private long durationSeconds;
+
+    @Value("${fraudlens.loadgen.accounts:1000000}")
+    private int accounts;
+
+    @Value("${fraudlens.loadgen.zipf-exponent:1.0}")
+    private double zipfExponent;
+
+    @Value("${fraudlens.loadgen.fraud-ratio:0.01}")
+    private double fraudRatio;
+
+    @Value("${fraudlens.loadgen.senders:4}")
+    private int senders;
+
+    @Value("${fraudlens.loadgen.report-interval-ms:5000}")
+    private long reportIntervalMs;
+
+    private final AtomicReference<Run> current = new AtomicReference<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startOnReady() {
+        if (enabled) {
+            start(rate, durationSeconds);
+        }
+    }
+
+    /** Starts a run; fails if one is already running */
+    public synchronized LoadReport start(double targetRate, long seconds) {
+        Run running = current.get();
+        if (running != null && running.isRunning()) {
+            throw new IllegalStateException("A load run is already in progress");
+        }
+        if (targetRate <= 0 || seconds <= 0) {
+            throw new IllegalArgumentException("Rate and duration must be positive");
+        }
+        int partitions = kafkaTemplate.partitionsFor(TransactionProducer.TOPIC).size();
+        logger.info("🏋️ Load run: {}/s for {} s over {} Zipf({}) accounts, {} senders on {} partitions, {}% fraud",
+                   targetRate, seconds, accounts, zipfExponent, senders, partitions, fraudRatio * 100);
+        Run run = new Run(new ZipfAccounts(accounts, zipfExponent, partitions, senders), targetRate, seconds);
+        current.set(run);
+        run.start();
+        return run.report();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stop();
+    }
+
+    /** Stops the current run; null if there has been none */
+    public LoadReport stop() {
+        Run run = current.get();
+        if (run == null) {
+            return null;
+        }
+        run.stop();
+        return run.report();
+    }
+
+    /** Report of the current or last run; null if there has been none */
+    public LoadReport report() {
+        Run run = current.get();
+        return run != null ? run.report() : null;
+    }
+
+    private class Run {
+        private final ZipfAccounts zipfAccounts;
+        private final double targetRate;
+        private final long startNanos = System.nanoTime();
+        private final long deadlineNanos;
+        private final String runId = Long.toString(System.currentTimeMillis(), 36).toUpperCase();
+        private final Thread[] threads;
+        private final LongAdder sent = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder fraud = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private volatile boolean stopped;
+        private volatile long endNanos;
+
+        Run(ZipfAccounts zipfAccounts, double targetRate, long seconds) {
+            this.zipfAccounts = zipfAccounts;
+            this.targetRate = targetRate;
+            this.deadlineNanos = startNanos + seconds * 1_000_000_000L;
+            this.threads = new Thread[senders + 1];
+        }
+
+        void start() {
+            for (int sender = 0; sender < senders; sender++) {
+                int index = sender;
+                threads[sender] = new Thread(() -> send(index), "load-sender-" + sender);
+                threads[sender].setDaemon(true);
+                threads[sender].start();
+            }
+            threads[senders] = new Thread(this::reportUntilDone, "load-reporter");
+            threads[senders].setDaemon(true);
+            threads[senders].start();
+        }
+
+        private void send(int sender) {
+            ZipfAccounts.Sampler sampler = zipfAccounts.sampler(sender);
+            if (sampler.share() <= 0) {
+                return;
+            }
+            double nanosPerTransaction = 1e9 / (targetRate * sampler.share());
+            double burstProbability = fraudRatio / BURST_SIZE;
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long sequence = 0;
+            while (!stopped) {
+                long now = System.nanoTime();
+                if (now >= deadlineNanos) {
+                    break;
+                }
+                long due = startNanos + (long) (sequence * nanosPerTransaction);
+                if (due > now) {
+                    LockSupport.parkNanos(due - now);
+                    continue;
+                }
+                int account = sampler.next(random);
+                if (random.nextDouble() < burstProbability) {
+                    sendBurst(sender, sequence, sampler, account, random);
+                    sequence += BURST_SIZE;
+                } else {
+                    send(sampler, account, transaction(sender, sequence, sampler.rank(account), random), false);
+                    sequence++;
+                }
+            }
+        }
+
+        private Transaction transaction(int sender, long sequence, int rank, ThreadLocalRandom random) {
+            return new Transaction(
+                "LOAD-" + runId + "-" + sender + "-" + sequence,
+                ZipfAccounts.accountId(rank),
+                BigDecimal.valueOf(random.nextLong(1_000, 50_000), 2),
+                TransactionProducer.COUNTRIES.get(random.nextInt(TransactionProducer.COUNTRIES.size())),
+                "EUR",
+                TransactionProducer.TRANSACTION_TYPES.get(random.nextInt(TransactionProducer.TRANSACTION_TYPES.size())),
+                Instant.now(),
+                TransactionProducer.MERCHANTS.get(random.nextInt(TransactionProducer.MERCHANTS.size())),
+                "Load test transaction"
+            );
+        }
+
+        // Four countries in a row from a random starting point, so all are distinct
+        private void sendBurst(int sender, long sequence, ZipfAccounts.Sampler sampler, int account,
+                               ThreadLocalRandom random) {
+            int firstCountry = random.nextInt(TransactionProducer.COUNTRIES.size());
+            for (int i = 0; i < BURST_SIZE; i++) {
+                Transaction transaction = new Transaction(
+                    "LOAD-" + runId + "-" + sender + "-" + (sequence + i),
+                    ZipfAccounts.accountId(sampler.rank(account)),
+                    BigDecimal.valueOf(random.nextLong(30_000, 80_000), 2),
+                    TransactionProducer.COUNTRIES.get((firstCountry + i) % TransactionProducer.COUNTRIES.size()),
+                    "EUR",
+                    "PURCHASE",
+                    Instant.now(),
+                    TransactionProducer.MERCHANTS.get(random.nextInt(TransactionProducer.MERCHANTS.size())),
+                    "Load test fraud burst"
+                );
+                send(sampler, account, transaction, true);
+            }
+        }
+
+        private void send(ZipfAccounts.Sampler sampler, int account, Transaction transaction, boolean isFraud) {
+            long sendNanos = System.nanoTime();
+            kafkaTemplate.send(TransactionProducer.TOPIC, sampler.partition(account), transaction.getAccountId(), transaction)
+                    .whenComplete((result, exception) -> {
+                        if (exception == null) {
+                            latency.recordNanos(System.nanoTime() - sendNanos);
+                            sent.increment();
+                            if (isFraud) {
+                                fraud.increment();
+                            }
+                        } else {
+                            failed.increment();
+                        }
+                    });
+        }
+
+        private void reportUntilDone() {
+            while (!stopped && System.nanoTime() < deadlineNanos) {
+                long remaining = Math.max(1, deadlineNanos - System.nanoTime());
+                LockSupport.parkNanos(Math.min(reportIntervalMs * 1_000_000L, remaining));
+                if (!stopped) {
+                    logger.info("🏋️ Load: {}", report());
+                }
+            }
+            for (int sender = 0; sender < senders; sender++) {
+                try {
+                    threads[sender].join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            kafkaTemplate.flush();
+            finish();
+            logger.info("✅ Load run finished: {}", report());
+        }
+
+        synchronized void stop() {
+            stopped = true;
+            finish();
+        }
+
+        private synchronized void finish() {
+            if (endNanos == 0) {
+                endNanos = System.nanoTime();
+            }
+        }
+
+        boolean isRunning() {
+            return endNanos == 0;
+        }
+
+        LoadReport report() {
+            long end = endNanos != 0 ? endNanos : System.nanoTime();
+            return new LoadReport(isRunning(), targetRate, (end - startNanos) / 1e9,
+                                  sent.sum(), failed.sum(), fraud.sum(), latency);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.fraudlens.infrastructure.kafka;
+
+/** Progress of a load-generator run: achieved rate and send latency, from send to broker acknowledgement */
+public class LoadReport {
+
+    private final boolean running;
+    private final double targetRate;
+    private final double elapsedSeconds;
+    private final long sent;
+    private final long failed;
+    private final long fraudTransactions;
+    private final double achievedRate;
+    private final double latencyP50Ms;
+    private final double latencyP95Ms;
+    private final double latencyP99Ms;
+    private final double latencyMaxMs;
+
+    LoadReport(boolean running, double targetRate, double elapsedSeconds, long sent, long failed,
+               long fraudTransactions, LatencyHistogram latency) {
+        this.running = running;
+        this.targetRate = targetRate;
+        this.elapsedSeconds = elapsedSeconds;
+        this.sent = sent;
+        this.failed = failed;
+        this.fraudTransactions = fraudTransactions;
+        this.achievedRate = elapsedSeconds > 0 ? sent / elapsedSeconds : 0.0;
+        this.latencyP50Ms = latency.percentileMicros(0.50) / 1000.0;
+        this.latencyP95Ms = latency.percentileMicros(0.95) / 1000.0;
+        this.latencyP99Ms = latency.percentileMicros(0.99) / 1000.0;
+        this.latencyMaxMs = latency.maxMicros() / 1000.0;
+    }
+
+    // Getters
+    public boolean isRunning() { return running; }
+    public double getTargetRate() { return targetRate; }
+    public double getElapsedSeconds() { return elapsedSeconds; }
+    public long getSent() { return sent; }
+    public long getFailed() { return failed; }
+    public long getFraudTransactions() { return fraudTransactions; }
+    public double getAchievedRate() { return achievedRate; }
+    public double getLatencyP50Ms() { return latencyP50Ms; }
+    public double getLatencyP95Ms() { return latencyP95Ms; }
+    public double getLatencyP99Ms() { return latencyP99Ms; }
+    public double getLatencyMaxMs() { return latencyMaxMs; }
+
+    @Override
+    public String toString() {
+        return String.format("%d sent (%d failed, %d fraud) in %.1f s: %.0f/s of %.0f/s target, latency p50 %.2f ms p95 %.2f ms p99 %.2f ms max %.2f ms",
+                             sent, failed, fraudTransactions, elapsedSeconds, achievedRate, targetRate,
+                             latencyP50Ms, latencyP95Ms, latencyP99Ms, latencyMaxMs);
+    }
+}
@@ -0,0 +1,147 @@
+package com.fraudlens.infrastructure.kafka;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Splits a transaction file into the raw bytes of one record at a time, in the framings of
+ * {@link TransactionRecordReader}, reading through a read-only memory mapping instead of a stream.
+ *
+ * The file is mapped {@code windowBytes} at a time (a single mapping is limited to 2 GB), so
+ * files of any size replay with page-cache reads and no copying beyond each record's own
+ * bytes. A record that straddles the end of a window is read from a new window starting at
+ * that record; a record longer than a window is an error.
+ */
+final class MappedTransactionFile implements Closeable {
+
+    static final int DEFAULT_WINDOW_BYTES = 256 << 20;
+
+    private final FileChannel channel;
+    private final BulkIngestService.Format format;
+    private final long size;
+    private final int windowBytes;
+    private MappedByteBuffer window;
+    private long windowStart;
+
+    MappedTransactionFile(Path path, BulkIngestService.Format format) throws IOException {
+        this(path, format, DEFAULT_WINDOW_BYTES);
+    }
+
+    MappedTransactionFile(Path path, BulkIngestService.Format format, int windowBytes) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.format = format;
+        this.size = channel.size();
+        this.windowBytes = windowBytes;
+        map(0);
+    }
+
+    /** The next record's bytes, or null at the end of the file */
+    byte[] next() throws IOException {
+        return format == BulkIngestService.Format.NDJSON ? nextLine() : nextFrame();
+    }
+
+    /** File offset of the next unread byte */
+    long position() {
+        return windowStart + window.position();
+    }
+
+    long size() {
+        return size;
+    }
+
+    private byte[] nextLine() throws IOException {
+        while (true) {
+            int start = window.position();
+            int limit = window.limit();
+            if (start == limit) {
+                if (!hasMoreWindows()) {
+                    return null;
+                }
+                map(windowStart + start);
+                continue;
+            }
+            int end = start;
+            while (end < limit && window.get(end) != '\n') {
+                end++;
+            }
+            if (end == limit && hasMoreWindows()) {
+                if (start == 0) {
+                    throw new IOException("Line at offset " + windowStart + " is longer than " + windowBytes + " bytes");
+                }
+                map(windowStart + start);
+                continue;
+            }
+            window.position(Math.min(end + 1, limit));
+            int length = end - start;
+            if (length > 0 && window.get(end - 1) == '\r') {
+                length--;
+            }
+            if (!isBlank(start, length)) {
+                byte[] record = new byte[length];
+                window.get(start, record, 0, length);
+                return record;
+            }
+        }
+    }
+
+    private byte[] nextFrame() throws IOException {
+        if (window.remaining() < 4) {
+            if (!hasMoreWindows()) {
+                if (window.hasRemaining()) {
+                    throw new EOFException("File ends inside a record length");
+                }
+                return null;
+            }
+            map(position());
+            if (window.remaining() < 4) {
+                throw new EOFException("File ends inside a record length");
+            }
+        }
+        int length = window.getInt(window.position());
+        if (length < 0 || length > windowBytes - 4) {
+            throw new IOException("Invalid record length " + length + " at offset " + position());
+        }
+        if (window.remaining() - 4 < length) {
+            if (!hasMoreWindows()) {
+                throw new EOFException("File ends inside a record");
+            }
+            map(position());
+            if (window.remaining() - 4 < length) {
+                throw new EOFException("File ends inside a record");
+            }
+        }
+        byte[] record = new byte[length];
+        window.get(window.position() + 4, record, 0, length);
+        window.position(window.position() + 4 + length);
+        return record;
+    }
+
+    private boolean hasMoreWindows() {
+        return windowStart + window.limit() < size;
+    }
+
+    private void map(long start) throws IOException {
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(windowBytes, size - start));
+        windowStart = start;
+    }
+
+    private boolean isBlank(int start, int length) {
+        for (int i = start; i < start + length; i++) {
+            byte b = window.get(i);
+            if (b != ' ' && b != '\t') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,189 @@
+package com.fraudlens.infrastructure.kafka;
+
+import com.fraudlens.domain.model.HeavyHitters;
+import com.fraudlens.domain.model.MerchantAlert;
+import com.fraudlens.domain.model.MerchantFanInWindow;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessor;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessorContext;
+import org.apache.kafka.streams.processor.api.FixedKeyRecord;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Counts distinct accounts per merchant over tumbling windows of record time, on the
+ * merchant-keyed repartition where each value is just the account's 64-bit hash.
+ *
+ * All merchants of a task share one {@link MerchantFanInWindow}, so memory is fixed by its
+ * sizing rather than by the number of merchants. A merchant is alerted once per window,
+ * when its estimate first reaches {@code minAccounts}. When a record starts a new window, the
+ * previous one stays open for out-of-order records until stream time passes its end plus
+ * {@code graceMs}, as Kafka Streams windows do; a task holds at most two windows. Records of
+ * a closed window are dropped.
+ *
+ * Each window is put to the (cached) store whenever a record changes it, so what the cache
+ * flushes at a commit is the state as of that commit's offsets; a failover restores it and
+ * replays the rest. The cache absorbs the per-record puts: the changelog gets one write per
+ * window per commit. Offline runs, which never restore, store the windows on close only.
+ */
+class MerchantFanInProcessor implements FixedKeyProcessor<String, Long, MerchantAlert> {
+
+    private static final Logger logger = LoggerFactory.getLogger(MerchantFanInProcessor.class);
+
+    // The task's windows; the store is partitioned with the task
+    static final String CURRENT_KEY = "window";
+    static final String PREVIOUS_KEY = "previous-window";
+
+    private final String storeName;
+    private final long windowMs;
+    private final long graceMs;
+    private final long minAccounts;
+    private final long expectedPairs;
+    private final int sketchDepth;
+    private final int sketchWidth;
+    private final int topK;
+    private final boolean writeThrough;
+
+    private FixedKeyProcessorContext<String, MerchantAlert> context;
+    private KeyValueStore<String, MerchantFanInWindow> store;
+    private MerchantFanInWindow current;
+    private MerchantFanInWindow previous;
+    // A closed window's structures, reused for the next one
+    private MerchantFanInWindow spare;
+    private long streamTime = Long.MIN_VALUE;
+
+    MerchantFanInProcessor(String storeName, long windowMs, long graceMs, long minAccounts, long expectedPairs,
+                           int sketchDepth, int sketchWidth, int topK, boolean writeThrough) {
+        this.storeName = storeName;
+        this.windowMs = windowMs;
+        this.graceMs = graceMs;
+        this.minAccounts = minAccounts;
+        this.expectedPairs = expectedPairs;
+        this.sketchDepth = sketchDepth;
+        this.sketchWidth = sketchWidth;
+        this.topK = topK;
+        this.writeThrough = writeThrough;
+    }
+
+    @Override
+    public void init(FixedKeyProcessorContext<String, MerchantAlert> context) {
+        this.context = context;
+        this.store = context.getStateStore(storeName);
+        this.current = store.get(CURRENT_KEY);
+        this.previous = store.get(PREVIOUS_KEY);
+    }
+
+    @Override
+    public void process(FixedKeyRecord<String, Long> record) {
+        String merchant = record.key();
+        Long accountHash = record.value();
+        if (merchant == null || accountHash == null) {
+            return;
+        }
+        streamTime = Math.max(streamTime, record.timestamp());
+        long windowStart = record.timestamp() - Math.floorMod(record.timestamp(), windowMs);
+        closeExpiredPrevious();
+        MerchantFanInWindow window = windowFor(windowStart);
+        if (window == null) {
+            logger.debug("Dropping late record for merchant {} from closed window {}", merchant, windowStart);
+            return;
+        }
+
+        long counted = window.getAccountsPerMerchant().getTotal();
+        HeavyHitters.Entry entry = window.add(merchant, accountHash);
+        if (entry != null && !entry.isReported() && entry.getEstimate() >= minAccounts) {
+            entry.markReported();
+            MerchantAlert alert = createAlert(merchant, entry.getEstimate(), windowStart);
+            logger.warn("🚨 MERCHANT FAN-IN at {}: ~{} distinct accounts since {}",
+                       merchant, entry.getEstimate(), alert.getWindowStart());
+            context.forward(record.withValue(alert));
+        }
+        // A pair already counted leaves the window as it was
+        if (writeThrough && window.getAccountsPerMerchant().getTotal() != counted) {
+            store.put(window == current ? CURRENT_KEY : PREVIOUS_KEY, window);
+        }
+    }
+
+    // The open window the record belongs to, starting a new one if it is the newest; null if its window has closed
+    private MerchantFanInWindow windowFor(long windowStart) {
+        if (current == null) {
+            current = newWindow(windowStart);
+            return current;
+        }
+        if (windowStart == current.getWindowStart()) {
+            return current;
+        }
+        if (windowStart < current.getWindowStart()) {
+            return previous != null && windowStart == previous.getWindowStart() && isOpen(previous) ? previous : null;
+        }
+        if (!isOpen(current)) {
+            // Everything open has closed; at most one set of structures is kept for reuse
+            spare = current;
+            previous = null;
+        } else {
+            if (previous != null) {
+                spare = previous;
+            }
+            previous = current;
+        }
+        current = newWindow(windowStart);
+        if (writeThrough) {
+            putOrDelete(PREVIOUS_KEY, previous);
+            store.put(CURRENT_KEY, current);
+        }
+        return current;
+    }
+
+    private void closeExpiredPrevious() {
+        if (previous != null && !isOpen(previous)) {
+            spare = previous;
+            previous = null;
+            if (writeThrough) {
+                store.delete(PREVIOUS_KEY);
+            }
+        }
+    }
+
+    private boolean isOpen(MerchantFanInWindow window) {
+        return window.getWindowStart() + windowMs + graceMs > streamTime;
+    }
+
+    private MerchantFanInWindow newWindow(long windowStart) {
+        if (spare != null) {
+            MerchantFanInWindow window = spare;
+            spare = null;
+            window.roll(windowStart);
+            return window;
+        }
+        return MerchantFanInWindow.create(windowStart, expectedPairs, sketchDepth, sketchWidth, topK);
+    }
+
+    private void putOrDelete(String key, MerchantFanInWindow window) {
+        if (window != null) {
+            store.put(key, window);
+        } else {
+            store.delete(key);
+        }
+    }
+
+    private MerchantAlert createAlert(String merchant, long distinctAccounts, long windowStart) {
+        String alertId = "MERCHANT-" + UUID.nameUUIDFromBytes(
+                (merchant + "|" + windowStart).getBytes(StandardCharsets.UTF_8));
+        return new MerchantAlert(alertId, merchant, distinctAccounts, Instant.ofEpochMilli(windowStart),
+                                 Instant.ofEpochMilli(windowStart + windowMs), Instant.now(),
+                                 String.format("~%d distinct accounts at merchant %s within %d seconds",
+                                               distinctAccounts, merchant, windowMs / 1000));
+    }
+
+    @Override
+    public void close() {
+        if (!writeThrough && current != null) {
+            store.put(CURRENT_KEY, current);
+            putOrDelete(PREVIOUS_KEY, previous);
+        }
+    }
+}
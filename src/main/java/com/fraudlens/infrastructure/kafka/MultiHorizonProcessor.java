@@ -0,0 +1,141 @@
+package com.fraudlens.infrastructure.kafka;
+
+import com.fraudlens.domain.model.AccountHorizonPanes;
+import com.fraudlens.domain.model.FraudAlert;
+import com.fraudlens.domain.model.Transaction;
+import com.fraudlens.domain.service.FraudDetectionService;
+import org.apache.kafka.streams.processor.Cancellable;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessor;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessorContext;
+import org.apache.kafka.streams.processor.api.FixedKeyRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+
+/**
+ * Multi-horizon detection over per-account {@link AccountHorizonPanes}.
+ *
+ * Each transaction updates its account's panes and every horizon incrementally, then the
+ * rules run on the result (detection horizon plus the horizons they name). One store read
+ * and one store write per transaction, however many horizons are configured; only alerts
+ * are forwarded. Horizons at least one sketch block long count distinct countries and
+ * merchants approximately, in fixed-size sketches.
+ *
+ * A record whose pane is the longest horizon or more behind stream time's pane is late and
+ * dropped. No accepted record can then reach an account whose newest pane is twice the
+ * longest horizon behind, so a punctuation deletes those panes without changing any result.
+ * Panes live in an {@link AccountStateStore}, which keeps busy accounts as objects.
+ */
+class MultiHorizonProcessor implements FixedKeyProcessor<String, Transaction, FraudAlert> {
+
+    private static final Logger logger = LoggerFactory.getLogger(MultiHorizonProcessor.class);
+
+    private final String storeName;
+    private final long paneSizeMillis;
+    private final long[] horizonMillis;
+    private final long detectionHorizonMillis;
+    private final long sketchBlockMillis;
+    private final long longestHorizonMillis;
+    private final FraudDetectionService fraudDetectionService;
+    private final Duration sweepInterval;
+    private final PunctuationType punctuationType;
+    private final int sweepBatchSize;
+    private final int cachedAccounts;
+
+    private FixedKeyProcessorContext<String, FraudAlert> context;
+    private AccountStateStore<AccountHorizonPanes> accountPanes;
+    private Cancellable sweep;
+
+    MultiHorizonProcessor(String storeName, long paneSizeMillis, long[] horizonMillis, long detectionHorizonMillis,
+                          long sketchBlockMillis, FraudDetectionService fraudDetectionService, Duration sweepInterval,
+                          PunctuationType punctuationType, int sweepBatchSize, int cachedAccounts) {
+        this.storeName = storeName;
+        this.paneSizeMillis = paneSizeMillis;
+        this.horizonMillis = horizonMillis.clone();
+        this.detectionHorizonMillis = detectionHorizonMillis;
+        this.sketchBlockMillis = sketchBlockMillis;
+        this.longestHorizonMillis = horizonMillis[horizonMillis.length - 1];
+        this.fraudDetectionService = fraudDetectionService;
+        this.sweepInterval = sweepInterval;
+        this.punctuationType = punctuationType;
+        this.sweepBatchSize = sweepBatchSize;
+        this.cachedAccounts = cachedAccounts;
+    }
+
+    @Override
+    public void init(FixedKeyProcessorContext<String, FraudAlert> context) {
+        this.context = context;
+        this.accountPanes = new AccountStateStore<>(context.getStateStore(storeName),
+                accountId -> new AccountHorizonPanes(accountId, paneSizeMillis, horizonMillis, detectionHorizonMillis,
+                                                     sketchBlockMillis),
+                sweepBatchSize, cachedAccounts);
+        this.sweep = context.schedule(sweepInterval, punctuationType, this::sweepIdle);
+    }
+
+    /** True if the event's pane is the longest horizon or more behind the pane of stream time */
+    static boolean isLate(long timestamp, long streamTime, long paneSizeMillis, long longestHorizonMillis) {
+        long paneStart = Math.floorDiv(timestamp, paneSizeMillis) * paneSizeMillis;
+        long streamPaneStart = Math.floorDiv(Math.max(streamTime, timestamp), paneSizeMillis) * paneSizeMillis;
+        return paneStart <= streamPaneStart - longestHorizonMillis;
+    }
+
+    /** True if no record that is not late can reach panes whose newest pane starts at {@code newestPaneStart} */
+    static boolean isIdle(long newestPaneStart, long streamTime, long paneSizeMillis, long longestHorizonMillis) {
+        long streamPaneStart = Math.floorDiv(streamTime, paneSizeMillis) * paneSizeMillis;
+        return newestPaneStart <= streamPaneStart - 2 * longestHorizonMillis;
+    }
+
+    @Override
+    public void process(FixedKeyRecord<String, Transaction> record) {
+        String accountId = record.key();
+        Transaction transaction = record.value();
+        try {
+            long timestamp = transaction.getTimestampMillis();
+            if (isLate(timestamp, context.currentStreamTimeMs(), paneSizeMillis, longestHorizonMillis)) {
+                logger.debug("Dropping late transaction {} for account {}: older than the longest horizon",
+                           transaction.getTransactionId(), accountId);
+                return;
+            }
+            AccountHorizonPanes panes = accountPanes.get(accountId);
+            if (!panes.add(timestamp, transaction.getMoney(), transaction.getCountry(),
+                           transaction.getMerchantName(), System.currentTimeMillis())) {
+                logger.debug("Dropping late transaction {} for account {}: older than the longest horizon",
+                           transaction.getTransactionId(), accountId);
+                return;
+            }
+            accountPanes.put(accountId, panes);
+
+            FraudAlert alert = fraudDetectionService.detectFraud(panes);
+            if (alert != null) {
+                logger.warn("🚨 FRAUD DETECTED for account {}: {}", accountId, panes);
+                logger.info("🚨 Generated fraud alert: {} for account: {} with risk score: {}",
+                          alert.getAlertId(), alert.getAccountId(), alert.getRiskScore());
+                context.forward(record.withValue(alert));
+            }
+        } catch (Exception e) {
+            // The cached object may be ahead of the store now; drop it so the store stays the source of truth
+            accountPanes.invalidate(accountId);
+            logger.error("Error adding transaction {} to the horizons of account {}: {}",
+                        transaction.getTransactionId(), accountId, e.getMessage());
+        }
+    }
+
+    private void sweepIdle(long timestamp) {
+        long streamTime = context.currentStreamTimeMs();
+        accountPanes.sweep(panes -> panes.isEmpty()
+                || isIdle(panes.getNewestPaneStart(), streamTime, paneSizeMillis, longestHorizonMillis)
+                ? AccountStateStore.Sweep.DELETE : AccountStateStore.Sweep.KEEP);
+    }
+
+    @Override
+    public void close() {
+        if (sweep != null) {
+            sweep.cancel();
+        }
+        if (accountPanes != null) {
+            accountPanes.clear();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.fraudlens.infrastructure.kafka;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+/**
+ * Starts the offline replay of {@code fraudlens.replay.input} once the application is ready,
+ * on the engine {@code fraudlens.replay.engine} names, and exits with its outcome when done.
+ *
+ * The topology engine ({@link TopologyReplay}) is only there in builds with the {@code replay}
+ * Maven profile; without it a topology replay fails at once rather than doing nothing.
+ */
+@Service
+public class ReplayLauncher {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplayLauncher.class);
+
+    @Autowired(required = false)
+    private TopologyReplay topologyReplay;
+
+    @Autowired
+    private BatchScoringEngine batchScoringEngine;
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @Value("${fraudlens.replay.input:}")
+    private String input = "";
+
+    @Value("${fraudlens.replay.output:replay-alerts.ndjson}")
+    private String output = "replay-alerts.ndjson";
+
+    @Value("${fraudlens.replay.format:ndjson}")
+    private String format = "ndjson";
+
+    // topology: the detection topology itself; batch: account-keyed scoring on a fork-join pool
+    @Value("${fraudlens.replay.engine:topology}")
+    private String engine = "topology";
+
+    @Value("${fraudlens.replay.exit-when-done:true}")
+    private boolean exitWhenDone = true;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void replayOnReady() {
+        if (input.isBlank()) {
+            return;
+        }
+        int exitCode = 0;
+        try {
+            Path inputFile = Paths.get(input.trim());
+            BulkIngestService.Format inputFormat = BulkIngestService.Format.valueOf(format.trim().toUpperCase(Locale.ROOT));
+            Path outputFile = Paths.get(output.trim());
+            if ("batch".equalsIgnoreCase(engine.trim())) {
+                batchScoringEngine.score(inputFile, inputFormat, outputFile);
+            } else if (topologyReplay != null) {
+                topologyReplay.replay(inputFile, inputFormat, outputFile);
+            } else {
+                throw new IllegalStateException(
+                    "This build has no topology replay: build with the replay Maven profile, or use the batch engine");
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.error("Replay of {} failed", input, e);
+            exitCode = 1;
+        }
+        if (exitWhenDone) {
+            int code = exitCode;
+            System.exit(SpringApplication.exit(context, () -> code));
+        }
+    }
+}
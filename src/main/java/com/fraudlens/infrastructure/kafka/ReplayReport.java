@@ -0,0 +1,54 @@
+package com.fraudlens.infrastructure.kafka;
+
+import java.time.Instant;
+import java.util.Map;
+
+/** Outcome of an offline replay: what was read and emitted, and how fast, in wall-clock time */
+public class ReplayReport {
+
+    private final long events;
+    private final long rejected;
+    private final long fraudAlerts;
+    private final long merchantAlerts;
+    private final int partitions;
+    private final Map<String, Long> ruleHits;
+    private final Instant firstEventTime;
+    private final Instant lastEventTime;
+    private final double wallTimeSeconds;
+    private final double eventsPerSecond;
+
+    ReplayReport(long events, long rejected, long fraudAlerts, long merchantAlerts, int partitions, Map<String, Long> ruleHits,
+                 long firstEventMs, long lastEventMs, double wallTimeSeconds) {
+        this.events = events;
+        this.rejected = rejected;
+        this.fraudAlerts = fraudAlerts;
+        this.merchantAlerts = merchantAlerts;
+        this.partitions = partitions;
+        this.ruleHits = ruleHits;
+        this.firstEventTime = events > 0 ? Instant.ofEpochMilli(firstEventMs) : null;
+        this.lastEventTime = events > 0 ? Instant.ofEpochMilli(lastEventMs) : null;
+        this.wallTimeSeconds = wallTimeSeconds;
+        this.eventsPerSecond = wallTimeSeconds > 0 ? events / wallTimeSeconds : 0.0;
+    }
+
+    // Getters
+    public long getEvents() { return events; }
+    public long getRejected() { return rejected; }
+    public long getFraudAlerts() { return fraudAlerts; }
+    public long getMerchantAlerts() { return merchantAlerts; }
+    public int getPartitions() { return partitions; }
+    /** Emitted alerts per rule (batch scoring only; empty for the topology replay) */
+    public Map<String, Long> getRuleHits() { return ruleHits; }
+    public Instant getFirstEventTime() { return firstEventTime; }
+    public Instant getLastEventTime() { return lastEventTime; }
+    public double getWallTimeSeconds() { return wallTimeSeconds; }
+    public double getEventsPerSecond() { return eventsPerSecond; }
+
+    @Override
+    public String toString() {
+        return String.format("%d events (%d rejected) from %s to %s in %.1f s on %d partitions: %.0f events/s, %d fraud alerts, %d merchant alerts",
+                             events, rejected, firstEventTime, lastEventTime, wallTimeSeconds, partitions, eventsPerSecond,
+                             fraudAlerts, merchantAlerts)
+               + (ruleHits.isEmpty() ? "" : ", rule hits " + ruleHits);
+    }
+}
@@ -0,0 +1,142 @@
+package com.fraudlens.infrastructure.kafka;
+
+import com.fraudlens.domain.model.Money;
+import com.fraudlens.domain.rules.CompiledRuleSet;
+import com.fraudlens.domain.rules.FraudRule;
+import com.fraudlens.domain.service.FraudDetectionService;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Maintains the global fraud rules store from the compacted rules topic and publishes every
+ * change as a new compiled rule set.
+ *
+ * Records are keyed by rule name. The value is the rule's conditions
+ * ({@code total >= 500.00 && countries >= 2}) and adds or redefines that rule, {@code disabled}
+ * switches a configured rule off and a tombstone reverts to the configured definition. The
+ * effective set is the configured rules in their order, overridden by the topic, followed by
+ * the rules that only exist on the topic. The {@code @scoring-threshold} key sets
+ * the reference amount of the risk score ({@code 1500.00}); its tombstone reverts to the
+ * configured one. Invalid definitions are logged and ignored, and a
+ * change that would leave no valid rule set keeps the current one.
+ *
+ * Compiling happens here, on the global thread; detection threads only pick up the finished
+ * set through {@link FraudDetectionService#publishRules}.
+ */
+class RuleUpdateProcessor implements Processor<String, String, Void, Void> {
+
+    private static final Logger logger = LoggerFactory.getLogger(RuleUpdateProcessor.class);
+
+    static final String DISABLED = "disabled";
+
+    private final String storeName;
+    private final FraudDetectionService fraudDetectionService;
+
+    private KeyValueStore<String, String> store;
+
+    RuleUpdateProcessor(String storeName, FraudDetectionService fraudDetectionService) {
+        this.storeName = storeName;
+        this.fraudDetectionService = fraudDetectionService;
+    }
+
+    @Override
+    public void init(ProcessorContext<Void, Void> context) {
+        this.store = context.getStateStore(storeName);
+        // Restored records go straight into the store without process(), so start from its contents
+        publish();
+    }
+
+    @Override
+    public void process(Record<String, String> record) {
+        String name = record.key();
+        if (name == null || name.isBlank()) {
+            logger.error("Ignoring fraud rule update without a rule name");
+            return;
+        }
+        String conditions = record.value();
+        if (conditions == null || conditions.isBlank()) {
+            store.delete(name);
+        } else {
+            try {
+                if (isScoringThreshold(name)) {
+                    CompiledRuleSet.parseScoringThreshold(conditions);
+                } else {
+                    definition(name, conditions);
+                }
+            } catch (IllegalArgumentException e) {
+                logger.error("Ignoring invalid fraud rule {}: {}", name, e.getMessage());
+                return;
+            }
+            store.put(name, conditions);
+        }
+        publish();
+    }
+
+    private void publish() {
+        CompiledRuleSet configured = fraudDetectionService.getConfiguredRules();
+        Map<String, FraudRule> rules = new LinkedHashMap<>();
+        for (FraudRule rule : configured.getRules()) {
+            rules.put(rule.getName(), rule);
+        }
+        Money scoringThreshold = configured.getScoringThreshold();
+        try (KeyValueIterator<String, String> overrides = store.all()) {
+            while (overrides.hasNext()) {
+                KeyValue<String, String> override = overrides.next();
+                if (isScoringThreshold(override.key)) {
+                    try {
+                        scoringThreshold = CompiledRuleSet.parseScoringThreshold(override.value);
+                    } catch (IllegalArgumentException e) {
+                        logger.error("Skipping invalid fraud rule {}: {}", override.key, e.getMessage());
+                    }
+                    continue;
+                }
+                if (DISABLED.equalsIgnoreCase(override.value.trim())) {
+                    rules.remove(override.key);
+                    continue;
+                }
+                try {
+                    rules.put(override.key, definition(override.key, override.value));
+                } catch (IllegalArgumentException e) {
+                    logger.error("Skipping invalid fraud rule {}: {}", override.key, e.getMessage());
+                }
+            }
+        }
+
+        CompiledRuleSet current = fraudDetectionService.getRules();
+        CompiledRuleSet updated;
+        try {
+            updated = CompiledRuleSet.compile(new ArrayList<>(rules.values()), scoringThreshold);
+        } catch (IllegalArgumentException e) {
+            logger.error("Keeping fraud rules {}: update rejected: {}", current.getVersion(), e.getMessage());
+            return;
+        }
+        if (updated.getVersion().equals(current.getVersion())) {
+            return;
+        }
+        fraudDetectionService.publishRules(updated);
+        logger.info("📏 Fraud rules updated to version {} ({} rules, scoring against {})", updated.getVersion(),
+                    updated.size(), updated.getScoringThreshold());
+        updated.getRules().forEach(rule -> logger.info("   {}", rule));
+    }
+
+    private static boolean isScoringThreshold(String key) {
+        return CompiledRuleSet.SCORING_THRESHOLD.equals(key.trim());
+    }
+
+    private static FraudRule definition(String name, String conditions) {
+        if (DISABLED.equalsIgnoreCase(conditions.trim())) {
+            return null;
+        }
+        return FraudRule.parse(name.trim() + ": " + conditions.trim());
+    }
+}
@@ -0,0 +1,121 @@
+package com.fraudlens.infrastructure.kafka;
+
+import com.fraudlens.domain.model.AccountActivityAggregate;
+import com.fraudlens.domain.model.AccountEventBuffer;
+import com.fraudlens.domain.model.Transaction;
+import com.fraudlens.domain.service.FraudDetectionService;
+import org.apache.kafka.streams.processor.Cancellable;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessor;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessorContext;
+import org.apache.kafka.streams.processor.api.FixedKeyRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+
+/**
+ * Sliding-window detection over a per-account {@link AccountEventBuffer}.
+ *
+ * Every transaction moves its account's window to end at the transaction's event time,
+ * so a burst is seen whole regardless of bucket boundaries. Only windows that match a
+ * fraud rule (tested on the buffer itself) are forwarded, as an aggregate snapshot.
+ *
+ * As with the tumbling windows, a record more than the window plus grace behind stream
+ * time is late and dropped. No accepted record can then reach an account whose newest
+ * event is older than stream time minus twice the window plus grace, so a punctuation
+ * deletes those buffers without changing any result. Buffers live in an
+ * {@link AccountStateStore}, which keeps busy accounts as objects.
+ */
+class SlidingWindowProcessor implements FixedKeyProcessor<String, Transaction, AccountActivityAggregate> {
+
+    private static final Logger logger = LoggerFactory.getLogger(SlidingWindowProcessor.class);
+
+    private final String storeName;
+    private final long windowSizeMillis;
+    private final long graceMillis;
+    private final FraudDetectionService fraudDetectionService;
+    private final Duration sweepInterval;
+    private final PunctuationType punctuationType;
+    private final int sweepBatchSize;
+    private final int cachedAccounts;
+
+    private FixedKeyProcessorContext<String, AccountActivityAggregate> context;
+    private AccountStateStore<AccountEventBuffer> buffers;
+    private Cancellable sweep;
+
+    SlidingWindowProcessor(String storeName, Duration windowSize, Duration grace,
+                           FraudDetectionService fraudDetectionService, Duration sweepInterval,
+                           PunctuationType punctuationType, int sweepBatchSize, int cachedAccounts) {
+        this.storeName = storeName;
+        this.windowSizeMillis = windowSize.toMillis();
+        this.graceMillis = grace.toMillis();
+        this.fraudDetectionService = fraudDetectionService;
+        this.sweepInterval = sweepInterval;
+        this.punctuationType = punctuationType;
+        this.sweepBatchSize = sweepBatchSize;
+        this.cachedAccounts = cachedAccounts;
+    }
+
+    @Override
+    public void init(FixedKeyProcessorContext<String, AccountActivityAggregate> context) {
+        this.context = context;
+        this.buffers = new AccountStateStore<>(context.getStateStore(storeName),
+                                               accountId -> new AccountEventBuffer(accountId, windowSizeMillis),
+                                               sweepBatchSize, cachedAccounts);
+        this.sweep = context.schedule(sweepInterval, punctuationType, this::sweepIdle);
+    }
+
+    @Override
+    public void process(FixedKeyRecord<String, Transaction> record) {
+        String accountId = record.key();
+        Transaction transaction = record.value();
+        try {
+            long timestamp = transaction.getTimestampMillis();
+            if (timestamp < Math.max(context.currentStreamTimeMs(), timestamp) - windowSizeMillis - graceMillis) {
+                logger.debug("Dropping late transaction {} for account {}: older than the window plus grace",
+                           transaction.getTransactionId(), accountId);
+                return;
+            }
+            AccountEventBuffer buffer = buffers.get(accountId);
+            if (!buffer.add(timestamp, transaction.getMoney(), transaction.getCountry(), System.currentTimeMillis())) {
+                logger.debug("Dropping late transaction {} for account {}: older than the sliding window",
+                           transaction.getTransactionId(), accountId);
+                return;
+            }
+            buffers.put(accountId, buffer);
+
+            if (fraudDetectionService.matchesAnyRule(buffer)) {
+                context.forward(record.withValue(buffer.toAggregate()));
+            }
+        } catch (Exception e) {
+            // The cached object may be ahead of the store now; drop it so the store stays the source of truth
+            buffers.invalidate(accountId);
+            logger.error("Error adding transaction {} to sliding window for account {}: {}",
+                        transaction.getTransactionId(), accountId, e.getMessage());
+        }
+    }
+
+    // Only whole buffers go: trimming events would change what a later in-grace record sees
+    private void sweepIdle(long timestamp) {
+        long streamTime = context.currentStreamTimeMs();
+        buffers.sweep(buffer -> buffer.isEmpty()
+                || isIdle(buffer.getNewestTimestamp(), streamTime, windowSizeMillis, graceMillis)
+                ? AccountStateStore.Sweep.DELETE : AccountStateStore.Sweep.KEEP);
+    }
+
+    /** True if every record that is not late opens a window after {@code newestTimestamp}, the buffer's newest event */
+    static boolean isIdle(long newestTimestamp, long streamTime, long windowSizeMillis, long graceMillis) {
+        return newestTimestamp < streamTime - 2 * windowSizeMillis - graceMillis;
+    }
+
+    @Override
+    public void close() {
+        if (sweep != null) {
+            sweep.cancel();
+        }
+        if (buffers != null) {
+            buffers.clear();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.fraudlens.infrastructure.kafka;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Offline replay of a local transaction file through the detection topology, without a broker.
+ *
+ * The implementation runs the topology on Kafka's test driver, so it is only built with the
+ * {@code replay} Maven profile, which brings that dependency in; other builds have none.
+ */
+public interface TopologyReplay {
+
+    /** Replays every record of {@code inputFile} and writes the alerts to {@code outputFile}, replacing it */
+    ReplayReport replay(Path inputFile, BulkIngestService.Format inputFormat, Path outputFile) throws IOException;
+}
@@ -0,0 +1,123 @@
+package com.fraudlens.infrastructure.kafka;
+
+import com.fraudlens.domain.model.Hashing;
+import com.fraudlens.domain.model.RotatingBloomFilter;
+import com.fraudlens.domain.model.Transaction;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.kstream.Windowed;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessor;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessorContext;
+import org.apache.kafka.streams.processor.api.FixedKeyRecord;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.WindowStore;
+import org.apache.kafka.streams.state.WindowStoreIterator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Drops transactions whose ID was already seen within the horizon, per partition.
+ *
+ * Every ID is looked up in rotating Bloom filters first; only possible hits, about the
+ * configured false-positive rate of new IDs plus the real duplicates, go on to the exact
+ * check against the horizon-bounded store of 64-bit ID hashes (a collision within one horizon
+ * is as unlikely as for the filters' own hashes, and far rarer than a filter false positive).
+ * Without the exact check, every possible hit is dropped. The filters are rebuilt from the
+ * store when the task starts, so a restore or rebalance keeps earlier IDs.
+ */
+class TransactionDeduplicationProcessor implements FixedKeyProcessor<String, Transaction, Transaction> {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionDeduplicationProcessor.class);
+
+    private final String storeName;
+    private final long horizonMs;
+    private final int generations;
+    private final long expectedIds;
+    private final double fpp;
+    private final MeterRegistry meterRegistry;
+
+    private FixedKeyProcessorContext<String, Transaction> context;
+    private WindowStore<Long, Long> store;
+    private RotatingBloomFilter seenIds;
+    private DuplicateTransactionMetrics metrics;
+
+    /** @param storeName the exact ID hash store, or null to trust the filters alone */
+    TransactionDeduplicationProcessor(String storeName, long horizonMs, int generations, long expectedIds, double fpp,
+                                      MeterRegistry meterRegistry) {
+        this.storeName = storeName;
+        this.horizonMs = horizonMs;
+        this.generations = generations;
+        this.expectedIds = expectedIds;
+        this.fpp = fpp;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void init(FixedKeyProcessorContext<String, Transaction> context) {
+        this.context = context;
+        this.seenIds = RotatingBloomFilter.create(generations, horizonMs, expectedIds, fpp);
+        this.metrics = new DuplicateTransactionMetrics(meterRegistry, context.taskId().toString(), storeName != null);
+        if (storeName != null) {
+            this.store = context.getStateStore(storeName);
+            rebuildFilters();
+        }
+    }
+
+    // All restored IDs go into the newest generation, so they are remembered a little longer than needed
+    private void rebuildFilters() {
+        long latest = Long.MIN_VALUE;
+        int restored = 0;
+        try (KeyValueIterator<Windowed<Long>, Long> ids = store.all()) {
+            while (ids.hasNext()) {
+                KeyValue<Windowed<Long>, Long> id = ids.next();
+                seenIds.put(id.key.key());
+                latest = Math.max(latest, id.key.window().start());
+                restored++;
+            }
+        }
+        if (restored > 0) {
+            seenIds.advanceTo(latest);
+            logger.info("🔁 Rebuilt duplicate filters from {} stored transaction IDs", restored);
+        }
+    }
+
+    @Override
+    public void process(FixedKeyRecord<String, Transaction> record) {
+        String transactionId = record.value().getTransactionId();
+        if (transactionId == null) {
+            context.forward(record);
+            return;
+        }
+        long now = Math.max(context.currentStreamTimeMs(), record.timestamp());
+        seenIds.advanceTo(now);
+        long hash = Hashing.hash(transactionId);
+        metrics.recordChecked();
+
+        if (seenIds.mightContain(hash)) {
+            metrics.recordPossibleDuplicate();
+            if (store == null || isStored(hash, now)) {
+                metrics.recordDuplicate();
+                logger.debug("Dropping duplicate transaction {} for account {}", transactionId, record.key());
+                return;
+            }
+            metrics.recordFalsePositive();
+        }
+
+        seenIds.put(hash);
+        if (store != null) {
+            store.put(hash, now, now);
+        }
+        context.forward(record);
+    }
+
+    private boolean isStored(long hash, long now) {
+        try (WindowStoreIterator<Long> seen = store.fetch(hash, now - horizonMs, now)) {
+            return seen.hasNext();
+        }
+    }
+
+    @Override
+    public void close() {
+        metrics.close();
+    }
+}
@@ -4,6 +4,7 @@ import com.fraudlens.domain.model.Transaction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.scheduling.annotation.Async;
@@ -23,21 +24,24 @@ import java.util.concurrent.CompletableFuture;
 public class TransactionProducer {
     
     private static final Logger logger = LoggerFactory.getLogger(TransactionProducer.class);
-    private static final String TOPIC = "transactions";
+    static final String TOPIC = "transactions";
     
     @Autowired
     private KafkaTemplate<String, Transaction> kafkaTemplate;
+
+    @Value("${fraudlens.demo.enabled:true}")
+    private boolean demoEnabled = true;
     
     private final Random random = new Random();
-    private final List<String> countries = Arrays.asList(
+    static final List<String> COUNTRIES = List.of(
         "ES", "FR", "DE", "IT", "UK", "US", "CA", "JP", "AU", "BR", "MX", "AR", "CN", "IN", "RU"
     );
     
-    private final List<String> transactionTypes = Arrays.asList(
+    static final List<String> TRANSACTION_TYPES = List.of(
         "PURCHASE", "WITHDRAWAL", "TRANSFER", "PAYMENT", "DEPOSIT"
     );
     
-    private final List<String> merchants = Arrays.asList(
+    static final List<String> MERCHANTS = List.of(
         "Amazon", "Apple Store", "Google Play", "Netflix", "Spotify", "Uber", "Airbnb", 
         "McDonald's", "Starbucks", "Shell", "Repsol", "El Corte Inglés", "Zara", "H&M"
     );
@@ -50,12 +54,18 @@ public class TransactionProducer {
     @Scheduled(fixedDelay = 2000) // Every 2 seconds
     @SuppressWarnings("unchecked")
     public void generateNormalTransaction() {
+        if (!demoEnabled) {
+            return;
+        }
         Transaction transaction = createNormalTransaction();
         sendTransaction(transaction);
     }
 
     @Scheduled(fixedDelay = 15000) // Every 15 seconds
     public void generateSuspiciousActivity() {
+        if (!demoEnabled) {
+            return;
+        }
         String accountId = accountIds.get(random.nextInt(accountIds.size()));
         
         logger.info("🚨 Generating suspicious activity for account: {}", accountId);
@@ -80,11 +90,11 @@ public class TransactionProducer {
             "TXN-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase(),
             accountIds.get(random.nextInt(accountIds.size())),
             generateRandomAmount(10.0, 500.0),
-            countries.get(random.nextInt(countries.size())),
+            COUNTRIES.get(random.nextInt(COUNTRIES.size())),
             "EUR",
-            transactionTypes.get(random.nextInt(transactionTypes.size())),
+            TRANSACTION_TYPES.get(random.nextInt(TRANSACTION_TYPES.size())),
             Instant.now(),
-            merchants.get(random.nextInt(merchants.size())),
+            MERCHANTS.get(random.nextInt(MERCHANTS.size())),
             "Normal transaction"
         );
     }
@@ -94,11 +104,11 @@ public class TransactionProducer {
             "TXN-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase(),
             accountId,
             generateRandomAmount(300.0, 800.0), // Higher amounts
-            countries.get(random.nextInt(countries.size())), // Different countries
+            COUNTRIES.get(random.nextInt(COUNTRIES.size())), // Different countries
             "EUR",
             "PURCHASE",
             Instant.now(),
-            merchants.get(random.nextInt(merchants.size())),
+            MERCHANTS.get(random.nextInt(MERCHANTS.size())),
             "Suspicious high-value transaction"
         );
     }
@@ -0,0 +1,132 @@
+package com.fraudlens.infrastructure.kafka;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Splits a request body into the raw bytes of one transaction at a time, reading only as
+ * far as the next record, so a body of any size streams through a buffer of one record.
+ *
+ * NDJSON: one JSON transaction per line; blank lines are skipped. BINARY: each record is a
+ * 4-byte big-endian length followed by that many bytes of the same JSON, so records need
+ * no scanning for delimiters. Records over {@code maxRecordBytes} are skipped and reported
+ * as {@link #OVERSIZED}.
+ */
+final class TransactionRecordReader {
+
+    /** Returned in place of a record that was too large */
+    static final byte[] OVERSIZED = new byte[0];
+
+    private final InputStream in;
+    private final BulkIngestService.Format format;
+    private final int maxRecordBytes;
+    private final byte[] chunk = new byte[8192];
+    private int chunkPosition;
+    private int chunkLimit;
+    private byte[] line = new byte[1024];
+
+    TransactionRecordReader(InputStream in, BulkIngestService.Format format, int maxRecordBytes) {
+        this.in = in;
+        this.format = format;
+        this.maxRecordBytes = maxRecordBytes;
+    }
+
+    /** The next record's bytes, {@link #OVERSIZED}, or null at the end of the body */
+    byte[] next() throws IOException {
+        return format == BulkIngestService.Format.NDJSON ? nextLine() : nextFrame();
+    }
+
+    private byte[] nextLine() throws IOException {
+        while (true) {
+            int length = 0;
+            boolean oversized = false;
+            int b;
+            while ((b = read()) >= 0 && b != '\n') {
+                if (length == maxRecordBytes) {
+                    oversized = true;
+                } else if (!oversized) {
+                    if (length == line.length) {
+                        line = Arrays.copyOf(line, Math.min(maxRecordBytes, line.length * 2));
+                    }
+                    line[length++] = (byte) b;
+                }
+            }
+            if (oversized) {
+                return OVERSIZED;
+            }
+            if (length > 0 && line[length - 1] == '\r') {
+                length--;
+            }
+            if (length > 0 && !isBlank(line, length)) {
+                return Arrays.copyOf(line, length);
+            }
+            if (b < 0) {
+                return null;
+            }
+        }
+    }
+
+    private byte[] nextFrame() throws IOException {
+        int first = read();
+        if (first < 0) {
+            return null;
+        }
+        int length = first << 24 | readByte() << 16 | readByte() << 8 | readByte();
+        if (length < 0) {
+            throw new IOException("Invalid record length " + length);
+        }
+        if (length > maxRecordBytes) {
+            skip(length);
+            return OVERSIZED;
+        }
+        byte[] record = new byte[length];
+        int filled = Math.min(length, chunkLimit - chunkPosition);
+        System.arraycopy(chunk, chunkPosition, record, 0, filled);
+        chunkPosition += filled;
+        while (filled < length) {
+            int n = in.read(record, filled, length - filled);
+            if (n < 0) {
+                throw new EOFException("Body ends inside a record");
+            }
+            filled += n;
+        }
+        return record;
+    }
+
+    private void skip(long bytes) throws IOException {
+        long buffered = Math.min(bytes, chunkLimit - chunkPosition);
+        chunkPosition += (int) buffered;
+        in.skipNBytes(bytes - buffered);
+    }
+
+    private int readByte() throws IOException {
+        int b = read();
+        if (b < 0) {
+            throw new EOFException("Body ends inside a record length");
+        }
+        return b;
+    }
+
+    private int read() throws IOException {
+        if (chunkPosition == chunkLimit) {
+            int n = in.read(chunk, 0, chunk.length);
+            if (n <= 0) {
+                return -1;
+            }
+            chunkPosition = 0;
+            chunkLimit = n;
+        }
+        return chunk[chunkPosition++] & 0xFF;
+    }
+
+    private static boolean isBlank(byte[] data, int length) {
+        for (int i = 0; i < length; i++) {
+            if (data[i] != ' ' && data[i] != '\t') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
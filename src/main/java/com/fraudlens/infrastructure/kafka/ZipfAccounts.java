@@ -0,0 +1,134 @@
+package com.fraudlens.infrastructure.kafka;
+
+import org.apache.kafka.common.utils.Utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Synthetic accounts with Zipf-distributed activity, split between sender threads by partition.
+ *
+ * The account of rank {@code r} (from 0) is drawn with probability proportional to
+ * {@code 1 / (r + 1)^exponent}. Every account is placed on the partition the default
+ * partitioner picks for its key; partitions are dealt to senders so that their total
+ * probability is balanced, and each sender samples only its own accounts. A sender's share
+ * of the overall rate is the probability of its accounts, so together the senders produce
+ * the exact distribution while each partition is written by one thread only.
+ * About 16 bytes per account.
+ */
+final class ZipfAccounts {
+
+    static final String ACCOUNT_PREFIX = "LOAD-ACC-";
+
+    /** The accounts of one sender */
+    static final class Sampler {
+        private final int[] ranks;
+        private final int[] partitions;
+        private final double[] cumulative;
+        private final double share;
+
+        private Sampler(int[] ranks, int[] partitions, double[] cumulative, double share) {
+            this.ranks = ranks;
+            this.partitions = partitions;
+            this.cumulative = cumulative;
+            this.share = share;
+        }
+
+        /** Index of a random account of this sender, by probability */
+        int next(ThreadLocalRandom random) {
+            double u = random.nextDouble() * cumulative[cumulative.length - 1];
+            int index = Arrays.binarySearch(cumulative, u);
+            return Math.min(index < 0 ? -index - 1 : index + 1, cumulative.length - 1);
+        }
+
+        int rank(int index) { return ranks[index]; }
+        int partition(int index) { return partitions[index]; }
+        int size() { return ranks.length; }
+        /** Share of all activity on this sender's accounts */
+        double share() { return share; }
+    }
+
+    private final Sampler[] samplers;
+    private final int[] partitionOwners;
+
+    ZipfAccounts(int accounts, double exponent, int partitions, int senders) {
+        if (accounts <= 0 || partitions <= 0 || senders <= 0) {
+            throw new IllegalArgumentException("Accounts, partitions and senders must be positive");
+        }
+        int[] partitionOf = new int[accounts];
+        double[] partitionWeight = new double[partitions];
+        double total = 0;
+        for (int rank = 0; rank < accounts; rank++) {
+            partitionOf[rank] = partitionOf(accountId(rank), partitions);
+            double weight = Math.pow(rank + 1, -exponent);
+            partitionWeight[partitionOf[rank]] += weight;
+            total += weight;
+        }
+
+        // Heaviest partition first, each to the lightest sender so far
+        partitionOwners = new int[partitions];
+        double[] senderWeight = new double[senders];
+        int[] byWeight = IntStream.range(0, partitions).boxed()
+                .sorted(Comparator.comparingDouble((Integer p) -> partitionWeight[p]).reversed())
+                .mapToInt(Integer::intValue).toArray();
+        for (int partition : byWeight) {
+            int lightest = 0;
+            for (int sender = 1; sender < senders; sender++) {
+                if (senderWeight[sender] < senderWeight[lightest]) {
+                    lightest = sender;
+                }
+            }
+            partitionOwners[partition] = lightest;
+            senderWeight[lightest] += partitionWeight[partition];
+        }
+
+        int[] sizes = new int[senders];
+        for (int rank = 0; rank < accounts; rank++) {
+            sizes[partitionOwners[partitionOf[rank]]]++;
+        }
+        int[][] ranks = new int[senders][];
+        int[][] senderPartitions = new int[senders][];
+        double[][] cumulative = new double[senders][];
+        for (int sender = 0; sender < senders; sender++) {
+            ranks[sender] = new int[sizes[sender]];
+            senderPartitions[sender] = new int[sizes[sender]];
+            cumulative[sender] = new double[sizes[sender]];
+        }
+        int[] filled = new int[senders];
+        double[] running = new double[senders];
+        for (int rank = 0; rank < accounts; rank++) {
+            int sender = partitionOwners[partitionOf[rank]];
+            int i = filled[sender]++;
+            running[sender] += Math.pow(rank + 1, -exponent);
+            ranks[sender][i] = rank;
+            senderPartitions[sender][i] = partitionOf[rank];
+            cumulative[sender][i] = running[sender];
+        }
+
+        samplers = new Sampler[senders];
+        for (int sender = 0; sender < senders; sender++) {
+            samplers[sender] = new Sampler(ranks[sender], senderPartitions[sender], cumulative[sender],
+                                           senderWeight[sender] / total);
+        }
+    }
+
+    static String accountId(int rank) {
+        return ACCOUNT_PREFIX + rank;
+    }
+
+    // Same choice as the producer's default partitioner for a String key
+    static int partitionOf(String accountId, int partitions) {
+        return Utils.toPositive(Utils.murmur2(accountId.getBytes(StandardCharsets.UTF_8))) % partitions;
+    }
+
+    Sampler sampler(int sender) {
+        return samplers[sender];
+    }
+
+    int ownerOf(int partition) {
+        return partitionOwners[partition];
+    }
+}
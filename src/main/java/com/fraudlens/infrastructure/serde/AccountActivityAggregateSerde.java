@@ -0,0 +1,243 @@
+package com.fraudlens.infrastructure.serde;
+
+import com.fraudlens.domain.model.AccountActivityAggregate;
+import com.fraudlens.domain.model.AccountActivityWindow;
+import com.fraudlens.domain.model.CountryDictionary;
+import com.fraudlens.domain.model.CountrySet;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Versioned binary serde for the account-activity-store aggregate.
+ *
+ * Layout (version 2): version byte, account id, window start/end and last update as
+ * epoch millis, total amount as scale + unscaled long, transaction count, the countries
+ * with a fixed {@link CountryDictionary} id as bitset words, then any runtime-assigned
+ * codes as strings (their ids differ between instances).
+ *
+ * Version 1 records (a single 64-bit mask, then codes outside it) are still read; the
+ * mask bits are the first 64 dictionary ids, so they map to the first bitset word.
+ *
+ * The deserializer also accepts the legacy JSON {@link AccountActivityWindow} records
+ * written by {@link JsonSerde}, so an existing store and changelog migrate in place.
+ */
+public class AccountActivityAggregateSerde implements Serde<AccountActivityAggregate> {
+
+    public enum Format { JSON, BINARY }
+
+    static final byte VERSION_1 = 1;
+    static final byte VERSION_2 = 2;
+
+    private static final int STATIC_WORDS = (CountryDictionary.STATIC_SIZE + 63) >>> 6;
+    private static final long LAST_STATIC_WORD_MASK = CountryDictionary.STATIC_SIZE % 64 == 0
+            ? -1L : (1L << CountryDictionary.STATIC_SIZE) - 1;
+
+    private static final byte BIG_UNSCALED_FLAG = (byte) 0x80;
+
+    private final Format format;
+    private final JsonSerde<AccountActivityWindow> jsonSerde;
+    private final Serializer<AccountActivityAggregate> serializer;
+    private final Deserializer<AccountActivityAggregate> deserializer;
+
+    public AccountActivityAggregateSerde() {
+        this(Format.BINARY);
+    }
+
+    public AccountActivityAggregateSerde(Format format) {
+        this.format = format;
+        this.jsonSerde = new JsonSerde<>(AccountActivityWindow.class);
+        this.serializer = format == Format.JSON ? new JsonSerializer() : new BinarySerializer();
+        this.deserializer = new FormatDetectingDeserializer();
+    }
+
+    public Format getFormat() {
+        return format;
+    }
+
+    @Override
+    public Serializer<AccountActivityAggregate> serializer() {
+        return serializer;
+    }
+
+    @Override
+    public Deserializer<AccountActivityAggregate> deserializer() {
+        return deserializer;
+    }
+
+    static boolean isJson(byte[] data) {
+        for (byte b : data) {
+            if (b == '{') return true;
+            if (b != ' ' && b != '\t' && b != '\r' && b != '\n') return false;
+        }
+        return false;
+    }
+
+    private class JsonSerializer implements Serializer<AccountActivityAggregate> {
+
+        @Override
+        public byte[] serialize(String topic, AccountActivityAggregate aggregate) {
+            return aggregate != null ? jsonSerde.serializer().serialize(topic, aggregate.toWindow()) : null;
+        }
+    }
+
+    private static class BinarySerializer implements Serializer<AccountActivityAggregate> {
+
+        @Override
+        public byte[] serialize(String topic, AccountActivityAggregate aggregate) {
+            if (aggregate == null) {
+                return null;
+            }
+            if (aggregate.getAmountScale() < 0 || aggregate.getAmountScale() > 0x7F) {
+                throw new SerializationException("Unsupported amount scale: " + aggregate.getAmountScale());
+            }
+
+            byte[] accountId = aggregate.getAccountId() != null
+                    ? aggregate.getAccountId().getBytes(StandardCharsets.UTF_8) : null;
+            CountrySet countries = aggregate.getCountrySet();
+
+            int staticWords = Math.min(countries.wordsInUse(), STATIC_WORDS);
+            while (staticWords > 0 && staticWord(countries, staticWords - 1) == 0L) {
+                staticWords--;
+            }
+            int dynamicCount = 0;
+            int dynamicBytes = 0;
+            for (int id = countries.nextId(CountryDictionary.STATIC_SIZE); id >= 0; id = countries.nextId(id + 1)) {
+                dynamicCount++;
+                dynamicBytes += 2 + utf8Length(CountryDictionary.codeOf(id));
+            }
+
+            int size = 1 + 4 + (accountId != null ? accountId.length : 0) + 8 * 3 + 1 + 8 + 4
+                    + 1 + 8 * staticWords + 2 + dynamicBytes;
+            ByteBuffer buffer = ByteBuffer.allocate(size);
+            buffer.put(VERSION_2);
+            if (accountId != null) {
+                buffer.putInt(accountId.length).put(accountId);
+            } else {
+                buffer.putInt(-1);
+            }
+            buffer.putLong(aggregate.getWindowStartMillis());
+            buffer.putLong(aggregate.getWindowEndMillis());
+            buffer.putLong(aggregate.getLastUpdatedMillis());
+            buffer.put((byte) aggregate.getAmountScale());
+            buffer.putLong(aggregate.getTotalUnscaled());
+            buffer.putInt(aggregate.getTransactionCount());
+            buffer.put((byte) staticWords);
+            for (int i = 0; i < staticWords; i++) {
+                buffer.putLong(staticWord(countries, i));
+            }
+            buffer.putShort((short) dynamicCount);
+            for (int id = countries.nextId(CountryDictionary.STATIC_SIZE); id >= 0; id = countries.nextId(id + 1)) {
+                byte[] code = CountryDictionary.codeOf(id).getBytes(StandardCharsets.UTF_8);
+                buffer.putShort((short) code.length).put(code);
+            }
+            return buffer.array();
+        }
+
+        private static long staticWord(CountrySet countries, int index) {
+            long word = countries.word(index);
+            return index == STATIC_WORDS - 1 ? word & LAST_STATIC_WORD_MASK : word;
+        }
+
+        private static int utf8Length(String code) {
+            int length = code.length();
+            for (int i = 0; i < code.length(); i++) {
+                if (code.charAt(i) >= 0x80) {
+                    return code.getBytes(StandardCharsets.UTF_8).length;
+                }
+            }
+            return length;
+        }
+    }
+
+    private class FormatDetectingDeserializer implements Deserializer<AccountActivityAggregate> {
+
+        @Override
+        public AccountActivityAggregate deserialize(String topic, byte[] data) {
+            if (data == null) {
+                return null;
+            }
+            if (data.length == 0) {
+                throw new SerializationException("Empty account activity record");
+            }
+            if (data[0] == VERSION_2 || data[0] == VERSION_1) {
+                try {
+                    return read(data[0], ByteBuffer.wrap(data, 1, data.length - 1));
+                } catch (BufferUnderflowException e) {
+                    throw new SerializationException("Truncated account activity record", e);
+                }
+            }
+            if (isJson(data)) {
+                AccountActivityWindow window = jsonSerde.deserializer().deserialize(topic, data);
+                try {
+                    return AccountActivityAggregate.fromWindow(window);
+                } catch (ArithmeticException e) {
+                    throw new SerializationException("Account activity total does not fit the aggregate", e);
+                }
+            }
+            throw new SerializationException("Unknown account activity format: " + data[0]);
+        }
+    }
+
+    private static AccountActivityAggregate read(byte version, ByteBuffer buffer) {
+        int accountIdLength = buffer.getInt();
+        String accountId = null;
+        if (accountIdLength >= 0) {
+            accountId = new String(buffer.array(), buffer.position(), accountIdLength, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + accountIdLength);
+        }
+        long windowStart = buffer.getLong();
+        long windowEnd = buffer.getLong();
+        long lastUpdated = buffer.getLong();
+
+        byte scaleByte = buffer.get();
+        long totalUnscaled;
+        if (version == VERSION_1 && (scaleByte & BIG_UNSCALED_FLAG) != 0) {
+            // Totals beyond a long from the first window serde; readable only if they now fit
+            byte[] unscaledBytes = new byte[buffer.getInt()];
+            buffer.get(unscaledBytes);
+            try {
+                totalUnscaled = new BigInteger(unscaledBytes).longValueExact();
+            } catch (ArithmeticException e) {
+                throw new SerializationException("Account activity total does not fit the aggregate", e);
+            }
+        } else {
+            totalUnscaled = buffer.getLong();
+        }
+        int amountScale = scaleByte & 0x7F;
+
+        int transactionCount = buffer.getInt();
+        CountrySet countries;
+        if (version == VERSION_1) {
+            countries = CountrySet.ofWords(new long[] { buffer.getLong() });
+        } else {
+            int staticWords = buffer.get() & 0xFF;
+            if (staticWords > STATIC_WORDS) {
+                throw new SerializationException("Unexpected country bitset length: " + staticWords);
+            }
+            long[] words = new long[staticWords];
+            for (int i = 0; i < staticWords; i++) {
+                words[i] = buffer.getLong();
+            }
+            if (staticWords == STATIC_WORDS) {
+                words[STATIC_WORDS - 1] &= LAST_STATIC_WORD_MASK;
+            }
+            countries = CountrySet.ofWords(words);
+        }
+        int extraCountries = buffer.getShort();
+        for (int i = 0; i < extraCountries; i++) {
+            int length = buffer.getShort();
+            countries.add(new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8));
+            buffer.position(buffer.position() + length);
+        }
+
+        return new AccountActivityAggregate(accountId, windowStart, windowEnd, lastUpdated,
+                                            totalUnscaled, amountScale, transactionCount, countries);
+    }
+}
@@ -0,0 +1,53 @@
+package com.fraudlens.infrastructure.serde;
+
+import com.fraudlens.domain.model.AccountActivityAggregate;
+import com.fraudlens.domain.model.AccountActivityWindow;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Serde for the immutable {@link AccountActivityWindow} view, in the same wire
+ * formats as {@link AccountActivityAggregateSerde} (which owns the layout).
+ */
+public class AccountActivityWindowSerde implements Serde<AccountActivityWindow> {
+
+    private final AccountActivityAggregateSerde aggregateSerde;
+
+    public AccountActivityWindowSerde() {
+        this(AccountActivityAggregateSerde.Format.BINARY);
+    }
+
+    public AccountActivityWindowSerde(AccountActivityAggregateSerde.Format format) {
+        this.aggregateSerde = new AccountActivityAggregateSerde(format);
+    }
+
+    public AccountActivityAggregateSerde.Format getFormat() {
+        return aggregateSerde.getFormat();
+    }
+
+    @Override
+    public Serializer<AccountActivityWindow> serializer() {
+        Serializer<AccountActivityAggregate> serializer = aggregateSerde.serializer();
+        return (topic, window) -> {
+            if (window == null) {
+                return null;
+            }
+            try {
+                return serializer.serialize(topic, AccountActivityAggregate.fromWindow(window));
+            } catch (ArithmeticException e) {
+                throw new SerializationException("Account activity total does not fit the binary format", e);
+            }
+        };
+    }
+
+    @Override
+    public Deserializer<AccountActivityWindow> deserializer() {
+        Deserializer<AccountActivityAggregate> deserializer = aggregateSerde.deserializer();
+        return (topic, data) -> {
+            AccountActivityAggregate aggregate = deserializer.deserialize(topic, data);
+            return aggregate != null ? aggregate.toWindow() : null;
+        };
+    }
+}
@@ -0,0 +1,163 @@
+package com.fraudlens.infrastructure.serde;
+
+import com.fraudlens.domain.model.AccountEventBuffer;
+import com.fraudlens.domain.model.CountryDictionary;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Versioned binary serde for the account-event-buffer-store (sliding-window mode).
+ *
+ * Layout (version 1): version byte, account id, window size, newest event time and last
+ * update as epoch millis, amount scale, then a table of the distinct countries in the
+ * buffer (fixed {@link CountryDictionary} id, or -1 followed by the code for runtime ids)
+ * and the events oldest first as event time delta, amount units and country table index.
+ */
+public class AccountEventBufferSerde implements Serde<AccountEventBuffer> {
+
+    static final byte VERSION_1 = 1;
+
+    private static final short RUNTIME_ID = -1;
+    private static final short NO_COUNTRY = -1;
+
+    private final Serializer<AccountEventBuffer> serializer = new BufferSerializer();
+    private final Deserializer<AccountEventBuffer> deserializer = new BufferDeserializer();
+
+    @Override
+    public Serializer<AccountEventBuffer> serializer() {
+        return serializer;
+    }
+
+    @Override
+    public Deserializer<AccountEventBuffer> deserializer() {
+        return deserializer;
+    }
+
+    private static class BufferSerializer implements Serializer<AccountEventBuffer> {
+
+        @Override
+        public byte[] serialize(String topic, AccountEventBuffer buffer) {
+            if (buffer == null) {
+                return null;
+            }
+            int events = buffer.size();
+
+            // Country ids in this buffer mapped to a compact local table
+            int[] table = new int[Math.min(events, 16)];
+            int tableSize = 0;
+            short[] eventCountries = new short[events];
+            for (int i = 0; i < events; i++) {
+                int id = buffer.countryAt(i);
+                if (id < 0) {
+                    eventCountries[i] = NO_COUNTRY;
+                    continue;
+                }
+                int index = 0;
+                while (index < tableSize && table[index] != id) {
+                    index++;
+                }
+                if (index == tableSize) {
+                    if (tableSize == table.length) {
+                        table = Arrays.copyOf(table, tableSize * 2);
+                    }
+                    table[tableSize++] = id;
+                }
+                eventCountries[i] = (short) index;
+            }
+
+            try {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + events * 18);
+                DataOutputStream out = new DataOutputStream(bytes);
+                out.writeByte(VERSION_1);
+                byte[] accountId = buffer.getAccountId().getBytes(StandardCharsets.UTF_8);
+                out.writeInt(accountId.length);
+                out.write(accountId);
+                out.writeLong(buffer.getWindowSizeMillis());
+                out.writeLong(buffer.getNewestTimestamp());
+                out.writeLong(buffer.getLastUpdatedMillis());
+                out.writeByte(buffer.getAmountScale());
+
+                out.writeShort(tableSize);
+                for (int i = 0; i < tableSize; i++) {
+                    if (CountryDictionary.isStatic(table[i])) {
+                        out.writeShort(table[i]);
+                    } else {
+                        byte[] code = CountryDictionary.codeOf(table[i]).getBytes(StandardCharsets.UTF_8);
+                        out.writeShort(RUNTIME_ID);
+                        out.writeShort(code.length);
+                        out.write(code);
+                    }
+                }
+
+                out.writeInt(events);
+                for (int i = 0; i < events; i++) {
+                    // Delta from the newest event keeps the value small and non-negative
+                    out.writeLong(buffer.getNewestTimestamp() - buffer.timestampAt(i));
+                    out.writeLong(buffer.amountAt(i));
+                    out.writeShort(eventCountries[i]);
+                }
+                return bytes.toByteArray();
+            } catch (IOException e) {
+                throw new SerializationException("Error serializing account event buffer", e);
+            }
+        }
+    }
+
+    private static class BufferDeserializer implements Deserializer<AccountEventBuffer> {
+
+        @Override
+        public AccountEventBuffer deserialize(String topic, byte[] data) {
+            if (data == null) {
+                return null;
+            }
+            if (data.length == 0 || data[0] != VERSION_1) {
+                throw new SerializationException("Unknown account event buffer format");
+            }
+            try {
+                ByteBuffer in = ByteBuffer.wrap(data, 1, data.length - 1);
+                String accountId = string(in, in.getInt());
+                long windowSizeMillis = in.getLong();
+                long newestTimestamp = in.getLong();
+                long lastUpdatedMillis = in.getLong();
+                int amountScale = in.get();
+
+                int[] table = new int[in.getShort()];
+                for (int i = 0; i < table.length; i++) {
+                    short id = in.getShort();
+                    table[i] = id != RUNTIME_ID ? id : CountryDictionary.idOf(string(in, in.getShort()));
+                }
+
+                int events = in.getInt();
+                long[] timestamps = new long[events];
+                long[] amounts = new long[events];
+                int[] countries = new int[events];
+                for (int i = 0; i < events; i++) {
+                    timestamps[i] = newestTimestamp - in.getLong();
+                    amounts[i] = in.getLong();
+                    short index = in.getShort();
+                    countries[i] = index != NO_COUNTRY ? table[index] : -1;
+                }
+                return AccountEventBuffer.restore(accountId, windowSizeMillis, newestTimestamp, lastUpdatedMillis,
+                                                  amountScale, timestamps, amounts, countries);
+            } catch (BufferUnderflowException | ArrayIndexOutOfBoundsException e) {
+                throw new SerializationException("Truncated account event buffer", e);
+            }
+        }
+
+        private static String string(ByteBuffer in, int length) {
+            String value = new String(in.array(), in.position(), length, StandardCharsets.UTF_8);
+            in.position(in.position() + length);
+            return value;
+        }
+    }
+}
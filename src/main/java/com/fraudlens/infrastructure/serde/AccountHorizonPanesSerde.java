@@ -0,0 +1,248 @@
+package com.fraudlens.infrastructure.serde;
+
+import com.fraudlens.domain.model.AccountHorizonPanes;
+import com.fraudlens.domain.model.CountryDictionary;
+import com.fraudlens.domain.model.HyperLogLog;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Versioned binary serde for the account-horizon-store (multi-horizon mode).
+ *
+ * Layout (version 1): version byte, account id, pane size, detection horizon and the
+ * horizons in millis, newest pane start, newest event time and last update as epoch
+ * millis, amount scale, a table of the distinct countries in the panes (fixed
+ * {@link CountryDictionary} id, or -1 followed by the code for runtime ids), then the
+ * panes oldest first as start delta, amount units, event count and per-country counts.
+ * Horizon aggregates are not stored; they are rebuilt from the panes when read.
+ *
+ * Version 2 adds the sketch block size after the horizons and, after the panes, the live
+ * sketch blocks as start delta from the newest block and the fixed-size country and
+ * merchant {@link HyperLogLog} registers. Version 3 adds each block's amount units and
+ * event count after its start, and writes the sketches compactly (only their set registers
+ * when that is shorter, see {@link HyperLogLog#writeCompactTo}). Versions 1 and 2 are still
+ * read; their block totals are summed from the panes.
+ */
+public class AccountHorizonPanesSerde implements Serde<AccountHorizonPanes> {
+
+    static final byte VERSION_1 = 1;
+    static final byte VERSION_2 = 2;
+    static final byte VERSION_3 = 3;
+
+    private static final short RUNTIME_ID = -1;
+
+    private final Serializer<AccountHorizonPanes> serializer = new PanesSerializer();
+    private final Deserializer<AccountHorizonPanes> deserializer = new PanesDeserializer();
+
+    @Override
+    public Serializer<AccountHorizonPanes> serializer() {
+        return serializer;
+    }
+
+    @Override
+    public Deserializer<AccountHorizonPanes> deserializer() {
+        return deserializer;
+    }
+
+    private static class PanesSerializer implements Serializer<AccountHorizonPanes> {
+
+        @Override
+        public byte[] serialize(String topic, AccountHorizonPanes panes) {
+            if (panes == null) {
+                return null;
+            }
+            int paneCount = panes.paneCount();
+
+            // Country ids in these panes mapped to a compact local table
+            int[] table = new int[8];
+            int tableSize = 0;
+            for (int i = 0; i < paneCount; i++) {
+                for (long entry : panes.paneCountriesAt(i)) {
+                    int id = (int) (entry >>> 32);
+                    int index = 0;
+                    while (index < tableSize && table[index] != id) {
+                        index++;
+                    }
+                    if (index == tableSize) {
+                        if (tableSize == table.length) {
+                            table = Arrays.copyOf(table, tableSize * 2);
+                        }
+                        table[tableSize++] = id;
+                    }
+                }
+            }
+
+            try {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream(96 + paneCount * 28);
+                DataOutputStream out = new DataOutputStream(bytes);
+                out.writeByte(VERSION_3);
+                byte[] accountId = panes.getAccountId().getBytes(StandardCharsets.UTF_8);
+                out.writeInt(accountId.length);
+                out.write(accountId);
+                out.writeLong(panes.getPaneSizeMillis());
+                out.writeLong(panes.getDetectionHorizonMillis());
+                long[] horizons = panes.getHorizonMillis();
+                out.writeByte(horizons.length);
+                for (long horizon : horizons) {
+                    out.writeLong(horizon);
+                }
+                out.writeLong(panes.getSketchBlockMillis());
+                out.writeLong(panes.getNewestPaneStart());
+                out.writeLong(panes.getNewestTimestamp());
+                out.writeLong(panes.getLastUpdatedMillis());
+                out.writeByte(panes.getAmountScale());
+
+                out.writeShort(tableSize);
+                for (int i = 0; i < tableSize; i++) {
+                    if (CountryDictionary.isStatic(table[i])) {
+                        out.writeShort(table[i]);
+                    } else {
+                        byte[] code = CountryDictionary.codeOf(table[i]).getBytes(StandardCharsets.UTF_8);
+                        out.writeShort(RUNTIME_ID);
+                        out.writeShort(code.length);
+                        out.write(code);
+                    }
+                }
+
+                out.writeInt(paneCount);
+                for (int i = 0; i < paneCount; i++) {
+                    // Delta from the newest pane keeps the value small and non-negative
+                    out.writeLong(panes.getNewestPaneStart() - panes.paneStartAt(i));
+                    out.writeLong(panes.paneUnitsAt(i));
+                    out.writeInt(panes.paneEventsAt(i));
+                    long[] countries = panes.paneCountriesAt(i);
+                    out.writeShort(countries.length);
+                    for (long entry : countries) {
+                        int id = (int) (entry >>> 32);
+                        int index = 0;
+                        while (table[index] != id) {
+                            index++;
+                        }
+                        out.writeShort(index);
+                        out.writeInt((int) entry);
+                    }
+                }
+
+                int blocks = 0;
+                for (int slot = 0; slot < panes.blockSlots(); slot++) {
+                    if (panes.hasBlock(slot)) {
+                        blocks++;
+                    }
+                }
+                out.writeShort(blocks);
+                if (blocks > 0) {
+                    long newestBlock = Math.floorDiv(panes.getNewestPaneStart(), panes.getSketchBlockMillis())
+                            * panes.getSketchBlockMillis();
+                    for (int slot = 0; slot < panes.blockSlots(); slot++) {
+                        if (panes.hasBlock(slot)) {
+                            out.writeLong(newestBlock - panes.blockStartAt(slot));
+                            out.writeLong(panes.blockUnitsAt(slot));
+                            out.writeInt(panes.blockEventsAt(slot));
+                            panes.countryBlockAt(slot).writeCompactTo(out);
+                            panes.merchantBlockAt(slot).writeCompactTo(out);
+                        }
+                    }
+                }
+                return bytes.toByteArray();
+            } catch (IOException e) {
+                throw new SerializationException("Error serializing account horizon panes", e);
+            }
+        }
+    }
+
+    private static class PanesDeserializer implements Deserializer<AccountHorizonPanes> {
+
+        @Override
+        public AccountHorizonPanes deserialize(String topic, byte[] data) {
+            if (data == null) {
+                return null;
+            }
+            if (data.length == 0 || data[0] < VERSION_1 || data[0] > VERSION_3) {
+                throw new SerializationException("Unknown account horizon panes format");
+            }
+            boolean sketches = data[0] >= VERSION_2;
+            boolean blockTotals = data[0] >= VERSION_3;
+            try {
+                ByteBuffer in = ByteBuffer.wrap(data, 1, data.length - 1);
+                String accountId = string(in, in.getInt());
+                long paneSizeMillis = in.getLong();
+                long detectionHorizonMillis = in.getLong();
+                long[] horizons = new long[in.get()];
+                for (int h = 0; h < horizons.length; h++) {
+                    horizons[h] = in.getLong();
+                }
+                long sketchBlockMillis = sketches ? in.getLong() : 0L;
+                long newestPaneStart = in.getLong();
+                long newestTimestamp = in.getLong();
+                long lastUpdatedMillis = in.getLong();
+                int amountScale = in.get();
+
+                int[] table = new int[in.getShort()];
+                for (int i = 0; i < table.length; i++) {
+                    short id = in.getShort();
+                    table[i] = id != RUNTIME_ID ? id : CountryDictionary.idOf(string(in, in.getShort()));
+                }
+
+                int paneCount = in.getInt();
+                long[] starts = new long[paneCount];
+                long[] units = new long[paneCount];
+                int[] events = new int[paneCount];
+                long[][] countries = new long[paneCount][];
+                for (int i = 0; i < paneCount; i++) {
+                    starts[i] = newestPaneStart - in.getLong();
+                    units[i] = in.getLong();
+                    events[i] = in.getInt();
+                    countries[i] = new long[in.getShort()];
+                    for (int c = 0; c < countries[i].length; c++) {
+                        int id = table[in.getShort()];
+                        countries[i][c] = ((long) id << 32) | (in.getInt() & 0xFFFFFFFFL);
+                    }
+                }
+
+                int blocks = sketches ? in.getShort() : 0;
+                long[] blockStarts = new long[blocks];
+                long[] blockUnits = blockTotals ? new long[blocks] : null;
+                int[] blockEvents = blockTotals ? new int[blocks] : null;
+                HyperLogLog[] countryBlocks = new HyperLogLog[blocks];
+                HyperLogLog[] merchantBlocks = new HyperLogLog[blocks];
+                if (blocks > 0) {
+                    long newestBlock = Math.floorDiv(newestPaneStart, sketchBlockMillis) * sketchBlockMillis;
+                    for (int b = 0; b < blocks; b++) {
+                        blockStarts[b] = newestBlock - in.getLong();
+                        if (blockTotals) {
+                            blockUnits[b] = in.getLong();
+                            blockEvents[b] = in.getInt();
+                            countryBlocks[b] = HyperLogLog.readCompactFrom(in);
+                            merchantBlocks[b] = HyperLogLog.readCompactFrom(in);
+                        } else {
+                            countryBlocks[b] = HyperLogLog.readFrom(in);
+                            merchantBlocks[b] = HyperLogLog.readFrom(in);
+                        }
+                    }
+                }
+                return AccountHorizonPanes.restore(accountId, paneSizeMillis, horizons, detectionHorizonMillis,
+                                                   newestPaneStart, newestTimestamp, lastUpdatedMillis, amountScale,
+                                                   starts, units, events, countries, sketchBlockMillis,
+                                                   blockStarts, blockUnits, blockEvents, countryBlocks, merchantBlocks);
+            } catch (BufferUnderflowException | ArrayIndexOutOfBoundsException | NegativeArraySizeException e) {
+                throw new SerializationException("Truncated account horizon panes", e);
+            }
+        }
+
+        private static String string(ByteBuffer in, int length) {
+            String value = new String(in.array(), in.position(), length, StandardCharsets.UTF_8);
+            in.position(in.position() + length);
+            return value;
+        }
+    }
+}
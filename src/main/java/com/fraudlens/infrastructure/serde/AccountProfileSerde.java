@@ -0,0 +1,137 @@
+package com.fraudlens.infrastructure.serde;
+
+import com.fraudlens.domain.model.AccountProfile;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Fixed-size binary serde for the account-profile-store: every profile is {@link #SIZE} bytes.
+ *
+ * Layout (version 1): version byte, then the profile: transaction count and last event time
+ * (longs), last country id (short, static dictionary id or -1), mean amount, amount variance
+ * and mean inter-arrival millis (doubles), the country slots as id (short) and weight (float),
+ * then the transaction-type shares (floats). The two baseline snapshots follow, newest first,
+ * each as the event time it was taken at (long, {@link Long#MIN_VALUE} when absent) and a
+ * profile in the same layout.
+ */
+public class AccountProfileSerde implements Serde<AccountProfile> {
+
+    static final byte VERSION_1 = 1;
+
+    private static final int PROFILE_SIZE = 8 + 8 + 2 + 3 * 8
+            + AccountProfile.COUNTRY_SLOTS * (2 + 4)
+            + (AccountProfile.TRANSACTION_TYPES.length + 1) * 4;
+
+    public static final int SIZE = 1 + PROFILE_SIZE + 2 * (8 + PROFILE_SIZE);
+
+    private static final long ABSENT = Long.MIN_VALUE;
+
+    private final Serializer<AccountProfile> serializer = new ProfileSerializer();
+    private final Deserializer<AccountProfile> deserializer = new ProfileDeserializer();
+
+    @Override
+    public Serializer<AccountProfile> serializer() {
+        return serializer;
+    }
+
+    @Override
+    public Deserializer<AccountProfile> deserializer() {
+        return deserializer;
+    }
+
+    private static class ProfileSerializer implements Serializer<AccountProfile> {
+
+        @Override
+        public byte[] serialize(String topic, AccountProfile profile) {
+            if (profile == null) {
+                return null;
+            }
+            ByteBuffer out = ByteBuffer.allocate(SIZE);
+            out.put(VERSION_1);
+            write(out, profile);
+            writeSnapshot(out, profile.getBaseline(), profile.getBaselineAsOf());
+            writeSnapshot(out, profile.getPreviousBaseline(), profile.getPreviousBaselineAsOf());
+            return out.array();
+        }
+
+        private static void writeSnapshot(ByteBuffer out, AccountProfile snapshot, long asOf) {
+            if (snapshot == null) {
+                out.putLong(ABSENT);
+                out.position(out.position() + PROFILE_SIZE);
+                return;
+            }
+            out.putLong(asOf);
+            write(out, snapshot);
+        }
+
+        private static void write(ByteBuffer out, AccountProfile profile) {
+            out.putLong(profile.getTransactionCount());
+            out.putLong(profile.getLastTimestamp());
+            out.putShort((short) profile.getLastCountryId());
+            out.putDouble(profile.getMeanAmount());
+            out.putDouble(profile.getAmountVariance());
+            out.putDouble(profile.getMeanInterArrivalMillis());
+            for (int slot = 0; slot < AccountProfile.COUNTRY_SLOTS; slot++) {
+                out.putShort((short) profile.countryIdAt(slot));
+                out.putFloat(profile.countryWeightAt(slot));
+            }
+            for (int type = 0; type <= AccountProfile.OTHER_TYPE; type++) {
+                out.putFloat(profile.typeShareAt(type));
+            }
+        }
+    }
+
+    private static class ProfileDeserializer implements Deserializer<AccountProfile> {
+
+        @Override
+        public AccountProfile deserialize(String topic, byte[] data) {
+            if (data == null) {
+                return null;
+            }
+            if (data.length != SIZE || data[0] != VERSION_1) {
+                throw new SerializationException("Unknown account profile format");
+            }
+            ByteBuffer in = ByteBuffer.wrap(data, 1, data.length - 1);
+            AccountProfile profile = read(in);
+            long baselineAsOf = in.getLong();
+            AccountProfile baseline = readSnapshot(in, baselineAsOf);
+            long previousBaselineAsOf = in.getLong();
+            AccountProfile previousBaseline = readSnapshot(in, previousBaselineAsOf);
+            profile.restoreBaselines(baseline, baselineAsOf, previousBaseline, previousBaselineAsOf);
+            return profile;
+        }
+
+        private static AccountProfile readSnapshot(ByteBuffer in, long asOf) {
+            if (asOf == ABSENT) {
+                in.position(in.position() + PROFILE_SIZE);
+                return null;
+            }
+            return read(in);
+        }
+
+        private static AccountProfile read(ByteBuffer in) {
+            long transactionCount = in.getLong();
+            long lastTimestamp = in.getLong();
+            int lastCountryId = in.getShort();
+            double meanAmount = in.getDouble();
+            double amountVariance = in.getDouble();
+            double meanInterArrivalMillis = in.getDouble();
+            int[] countryIds = new int[AccountProfile.COUNTRY_SLOTS];
+            float[] countryWeights = new float[AccountProfile.COUNTRY_SLOTS];
+            for (int slot = 0; slot < AccountProfile.COUNTRY_SLOTS; slot++) {
+                countryIds[slot] = in.getShort();
+                countryWeights[slot] = in.getFloat();
+            }
+            float[] typeShares = new float[AccountProfile.OTHER_TYPE + 1];
+            for (int type = 0; type < typeShares.length; type++) {
+                typeShares[type] = in.getFloat();
+            }
+            return AccountProfile.restore(transactionCount, lastTimestamp, lastCountryId, meanAmount, amountVariance,
+                                          meanInterArrivalMillis, countryIds, countryWeights, typeShares);
+        }
+    }
+}
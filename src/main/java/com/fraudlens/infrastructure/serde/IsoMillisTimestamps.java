@@ -0,0 +1,81 @@
+package com.fraudlens.infrastructure.serde;
+
+/**
+ * Allocation-free parser for the {@code yyyy-MM-dd'T'HH:mm:ss.SSS'Z'} layout used by
+ * every {@code @JsonFormat} timestamp in the domain model.
+ */
+final class IsoMillisTimestamps {
+
+    static final int LENGTH = 24;
+
+    /** Returned when the text does not have exactly the expected layout */
+    static final long INVALID = Long.MIN_VALUE;
+
+    private IsoMillisTimestamps() {
+    }
+
+    static long parseEpochMilli(char[] chars, int offset, int length) {
+        return length == LENGTH ? parse(null, chars, offset) : INVALID;
+    }
+
+    static long parseEpochMilli(byte[] bytes, int offset, int length) {
+        return length == LENGTH ? parse(bytes, null, offset) : INVALID;
+    }
+
+    // Exactly one of bytes/chars is non-null
+    private static long parse(byte[] bytes, char[] chars, int offset) {
+        if (at(bytes, chars, offset + 4) != '-' || at(bytes, chars, offset + 7) != '-'
+                || at(bytes, chars, offset + 10) != 'T' || at(bytes, chars, offset + 13) != ':'
+                || at(bytes, chars, offset + 16) != ':' || at(bytes, chars, offset + 19) != '.'
+                || at(bytes, chars, offset + 23) != 'Z') {
+            return INVALID;
+        }
+        int year = digits(bytes, chars, offset, 4);
+        int month = digits(bytes, chars, offset + 5, 2);
+        int day = digits(bytes, chars, offset + 8, 2);
+        int hour = digits(bytes, chars, offset + 11, 2);
+        int minute = digits(bytes, chars, offset + 14, 2);
+        int second = digits(bytes, chars, offset + 17, 2);
+        int millis = digits(bytes, chars, offset + 20, 3);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59 || millis < 0) {
+            return INVALID;
+        }
+        long epochSecond = epochDay(year, month, day) * 86_400L + hour * 3_600L + minute * 60L + second;
+        return epochSecond * 1_000L + millis;
+    }
+
+    private static int at(byte[] bytes, char[] chars, int index) {
+        return bytes != null ? bytes[index] : chars[index];
+    }
+
+    private static int digits(byte[] bytes, char[] chars, int offset, int count) {
+        int value = 0;
+        for (int i = 0; i < count; i++) {
+            int digit = at(bytes, chars, offset + i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    // Days since 1970-01-01 for a proleptic Gregorian date (inverse of civil-from-days)
+    private static long epochDay(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = y / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097L + dayOfEra - 719_468L;
+    }
+}
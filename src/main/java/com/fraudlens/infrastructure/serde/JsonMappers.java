@@ -0,0 +1,44 @@
+package com.fraudlens.infrastructure.serde;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+
+/**
+ * Process-wide Jackson mappers shared by every serde and consumer.
+ *
+ * An ObjectMapper is thread-safe once configured and caches its (de)serializers,
+ * so building one per serde only multiplies warm-up and metadata memory.
+ */
+public final class JsonMappers {
+
+    public enum AccessorMode {
+        /** Plain reflection-based property access (Jackson default) */
+        REFLECTION,
+        /** Generated accessors via the Blackbird module (LambdaMetafactory) */
+        BLACKBIRD
+    }
+
+    private static final ObjectMapper SHARED = configure(new ObjectMapper());
+    private static final ObjectMapper BLACKBIRD = configure(new ObjectMapper()).registerModule(new BlackbirdModule());
+
+    private JsonMappers() {
+    }
+
+    public static ObjectMapper shared() {
+        return SHARED;
+    }
+
+    public static ObjectMapper forMode(AccessorMode mode) {
+        return mode == AccessorMode.BLACKBIRD ? BLACKBIRD : SHARED;
+    }
+
+    private static ObjectMapper configure(ObjectMapper mapper) {
+        mapper.registerModule(new JavaTimeModule());
+        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        mapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        return mapper;
+    }
+}
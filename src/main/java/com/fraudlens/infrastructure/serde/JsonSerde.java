@@ -1,7 +1,8 @@
 package com.fraudlens.infrastructure.serde;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.apache.kafka.common.errors.SerializationException;
 import org.apache.kafka.common.serialization.Deserializer;
 import org.apache.kafka.common.serialization.Serde;
@@ -10,30 +11,57 @@ import org.apache.kafka.common.serialization.Serializer;
 import java.io.IOException;
 import java.util.Map;
 
+/**
+ * JSON serde bound to a single type.
+ *
+ * Reader and writer are resolved once from the shared mapper, so each record
+ * skips the per-call type lookup of {@code readValue(data, type)}.
+ */
 @SuppressWarnings("unchecked")
 public class JsonSerde<T> implements Serde<T> {
-    
+
     private final Class<T> type;
-    private final ObjectMapper objectMapper;
-    
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
+    private final Serializer<T> serializer;
+    private final Deserializer<T> deserializer;
+
     public JsonSerde(Class<T> type) {
+        this(type, JsonMappers.shared());
+    }
+
+    public JsonSerde(Class<T> type, ObjectMapper objectMapper) {
         this.type = type;
-        this.objectMapper = new ObjectMapper();
-        this.objectMapper.registerModule(new JavaTimeModule());
+        this.reader = objectMapper.readerFor(type);
+        this.writer = objectMapper.writerFor(type);
+        this.serializer = new JsonSerializer();
+        this.deserializer = new JsonDeserializer();
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    ObjectReader reader() {
+        return reader;
+    }
+
+    ObjectWriter writer() {
+        return writer;
     }
 
     @Override
     public Serializer<T> serializer() {
-        return new JsonSerializer();
+        return serializer;
     }
 
     @Override
     public Deserializer<T> deserializer() {
-        return new JsonDeserializer();
+        return deserializer;
     }
 
     private class JsonSerializer implements Serializer<T> {
-        
+
         @Override
         public void configure(Map<String, ?> configs, boolean isKey) {
             // No configuration needed
@@ -44,9 +72,9 @@ public class JsonSerde<T> implements Serde<T> {
             if (data == null) {
                 return null;
             }
-            
+
             try {
-                return objectMapper.writeValueAsBytes(data);
+                return writer.writeValueAsBytes(data);
             } catch (IOException e) {
                 throw new SerializationException("Error serializing JSON message", e);
             }
@@ -59,7 +87,7 @@ public class JsonSerde<T> implements Serde<T> {
     }
 
     private class JsonDeserializer implements Deserializer<T> {
-        
+
         @Override
         public void configure(Map<String, ?> configs, boolean isKey) {
             // No configuration needed
@@ -70,9 +98,9 @@ public class JsonSerde<T> implements Serde<T> {
             if (data == null) {
                 return null;
             }
-            
+
             try {
-                return objectMapper.readValue(data, type);
+                return reader.readValue(data);
             } catch (IOException e) {
                 throw new SerializationException("Error deserializing JSON message", e);
             }
@@ -83,4 +111,4 @@ public class JsonSerde<T> implements Serde<T> {
             // No resources to close
         }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,502 @@
+package com.fraudlens.infrastructure.serde;
+
+import com.fraudlens.domain.model.Money;
+import com.fraudlens.domain.model.Transaction;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * {@link Transaction} backed by its raw JSON bytes.
+ *
+ * {@link #scan(byte[])} walks the record once and only remembers where each field
+ * value starts and ends (plus the timestamp as epoch millis); every getter decodes
+ * its field on first use. The streams hot path reads account, amount, country and
+ * timestamp, so merchant, description and the other strings are never built.
+ *
+ * Only well-formed records in the layout our producers write are scanned lazily:
+ * escaped strings, mistyped fields or other timestamp layouts make {@code scan}
+ * return null and the caller falls back to the databind reader.
+ */
+public final class LazyTransaction extends Transaction {
+
+    static final int TRANSACTION_ID = 0;
+    static final int ACCOUNT_ID = 1;
+    static final int AMOUNT = 2;
+    static final int COUNTRY = 3;
+    static final int CURRENCY = 4;
+    static final int TRANSACTION_TYPE = 5;
+    static final int TIMESTAMP = 6;
+    static final int MERCHANT_NAME = 7;
+    static final int DESCRIPTION = 8;
+
+    private static final byte[][] FIELD_NAMES = {
+        ascii("transactionId"), ascii("accountId"), ascii("amount"), ascii("country"), ascii("currency"),
+        ascii("transactionType"), ascii("timestamp"), ascii("merchantName"), ascii("description")
+    };
+
+    // Two-letter upper-case codes (countries) are shared instead of allocated per record
+    private static final String[] TWO_LETTER_CODES = new String[26 * 26];
+
+    static {
+        for (int i = 0; i < TWO_LETTER_CODES.length; i++) {
+            TWO_LETTER_CODES[i] = new String(new char[] { (char) ('A' + i / 26), (char) ('A' + i % 26) });
+        }
+    }
+
+    private static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    private final byte[] data;
+    // [start, end) of each field value; start < 0 when the field is absent or null
+    private final int[] spans;
+    private final long timestampMillis;
+
+    private int decoded;
+    private String transactionId;
+    private String accountId;
+    private BigDecimal amount;
+    private String country;
+    private String currency;
+    private String transactionType;
+    private Instant timestamp;
+    private String merchantName;
+    private String description;
+
+    private LazyTransaction(byte[] data, int[] spans, long timestampMillis) {
+        this.data = data;
+        this.spans = spans;
+        this.timestampMillis = timestampMillis;
+    }
+
+    /**
+     * Returns a lazy view over {@code data}, or null if the record needs the full
+     * databind path (malformed, escaped strings, unexpected value types).
+     */
+    public static LazyTransaction scan(byte[] data) {
+        int[] spans = new int[FIELD_NAMES.length * 2];
+        Arrays.fill(spans, -1);
+        long timestampMillis = NO_TIMESTAMP;
+
+        int length = data.length;
+        int i = skipWhitespace(data, 0);
+        if (i >= length || data[i] != '{') {
+            return null;
+        }
+        i = skipWhitespace(data, i + 1);
+        if (i < length && data[i] == '}') {
+            return trailingOnly(data, i + 1) ? new LazyTransaction(data, spans, timestampMillis) : null;
+        }
+
+        while (true) {
+            if (i >= length || data[i] != '"') {
+                return null;
+            }
+            int keyStart = i + 1;
+            int keyEnd = endOfString(data, keyStart);
+            if (keyEnd < 0) {
+                return null;
+            }
+            int field = fieldIndex(data, keyStart, keyEnd);
+
+            i = skipWhitespace(data, keyEnd + 1);
+            if (i >= length || data[i] != ':') {
+                return null;
+            }
+            i = skipWhitespace(data, i + 1);
+            if (i >= length) {
+                return null;
+            }
+
+            int valueStart;
+            int valueEnd;
+            byte first = data[i];
+            if (first == '"') {
+                valueStart = i + 1;
+                valueEnd = endOfString(data, valueStart);
+                if (valueEnd < 0 || (field >= 0 && hasEscape(data, valueStart, valueEnd))) {
+                    return null;
+                }
+                i = valueEnd + 1;
+                if (field == AMOUNT) {
+                    return null;
+                }
+                if (field == TIMESTAMP) {
+                    timestampMillis = IsoMillisTimestamps.parseEpochMilli(data, valueStart, valueEnd - valueStart);
+                    if (timestampMillis == IsoMillisTimestamps.INVALID) {
+                        return null;
+                    }
+                }
+            } else if (first == 'n') {
+                if (!literal(data, i, "null")) {
+                    return null;
+                }
+                i += 4;
+                valueStart = -1;
+                valueEnd = -1;
+                if (field == TIMESTAMP) {
+                    timestampMillis = NO_TIMESTAMP;
+                }
+            } else if (first == '-' || (first >= '0' && first <= '9')) {
+                valueStart = i;
+                valueEnd = endOfNumber(data, i);
+                if (valueEnd < 0 || (field >= 0 && field != AMOUNT)) {
+                    return null;
+                }
+                i = valueEnd;
+            } else if (first == '{' || first == '[' || first == 't' || first == 'f') {
+                if (field >= 0) {
+                    return null;
+                }
+                valueStart = -1;
+                valueEnd = -1;
+                i = skipValue(data, i);
+                if (i < 0) {
+                    return null;
+                }
+            } else {
+                return null;
+            }
+
+            if (field >= 0) {
+                spans[field * 2] = valueStart;
+                spans[field * 2 + 1] = valueEnd;
+            }
+
+            i = skipWhitespace(data, i);
+            if (i >= length) {
+                return null;
+            }
+            if (data[i] == ',') {
+                i = skipWhitespace(data, i + 1);
+            } else if (data[i] == '}') {
+                return trailingOnly(data, i + 1) ? new LazyTransaction(data, spans, timestampMillis) : null;
+            } else {
+                return null;
+            }
+        }
+    }
+
+    /** The record exactly as it was read, for pass-through serialization */
+    byte[] rawBytes() {
+        return data;
+    }
+
+    /** Event time without building an Instant; {@link Long#MIN_VALUE} if absent */
+    @Override
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    @Override
+    public boolean hasAccountId() {
+        return spans[ACCOUNT_ID * 2] >= 0;
+    }
+
+    @Override
+    public String getTransactionId() {
+        if ((decoded & (1 << TRANSACTION_ID)) == 0) {
+            transactionId = string(TRANSACTION_ID);
+            decoded |= 1 << TRANSACTION_ID;
+        }
+        return transactionId;
+    }
+
+    @Override
+    public String getAccountId() {
+        if ((decoded & (1 << ACCOUNT_ID)) == 0) {
+            accountId = string(ACCOUNT_ID);
+            decoded |= 1 << ACCOUNT_ID;
+        }
+        return accountId;
+    }
+
+    @Override
+    public BigDecimal getAmount() {
+        if ((decoded & (1 << AMOUNT)) == 0) {
+            amount = decimal(spans[AMOUNT * 2], spans[AMOUNT * 2 + 1]);
+            decoded |= 1 << AMOUNT;
+        }
+        return amount;
+    }
+
+    /** Parsed straight from the text, without going through BigDecimal */
+    @Override
+    public Money getMoney() {
+        if ((decoded & (1 << AMOUNT)) != 0 || spans[AMOUNT * 2] < 0) {
+            return super.getMoney();
+        }
+        Money money = money(spans[AMOUNT * 2], spans[AMOUNT * 2 + 1]);
+        return money != null ? money : super.getMoney();
+    }
+
+    @Override
+    public String getCountry() {
+        if ((decoded & (1 << COUNTRY)) == 0) {
+            country = string(COUNTRY);
+            decoded |= 1 << COUNTRY;
+        }
+        return country;
+    }
+
+    @Override
+    public String getCurrency() {
+        if ((decoded & (1 << CURRENCY)) == 0) {
+            currency = string(CURRENCY);
+            decoded |= 1 << CURRENCY;
+        }
+        return currency;
+    }
+
+    @Override
+    public String getTransactionType() {
+        if ((decoded & (1 << TRANSACTION_TYPE)) == 0) {
+            transactionType = string(TRANSACTION_TYPE);
+            decoded |= 1 << TRANSACTION_TYPE;
+        }
+        return transactionType;
+    }
+
+    @Override
+    public Instant getTimestamp() {
+        if ((decoded & (1 << TIMESTAMP)) == 0) {
+            timestamp = timestampMillis != NO_TIMESTAMP ? Instant.ofEpochMilli(timestampMillis) : null;
+            decoded |= 1 << TIMESTAMP;
+        }
+        return timestamp;
+    }
+
+    @Override
+    public String getMerchantName() {
+        if ((decoded & (1 << MERCHANT_NAME)) == 0) {
+            merchantName = string(MERCHANT_NAME);
+            decoded |= 1 << MERCHANT_NAME;
+        }
+        return merchantName;
+    }
+
+    @Override
+    public String getDescription() {
+        if ((decoded & (1 << DESCRIPTION)) == 0) {
+            description = string(DESCRIPTION);
+            decoded |= 1 << DESCRIPTION;
+        }
+        return description;
+    }
+
+    private String string(int field) {
+        int start = spans[field * 2];
+        if (start < 0) {
+            return null;
+        }
+        int end = spans[field * 2 + 1];
+        if (end - start == 2) {
+            int a = data[start] - 'A';
+            int b = data[start + 1] - 'A';
+            if (a >= 0 && a < 26 && b >= 0 && b < 26) {
+                return TWO_LETTER_CODES[a * 26 + b];
+            }
+        }
+        return new String(data, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    // Same value as Jackson's getDecimalValue(): unscaled digits and scale taken from the text
+    private BigDecimal decimal(int start, int end) {
+        if (start < 0) {
+            return null;
+        }
+        Money money = money(start, end);
+        return money != null
+                ? money.toBigDecimal()
+                : new BigDecimal(new String(data, start, end - start, StandardCharsets.US_ASCII));
+    }
+
+    // Null for exponents or more than 18 digits, which go through BigDecimal
+    private Money money(int start, int end) {
+        boolean negative = data[start] == '-';
+        int i = negative ? start + 1 : start;
+        long unscaled = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean fraction = false;
+        for (; i < end; i++) {
+            byte c = data[i];
+            if (c == '.') {
+                fraction = true;
+            } else if (c >= '0' && c <= '9' && digits < 18) {
+                unscaled = unscaled * 10 + (c - '0');
+                digits++;
+                if (fraction) {
+                    scale++;
+                }
+            } else {
+                return null;
+            }
+        }
+        return Money.ofUnits(negative ? -unscaled : unscaled, scale);
+    }
+
+    private static boolean hasEscape(byte[] data, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (data[i] == '\\') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Dispatch on length and first letter, then confirm; at most one array compare per key
+    private static int fieldIndex(byte[] data, int start, int end) {
+        int field;
+        switch (end - start) {
+            case 6: field = AMOUNT; break;
+            case 7: field = COUNTRY; break;
+            case 8: field = CURRENCY; break;
+            case 9: field = data[start] == 'a' ? ACCOUNT_ID : TIMESTAMP; break;
+            case 11: field = DESCRIPTION; break;
+            case 12: field = MERCHANT_NAME; break;
+            case 13: field = TRANSACTION_ID; break;
+            case 15: field = TRANSACTION_TYPE; break;
+            default: return -1;
+        }
+        byte[] name = FIELD_NAMES[field];
+        return Arrays.equals(data, start, end, name, 0, name.length) ? field : -1;
+    }
+
+    private static int skipWhitespace(byte[] data, int i) {
+        while (i < data.length && (data[i] == ' ' || data[i] == '\n' || data[i] == '\r' || data[i] == '\t')) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean trailingOnly(byte[] data, int i) {
+        return skipWhitespace(data, i) == data.length;
+    }
+
+    // Index of the closing quote of a string starting at start, or -1
+    private static int endOfString(byte[] data, int start) {
+        for (int i = start; i < data.length; i++) {
+            byte c = data[i];
+            if (c == '"') {
+                return i;
+            }
+            if (c == '\\') {
+                i++;
+            } else if (c >= 0 && c < 0x20) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    // Index after a JSON number starting at i, or -1 if it does not follow the grammar
+    private static int endOfNumber(byte[] data, int i) {
+        if (data[i] == '-') {
+            i++;
+        }
+        if (!isDigit(data, i)) {
+            return -1;
+        }
+        if (data[i] == '0') {
+            i++;
+        } else {
+            while (isDigit(data, i)) i++;
+        }
+        if (i < data.length && data[i] == '.') {
+            if (!isDigit(data, ++i)) {
+                return -1;
+            }
+            while (isDigit(data, i)) i++;
+        }
+        if (i < data.length && (data[i] == 'e' || data[i] == 'E')) {
+            i++;
+            if (i < data.length && (data[i] == '+' || data[i] == '-')) {
+                i++;
+            }
+            if (!isDigit(data, i)) {
+                return -1;
+            }
+            while (isDigit(data, i)) i++;
+        }
+        return i;
+    }
+
+    private static boolean isDigit(byte[] data, int i) {
+        return i < data.length && data[i] >= '0' && data[i] <= '9';
+    }
+
+    private static boolean literal(byte[] data, int i, String literal) {
+        if (i + literal.length() > data.length) {
+            return false;
+        }
+        for (int k = 0; k < literal.length(); k++) {
+            if (data[i + k] != literal.charAt(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Skips an object, array or true/false literal; returns the index after it or -1
+    private static int skipValue(byte[] data, int i) {
+        byte first = data[i];
+        if (first == 't') {
+            return literal(data, i, "true") ? i + 4 : -1;
+        }
+        if (first == 'f') {
+            return literal(data, i, "false") ? i + 5 : -1;
+        }
+        int depth = 0;
+        for (; i < data.length; i++) {
+            byte c = data[i];
+            if (c == '"') {
+                i = endOfString(data, i + 1);
+                if (i < 0) {
+                    return -1;
+                }
+            } else if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                if (--depth == 0) {
+                    return i + 1;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        LazyTransaction that = (LazyTransaction) o;
+        return Objects.equals(getTransactionId(), that.getTransactionId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getTransactionId());
+    }
+
+    @Override
+    public String toString() {
+        return "Transaction{" +
+                "transactionId='" + getTransactionId() + '\'' +
+                ", accountId='" + getAccountId() + '\'' +
+                ", amount=" + getAmount() +
+                ", country='" + getCountry() + '\'' +
+                ", currency='" + getCurrency() + '\'' +
+                ", transactionType='" + getTransactionType() + '\'' +
+                ", timestamp=" + getTimestamp() +
+                ", merchantName='" + getMerchantName() + '\'' +
+                ", description='" + getDescription() + '\'' +
+                '}';
+    }
+}
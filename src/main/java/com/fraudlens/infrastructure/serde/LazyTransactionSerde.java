@@ -0,0 +1,50 @@
+package com.fraudlens.infrastructure.serde;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fraudlens.domain.model.Transaction;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Transaction serde for the streams hot path.
+ *
+ * Deserializes into a {@link LazyTransaction} over the raw bytes and serializes
+ * lazy instances back as those same bytes. Records the scanner does not accept
+ * go through the {@link TransactionJsonSerde} decoder instead.
+ */
+public class LazyTransactionSerde extends JsonSerde<Transaction> {
+
+    private final Serializer<Transaction> serializer;
+    private final Deserializer<Transaction> deserializer;
+
+    public LazyTransactionSerde() {
+        this(JsonMappers.shared());
+    }
+
+    public LazyTransactionSerde(ObjectMapper objectMapper) {
+        super(Transaction.class, objectMapper);
+        Serializer<Transaction> jsonSerializer = super.serializer();
+        Deserializer<Transaction> eagerDeserializer = new TransactionJsonSerde(objectMapper).deserializer();
+
+        this.serializer = (topic, transaction) -> transaction instanceof LazyTransaction lazy
+                ? lazy.rawBytes()
+                : jsonSerializer.serialize(topic, transaction);
+        this.deserializer = (topic, data) -> {
+            if (data == null) {
+                return null;
+            }
+            LazyTransaction lazy = LazyTransaction.scan(data);
+            return lazy != null ? lazy : eagerDeserializer.deserialize(topic, data);
+        };
+    }
+
+    @Override
+    public Serializer<Transaction> serializer() {
+        return serializer;
+    }
+
+    @Override
+    public Deserializer<Transaction> deserializer() {
+        return deserializer;
+    }
+}
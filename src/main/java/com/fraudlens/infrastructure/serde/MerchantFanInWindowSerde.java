@@ -0,0 +1,106 @@
+package com.fraudlens.infrastructure.serde;
+
+import com.fraudlens.domain.model.BloomFilter;
+import com.fraudlens.domain.model.CountMinSketch;
+import com.fraudlens.domain.model.HeavyHitters;
+import com.fraudlens.domain.model.MerchantFanInWindow;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Binary serde for the merchant-fan-in-store windows.
+ *
+ * Layout (version 1): version byte, window start, the pair Bloom filter (bits, hashes,
+ * words), the count-min sketch (depth, width, total, counters), then the heavy-hitter
+ * capacity and entries as merchant name, estimate and reported flag.
+ */
+public class MerchantFanInWindowSerde implements Serde<MerchantFanInWindow> {
+
+    static final byte VERSION_1 = 1;
+
+    private final Serializer<MerchantFanInWindow> serializer = new WindowSerializer();
+    private final Deserializer<MerchantFanInWindow> deserializer = new WindowDeserializer();
+
+    @Override
+    public Serializer<MerchantFanInWindow> serializer() {
+        return serializer;
+    }
+
+    @Override
+    public Deserializer<MerchantFanInWindow> deserializer() {
+        return deserializer;
+    }
+
+    private static class WindowSerializer implements Serializer<MerchantFanInWindow> {
+
+        @Override
+        public byte[] serialize(String topic, MerchantFanInWindow window) {
+            if (window == null) {
+                return null;
+            }
+            List<HeavyHitters.Entry> top = window.getHeaviest().top();
+            byte[][] names = new byte[top.size()][];
+            int size = 1 + 8
+                    + BloomFilter.sizeBytes(window.getSeenPairs().getBits())
+                    + CountMinSketch.sizeBytes(window.getAccountsPerMerchant().getDepth(),
+                                               window.getAccountsPerMerchant().getWidth())
+                    + 8;
+            for (int i = 0; i < names.length; i++) {
+                names[i] = top.get(i).getKey().getBytes(StandardCharsets.UTF_8);
+                size += 2 + names[i].length + 8 + 1;
+            }
+
+            ByteBuffer out = ByteBuffer.allocate(size);
+            out.put(VERSION_1);
+            out.putLong(window.getWindowStart());
+            window.getSeenPairs().writeTo(out);
+            window.getAccountsPerMerchant().writeTo(out);
+            out.putInt(window.getHeaviest().getCapacity());
+            out.putInt(names.length);
+            for (int i = 0; i < names.length; i++) {
+                out.putShort((short) names[i].length);
+                out.put(names[i]);
+                out.putLong(top.get(i).getEstimate());
+                out.put((byte) (top.get(i).isReported() ? 1 : 0));
+            }
+            return out.array();
+        }
+    }
+
+    private static class WindowDeserializer implements Deserializer<MerchantFanInWindow> {
+
+        @Override
+        public MerchantFanInWindow deserialize(String topic, byte[] data) {
+            if (data == null) {
+                return null;
+            }
+            if (data.length == 0 || data[0] != VERSION_1) {
+                throw new SerializationException("Unknown merchant fan-in window format");
+            }
+            try {
+                ByteBuffer in = ByteBuffer.wrap(data, 1, data.length - 1);
+                long windowStart = in.getLong();
+                BloomFilter seenPairs = BloomFilter.readFrom(in);
+                CountMinSketch accountsPerMerchant = CountMinSketch.readFrom(in);
+                HeavyHitters heaviest = new HeavyHitters(in.getInt());
+                int entries = in.getInt();
+                for (int i = 0; i < entries; i++) {
+                    int length = in.getShort();
+                    String name = new String(data, in.position(), length, StandardCharsets.UTF_8);
+                    in.position(in.position() + length);
+                    heaviest.restore(name, in.getLong(), in.get() != 0);
+                }
+                return new MerchantFanInWindow(windowStart, seenPairs, accountsPerMerchant, heaviest);
+            } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+                throw new SerializationException("Truncated merchant fan-in window", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.fraudlens.infrastructure.serde;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fraudlens.domain.model.Transaction;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * {@link JsonSerde} for {@link Transaction} with a streaming-parser fast path.
+ *
+ * The fast path walks the token stream once and builds the transaction through its
+ * validating constructor, parsing the fixed {@code yyyy-MM-dd'T'HH:mm:ss.SSS'Z'}
+ * timestamp by hand. Anything it does not recognise (missing or mistyped fields,
+ * other timestamp layouts, values the constructor rejects) falls back to the
+ * regular databind reader, so results are identical to {@link JsonSerde}.
+ */
+public class TransactionJsonSerde extends JsonSerde<Transaction> {
+
+    private final JsonFactory jsonFactory;
+    private final Deserializer<Transaction> deserializer;
+
+    public TransactionJsonSerde() {
+        this(JsonMappers.shared());
+    }
+
+    public TransactionJsonSerde(ObjectMapper objectMapper) {
+        super(Transaction.class, objectMapper);
+        this.jsonFactory = objectMapper.getFactory();
+        this.deserializer = new StreamingDeserializer();
+    }
+
+    @Override
+    public Deserializer<Transaction> deserializer() {
+        return deserializer;
+    }
+
+    private class StreamingDeserializer implements Deserializer<Transaction> {
+
+        @Override
+        public Transaction deserialize(String topic, byte[] data) {
+            if (data == null) {
+                return null;
+            }
+
+            try {
+                Transaction transaction;
+                try {
+                    transaction = readFast(data);
+                } catch (FallbackException e) {
+                    transaction = null;
+                }
+                return transaction != null ? transaction : reader().readValue(data);
+            } catch (IOException e) {
+                throw new SerializationException("Error deserializing JSON message", e);
+            }
+        }
+    }
+
+    private Transaction readFast(byte[] data) throws IOException {
+        String transactionId = null;
+        String accountId = null;
+        BigDecimal amount = null;
+        String country = null;
+        String currency = null;
+        String transactionType = null;
+        Instant timestamp = null;
+        String merchantName = null;
+        String description = null;
+
+        try (JsonParser parser = jsonFactory.createParser(data)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken token = parser.nextToken();
+                switch (field) {
+                    case "transactionId" -> transactionId = text(parser, token);
+                    case "accountId" -> accountId = text(parser, token);
+                    case "country" -> country = text(parser, token);
+                    case "currency" -> currency = text(parser, token);
+                    case "transactionType" -> transactionType = text(parser, token);
+                    case "merchantName" -> merchantName = text(parser, token);
+                    case "description" -> description = text(parser, token);
+                    case "amount" -> {
+                        if (token != JsonToken.VALUE_NUMBER_INT && token != JsonToken.VALUE_NUMBER_FLOAT) {
+                            return null;
+                        }
+                        amount = parser.getDecimalValue();
+                    }
+                    case "timestamp" -> {
+                        if (token != JsonToken.VALUE_STRING) {
+                            return null;
+                        }
+                        timestamp = parseTimestamp(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+                        if (timestamp == null) {
+                            return null;
+                        }
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+            if (parser.currentToken() != JsonToken.END_OBJECT) {
+                return null;
+            }
+        }
+
+        if (transactionId == null || accountId == null || amount == null || country == null
+                || currency == null || transactionType == null || timestamp == null
+                || amount.signum() <= 0) {
+            return null;
+        }
+        return new Transaction(transactionId, accountId, amount, country, currency,
+                               transactionType, timestamp, merchantName, description);
+    }
+
+    private static String text(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_STRING) {
+            return parser.getText();
+        }
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        // Let databind apply its coercion rules to anything else
+        throw new FallbackException();
+    }
+
+    /**
+     * Parses {@code yyyy-MM-ddTHH:mm:ss.SSSZ} into an Instant, or returns null if the
+     * text does not have exactly that layout.
+     */
+    static Instant parseTimestamp(char[] chars, int offset, int length) {
+        long epochMilli = IsoMillisTimestamps.parseEpochMilli(chars, offset, length);
+        return epochMilli != IsoMillisTimestamps.INVALID ? Instant.ofEpochMilli(epochMilli) : null;
+    }
+
+    private static final class FallbackException extends RuntimeException {
+        FallbackException() {
+            super(null, null, false, false);
+        }
+    }
+}
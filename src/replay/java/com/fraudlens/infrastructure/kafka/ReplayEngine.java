@@ -0,0 +1,359 @@
+package com.fraudlens.infrastructure.kafka;
+
+import com.fraudlens.domain.model.Transaction;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TestOutputTopic;
+import org.apache.kafka.streams.Topology;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.KafkaStreamsConfiguration;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Offline replay: runs a local transaction file through the detection topology of
+ * {@link FraudDetectionProcessor#buildPipeline}, with no broker, and writes the alerts to a
+ * local file. Used to re-score history after a rule change without touching the live topics.
+ *
+ * The file is NDJSON or length-prefixed ({@link BulkIngestService.Format}), read through a
+ * memory mapping ({@link MappedTransactionFile}) and decoded with the streams' transaction
+ * serde (a scan for the IDs when lazy). The work is split as the live application splits it
+ * into tasks: each record goes to one account partition, chosen by the producers' partitioner
+ * on its account, and to one merchant partition, as the merchant fan-in repartition would
+ * route it. Each partition is a {@link TopologyTestDriver} over the in-memory offline topology,
+ * on a thread of its own and fed in batches, so the replay scales with the cores available.
+ *
+ * Records are piped at their own event time, and each driver's wall clock follows event time
+ * too, in {@link #WALL_CLOCK_STEP_MS} steps, so wall-clock punctuations fire as they would have
+ * when the data was live. Fraud and merchant alerts go to the output file, one JSON object per
+ * line, in the order each partition emitted them.
+ *
+ * The driver is Kafka's test driver, so this class lives apart from the application sources
+ * and is only compiled in with the {@code replay} Maven profile. The driver commits, and so
+ * checkpoints, after every record; {@link BatchScoringEngine} scores the account-keyed rules
+ * without that per-record cost and without the profile.
+ */
+@Service
+public class ReplayEngine implements TopologyReplay {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplayEngine.class);
+    static final long WALL_CLOCK_STEP_MS = 1_000L;
+    private static final int BATCH_SIZE = 1_024;
+    private static final int QUEUED_BATCHES = 16;
+    private static final int DRAIN_EVERY = 10_000;
+    private static final long PROGRESS_EVERY = 1_000_000L;
+
+    @Autowired
+    private FraudDetectionProcessor fraudDetectionProcessor;
+
+    @Autowired
+    private Serde<Transaction> transactionSerde;
+
+    @Autowired
+    private KafkaStreamsConfiguration streamsConfiguration;
+
+    @Value("${fraudlens.replay.partitions:0}")
+    private int partitions = 0;
+
+    @Override
+    public ReplayReport replay(Path inputFile, BulkIngestService.Format inputFormat, Path outputFile) throws IOException {
+        long startNanos = System.nanoTime();
+        int partitionCount = partitions > 0 ? partitions : Runtime.getRuntime().availableProcessors();
+        logger.info("⏪ Replaying {} ({}) into {} on {} partitions", inputFile, inputFormat, outputFile, partitionCount);
+
+        Path stateDir = Files.createTempDirectory("fraudlens-replay-");
+        List<Partition> accountPartitions = new ArrayList<>();
+        List<Partition> merchantPartitions = new ArrayList<>();
+        Deserializer<Transaction> deserializer = transactionSerde.deserializer();
+        long events = 0;
+        long rejected = 0;
+        long firstEventMs = Long.MIN_VALUE;
+        long lastEventMs = Long.MIN_VALUE;
+        try (MappedTransactionFile file = new MappedTransactionFile(inputFile, inputFormat);
+             OutputStream out = new BufferedOutputStream(Files.newOutputStream(outputFile), 1 << 16)) {
+            for (int i = 0; i < partitionCount; i++) {
+                StreamsBuilder accounts = new StreamsBuilder();
+                fraudDetectionProcessor.buildOfflineAccountPipeline(accounts);
+                accountPartitions.add(new Partition("accounts-" + i, accounts.build(), stateDir, out));
+                StreamsBuilder merchants = new StreamsBuilder();
+                fraudDetectionProcessor.buildOfflineMerchantPipeline(merchants);
+                merchantPartitions.add(new Partition("merchants-" + i, merchants.build(), stateDir, out));
+            }
+            List<Partition> all = new ArrayList<>(accountPartitions);
+            all.addAll(merchantPartitions);
+            all.forEach(Partition::start);
+
+            try {
+                byte[] record;
+                while ((record = file.next()) != null) {
+                    Transaction transaction;
+                    try {
+                        transaction = deserializer.deserialize(FraudDetectionProcessor.TRANSACTIONS_TOPIC, record);
+                    } catch (RuntimeException e) {
+                        transaction = null;
+                    }
+                    // A record without a timestamp takes the previous record's
+                    long eventMs = transaction != null ? transaction.getTimestampMillis() : Long.MIN_VALUE;
+                    if (eventMs == Long.MIN_VALUE) {
+                        eventMs = lastEventMs;
+                    }
+                    // Without an account there is no partition, and the topology would drop it anyway
+                    if (transaction == null || eventMs == Long.MIN_VALUE || !transaction.hasAccountId()) {
+                        rejected++;
+                        continue;
+                    }
+
+                    String accountId = transaction.getAccountId();
+                    accountPartitions.get(ZipfAccounts.partitionOf(accountId, partitionCount)).add(accountId, record, eventMs);
+                    String merchant = transaction.getMerchantName();
+                    if (merchant != null && !merchant.isBlank()) {
+                        merchantPartitions.get(ZipfAccounts.partitionOf(merchant, partitionCount)).add(accountId, record, eventMs);
+                    }
+                    if (events == 0) {
+                        firstEventMs = eventMs;
+                    }
+                    lastEventMs = eventMs;
+                    events++;
+
+                    if (events % PROGRESS_EVERY == 0) {
+                        double seconds = (System.nanoTime() - startNanos) / 1e9;
+                        logger.info("⏩ Replayed {} events up to {} ({}% of the file), {}/s",
+                                   events, Instant.ofEpochMilli(eventMs), 100 * file.position() / Math.max(1, file.size()),
+                                   Math.round(events / seconds));
+                    }
+                }
+                for (Partition partition : all) {
+                    partition.finish();
+                }
+            } finally {
+                // Partitions still running after a failure give up instead of waiting for more input
+                all.forEach(Partition::stop);
+            }
+            for (Partition partition : all) {
+                partition.awaitCompletion();
+            }
+        } finally {
+            deleteRecursively(stateDir);
+        }
+
+        long fraudAlerts = 0;
+        long merchantAlerts = 0;
+        for (Partition partition : accountPartitions) {
+            fraudAlerts += partition.fraudAlerts;
+        }
+        for (Partition partition : merchantPartitions) {
+            merchantAlerts += partition.merchantAlerts;
+        }
+        ReplayReport report = new ReplayReport(events, rejected, fraudAlerts, merchantAlerts, partitionCount, Map.of(),
+                                               firstEventMs, lastEventMs, (System.nanoTime() - startNanos) / 1e9);
+        logger.info("✅ Replay done: {}", report);
+        return report;
+    }
+
+    // Records handed to a partition together, to keep queue hand-offs off the per-record path
+    private static final class Batch {
+        static final Batch END = new Batch();
+
+        final String[] keys = new String[BATCH_SIZE];
+        final byte[][] values = new byte[BATCH_SIZE][];
+        final long[] timestamps = new long[BATCH_SIZE];
+        int size;
+    }
+
+    // One copy of the topology on its own thread, like a stream task of the live application
+    private final class Partition implements Runnable {
+        private final String name;
+        private final Topology topology;
+        private final Properties props;
+        private final OutputStream out;
+        private final BlockingQueue<Batch> queue = new ArrayBlockingQueue<>(QUEUED_BATCHES);
+        private final Thread thread;
+        private Batch pending = new Batch();
+        private volatile Throwable failure;
+        private volatile boolean stopped;
+        private long fraudAlerts;
+        private long merchantAlerts;
+
+        Partition(String name, Topology topology, Path stateDir, OutputStream out) {
+            this.name = name;
+            this.topology = topology;
+            this.props = streamsConfiguration.asProperties();
+            props.put(StreamsConfig.APPLICATION_ID_CONFIG, props.getProperty(StreamsConfig.APPLICATION_ID_CONFIG) + "-replay");
+            props.put(StreamsConfig.STATE_DIR_CONFIG, stateDir.resolve(name).toString());
+            // The driver commits after every record, so the record cache would only add a flush per record
+            props.put(StreamsConfig.STATESTORE_CACHE_MAX_BYTES_CONFIG, 0);
+            this.out = out;
+            this.thread = new Thread(this, "fraudlens-replay-" + name);
+        }
+
+        void start() {
+            thread.start();
+        }
+
+        void add(String key, byte[] value, long timestamp) throws IOException {
+            pending.keys[pending.size] = key;
+            pending.values[pending.size] = value;
+            pending.timestamps[pending.size] = timestamp;
+            if (++pending.size == BATCH_SIZE) {
+                hand(pending);
+                pending = new Batch();
+            }
+        }
+
+        void finish() throws IOException {
+            if (pending.size > 0) {
+                hand(pending);
+            }
+            hand(Batch.END);
+        }
+
+        void stop() {
+            stopped = true;
+        }
+
+        void awaitCompletion() throws IOException {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while replaying", e);
+            }
+            checkFailure();
+        }
+
+        // Waits for room in the queue, unless the partition has failed meanwhile
+        private void hand(Batch batch) throws IOException {
+            try {
+                while (!queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+                    checkFailure();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while replaying", e);
+            }
+            checkFailure();
+        }
+
+        private void checkFailure() throws IOException {
+            if (failure != null) {
+                throw new IOException("Replay partition " + name + " failed", failure);
+            }
+        }
+
+        @Override
+        public void run() {
+            TopologyTestDriver driver = null;
+            try {
+                TestInputTopic<String, byte[]> transactions = null;
+                long wallClockMs = Long.MIN_VALUE;
+                long piped = 0;
+                while (true) {
+                    Batch batch = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (batch == null) {
+                        if (stopped) {
+                            return;
+                        }
+                        continue;
+                    }
+                    if (batch == Batch.END) {
+                        break;
+                    }
+                    for (int i = 0; i < batch.size; i++) {
+                        long timestamp = batch.timestamps[i];
+                        if (driver == null) {
+                            driver = new TopologyTestDriver(topology, props, Instant.ofEpochMilli(timestamp));
+                            // The raw bytes, decoded by the topology's own serde, so no Transaction crosses threads
+                            transactions = driver.createInputTopic(FraudDetectionProcessor.TRANSACTIONS_TOPIC,
+                                    new StringSerializer(), new ByteArraySerializer());
+                            wallClockMs = timestamp;
+                        } else if (timestamp - wallClockMs >= WALL_CLOCK_STEP_MS) {
+                            driver.advanceWallClockTime(Duration.ofMillis(timestamp - wallClockMs));
+                            wallClockMs = timestamp;
+                        }
+                        transactions.pipeInput(batch.keys[i], batch.values[i], timestamp);
+                        if (++piped % DRAIN_EVERY == 0) {
+                            drain(driver);
+                        }
+                    }
+                }
+                if (driver != null) {
+                    drain(driver);
+                }
+            } catch (Throwable e) {
+                failure = e;
+            } finally {
+                if (driver != null) {
+                    driver.close();
+                }
+            }
+        }
+
+        // Moves the alerts emitted so far from the driver's output topics to the file
+        private void drain(TopologyTestDriver driver) throws IOException {
+            // Only topics written to so far; the driver warns about reads from others
+            Set<String> produced = driver.producedTopicNames();
+            if (produced.contains(FraudDetectionProcessor.FRAUD_ALERTS_TOPIC)) {
+                fraudAlerts += write(driver, FraudDetectionProcessor.FRAUD_ALERTS_TOPIC);
+            }
+            if (produced.contains(FraudDetectionProcessor.MERCHANT_ALERTS_TOPIC)) {
+                merchantAlerts += write(driver, FraudDetectionProcessor.MERCHANT_ALERTS_TOPIC);
+            }
+        }
+
+        private int write(TopologyTestDriver driver, String topic) throws IOException {
+            TestOutputTopic<String, byte[]> alerts = driver.createOutputTopic(topic,
+                    new StringDeserializer(), new ByteArrayDeserializer());
+            List<byte[]> values = alerts.readValuesToList();
+            synchronized (out) {
+                for (byte[] value : values) {
+                    out.write(value);
+                    out.write('\n');
+                }
+            }
+            return values.size();
+        }
+    }
+
+    private static void deleteRecursively(Path dir) {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException | UncheckedIOException e) {
+            logger.warn("Could not delete replay state in {}: {}", dir, e.getMessage());
+        }
+    }
+}
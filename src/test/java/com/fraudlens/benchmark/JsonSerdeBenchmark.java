@@ -0,0 +1,111 @@
+package com.fraudlens.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fraudlens.domain.model.Transaction;
+import com.fraudlens.infrastructure.serde.JsonMappers;
+import com.fraudlens.infrastructure.serde.JsonSerde;
+import com.fraudlens.infrastructure.serde.LazyTransactionSerde;
+import com.fraudlens.infrastructure.serde.TransactionJsonSerde;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records/sec per core for Transaction JSON decode and encode.
+ *
+ * "legacy" reproduces the previous JsonSerde (private ObjectMapper, reflective
+ * readValue(data, type) / writeValueAsBytes); the others are the current paths.
+ * Single-threaded, so ops/s is records/sec for one core.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(1)
+@State(Scope.Thread)
+public class JsonSerdeBenchmark {
+
+    private static final String TOPIC = "transactions";
+
+    private byte[] payload;
+    private Transaction transaction;
+
+    private ObjectMapper legacyMapper;
+    private Deserializer<Transaction> sharedReader;
+    private Deserializer<Transaction> blackbirdReader;
+    private Deserializer<Transaction> streaming;
+    private Deserializer<Transaction> lazy;
+    private Serializer<Transaction> sharedWriter;
+
+    @Setup
+    public void setup() throws IOException {
+        transaction = new Transaction("TXN-3F2A9C1B", "ACC-004", new BigDecimal("274.18"), "FR", "EUR", "PURCHASE",
+                Instant.parse("2024-03-01T10:15:30.123Z"), "El Corte Inglés", "Normal transaction");
+
+        legacyMapper = new ObjectMapper();
+        legacyMapper.registerModule(new JavaTimeModule());
+        payload = legacyMapper.writeValueAsBytes(transaction);
+
+        sharedReader = new JsonSerde<>(Transaction.class).deserializer();
+        blackbirdReader = new JsonSerde<>(Transaction.class, JsonMappers.forMode(JsonMappers.AccessorMode.BLACKBIRD)).deserializer();
+        streaming = new TransactionJsonSerde().deserializer();
+        lazy = new LazyTransactionSerde().deserializer();
+        sharedWriter = new JsonSerde<>(Transaction.class).serializer();
+    }
+
+    @Benchmark
+    public Transaction decodeLegacy() throws IOException {
+        return legacyMapper.readValue(payload, Transaction.class);
+    }
+
+    @Benchmark
+    public Transaction decodeSharedReader() {
+        return sharedReader.deserialize(TOPIC, payload);
+    }
+
+    @Benchmark
+    public Transaction decodeBlackbird() {
+        return blackbirdReader.deserialize(TOPIC, payload);
+    }
+
+    @Benchmark
+    public Transaction decodeStreaming() {
+        return streaming.deserialize(TOPIC, payload);
+    }
+
+    // What the topology reads per record: account, amount, country and timestamp
+    @Benchmark
+    public void decodeStreamingHotFields(Blackhole blackhole) {
+        readHotFields(streaming.deserialize(TOPIC, payload), blackhole);
+    }
+
+    @Benchmark
+    public void decodeLazyHotFields(Blackhole blackhole) {
+        readHotFields(lazy.deserialize(TOPIC, payload), blackhole);
+    }
+
+    private static void readHotFields(Transaction transaction, Blackhole blackhole) {
+        blackhole.consume(transaction.getAccountId());
+        blackhole.consume(transaction.getAmount());
+        blackhole.consume(transaction.getCountry());
+        blackhole.consume(transaction.getTimestamp());
+    }
+
+    @Benchmark
+    public byte[] encodeLegacy() throws IOException {
+        return legacyMapper.writeValueAsBytes(transaction);
+    }
+
+    @Benchmark
+    public byte[] encodeSharedWriter() {
+        return sharedWriter.serialize(TOPIC, transaction);
+    }
+}
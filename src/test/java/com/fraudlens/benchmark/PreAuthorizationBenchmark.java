@@ -0,0 +1,136 @@
+package com.fraudlens.benchmark;
+
+import com.fraudlens.domain.model.AccountActivityAggregate;
+import com.fraudlens.domain.model.AccountActivityWindow;
+import com.fraudlens.domain.model.Money;
+import com.fraudlens.domain.model.PreAuthorizationResult;
+import com.fraudlens.domain.model.Transaction;
+import com.fraudlens.domain.service.FraudDetectionService;
+import com.fraudlens.infrastructure.kafka.AccountActivityQueryService;
+import com.fraudlens.infrastructure.serde.AccountActivityAggregateSerde;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.Topology;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorSupplier;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.Stores;
+import org.apache.kafka.streams.state.WindowStore;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency distribution of pre-authorisation scoring, target p99 under 1 ms.
+ *
+ * SampleTime reports percentiles per call. "fromLocalStore" is what the endpoint does for an
+ * account this instance owns: the current-window lookup in a cached RocksDB window store of
+ * {@value #ACCOUNTS} accounts, the decode and the scoring. "fromStoredBytes" isolates the decode;
+ * "legacyWindow" is the existing shouldTriggerAlert path that copies the window to add the
+ * transaction. Accounts owned by another instance add an HTTP round trip and are not covered.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(1)
+@State(Scope.Thread)
+public class PreAuthorizationBenchmark {
+
+    private static final String STORE_TOPIC = "account-activity-store-changelog";
+    private static final String STORE = "account-activity-store";
+    private static final long WINDOW_MS = 300_000L;
+    private static final int ACCOUNTS = 10_000;
+
+    private FraudDetectionService service;
+    private Transaction candidate;
+    private AccountActivityAggregate aggregate;
+    private AccountActivityWindow window;
+    private byte[] storedAggregate;
+    private Deserializer<AccountActivityAggregate> storeReader;
+    private TopologyTestDriver driver;
+    private WindowStore<String, AccountActivityAggregate> store;
+    private String[] accountIds;
+    private long now;
+    private int next;
+
+    @Setup
+    public void setup() {
+        service = new FraudDetectionService();
+        long start = Instant.parse("2024-03-01T10:00:00.000Z").toEpochMilli();
+
+        aggregate = new AccountActivityAggregate();
+        aggregate.start("ACC-004", start, start + 300_000L);
+        aggregate.add(Money.ofUnits(42_050L, 2), "ES", start + 10_000L);
+        aggregate.add(Money.ofUnits(31_999L, 2), "FR", start + 60_000L);
+        aggregate.add(Money.ofUnits(12_000L, 2), "ES", start + 90_000L);
+        window = aggregate.toWindow();
+
+        candidate = new Transaction("TXN-3F2A9C1B", "ACC-004", new BigDecimal("274.18"), "DE", "EUR", "PURCHASE",
+                Instant.ofEpochMilli(start + 120_000L), "El Corte Inglés", null);
+
+        AccountActivityAggregateSerde serde = new AccountActivityAggregateSerde();
+        storedAggregate = serde.serializer().serialize(STORE_TOPIC, aggregate);
+        storeReader = serde.deserializer();
+
+        // The store as the streams task holds it, populated directly
+        Topology topology = new Topology();
+        topology.addSource("transactions", new StringDeserializer(), new StringDeserializer(), "transactions");
+        ProcessorSupplier<String, String, Void, Void> noOp = () -> new Processor<>() {
+            @Override
+            public void process(Record<String, String> record) { }
+        };
+        topology.addProcessor("activity", noOp, "transactions");
+        topology.addStateStore(Stores.windowStoreBuilder(
+                Stores.persistentWindowStore(STORE, Duration.ofMillis(2 * WINDOW_MS), Duration.ofMillis(WINDOW_MS), false),
+                Serdes.String(), serde).withCachingEnabled(), "activity");
+        Properties props = new Properties();
+        props.put(StreamsConfig.APPLICATION_ID_CONFIG, "pre-authorization-benchmark");
+        props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "dummy:9092");
+        driver = new TopologyTestDriver(topology, props);
+        store = driver.getWindowStore(STORE);
+        accountIds = new String[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accountIds[i] = "ACC-" + i;
+            store.put(accountIds[i], aggregate, start);
+        }
+        now = start + 120_000L;
+    }
+
+    @TearDown
+    public void tearDown() {
+        driver.close();
+    }
+
+    @Benchmark
+    public PreAuthorizationResult fromLocalStore() {
+        String accountId = accountIds[next++ % ACCOUNTS];
+        AccountActivityAggregate current = AccountActivityQueryService
+                .currentWindowAggregate(store, accountId, now, WINDOW_MS)
+                .orElse(null);
+        return service.preAuthorize(candidate, current);
+    }
+
+    @Benchmark
+    public PreAuthorizationResult fromAggregate() {
+        return service.preAuthorize(candidate, aggregate);
+    }
+
+    @Benchmark
+    public PreAuthorizationResult fromStoredBytes() {
+        return service.preAuthorize(candidate, storeReader.deserialize(STORE_TOPIC, storedAggregate));
+    }
+
+    @Benchmark
+    public boolean legacyWindow() {
+        return service.shouldTriggerAlert(candidate, window);
+    }
+}
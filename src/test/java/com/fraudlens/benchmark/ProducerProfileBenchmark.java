@@ -0,0 +1,96 @@
+package com.fraudlens.benchmark;
+
+import com.fraudlens.config.ProducerProfile;
+import com.fraudlens.domain.model.Transaction;
+import com.fraudlens.infrastructure.kafka.LatencyHistogram;
+import com.fraudlens.infrastructure.serde.JsonMappers;
+import com.fraudlens.infrastructure.serde.LazyTransactionSerde;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records/sec and p99 ack latency of the transaction producer under each profile.
+ *
+ * Needs a broker: KAFKA_BOOTSTRAP_SERVERS (default localhost:9092) and a topic named by
+ * BENCHMARK_TOPIC (default transactions-benchmark, auto-created if the broker allows).
+ * Sends are asynchronous, as in the application, so ops/s is the send rate the producer
+ * sustains once its buffer is full, i.e. the acknowledged rate; p99 ack latency, from send
+ * to acknowledgement, is printed after every iteration.
+ *
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark=ProducerProfileBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@Threads(1)
+@State(Scope.Thread)
+public class ProducerProfileBenchmark {
+
+    @Param({"latency", "balanced", "throughput"})
+    private String profile;
+
+    private String topic;
+    private KafkaProducer<String, Transaction> producer;
+    private Transaction[] transactions;
+    private LatencyHistogram latency;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        topic = System.getenv().getOrDefault("BENCHMARK_TOPIC", "transactions-benchmark");
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG,
+                        System.getenv().getOrDefault("KAFKA_BOOTSTRAP_SERVERS", "localhost:9092"));
+        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        ProducerProfile.of(profile).applyTo(configProps);
+        producer = new KafkaProducer<>(configProps, new StringSerializer(),
+                                       new LazyTransactionSerde(JsonMappers.shared()).serializer());
+
+        // A pool of distinct accounts, so batches spread over partitions as in production
+        transactions = new Transaction[4096];
+        for (int i = 0; i < transactions.length; i++) {
+            transactions[i] = new Transaction("TXN-" + i, "ACC-" + i, new BigDecimal("274.18"), "FR", "EUR", "PURCHASE",
+                    Instant.parse("2024-03-01T10:15:30.123Z"), "El Corte Inglés", "Benchmark transaction");
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void startIteration() {
+        latency = new LatencyHistogram();
+    }
+
+    @Benchmark
+    public void send() {
+        Transaction transaction = transactions[next++ & (transactions.length - 1)];
+        long sendNanos = System.nanoTime();
+        producer.send(new ProducerRecord<>(topic, transaction.getAccountId(), transaction), (metadata, exception) -> {
+            if (exception == null) {
+                latency.recordNanos(System.nanoTime() - sendNanos);
+            }
+        });
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportLatency() {
+        producer.flush();
+        System.out.printf("%n%s: %d acks, p50 %.2f ms, p99 %.2f ms, max %.2f ms%n", profile, latency.count(),
+                          latency.percentileMicros(0.50) / 1000.0, latency.percentileMicros(0.99) / 1000.0,
+                          latency.maxMicros() / 1000.0);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        producer.close();
+    }
+}
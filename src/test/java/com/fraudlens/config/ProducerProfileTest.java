@@ -0,0 +1,39 @@
+package com.fraudlens.config;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProducerProfileTest {
+
+    @Test
+    void testEveryProfileIsIdempotentAndValidForTheProducer() {
+        for (ProducerProfile profile : ProducerProfile.values()) {
+            Map<String, Object> configProps = new HashMap<>();
+            configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
+            configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, "org.apache.kafka.common.serialization.StringSerializer");
+            configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, "org.apache.kafka.common.serialization.StringSerializer");
+            configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+            profile.applyTo(configProps);
+
+            ProducerConfig config = new ProducerConfig(configProps);
+
+            assertTrue(config.getBoolean(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG), profile.name());
+            assertTrue(config.getInt(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION) <= 5, profile.name());
+        }
+    }
+
+    @Test
+    void testThroughputPipelinesAndBatchesMoreThanLatency() {
+        assertEquals(ProducerProfile.THROUGHPUT, ProducerProfile.of(" Throughput "));
+        assertEquals(1, ProducerProfile.LATENCY.getMaxInFlight());
+        assertEquals(5, ProducerProfile.THROUGHPUT.getMaxInFlight());
+        assertTrue(ProducerProfile.THROUGHPUT.getBatchSizeBytes() > ProducerProfile.BALANCED.getBatchSizeBytes());
+        assertTrue(ProducerProfile.THROUGHPUT.getLingerMs() > ProducerProfile.LATENCY.getLingerMs());
+        assertThrows(IllegalArgumentException.class, () -> ProducerProfile.of("fastest"));
+    }
+}
@@ -0,0 +1,104 @@
+package com.fraudlens.domain.model;
+
+import com.fraudlens.domain.rules.CompiledRuleSet;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountEventBufferTest {
+
+    private static final long MINUTE = 60_000L;
+    private static final long WINDOW = 5 * MINUTE;
+    private static final CompiledRuleSet RULES = CompiledRuleSet.defaults();
+
+    private static Money euros(String amount) {
+        return Money.of(new BigDecimal(amount));
+    }
+
+    @Test
+    void testBurstAcrossBucketBoundaryIsSeenWhole() {
+        // 4:00, 5:30 and 6:00 fall into two tumbling 5-minute buckets but one sliding window
+        AccountEventBuffer buffer = new AccountEventBuffer("ACC-001", WINDOW);
+        buffer.add(4 * MINUTE, euros("400.00"), "ES", 0L);
+        buffer.add(5 * MINUTE + 30_000L, euros("400.00"), "FR", 0L);
+        assertFalse(RULES.matchesAny(buffer));
+
+        buffer.add(6 * MINUTE, euros("400.00"), "DE", 0L);
+
+        assertTrue(RULES.matchesAny(buffer));
+        AccountActivityAggregate aggregate = buffer.toAggregate();
+        assertEquals(new BigDecimal("1200.00"), aggregate.getTotalAmount());
+        assertEquals(Set.of("ES", "FR", "DE"), aggregate.getCountries());
+        assertEquals(MINUTE, aggregate.getWindowStartMillis());
+        assertEquals(6 * MINUTE, aggregate.getWindowEndMillis());
+    }
+
+    @Test
+    void testEvictionUpdatesTotalsAndCountries() {
+        AccountEventBuffer buffer = new AccountEventBuffer("ACC-002", WINDOW);
+        buffer.add(0L, euros("900.00"), "ES", 0L);
+        buffer.add(MINUTE, euros("50.00"), "FR", 0L);
+        buffer.add(2 * MINUTE, euros("60.00"), "FR", 0L);
+
+        buffer.add(5 * MINUTE + 1, euros("10.00"), "IT", 0L);
+
+        assertEquals(3, buffer.size());
+        assertEquals(euros("120.00"), buffer.getTotal());
+        assertEquals(2, buffer.getDistinctCountries());
+    }
+
+    @Test
+    void testOutOfOrderEventsKeepTimeOrder() {
+        AccountEventBuffer buffer = new AccountEventBuffer("ACC-003", WINDOW);
+        for (int i = 0; i < 20; i++) {
+            buffer.add((i % 2 == 0 ? i : i - 2) * 1_000L + MINUTE, euros("1.00"), "ES", 0L);
+        }
+
+        for (int i = 1; i < buffer.size(); i++) {
+            assertTrue(buffer.timestampAt(i - 1) <= buffer.timestampAt(i));
+        }
+        assertEquals(20, buffer.size());
+    }
+
+    @Test
+    void testEventsOlderThanTheWindowAreRejected() {
+        AccountEventBuffer buffer = new AccountEventBuffer("ACC-004", WINDOW);
+        buffer.add(10 * MINUTE, euros("5.00"), "ES", 0L);
+
+        assertFalse(buffer.add(4 * MINUTE, euros("5.00"), "FR", 0L));
+        assertEquals(1, buffer.size());
+        assertEquals(1, buffer.getDistinctCountries());
+    }
+
+    @Test
+    void testWindowIncludesBothEnds() {
+        AccountEventBuffer buffer = new AccountEventBuffer("ACC-006", WINDOW);
+        buffer.add(MINUTE, euros("1.00"), "ES", 0L);
+        buffer.add(MINUTE + WINDOW, euros("1.00"), "FR", 0L);
+
+        assertEquals(2, buffer.size());
+        assertTrue(buffer.add(MINUTE, euros("1.00"), "IT", 0L));
+        assertFalse(buffer.add(MINUTE - 1, euros("1.00"), "DE", 0L));
+
+        buffer.add(MINUTE + WINDOW + 1, euros("1.00"), "FR", 0L);
+        assertEquals(2, buffer.size());
+        assertEquals(1, buffer.getDistinctCountries());
+    }
+
+    @Test
+    void testScaleGrowsWithMorePreciseAmounts() {
+        AccountEventBuffer buffer = new AccountEventBuffer("ACC-005", WINDOW);
+        buffer.add(0L, euros("10.50"), "ES", 0L);
+        buffer.add(1L, euros("0.125"), "ES", 0L);
+
+        assertEquals(euros("10.625"), buffer.getTotal());
+        buffer.evictBefore(1L);
+        assertEquals(euros("0.125"), buffer.getTotal());
+
+        buffer.add(WINDOW + 2, euros("3.00"), "ES", 0L);
+        assertEquals(2, buffer.getTotal().getScale());
+    }
+}
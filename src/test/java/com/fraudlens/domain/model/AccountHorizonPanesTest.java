@@ -0,0 +1,213 @@
+package com.fraudlens.domain.model;
+
+import com.fraudlens.domain.rules.RuleFeatures;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountHorizonPanesTest {
+
+    private static final long MINUTE = 60_000L;
+    private static final long[] HORIZONS = {MINUTE, 5 * MINUTE, 60 * MINUTE, 24 * 60 * MINUTE};
+
+    private record Event(long timestamp, long cents, String country) {
+    }
+
+    private static Money euros(String amount) {
+        return Money.of(new BigDecimal(amount));
+    }
+
+    @Test
+    void testEveryHorizonMatchesARecomputationFromTheEvents() {
+        Random random = new Random(7);
+        String[] countries = {"ES", "FR", "DE", "IT", "PT"};
+        AccountHorizonPanes panes = new AccountHorizonPanes("ACC-001", MINUTE, HORIZONS, 5 * MINUTE);
+        List<Event> accepted = new ArrayList<>();
+        long now = 0L;
+        long newestPane = Long.MIN_VALUE;
+
+        for (int i = 0; i < 3_000; i++) {
+            // Mostly moving forward by up to 20 minutes, sometimes late by up to 2 hours
+            now += random.nextInt(20 * (int) MINUTE);
+            long timestamp = random.nextInt(10) == 0 ? now - random.nextInt(120 * (int) MINUTE) : now;
+            Event event = new Event(timestamp, 1 + random.nextInt(100_000), countries[random.nextInt(countries.length)]);
+
+            long pane = Math.floorDiv(timestamp, MINUTE) * MINUTE;
+            boolean expected = newestPane == Long.MIN_VALUE || pane > newestPane - HORIZONS[HORIZONS.length - 1];
+            assertEquals(expected, panes.add(timestamp, Money.ofUnits(event.cents, 2), event.country, 0L));
+            if (expected) {
+                accepted.add(event);
+                newestPane = Math.max(newestPane, pane);
+            }
+
+            for (long horizon : HORIZONS) {
+                long total = 0;
+                int count = 0;
+                Set<String> seen = new HashSet<>();
+                for (Event e : accepted) {
+                    if (Math.floorDiv(e.timestamp, MINUTE) * MINUTE > newestPane - horizon) {
+                        total += e.cents;
+                        count++;
+                        seen.add(e.country);
+                    }
+                }
+                AccountHorizonPanes.Horizon view = panes.horizon(horizon);
+                assertEquals(total, view.getTotalUnscaled(), "total over " + horizon);
+                assertEquals(count, view.getTransactionCount(), "count over " + horizon);
+                assertEquals(seen, view.getCountries(), "countries over " + horizon);
+            }
+        }
+        assertTrue(panes.paneCount() <= 24 * 60);
+    }
+
+    @Test
+    void testDetectionHorizonBacksThePlainFeatures() {
+        AccountHorizonPanes panes = new AccountHorizonPanes("ACC-002", MINUTE, HORIZONS, 5 * MINUTE);
+        panes.add(0L, euros("400.00"), "ES", 0L);
+        panes.add(3 * MINUTE, euros("400.00"), "FR", 0L);
+        panes.add(6 * MINUTE, euros("400.00"), "DE", 0L);
+
+        assertEquals(2, panes.getTransactionCount());
+        assertEquals(1, panes.horizon(MINUTE).getTransactionCount());
+        assertEquals(3, panes.horizon(60 * MINUTE).getTransactionCount());
+        assertNull(panes.horizon(2 * MINUTE));
+
+        AccountActivityAggregate aggregate = panes.toAggregate();
+        assertEquals(new BigDecimal("800.00"), aggregate.getTotalAmount());
+        assertEquals(Set.of("FR", "DE"), aggregate.getCountries());
+        assertEquals(2 * MINUTE, aggregate.getWindowStartMillis());
+        assertEquals(7 * MINUTE, aggregate.getWindowEndMillis());
+    }
+
+    @Test
+    void testAdvancingToNowExpiresIdlePanes() {
+        AccountHorizonPanes panes = new AccountHorizonPanes("ACC-003", MINUTE, HORIZONS, 5 * MINUTE);
+        panes.add(0L, euros("10.00"), "ES", 0L);
+
+        panes.advanceTo(10 * MINUTE);
+
+        assertEquals(0, panes.getTransactionCount());
+        assertEquals(1, panes.horizon(60 * MINUTE).getTransactionCount());
+        assertFalse(panes.add(-24 * 60 * MINUTE, euros("1.00"), "ES", 0L));
+    }
+
+    @Test
+    void testHorizonsMustBeMultiplesOfThePane() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new AccountHorizonPanes("ACC-004", MINUTE, new long[] {90_000L}, 90_000L));
+        assertThrows(IllegalArgumentException.class,
+                () -> new AccountHorizonPanes("ACC-004", MINUTE, new long[] {5 * MINUTE, MINUTE}, MINUTE));
+        assertThrows(IllegalArgumentException.class,
+                () -> new AccountHorizonPanes("ACC-004", MINUTE, HORIZONS, 2 * MINUTE));
+    }
+
+    @Test
+    void testSketchedHorizonsEstimateDistinctCountsInBoundedPanes() {
+        long hour = 60 * MINUTE;
+        AccountHorizonPanes panes = new AccountHorizonPanes("ACC-005", MINUTE, HORIZONS, 5 * MINUTE, hour);
+        String[] countries = {"ES", "FR", "DE", "IT", "PT"};
+        Random random = new Random(11);
+        Set<String> merchantsLastDay = new HashSet<>();
+        long last = 0L;
+        for (int i = 0; i < 5_000; i++) {
+            // About 42 hours of events; merchants of the final 24 blocks are the expected set
+            long timestamp = i * 30_000L;
+            String merchant = "M-" + random.nextInt(3_000);
+            assertTrue(panes.add(timestamp, euros("1.00"), countries[i % countries.length], merchant, 0L));
+            if (timestamp >= (5_000 * 30_000L / hour - 23) * hour) {
+                merchantsLastDay.add(merchant);
+            }
+            last = timestamp;
+        }
+
+        AccountHorizonPanes.Horizon day = panes.horizon(24 * hour);
+        assertTrue(day.isSketched());
+        assertFalse(panes.horizon(5 * MINUTE).isSketched());
+        assertEquals(5, day.getCountryCount());
+        assertEquals(merchantsLastDay.size(), day.getMerchantCount(), merchantsLastDay.size() * 0.27);
+        assertEquals(5, panes.getCountryCount());
+        assertEquals(RuleFeatures.UNTRACKED, panes.horizon(5 * MINUTE).getMerchantCount());
+        // Block-aligned: the 23 whole hours before the newest block and the 80 events of the newest
+        assertTrue(day.isBlockAligned());
+        assertEquals(23 * 120 + 80, day.getTransactionCount());
+        assertEquals(18 * hour, day.getWindowStartMillis());
+
+        // Panes only reach back over the 1h horizon; only those within the longest exact horizon keep their countries
+        assertEquals(60, panes.paneCount());
+        int withCountries = 0;
+        for (int i = 0; i < panes.paneCount(); i++) {
+            withCountries += panes.paneCountriesAt(i).length > 0 ? 1 : 0;
+        }
+        assertEquals(5, withCountries);
+        assertEquals(Math.floorDiv(last, MINUTE) * MINUTE, panes.getNewestPaneStart());
+    }
+
+    @Test
+    void testHorizonsLongerThanABlockTotalWholeBlocks() {
+        long hour = 60 * MINUTE;
+        Random random = new Random(13);
+        AccountHorizonPanes panes = new AccountHorizonPanes("ACC-007", MINUTE, HORIZONS, 5 * MINUTE, hour);
+        List<Event> accepted = new ArrayList<>();
+        long now = 0L;
+        long newestPane = Long.MIN_VALUE;
+
+        for (int i = 0; i < 3_000; i++) {
+            // Forward by up to 20 minutes, sometimes late by up to 30 hours
+            now += random.nextInt(20 * (int) MINUTE);
+            long timestamp = random.nextInt(10) == 0 ? now - random.nextInt(30 * (int) hour) : now;
+            Event event = new Event(timestamp, 1 + random.nextInt(100_000), "ES");
+            long pane = Math.floorDiv(timestamp, MINUTE) * MINUTE;
+            if (panes.add(timestamp, Money.ofUnits(event.cents, 2), event.country, 0L)) {
+                accepted.add(event);
+                newestPane = Math.max(newestPane, pane);
+            }
+
+            long newestBlock = Math.floorDiv(newestPane, hour) * hour;
+            for (long horizon : HORIZONS) {
+                long total = 0;
+                int count = 0;
+                for (Event e : accepted) {
+                    boolean covered = horizon <= hour
+                            ? Math.floorDiv(e.timestamp, MINUTE) * MINUTE > newestPane - horizon
+                            : Math.floorDiv(e.timestamp, hour) * hour > newestBlock - horizon;
+                    if (covered) {
+                        total += e.cents;
+                        count++;
+                    }
+                }
+                assertEquals(total, panes.horizon(horizon).getTotalUnscaled(), "total over " + horizon);
+                assertEquals(count, panes.horizon(horizon).getTransactionCount(), "count over " + horizon);
+            }
+            assertTrue(panes.paneCount() <= 60);
+        }
+    }
+
+    @Test
+    void testAnAccountStartsOverOnceEveryHorizonHasExpired() {
+        AccountHorizonPanes panes = new AccountHorizonPanes("ACC-008", MINUTE, HORIZONS, 5 * MINUTE, 60 * MINUTE);
+        panes.add(0L, euros("1.005"), "ES", 0L);
+        assertEquals(3, panes.getAmountScale());
+
+        panes.add(25 * 60 * MINUTE, euros("2.00"), "FR", 0L);
+        assertEquals(2, panes.getAmountScale());
+        assertEquals(new BigDecimal("2.00"), panes.horizon(24 * 60 * MINUTE).toAggregate().getTotalAmount());
+    }
+
+    @Test
+    void testSketchBlocksMustDivideTheHorizonsTheyServe() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new AccountHorizonPanes("ACC-006", MINUTE, HORIZONS, 5 * MINUTE, 7 * MINUTE));
+        assertThrows(IllegalArgumentException.class,
+                () -> new AccountHorizonPanes("ACC-006", MINUTE, HORIZONS, 5 * MINUTE, 90_000L));
+        // The detection horizon must stay exact
+        assertThrows(IllegalArgumentException.class,
+                () -> new AccountHorizonPanes("ACC-006", MINUTE, HORIZONS, 5 * MINUTE, 5 * MINUTE));
+    }
+}
@@ -0,0 +1,70 @@
+package com.fraudlens.domain.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountProfileTest {
+
+    private static final double ALPHA = 0.05;
+    private static final long HOUR = 3_600_000L;
+
+    @Test
+    void testAveragesConvergeOnRecentBehaviour() {
+        AccountProfile profile = new AccountProfile();
+        for (int i = 0; i < 200; i++) {
+            profile.update(i * HOUR, i % 2 == 0 ? 90.0 : 110.0, "ES", "PURCHASE", ALPHA);
+        }
+
+        assertEquals(200, profile.getTransactionCount());
+        assertEquals(100.0, profile.getMeanAmount(), 1.0);
+        assertEquals(10.0, profile.getAmountStdDev(), 1.0);
+        assertEquals(HOUR, profile.getMeanInterArrivalMillis(), 1.0);
+        assertTrue(profile.amountDeviation(200.0) > 5);
+        assertEquals(199 * HOUR, profile.getLastTimestamp());
+        assertEquals(CountryDictionary.lookup("ES"), profile.getLastCountryId());
+    }
+
+    @Test
+    void testUsualCountriesFollowTheRecentMix() {
+        AccountProfile profile = new AccountProfile();
+        for (int i = 0; i < 100; i++) {
+            profile.update(i * HOUR, 50.0, i % 4 == 0 ? "FR" : "ES", "PURCHASE", ALPHA);
+        }
+        assertTrue(profile.isUsualCountry("ES"));
+        assertTrue(profile.isUsualCountry("FR"));
+        assertFalse(profile.isUsualCountry("US"));
+        assertFalse(profile.isUsualCountry(null));
+
+        // More new countries than slots: the lightest slot is reused, nothing grows
+        for (int i = 100; i < 300; i++) {
+            profile.update(i * HOUR, 50.0, "US", "PURCHASE", ALPHA);
+            profile.update(i * HOUR + 1, 50.0, new String[] {"DE", "IT", "PT", "NL"}[i % 4], "PURCHASE", ALPHA);
+        }
+        assertTrue(profile.isUsualCountry("US"));
+        assertFalse(profile.isUsualCountry("ES"));
+    }
+
+    @Test
+    void testTransactionTypeShares() {
+        AccountProfile profile = new AccountProfile();
+        for (int i = 0; i < 100; i++) {
+            profile.update(i * HOUR, 50.0, "ES", i % 5 == 0 ? "WITHDRAWAL" : "PURCHASE", ALPHA);
+        }
+        assertEquals(0.8, profile.typeShare("PURCHASE"), 0.1);
+        assertEquals(0.2, profile.typeShare("WITHDRAWAL"), 0.1);
+        assertEquals(0.0, profile.typeShare("REFUND"), 1e-6);
+        assertEquals(AccountProfile.OTHER_TYPE, AccountProfile.typeIndex("REFUND"));
+    }
+
+    @Test
+    void testLateTransactionsDoNotMoveTheLastPosition() {
+        AccountProfile profile = new AccountProfile();
+        profile.update(10 * HOUR, 50.0, "ES", "PURCHASE", ALPHA);
+        profile.update(5 * HOUR, 50.0, "FR", "PURCHASE", ALPHA);
+
+        assertEquals(10 * HOUR, profile.getLastTimestamp());
+        assertEquals(CountryDictionary.lookup("ES"), profile.getLastCountryId());
+        assertEquals(0.0, profile.getMeanInterArrivalMillis());
+    }
+}
@@ -0,0 +1,51 @@
+package com.fraudlens.domain.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    @Test
+    void testNeverMissesAddedItemsAndKeepsNearTheSizedRate() {
+        BloomFilter filter = BloomFilter.forExpected(10_000, 0.01);
+        int reportedNew = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filter.put(Hashing.hash("TXN-" + i))) {
+                reportedNew++;
+            }
+        }
+        // An item reported as already present is a false positive too
+        assertTrue(reportedNew > 9_900, reportedNew + " reported new");
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain(Hashing.hash("TXN-" + i)));
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filter.mightContain(Hashing.hash("OTHER-" + i))) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 200, falsePositives + " false positives");
+        assertEquals(0.01, filter.estimatedFalsePositiveRate(), 0.005);
+        assertFalse(filter.put(Hashing.hash("TXN-1")));
+    }
+
+    @Test
+    void testRoundTripsThroughABuffer() {
+        BloomFilter filter = new BloomFilter(1000, 3);
+        filter.put(Hashing.hash("TXN-1"));
+        ByteBuffer buffer = ByteBuffer.allocate(BloomFilter.sizeBytes(filter.getBits()));
+        filter.writeTo(buffer);
+        buffer.flip();
+
+        BloomFilter restored = BloomFilter.readFrom(buffer);
+
+        assertTrue(restored.mightContain(Hashing.hash("TXN-1")));
+        assertEquals(filter.getBitsSet(), restored.getBitsSet());
+        assertFalse(buffer.hasRemaining());
+    }
+}
@@ -0,0 +1,49 @@
+package com.fraudlens.domain.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CountMinSketchTest {
+
+    @Test
+    void testEstimatesNeverUndercountAndHeavyKeysStayClose() {
+        CountMinSketch sketch = new CountMinSketch(4, 256);
+        for (int i = 0; i < 5_000; i++) {
+            sketch.add(Hashing.hash("light-" + i));
+        }
+        for (int i = 0; i < 1_000; i++) {
+            sketch.add(Hashing.hash("heavy"));
+        }
+
+        int heavy = sketch.estimate(Hashing.hash("heavy"));
+        assertTrue(heavy >= 1_000);
+        // e / width of the total, with room to spare
+        assertTrue(heavy <= 1_000 + 6_000 * Math.E / 256, "estimate " + heavy);
+        assertTrue(sketch.estimate(Hashing.hash("light-7")) >= 1);
+        assertEquals(6_000, sketch.getTotal());
+    }
+
+    @Test
+    void testRoundTripsThroughABuffer() {
+        CountMinSketch sketch = new CountMinSketch(2, 64);
+        sketch.add(Hashing.hash("M-1"));
+        sketch.add(Hashing.hash("M-1"));
+        ByteBuffer buffer = ByteBuffer.allocate(CountMinSketch.sizeBytes(2, 64));
+        sketch.writeTo(buffer);
+        buffer.flip();
+
+        CountMinSketch restored = CountMinSketch.readFrom(buffer);
+
+        assertEquals(2, restored.estimate(Hashing.hash("M-1")));
+        assertEquals(2, restored.getTotal());
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    void testWidthMustBeAPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new CountMinSketch(4, 1000));
+    }
+}
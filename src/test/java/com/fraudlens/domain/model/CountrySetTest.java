@@ -0,0 +1,55 @@
+package com.fraudlens.domain.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CountrySetTest {
+
+    @Test
+    void testMembershipAndCardinality() {
+        CountrySet countries = CountrySet.of(List.of("ES", "FR", "ZW", "ES"));
+
+        assertEquals(3, countries.cardinality());
+        assertTrue(countries.contains("ZW"));
+        assertFalse(countries.contains("DE"));
+        assertEquals(Set.of("ES", "FR", "ZW"), countries.toCodes());
+    }
+
+    @Test
+    void testUnionGrowsToTheWiderSet() {
+        CountrySet left = CountrySet.of(List.of("ES"));
+        CountrySet right = CountrySet.of(List.of("ES", "ZW", "XQ"));
+
+        left.union(right);
+
+        assertEquals(right, left);
+        assertEquals(3, left.cardinality());
+        assertFalse(CountryDictionary.isStatic(CountryDictionary.lookup("XQ")));
+    }
+
+    @Test
+    void testUnassignedCodesAreNotAssignedByLookup() {
+        assertEquals(-1, CountryDictionary.lookup("XR"));
+        assertFalse(new CountrySet().contains("XR"));
+        assertEquals(-1, CountryDictionary.lookup("XR"));
+    }
+
+    @Test
+    void testCodesAreNormalizedAndMalformedOnesAreUnknown() {
+        int size = CountryDictionary.size();
+        CountrySet countries = new CountrySet();
+        for (int i = 0; i < 5_000; i++) {
+            countries.add("junk-" + i);
+        }
+        countries.add(" es ");
+
+        assertEquals(size, CountryDictionary.size());
+        assertEquals(Set.of("ES", CountryDictionary.UNKNOWN_CODE), countries.toCodes());
+        assertEquals(CountryDictionary.UNKNOWN_ID, CountryDictionary.idOf(""));
+        assertTrue(countries.contains("Es"));
+    }
+}
@@ -0,0 +1,33 @@
+package com.fraudlens.domain.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CountryTravelTimesTest {
+
+    private static int minutes(String from, String to) {
+        return CountryTravelTimes.minimumMinutes(CountryDictionary.lookup(from), CountryDictionary.lookup(to));
+    }
+
+    @Test
+    void testNeighboursAreUnconstrainedAndDistantCountriesAreNot() {
+        assertEquals(0, minutes("ES", "FR"));
+        assertEquals(0, minutes("ES", "ES"));
+        assertEquals(0, minutes("US", "CA"));
+
+        // Madrid to Tokyo is roughly 10,800 km between centroids
+        int spainToJapan = minutes("ES", "JP");
+        assertTrue(spainToJapan > 9 * 60 && spainToJapan < 12 * 60, "ES-JP: " + spainToJapan);
+        assertEquals(spainToJapan, minutes("JP", "ES"));
+        assertTrue(minutes("ES", "FI") > 60);
+        assertEquals(minutes("UK", "NZ"), minutes("GB", "NZ"));
+    }
+
+    @Test
+    void testUnknownCountriesAreUnconstrained() {
+        assertEquals(0, minutes("ES", "ZW"));
+        assertEquals(0, CountryTravelTimes.minimumMinutes(-1, CountryDictionary.lookup("JP")));
+        assertEquals(0, CountryTravelTimes.minimumMinutes(CountryDictionary.STATIC_SIZE, CountryDictionary.lookup("JP")));
+    }
+}
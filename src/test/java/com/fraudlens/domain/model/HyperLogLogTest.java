@@ -0,0 +1,69 @@
+package com.fraudlens.domain.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HyperLogLogTest {
+
+    @Test
+    void testSmallCountsAreCloseToExactAndDuplicatesDoNotCount() {
+        HyperLogLog sketch = new HyperLogLog();
+        assertTrue(sketch.isEmpty());
+        assertEquals(0, sketch.estimate());
+
+        for (int repeat = 0; repeat < 3; repeat++) {
+            for (String country : new String[] {"ES", "FR", "DE", "IT"}) {
+                sketch.add(CountryDictionary.idOf(country));
+            }
+        }
+        assertEquals(4, sketch.estimate());
+    }
+
+    @Test
+    void testLargeCountsWithinTheStandardError() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 50_000; i++) {
+            sketch.add("merchant-" + i);
+            sketch.add("merchant-" + (i / 2));
+        }
+        // Three standard errors of about 9%
+        assertEquals(50_000, sketch.estimate(), 50_000 * 0.27);
+    }
+
+    @Test
+    void testMergeCountsTheUnion() {
+        HyperLogLog first = new HyperLogLog();
+        HyperLogLog second = new HyperLogLog();
+        HyperLogLog union = new HyperLogLog();
+        for (int i = 0; i < 2_000; i++) {
+            first.add("M-" + i);
+            second.add("M-" + (i + 1_000));
+            union.add("M-" + i);
+            union.add("M-" + (i + 1_000));
+        }
+
+        first.merge(second);
+
+        assertEquals(union, first);
+        assertEquals(3_000, first.estimate(), 3_000 * 0.27);
+    }
+
+    @Test
+    void testFixedSizeRoundTrip() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 500; i++) {
+            sketch.add(i);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(HyperLogLog.SIZE_BYTES);
+        sketch.writeTo(buffer);
+        assertFalse(buffer.hasRemaining());
+
+        buffer.flip();
+        HyperLogLog read = HyperLogLog.readFrom(buffer);
+        assertEquals(sketch, read);
+        assertEquals(sketch.estimate(), read.estimate());
+    }
+}
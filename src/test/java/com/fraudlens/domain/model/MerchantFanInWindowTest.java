@@ -0,0 +1,57 @@
+package com.fraudlens.domain.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MerchantFanInWindowTest {
+
+    private static MerchantFanInWindow window() {
+        return MerchantFanInWindow.create(0L, 10_000, 4, 1024, 8);
+    }
+
+    @Test
+    void testRepeatedAccountsCountOncePerMerchant() {
+        MerchantFanInWindow window = window();
+        for (int repeat = 0; repeat < 5; repeat++) {
+            for (int account = 0; account < 30; account++) {
+                window.add("Shop", Hashing.hash("ACC-" + account));
+            }
+        }
+        window.add("Cafe", Hashing.hash("ACC-1"));
+
+        assertEquals(30, window.estimate("Shop"));
+        assertEquals(1, window.estimate("Cafe"));
+    }
+
+    @Test
+    void testKeepsOnlyTheHeaviestMerchants() {
+        MerchantFanInWindow window = window();
+        for (int merchant = 0; merchant < 200; merchant++) {
+            window.add("M-" + merchant, Hashing.hash("ACC-0"));
+        }
+        for (int account = 0; account < 40; account++) {
+            window.add("Hot", Hashing.hash("ACC-" + account));
+        }
+
+        List<HeavyHitters.Entry> top = window.getHeaviest().top();
+        assertEquals(8, top.size());
+        assertEquals("Hot", top.get(0).getKey());
+        assertEquals(40, top.get(0).getEstimate());
+    }
+
+    @Test
+    void testRollStartsAnEmptyWindow() {
+        MerchantFanInWindow window = window();
+        window.add("Shop", Hashing.hash("ACC-1"));
+
+        window.roll(300_000L);
+
+        assertEquals(300_000L, window.getWindowStart());
+        assertEquals(0, window.estimate("Shop"));
+        assertEquals(0, window.getHeaviest().size());
+        assertNotNull(window.add("Shop", Hashing.hash("ACC-1")));
+    }
+}
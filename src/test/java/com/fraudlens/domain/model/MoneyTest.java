@@ -0,0 +1,103 @@
+package com.fraudlens.domain.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    private static final BigDecimal THRESHOLD = new BigDecimal("1000.00");
+
+    private static BigDecimal randomAmount(Random random) {
+        int scale = random.nextInt(5);
+        long unscaled = random.nextInt(4) == 0
+                ? random.nextLong() % 1_000_000_000_000L
+                : random.nextInt(10_000_000) - 1_000_000;
+        return BigDecimal.valueOf(unscaled, scale);
+    }
+
+    @Test
+    void testCompareMatchesBigDecimal() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            BigDecimal a = randomAmount(random);
+            BigDecimal b = randomAmount(random);
+            assertEquals(Integer.signum(a.compareTo(b)), Integer.signum(Money.of(a).compareTo(Money.of(b))), a + " vs " + b);
+        }
+    }
+
+    @Test
+    void testPlusMatchesBigDecimal() {
+        Random random = new Random(7);
+        for (int i = 0; i < 100_000; i++) {
+            BigDecimal a = randomAmount(random);
+            BigDecimal b = randomAmount(random);
+            assertEquals(a.add(b), Money.of(a).plus(Money.of(b)).toBigDecimal(), a + " + " + b);
+        }
+    }
+
+    @Test
+    void testToDoubleMatchesBigDecimal() {
+        Random random = new Random(3);
+        for (int i = 0; i < 100_000; i++) {
+            BigDecimal a = randomAmount(random);
+            assertEquals(a.doubleValue(), Money.of(a).toDouble(), a.toPlainString());
+        }
+    }
+
+    @Test
+    void testDivideHalfUpMatchesBigDecimal() {
+        Random random = new Random(11);
+        for (int i = 0; i < 100_000; i++) {
+            BigDecimal a = randomAmount(random);
+            BigDecimal b = randomAmount(random);
+            if (b.signum() == 0) {
+                continue;
+            }
+            long expected = a.divide(b, 2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+            assertEquals(expected, Money.of(a).divideHalfUp(Money.of(b), 2), a + " / " + b);
+        }
+    }
+
+    @Test
+    void testRiskMultiplierMatchesBigDecimal() {
+        Money threshold = Money.of(THRESHOLD);
+        for (long cents = 0; cents < 2_000_000; cents += 7) {
+            BigDecimal amount = BigDecimal.valueOf(cents, 2);
+            int expected = amount.divide(THRESHOLD, 2, RoundingMode.HALF_UP).intValue();
+            assertEquals(expected, Money.of(amount).divideHalfUp(threshold, 2) / 100, amount.toPlainString());
+        }
+        // Ratios just around a rounding boundary: 0.999995 rounds to 1.00, 0.994999 to 0.99
+        assertEquals(100, Money.of(new BigDecimal("999.995")).divideHalfUp(threshold, 2));
+        assertEquals(99, Money.of(new BigDecimal("994.999")).divideHalfUp(threshold, 2));
+    }
+
+    @Test
+    void testCompareDoesNotOverflowAcrossScales() {
+        Money large = Money.ofUnits(Long.MAX_VALUE / 10, 0);
+        Money precise = Money.ofUnits(1, 18);
+
+        assertTrue(large.compareTo(precise) > 0);
+        assertTrue(precise.compareTo(large) < 0);
+        assertTrue(Money.ofUnits(-Long.MAX_VALUE / 10, 0).compareTo(precise) < 0);
+    }
+
+    @Test
+    void testCurrencyScale() {
+        assertEquals(2, Money.currencyScale("EUR"));
+        assertEquals(0, Money.currencyScale("JPY"));
+        assertEquals(3, Money.currencyScale("KWD"));
+        assertEquals(2, Money.currencyScale("???"));
+        assertEquals(Money.ofUnits(1250, 2), Money.of(new BigDecimal("12.5")).atCurrencyScale("EUR"));
+    }
+
+    @Test
+    void testOutOfRangeAmountsAreRejected() {
+        assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("123456789012345678901234.56")));
+        assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("0.0000000000000000001")));
+    }
+}
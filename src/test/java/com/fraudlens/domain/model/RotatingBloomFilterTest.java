@@ -0,0 +1,42 @@
+package com.fraudlens.domain.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RotatingBloomFilterTest {
+
+    private static final long MINUTE = 60_000L;
+
+    @Test
+    void testRemembersItemsForTheHorizonThenForgetsThem() {
+        // Three generations over a 10-minute horizon: 5-minute periods
+        RotatingBloomFilter filter = RotatingBloomFilter.create(3, 10 * MINUTE, 1_000, 0.01);
+        assertEquals(5 * MINUTE, filter.getPeriodMillis());
+        long hash = Hashing.hash("TXN-1");
+
+        filter.advanceTo(MINUTE);
+        filter.put(hash);
+
+        filter.advanceTo(11 * MINUTE);
+        assertTrue(filter.mightContain(hash));
+        filter.advanceTo(15 * MINUTE);
+        assertFalse(filter.mightContain(hash));
+    }
+
+    @Test
+    void testEarlierTimesDoNotRotateAndLongGapsClearEverything() {
+        RotatingBloomFilter filter = RotatingBloomFilter.create(2, 5 * MINUTE, 1_000, 0.01);
+        filter.advanceTo(10 * MINUTE);
+        filter.put(Hashing.hash("TXN-1"));
+
+        filter.advanceTo(MINUTE);
+        assertTrue(filter.mightContain(Hashing.hash("TXN-1")));
+        assertEquals(10 * MINUTE, filter.getNewestStart());
+
+        filter.advanceTo(600 * MINUTE);
+        assertFalse(filter.mightContain(Hashing.hash("TXN-1")));
+        assertEquals(600 * MINUTE, filter.getNewestStart());
+        assertEquals(0.0, filter.estimatedFalsePositiveRate());
+    }
+}
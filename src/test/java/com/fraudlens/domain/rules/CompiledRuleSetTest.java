@@ -0,0 +1,159 @@
+package com.fraudlens.domain.rules;
+
+import com.fraudlens.domain.model.AccountActivityAggregate;
+import com.fraudlens.domain.model.AccountHorizonPanes;
+import com.fraudlens.domain.model.Money;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompiledRuleSetTest {
+
+    private static final String[] COUNTRIES = {"ES", "FR", "DE", "IT", "PT"};
+
+    private static AccountActivityAggregate aggregate(long totalUnits, int scale, int transactions, int countries) {
+        AccountActivityAggregate aggregate = new AccountActivityAggregate();
+        aggregate.start("ACC-001", 0L, 300_000L);
+        for (int i = 0; i < transactions; i++) {
+            long units = i == 0 ? totalUnits : 0L;
+            aggregate.add(Money.ofUnits(units, scale), COUNTRIES[Math.min(i, countries - 1)], 0L);
+        }
+        return aggregate;
+    }
+
+    @Test
+    void testParseAndPrintRule() {
+        FraudRule rule = FraudRule.parse("  HIGH_VALUE :total>=1000.00&& countries >= 3 ");
+
+        assertEquals("HIGH_VALUE", rule.getName());
+        assertEquals(2, rule.getConditions().size());
+        assertEquals(RuleFeature.TOTAL_AMOUNT, rule.getConditions().get(0).feature());
+        assertEquals(new BigDecimal("1000.00"), rule.getConditions().get(0).value());
+        assertEquals("HIGH_VALUE: total >= 1000.00 && countries >= 3", rule.toString());
+    }
+
+    @Test
+    void testInvalidDefinitionsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> FraudRule.parse("total >= 10"));
+        assertThrows(IllegalArgumentException.class, () -> FraudRule.parse("X: velocity >= 10"));
+        assertThrows(IllegalArgumentException.class, () -> FraudRule.parse("X: total => 10"));
+        assertThrows(IllegalArgumentException.class, () -> FraudRule.parse("X: "));
+        assertThrows(IllegalArgumentException.class,
+                () -> CompiledRuleSet.parse(List.of("A: total > 1", "A: countries > 1")));
+
+        List<String> tooMany = new ArrayList<>();
+        for (int i = 0; i <= CompiledRuleSet.MAX_RULES; i++) {
+            tooMany.add("R" + i + ": transactions > " + i);
+        }
+        assertThrows(IllegalArgumentException.class, () -> CompiledRuleSet.parse(tooMany));
+    }
+
+    @Test
+    void testEvaluateReturnsMaskOfMatchingRules() {
+        CompiledRuleSet rules = CompiledRuleSet.parse(List.of(
+                "# comment lines and blanks are skipped",
+                "",
+                "HIGH_VALUE: total >= 1000.00 && countries >= 3",
+                "RAPID_FIRE: transactions > 4",
+                "EXACT: total == 12.5",
+                "NOT_SINGLE: countries != 1",
+                "SMALL: total < 100 && transactions <= 2"));
+        assertEquals(5, rules.size());
+
+        assertEquals(0b00100L, rules.evaluate(aggregate(1250L, 2, 1, 1)) & 0b00100L, "12.50 == 12.5 across scales");
+        assertEquals(0b10100L, rules.evaluate(aggregate(1250L, 2, 1, 1)));
+        assertEquals(0b01011L, rules.evaluate(aggregate(100_000L, 2, 5, 3)));
+        assertEquals(0b01000L, rules.evaluate(aggregate(99_999L, 2, 3, 3)));
+        assertEquals(0b01001L, rules.evaluate(aggregate(1_000_000L, 3, 3, 3)));
+        assertEquals("HIGH_VALUE", rules.firstMatch(0b01001L));
+        assertEquals("RAPID_FIRE", rules.firstMatch(0b00010L));
+        assertNull(rules.firstMatch(0L));
+    }
+
+    @Test
+    void testSixtyFourRulesUseEveryBit() {
+        List<String> definitions = new ArrayList<>();
+        for (int i = 0; i < CompiledRuleSet.MAX_RULES; i++) {
+            definitions.add("R" + i + ": transactions >= " + i);
+        }
+        CompiledRuleSet rules = CompiledRuleSet.parse(definitions);
+
+        assertEquals(-1L, rules.evaluate(aggregate(100L, 2, 63, 1)));
+        assertEquals((1L << 11) - 1, rules.evaluate(aggregate(100L, 2, 10, 1)));
+    }
+
+    @Test
+    void testDefaultRuleMatchesTheOriginalCriteria() {
+        CompiledRuleSet rules = CompiledRuleSet.defaults();
+        Random random = new Random(42);
+        for (int i = 0; i < 2_000; i++) {
+            AccountActivityAggregate aggregate = aggregate(random.nextInt(200_000), 2,
+                                                           1 + random.nextInt(5), 1 + random.nextInt(5));
+            boolean suspicious = aggregate.getTotalAmount().compareTo(new BigDecimal("1000.00")) >= 0
+                    && aggregate.getCountryCount() >= 3;
+            assertEquals(suspicious, rules.matchesAny(aggregate), aggregate.toString());
+        }
+        assertEquals(rules.getRules().toString(),
+                     CompiledRuleSet.defaults(new BigDecimal("1000.00"), 3).getRules().toString());
+    }
+
+    @Test
+    void testVersionDependsOnlyOnTheRules() {
+        CompiledRuleSet rules = CompiledRuleSet.parse(List.of("A: total >= 10", "B: countries >= 2"));
+
+        assertEquals(rules.getVersion(), CompiledRuleSet.parse(List.of("A:   total>=10", "B: countries >= 2")).getVersion());
+        assertNotEquals(rules.getVersion(), CompiledRuleSet.parse(List.of("A: total >= 11", "B: countries >= 2")).getVersion());
+        assertTrue(rules.getVersion().matches("r[0-9a-f]{8}"));
+    }
+
+    @Test
+    void testScoringThresholdIsPartOfTheVersion() {
+        CompiledRuleSet rules = CompiledRuleSet.parse(List.of("A: total >= 10"));
+        CompiledRuleSet scored = CompiledRuleSet.parse(List.of("@scoring-threshold: 1500.00", "A: total >= 10"));
+
+        assertEquals(CompiledRuleSet.DEFAULT_SCORING_THRESHOLD, rules.getScoringThreshold());
+        assertEquals(Money.ofUnits(150_000L, 2), scored.getScoringThreshold());
+        assertNotEquals(rules.getVersion(), scored.getVersion());
+        assertEquals(scored.getVersion(), CompiledRuleSet.compile(rules.getRules(), Money.ofUnits(1_500L, 0)).getVersion());
+        // Setting the default explicitly keeps the version
+        assertEquals(rules.getVersion(), CompiledRuleSet.parse(List.of("A: total >= 10", "@scoring-threshold: 1000")).getVersion());
+        assertThrows(IllegalArgumentException.class, () -> CompiledRuleSet.parse(List.of("A: total >= 10", "@scoring-threshold: 0")));
+    }
+
+    @Test
+    void testHorizonConditionsReadTheNamedHorizon() {
+        CompiledRuleSet rules = CompiledRuleSet.parse(List.of("RAPID_FIRE: transactions[60s] >= 2 && total[1d] >= 50"));
+        assertEquals("RAPID_FIRE: transactions[1m] >= 2 && total[24h] >= 50", rules.getRules().get(0).toString());
+        assertTrue(rules.usesHorizons());
+
+        AccountHorizonPanes panes = new AccountHorizonPanes("ACC-001", 60_000L, new long[] {60_000L, 300_000L, 86_400_000L}, 300_000L);
+        panes.add(0L, Money.ofUnits(4_000L, 2), "ES", 0L);
+        panes.add(1_000L, Money.ofUnits(2_000L, 2), "ES", 0L);
+        assertTrue(rules.matchesAny(panes));
+        // A window without horizons never satisfies a horizon condition
+        assertFalse(rules.matchesAny(panes.toAggregate()));
+    }
+
+    @Test
+    void testMerchantConditionsNeedAWindowThatCountsMerchants() {
+        CompiledRuleSet rules = CompiledRuleSet.parse(List.of("MERCHANT_SPREE: merchants[1h] >= 3"));
+        CompiledRuleSet plain = CompiledRuleSet.parse(List.of("MERCHANT_SPREE: merchants >= 0"));
+
+        AccountHorizonPanes panes = new AccountHorizonPanes("ACC-001", 60_000L, new long[] {60_000L, 300_000L, 3_600_000L},
+                                                            300_000L, 3_600_000L);
+        panes.add(0L, Money.ofUnits(100L, 2), "ES", "Shop A", 0L);
+        panes.add(1_000L, Money.ofUnits(100L, 2), "ES", "Shop B", 0L);
+        assertFalse(rules.matchesAny(panes));
+        panes.add(2_000L, Money.ofUnits(100L, 2), "ES", "Shop C", 0L);
+        assertTrue(rules.matchesAny(panes));
+
+        // Neither the exact detection horizon nor an aggregate counts merchants
+        assertFalse(plain.matchesAny(panes));
+        assertFalse(plain.matchesAny(panes.toAggregate()));
+    }
+}
@@ -0,0 +1,263 @@
+package com.fraudlens.domain.service;
+
+import com.fraudlens.domain.model.AccountActivityAggregate;
+import com.fraudlens.domain.model.AccountHorizonPanes;
+import com.fraudlens.domain.model.AccountProfile;
+import com.fraudlens.domain.model.FraudAlert;
+import com.fraudlens.domain.model.Money;
+import com.fraudlens.domain.model.PreAuthorizationResult;
+import com.fraudlens.domain.model.Transaction;
+import com.fraudlens.domain.rules.CompiledRuleSet;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FraudDetectionServiceTest {
+
+    private static final Instant BASE = Instant.parse("2024-03-01T10:00:00.000Z");
+    private static final long WINDOW = 300_000L;
+    private static final long HOUR = 3_600_000L;
+
+    private final FraudDetectionService service = new FraudDetectionService();
+
+    private static AccountActivityAggregate activity(String... countries) {
+        AccountActivityAggregate aggregate = new AccountActivityAggregate();
+        aggregate.start("ACC-001", BASE.toEpochMilli(), BASE.plusSeconds(300).toEpochMilli());
+        for (String country : countries) {
+            aggregate.add(Money.ofUnits(30_000L, 2), country, BASE.toEpochMilli());
+        }
+        return aggregate;
+    }
+
+    private static Transaction candidate(String amount, String country) {
+        return new Transaction("TXN-9", "ACC-001", new BigDecimal(amount), country, "EUR", "PURCHASE",
+                               BASE.plusSeconds(120), "Merchant", null);
+    }
+
+    @Test
+    void testPreAuthorizeProjectsTheCandidateOntoCurrentActivity() {
+        AccountActivityAggregate current = activity("ES", "FR", "ES");
+
+        PreAuthorizationResult newCountry = service.preAuthorize(candidate("150.00", "DE"), current);
+        assertTrue(newCountry.isWouldTriggerAlert());
+        assertEquals(new BigDecimal("1050.00"), newCountry.getProjectedTotalAmount());
+        assertEquals(3, newCountry.getProjectedCountryCount());
+        assertEquals(4, newCountry.getProjectedTransactionCount());
+
+        PreAuthorizationResult knownCountry = service.preAuthorize(candidate("150.00", "FR"), current);
+        assertFalse(knownCountry.isWouldTriggerAlert());
+        assertEquals(2, knownCountry.getProjectedCountryCount());
+
+        // The current activity is not modified
+        assertEquals(3, current.getTransactionCount());
+        assertEquals(2, current.getCountryCount());
+    }
+
+    // Horizons 1m, 5m (detection), 1h and 24h over minute panes: a purchase 20 hours ago and two in the candidate's minute
+    private static AccountHorizonPanes horizonActivity() {
+        AccountHorizonPanes panes = new AccountHorizonPanes("ACC-001", 60_000L,
+                new long[] {60_000L, 300_000L, 3_600_000L, 86_400_000L}, 300_000L, 3_600_000L);
+        panes.add(BASE.minusSeconds(20 * 3600).toEpochMilli(), Money.ofUnits(8_000L, 2), "ES", "Merchant-1", 0L);
+        panes.add(BASE.plusSeconds(125).toEpochMilli(), Money.ofUnits(500L, 2), "ES", "Merchant-1", 0L);
+        panes.add(BASE.plusSeconds(130).toEpochMilli(), Money.ofUnits(500L, 2), "ES", "Merchant-2", 0L);
+        return panes;
+    }
+
+    @Test
+    void testPreAuthorizeProjectsTheCandidateOntoEveryHorizon() {
+        service.publishRules(CompiledRuleSet.parse(List.of("RAPID_FIRE: transactions[1m] >= 3 && total[24h] >= 100.00")));
+        assertFalse(service.getRules().matchesAny(horizonActivity()));
+
+        PreAuthorizationResult result = service.preAuthorizeOnHorizons(candidate("10.00", "ES"), horizonActivity());
+        assertTrue(result.isWouldTriggerAlert());
+        assertEquals(new BigDecimal("20.00"), result.getProjectedTotalAmount());
+        assertEquals(3, result.getProjectedTransactionCount());
+
+        assertFalse(service.preAuthorizeOnHorizons(candidate("9.99", "ES"), horizonActivity()).isWouldTriggerAlert());
+    }
+
+    @Test
+    void testPreAuthorizeCountsTheCandidateMerchant() {
+        service.publishRules(CompiledRuleSet.parse(List.of("MERCHANT_SPREAD: merchants[24h] >= 3")));
+
+        assertTrue(service.preAuthorizeOnHorizons(candidate("10.00", "ES"), horizonActivity()).isWouldTriggerAlert());
+        Transaction knownMerchant = new Transaction("TXN-9", "ACC-001", new BigDecimal("10.00"), "ES", "EUR", "PURCHASE",
+                                                    BASE.plusSeconds(120), "Merchant-2", null);
+        assertFalse(service.preAuthorizeOnHorizons(knownMerchant, horizonActivity()).isWouldTriggerAlert());
+    }
+
+    @Test
+    void testDescriptionNamesTheWindowLength() {
+        FraudAlert alert = service.detectFraud(activity("ES", "FR", "IT", "DE"));
+        assertTrue(alert.getDescription().endsWith("within 5-minute window"), alert.getDescription());
+
+        AccountActivityAggregate day = activity("ES", "FR", "IT", "DE")
+                .withWindow(BASE.toEpochMilli(), BASE.plusSeconds(86_400).toEpochMilli());
+        assertTrue(service.detectFraud(day).getDescription().endsWith("within 24-hour window"));
+        assertEquals("90-second", FraudDetectionService.windowLength(90_000L));
+    }
+
+    @Test
+    void testPreAuthorizeAgreesWithWindowRuleAndRiskScore() {
+        AccountActivityAggregate current = activity("ES", "FR", "IT");
+        Transaction transaction = candidate("400.00", "DE");
+
+        PreAuthorizationResult result = service.preAuthorize(transaction, current);
+        AccountActivityAggregate added = activity("ES", "FR", "IT");
+        added.add(transaction.getMoney(), transaction.getCountry(), BASE.toEpochMilli());
+
+        assertEquals(service.shouldTriggerAlert(transaction, current.toWindow()), result.isWouldTriggerAlert());
+        assertEquals(service.generateFraudAlert(added).getRiskScore(), result.getRiskScore());
+    }
+
+    @Test
+    void testPreAuthorizeWithoutActivity() {
+        PreAuthorizationResult result = service.preAuthorize(candidate("5000.00", "ES"), null);
+
+        assertFalse(result.isWouldTriggerAlert());
+        assertEquals(1, result.getProjectedCountryCount());
+        assertEquals(1, result.getProjectedTransactionCount());
+        assertFalse(service.shouldTriggerAlert(candidate("5000.00", "ES"), new AccountActivityAggregate()));
+    }
+
+    @Test
+    void testConfiguredRulesDecideAndNameTheAlert() {
+        FraudDetectionService configured = new FraudDetectionService();
+        configured.publishRules(CompiledRuleSet.parse(List.of(
+                "MULTI_COUNTRY_HIGH_VALUE: total >= 1000.00 && countries >= 3",
+                "TWO_COUNTRY_BURST: total >= 500.00 && countries >= 2")));
+
+        AccountActivityAggregate current = activity("ES", "FR");
+        assertFalse(service.isFraudulent(current));
+        assertTrue(configured.isFraudulent(current));
+        assertEquals("TWO_COUNTRY_BURST", configured.generateFraudAlert(current).getAlertType());
+        assertEquals("TWO_COUNTRY_BURST", configured.generateFraudAlert(current.toWindow()).getAlertType());
+
+        current.add(Money.ofUnits(50_000L, 2), "DE", BASE.toEpochMilli());
+        assertEquals("MULTI_COUNTRY_HIGH_VALUE", configured.generateFraudAlert(current).getAlertType());
+    }
+
+    @Test
+    void testAlertsRecordTheRulesVersionTheyWereDecidedWith() {
+        AccountActivityAggregate current = activity("ES", "FR", "DE", "IT");
+        String configuredVersion = service.getRules().getVersion();
+        assertEquals(configuredVersion, service.generateFraudAlert(current).getRulesVersion());
+
+        CompiledRuleSet stricter = CompiledRuleSet.parse(List.of("MULTI_COUNTRY_HIGH_VALUE: total >= 5000.00 && countries >= 3"));
+        service.publishRules(stricter);
+        assertNull(service.detectFraud(current));
+        assertNotEquals(configuredVersion, stricter.getVersion());
+        assertEquals(configuredVersion, service.getConfiguredRules().getVersion());
+    }
+
+    @Test
+    void testRiskScoreUsesTheScoringThresholdOfThePublishedRules() {
+        AccountActivityAggregate current = activity("ES", "FR", "DE", "IT");
+        int configuredScore = service.generateFraudAlert(current).getRiskScore();
+
+        // €1200 is 1× the default €1000 but 3× €400: 20 more points for the amount
+        service.publishRules(CompiledRuleSet.parse(List.of(CompiledRuleSet.DEFAULT_RULE, "@scoring-threshold: 400.00")));
+        FraudAlert alert = service.generateFraudAlert(current);
+        assertEquals(configuredScore + 20, alert.getRiskScore());
+        assertEquals(alert.getRiskScore(),
+                     service.preAuthorize(candidate("300.00", "IT"), activity("ES", "FR", "DE")).getRiskScore());
+        assertNotEquals(service.getConfiguredRules().getVersion(), alert.getRulesVersion());
+    }
+
+    @Test
+    void testBaselineRaisesTheScoreOnlyForAnEstablishedProfile() {
+        FraudAlert alert = service.generateFraudAlert(activity("ES", "FR", "DE", "IT"));
+
+        // Small domestic purchases once an hour; the snapshot before the last one has 19 behind it
+        AccountProfile profile = new AccountProfile();
+        for (int i = 0; i < 20; i++) {
+            profile.rollBaseline(i * HOUR, WINDOW);
+            profile.update(i * HOUR, 20.0 + (i % 3), "ES", "PURCHASE", 0.05);
+        }
+        assertSame(alert, service.applyBaseline(alert, profile));
+
+        profile.rollBaseline(20 * HOUR, WINDOW);
+        profile.update(20 * HOUR, 21.0, "ES", "PURCHASE", 0.05);
+        FraudAlert scored = service.applyBaseline(alert, profile);
+        // 300.00 per transaction is far above the usual amount, three foreign countries, four in five minutes
+        assertEquals(Math.min(100, alert.getRiskScore() + 30), scored.getRiskScore());
+        assertNotEquals(alert.getAlertId(), scored.getAlertId());
+        assertEquals(alert.getRulesVersion(), scored.getRulesVersion());
+        assertTrue(scored.getDescription().contains("baseline"));
+    }
+
+    @Test
+    void testBurstIsScoredAgainstTheBaselineFromBeforeIt() {
+        FraudAlert alert = service.generateFraudAlert(activity("ES", "FR", "DE", "IT"));
+        double alpha = 0.3;
+        AccountProfile profile = new AccountProfile();
+        for (int i = 30; i > 0; i--) {
+            long timestamp = BASE.toEpochMilli() - i * HOUR;
+            profile.rollBaseline(timestamp, WINDOW);
+            profile.update(timestamp, 20.0 + (i % 3), "ES", "PURCHASE", alpha);
+        }
+
+        // The window's own transactions, folded in before its alert is scored
+        String[] countries = {"ES", "FR", "DE", "IT"};
+        for (int i = 0; i < countries.length; i++) {
+            long timestamp = BASE.toEpochMilli() + i * 1000L;
+            profile.rollBaseline(timestamp, WINDOW);
+            profile.update(timestamp, 300.0, countries[i], "PURCHASE", alpha);
+        }
+        int againstLiveProfile = service.calculateDeviationScore(alert.getTotalAmount(), alert.getTransactionCount(),
+                                                                 alert.getCountriesInvolved(), WINDOW, profile);
+        assertTrue(againstLiveProfile < 30, "the burst has already moved the live averages");
+
+        assertEquals(Math.min(100, alert.getRiskScore() + 30), service.applyBaseline(alert, profile).getRiskScore());
+        assertEquals(30, profile.baselineBefore(BASE.toEpochMilli()).getTransactionCount());
+    }
+
+    @Test
+    void testTransactionsWithoutATimestampNeverLookLikeTravel() {
+        int japan = AccountProfile.staticCountryId("JP");
+        long madrid = BASE.toEpochMilli();
+
+        // A first transaction without a time gives no position to travel from
+        AccountProfile profile = new AccountProfile();
+        profile.update(AccountProfile.NO_TIMESTAMP, 40.0, "ES", "PURCHASE", 0.05);
+        assertEquals(AccountProfile.NO_TIMESTAMP, profile.getLastTimestamp());
+        assertNull(service.detectImpossibleTravel("ACC-001", profile, madrid, japan, BigDecimal.ONE));
+
+        // Nor does a later one move the position or get checked itself
+        profile.update(madrid, 40.0, "ES", "PURCHASE", 0.05);
+        assertNull(service.detectImpossibleTravel("ACC-001", profile, AccountProfile.NO_TIMESTAMP, japan, BigDecimal.ONE));
+        profile.update(AccountProfile.NO_TIMESTAMP, 40.0, "JP", "PURCHASE", 0.05);
+        assertEquals(madrid, profile.getLastTimestamp());
+        assertEquals(AccountProfile.staticCountryId("ES"), profile.getLastCountryId());
+        assertEquals(0.0, profile.getMeanInterArrivalMillis());
+        assertNull(service.detectImpossibleTravel("ACC-001", profile, madrid + 3 * HOUR,
+                                                  AccountProfile.staticCountryId("FR"), BigDecimal.ONE));
+    }
+
+    @Test
+    void testImpossibleTravelAgainstTheLastKnownCountry() {
+        AccountProfile profile = new AccountProfile();
+        long madrid = BASE.toEpochMilli();
+        profile.update(madrid, 40.0, "ES", "PURCHASE", 0.05);
+        int japan = AccountProfile.staticCountryId("JP");
+
+        FraudAlert alert = service.detectImpossibleTravel("ACC-001", profile, madrid + 30 * 60_000L, japan,
+                                                          new BigDecimal("250.00"));
+        assertEquals(FraudDetectionService.IMPOSSIBLE_TRAVEL, alert.getAlertType());
+        assertEquals(Set.of("ES", "JP"), alert.getCountriesInvolved());
+        assertEquals(BASE, alert.getWindowStart());
+        assertTrue(alert.getRiskScore() > 90);
+        assertEquals(service.getRules().getVersion(), alert.getRulesVersion());
+
+        // A day later the journey is possible; a neighbouring country is never checked
+        assertNull(service.detectImpossibleTravel("ACC-001", profile, madrid + 86_400_000L, japan, BigDecimal.ONE));
+        assertNull(service.detectImpossibleTravel("ACC-001", profile, madrid + 1000L,
+                                                  AccountProfile.staticCountryId("FR"), BigDecimal.ONE));
+        assertNull(service.detectImpossibleTravel("ACC-001", new AccountProfile(), madrid, japan, BigDecimal.ONE));
+    }
+}
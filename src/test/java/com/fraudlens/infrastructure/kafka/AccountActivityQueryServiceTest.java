@@ -0,0 +1,112 @@
+package com.fraudlens.infrastructure.kafka;
+
+import com.fraudlens.domain.model.AccountActivityAggregate;
+import com.fraudlens.domain.model.AccountEventBuffer;
+import com.fraudlens.domain.model.FraudAlert;
+import com.fraudlens.domain.model.MerchantAlert;
+import com.fraudlens.domain.model.Transaction;
+import com.fraudlens.domain.service.FraudDetectionService;
+import com.fraudlens.infrastructure.serde.AccountActivityAggregateSerde;
+import com.fraudlens.infrastructure.serde.AccountEventBufferSerde;
+import com.fraudlens.infrastructure.serde.AccountProfileSerde;
+import com.fraudlens.infrastructure.serde.MerchantFanInWindowSerde;
+import com.fraudlens.infrastructure.serde.JsonMappers;
+import com.fraudlens.infrastructure.serde.JsonSerde;
+import com.fraudlens.infrastructure.serde.LazyTransactionSerde;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.WindowStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountActivityQueryServiceTest {
+
+    private static final Instant BASE = Instant.parse("2024-03-01T10:00:00.000Z");
+    private static final long WINDOW = 300_000L;
+
+    private TopologyTestDriver driver(String windowMode) {
+        FraudDetectionProcessor processor = new FraudDetectionProcessor();
+        ReflectionTestUtils.setField(processor, "fraudDetectionService", new FraudDetectionService());
+        ReflectionTestUtils.setField(processor, "transactionSerde", new LazyTransactionSerde(JsonMappers.shared()));
+        ReflectionTestUtils.setField(processor, "accountActivityAggregateSerde", new AccountActivityAggregateSerde());
+        ReflectionTestUtils.setField(processor, "fraudAlertSerde", new JsonSerde<>(FraudAlert.class));
+        ReflectionTestUtils.setField(processor, "accountEventBufferSerde", new AccountEventBufferSerde());
+        ReflectionTestUtils.setField(processor, "accountProfileSerde", new AccountProfileSerde());
+        ReflectionTestUtils.setField(processor, "merchantFanInWindowSerde", new MerchantFanInWindowSerde());
+        ReflectionTestUtils.setField(processor, "merchantAlertSerde", new JsonSerde<>(MerchantAlert.class));
+        ReflectionTestUtils.setField(processor, "windowMode", windowMode);
+        ReflectionTestUtils.setField(processor, "engine", "dsl");
+        ReflectionTestUtils.setField(processor, "alertMode", "all");
+
+        StreamsBuilder builder = new StreamsBuilder();
+        processor.buildPipeline(builder);
+
+        Properties props = new Properties();
+        props.put(StreamsConfig.APPLICATION_ID_CONFIG, "account-activity-query-test");
+        props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "dummy:9092");
+        TopologyTestDriver driver = new TopologyTestDriver(builder.build(), props);
+
+        TestInputTopic<String, Transaction> input = driver.createInputTopic("transactions",
+                Serdes.String().serializer(), new JsonSerde<>(Transaction.class).serializer());
+        send(input, "TXN-1", "250.00", "ES", BASE.plusSeconds(60));
+        send(input, "TXN-2", "100.00", "FR", BASE.plusSeconds(240));
+        return driver;
+    }
+
+    private static void send(TestInputTopic<String, Transaction> input, String id, String amount,
+                             String country, Instant timestamp) {
+        input.pipeInput("ACC-001", new Transaction(id, "ACC-001", new BigDecimal(amount), country, "EUR",
+                                                   "PURCHASE", timestamp, "Merchant", null), timestamp);
+    }
+
+    private static long at(int seconds) {
+        return BASE.plusSeconds(seconds).toEpochMilli();
+    }
+
+    @Test
+    void testCurrentWindowReadsTheBucketContainingNow() {
+        try (TopologyTestDriver driver = driver("tumbling")) {
+            WindowStore<String, AccountActivityAggregate> store = driver.getWindowStore(FraudDetectionProcessor.ACTIVITY_STORE);
+
+            Optional<AccountActivityAggregate> activity = AccountActivityQueryService.currentWindowAggregate(store, "ACC-001", at(270), WINDOW);
+            assertTrue(activity.isPresent());
+            assertEquals(2, activity.get().getTransactionCount());
+            assertEquals(new BigDecimal("350.00"), activity.get().getTotalAmount());
+            assertEquals(at(0), activity.get().getWindowStartMillis());
+            assertEquals(at(300), activity.get().getWindowEndMillis());
+
+            // 10:06 is in the next bucket, which has no transactions
+            assertTrue(AccountActivityQueryService.currentWindowAggregate(store, "ACC-001", at(360), WINDOW).isEmpty());
+            assertTrue(AccountActivityQueryService.currentWindowAggregate(store, "ACC-404", at(270), WINDOW).isEmpty());
+        }
+    }
+
+    @Test
+    void testBufferedActivityDropsEventsThatExpiredSinceTheLastWrite() {
+        try (TopologyTestDriver driver = driver("sliding")) {
+            KeyValueStore<String, AccountEventBuffer> store = driver.getKeyValueStore(FraudDetectionProcessor.EVENT_BUFFER_STORE);
+
+            assertEquals(2, AccountActivityQueryService.bufferedAggregate(store, "ACC-001", at(330), WINDOW).get().getTransactionCount());
+
+            Optional<AccountActivityAggregate> later = AccountActivityQueryService.bufferedAggregate(store, "ACC-001", at(480), WINDOW);
+            assertEquals(1, later.get().getTransactionCount());
+            assertEquals(Set.of("FR"), later.get().getCountries());
+
+            assertTrue(AccountActivityQueryService.bufferedAggregate(store, "ACC-001", at(600), WINDOW).isEmpty());
+            // The query works on a copy; the stored buffer is untouched
+            assertEquals(2, store.get("ACC-001").size());
+        }
+    }
+}
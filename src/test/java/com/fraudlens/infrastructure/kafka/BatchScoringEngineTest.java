@@ -0,0 +1,220 @@
+package com.fraudlens.infrastructure.kafka;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fraudlens.domain.model.FraudAlert;
+import com.fraudlens.domain.model.MerchantAlert;
+import com.fraudlens.domain.model.Transaction;
+import com.fraudlens.domain.service.FraudDetectionService;
+import com.fraudlens.infrastructure.serde.AccountActivityAggregateSerde;
+import com.fraudlens.infrastructure.serde.AccountEventBufferSerde;
+import com.fraudlens.infrastructure.serde.AccountHorizonPanesSerde;
+import com.fraudlens.infrastructure.serde.AccountProfileSerde;
+import com.fraudlens.infrastructure.serde.JsonMappers;
+import com.fraudlens.infrastructure.serde.JsonSerde;
+import com.fraudlens.infrastructure.serde.LazyTransactionSerde;
+import com.fraudlens.infrastructure.serde.MerchantFanInWindowSerde;
+import org.apache.kafka.streams.StreamsConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.kafka.config.KafkaStreamsConfiguration;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchScoringEngineTest {
+
+    private static final Instant BASE = Instant.parse("2024-03-01T10:00:00.000Z");
+    private static final int PARTITIONS = 3;
+
+    @TempDir
+    Path dir;
+
+    private static FraudDetectionProcessor processor(String engine, String windowMode) {
+        FraudDetectionProcessor processor = new FraudDetectionProcessor();
+        ReflectionTestUtils.setField(processor, "fraudDetectionService", new FraudDetectionService());
+        ReflectionTestUtils.setField(processor, "transactionSerde", new LazyTransactionSerde(JsonMappers.shared()));
+        ReflectionTestUtils.setField(processor, "accountActivityAggregateSerde", new AccountActivityAggregateSerde());
+        ReflectionTestUtils.setField(processor, "fraudAlertSerde", new JsonSerde<>(FraudAlert.class));
+        ReflectionTestUtils.setField(processor, "accountEventBufferSerde", new AccountEventBufferSerde());
+        ReflectionTestUtils.setField(processor, "accountHorizonPanesSerde", new AccountHorizonPanesSerde());
+        ReflectionTestUtils.setField(processor, "accountProfileSerde", new AccountProfileSerde());
+        ReflectionTestUtils.setField(processor, "merchantFanInWindowSerde", new MerchantFanInWindowSerde());
+        ReflectionTestUtils.setField(processor, "merchantAlertSerde", new JsonSerde<>(MerchantAlert.class));
+        ReflectionTestUtils.setField(processor, "windowMode", windowMode);
+        ReflectionTestUtils.setField(processor, "engine", engine);
+        ReflectionTestUtils.setField(processor, "sweepIntervalMs", 60_000L);
+        ReflectionTestUtils.setField(processor, "sweepPunctuation", "stream-time");
+        ReflectionTestUtils.setField(processor, "sweepBatchSize", 100);
+        ReflectionTestUtils.setField(processor, "cachedAccounts", 10);
+        ReflectionTestUtils.setField(processor, "alertMode", "escalation");
+        return processor;
+    }
+
+    private static BatchScoringEngine batch(FraudDetectionProcessor processor) {
+        return batch(processor, 0);
+    }
+
+    private static BatchScoringEngine batch(FraudDetectionProcessor processor, int parallelism) {
+        BatchScoringEngine engine = new BatchScoringEngine();
+        ReflectionTestUtils.setField(engine, "fraudDetectionProcessor", processor);
+        ReflectionTestUtils.setField(engine, "transactionSerde", new LazyTransactionSerde(JsonMappers.shared()));
+        ReflectionTestUtils.setField(engine, "fraudAlertSerde", new JsonSerde<>(FraudAlert.class));
+        ReflectionTestUtils.setField(engine, "partitions", PARTITIONS);
+        ReflectionTestUtils.setField(engine, "parallelism", parallelism);
+        return engine;
+    }
+
+    private static ReplayEngine replay(FraudDetectionProcessor processor) {
+        ReplayEngine engine = new ReplayEngine();
+        ReflectionTestUtils.setField(engine, "fraudDetectionProcessor", processor);
+        ReflectionTestUtils.setField(engine, "transactionSerde", new LazyTransactionSerde(JsonMappers.shared()));
+        ReflectionTestUtils.setField(engine, "streamsConfiguration", new KafkaStreamsConfiguration(Map.of(
+                StreamsConfig.APPLICATION_ID_CONFIG, "batch-scoring-test",
+                StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "dummy:9092")));
+        ReflectionTestUtils.setField(engine, "partitions", PARTITIONS);
+        return engine;
+    }
+
+    // Bursts over several countries, out-of-order and very late records, and re-sent transactions
+    private Path transactions() throws IOException {
+        Random random = new Random(42);
+        String[] countries = {"ES", "FR", "DE", "IT", "PT", "US"};
+        List<byte[]> records = new ArrayList<>();
+        long time = BASE.toEpochMilli();
+        for (int i = 0; i < 3_000; i++) {
+            time += random.nextInt(2_000);
+            long lateness = random.nextInt(20) == 0 ? random.nextInt(600_000) : random.nextInt(5_000);
+            Transaction transaction = new Transaction("TXN-" + i, "ACC-" + random.nextInt(30),
+                    BigDecimal.valueOf(50 + random.nextInt(90_000), 2), countries[random.nextInt(countries.length)],
+                    "EUR", "PURCHASE", Instant.ofEpochMilli(time - lateness), "Merchant-" + random.nextInt(5), null);
+            byte[] record = JsonMappers.shared().writeValueAsBytes(transaction);
+            records.add(record);
+            if (random.nextInt(25) == 0) {
+                records.add(record);
+            }
+        }
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        for (byte[] record : records) {
+            content.write(record);
+            content.write('\n');
+        }
+        return Files.write(dir.resolve("transactions.ndjson"), content.toByteArray());
+    }
+
+    // Fraud alerts without their creation time, in a stable order
+    private static List<String> fraudAlerts(Path output) throws IOException {
+        List<String> alerts = new ArrayList<>();
+        for (String line : Files.readAllLines(output)) {
+            ObjectNode alert = (ObjectNode) JsonMappers.shared().readTree(line);
+            if (alert.has("alertId") && alert.get("alertId").asText().startsWith("FRAUD-")) {
+                alert.remove("alertTimestamp");
+                alerts.add(alert.toString());
+            }
+        }
+        alerts.sort(null);
+        return alerts;
+    }
+
+    private void assertSameAlertsAsTopology(String windowMode) throws IOException {
+        Path input = transactions();
+        Path topologyOutput = dir.resolve("topology-" + windowMode + ".ndjson");
+        Path batchOutput = dir.resolve("batch-" + windowMode + ".ndjson");
+
+        replay(processor("dsl", windowMode)).replay(input, BulkIngestService.Format.NDJSON, topologyOutput);
+        ReplayReport report = batch(processor("dsl", windowMode)).score(input, BulkIngestService.Format.NDJSON, batchOutput);
+
+        List<String> expected = fraudAlerts(topologyOutput);
+        List<String> actual = fraudAlerts(batchOutput);
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, actual);
+        assertEquals(PARTITIONS, report.getPartitions());
+        assertEquals(actual.size(), report.getFraudAlerts());
+
+        // One rule, so every window alert is a hit for it; the rest are impossible travel
+        long travel = actual.stream().filter(alert -> alert.contains(FraudDetectionService.IMPOSSIBLE_TRAVEL)).count();
+        assertEquals(actual.size() - travel, report.getRuleHits().get("MULTI_COUNTRY_HIGH_VALUE"));
+        assertEquals(travel, report.getRuleHits().getOrDefault(FraudDetectionService.IMPOSSIBLE_TRAVEL, 0L));
+    }
+
+    @Test
+    void testTumblingWindowsMatchTheTopology() throws IOException {
+        assertSameAlertsAsTopology("tumbling");
+    }
+
+    @Test
+    void testSlidingWindowsMatchTheTopology() throws IOException {
+        assertSameAlertsAsTopology("sliding");
+    }
+
+    @Test
+    void testHorizonsMatchTheTopology() throws IOException {
+        assertSameAlertsAsTopology("horizons");
+    }
+
+    // The replay runs a thread per partition; batch scoring on one thread, or on more threads than partitions
+    @Test
+    void testThreadCountDoesNotChangeTheAlerts() throws IOException {
+        Path input = transactions();
+        Path topologyOutput = dir.resolve("topology.ndjson");
+        replay(processor("dsl", "tumbling")).replay(input, BulkIngestService.Format.NDJSON, topologyOutput);
+        List<String> expected = fraudAlerts(topologyOutput);
+
+        for (int parallelism : new int[] {1, 2 * PARTITIONS}) {
+            Path batchOutput = dir.resolve("batch-" + parallelism + ".ndjson");
+            batch(processor("dsl", "tumbling"), parallelism).score(input, BulkIngestService.Format.NDJSON, batchOutput);
+
+            assertEquals(expected, fraudAlerts(batchOutput), "parallelism " + parallelism);
+        }
+    }
+
+    @Test
+    void testPartitionCountIsRequired() throws IOException {
+        Path input = Files.write(dir.resolve("empty.ndjson"), new byte[0]);
+        BatchScoringEngine engine = batch(processor("dsl", "tumbling"));
+        ReflectionTestUtils.setField(engine, "partitions", 0);
+
+        assertThrows(IllegalStateException.class,
+                     () -> engine.score(input, BulkIngestService.Format.NDJSON, dir.resolve("alerts.ndjson")));
+    }
+
+    // An hour, then two days, of stream time later only the account that has just been active keeps its state
+    @Test
+    void testIdleBuffersAndPanesArePurgedAsTheTopologySweepsThem() {
+        for (String windowMode : new String[] {"sliding", "horizons"}) {
+            AccountBatchScorer scorer = processor("dsl", windowMode).newAccountBatchScorer();
+            String state = "sliding".equals(windowMode) ? "buffers" : "panes";
+            Instant later = BASE.plus(Duration.ofHours("sliding".equals(windowMode) ? 1 : 49));
+            scorer.score(transaction("TXN-1", "ACC-1", BASE), BASE.toEpochMilli());
+            scorer.score(transaction("TXN-2", "ACC-2", later), later.toEpochMilli());
+
+            Map<?, ?> accounts = (Map<?, ?>) ReflectionTestUtils.getField(scorer, state);
+            assertEquals(Set.of("ACC-2"), accounts.keySet(), windowMode);
+        }
+    }
+
+    private static Transaction transaction(String transactionId, String accountId, Instant timestamp) {
+        return new Transaction(transactionId, accountId, new BigDecimal("10.00"), "ES", "EUR", "PURCHASE",
+                               timestamp, "Merchant-1", null);
+    }
+
+    @Test
+    void testProcessorEngineIsNotSupported() throws IOException {
+        Path input = Files.write(dir.resolve("empty.ndjson"), new byte[0]);
+
+        assertThrows(IllegalStateException.class, () -> batch(processor("processor", "tumbling"))
+                .score(input, BulkIngestService.Format.NDJSON, dir.resolve("alerts.ndjson")));
+    }
+}
@@ -0,0 +1,69 @@
+package com.fraudlens.infrastructure.kafka;
+
+import org.junit.jupiter.api.Test;
+import org.rocksdb.BlockBasedTableConfig;
+import org.rocksdb.CompactionStyle;
+import org.rocksdb.CompressionType;
+import org.rocksdb.Options;
+import org.rocksdb.RocksDB;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedMemoryRocksDBConfigTest {
+
+    static {
+        RocksDB.loadLibrary();
+    }
+
+    private static Options storeOptions() {
+        // Kafka Streams hands the setter options that already carry a block-based table config
+        Options options = new Options();
+        options.setTableFormatConfig(new BlockBasedTableConfig());
+        return options;
+    }
+
+    @Test
+    void testSettingsComeFromStreamsConfig() {
+        Map<String, Object> configs = Map.of(
+                BoundedMemoryRocksDBConfig.COMPRESSION, "zstd",
+                BoundedMemoryRocksDBConfig.COMPACTION_STYLE, "universal",
+                BoundedMemoryRocksDBConfig.WRITE_BUFFER_BYTES, "4194304",
+                BoundedMemoryRocksDBConfig.MAX_WRITE_BUFFERS, 2);
+        BoundedMemoryRocksDBConfig setter = new BoundedMemoryRocksDBConfig();
+
+        try (Options options = storeOptions()) {
+            setter.setConfig("account-activity-store", options, configs);
+
+            assertEquals(CompressionType.ZSTD_COMPRESSION, options.compressionType());
+            assertEquals(CompactionStyle.UNIVERSAL, options.compactionStyle());
+            assertEquals(4L * 1024 * 1024, options.writeBufferSize());
+            assertEquals(2, options.maxWriteBufferNumber());
+            setter.close("account-activity-store", options);
+        }
+    }
+
+    @Test
+    void testAllInstancesShareOneBoundedCache() {
+        BoundedMemoryRocksDBConfig first = new BoundedMemoryRocksDBConfig();
+        BoundedMemoryRocksDBConfig second = new BoundedMemoryRocksDBConfig();
+
+        try (Options a = storeOptions(); Options b = storeOptions()) {
+            first.setConfig("account-activity-store", a, Map.of());
+            second.setConfig("account-event-buffer-store", b, Map.of());
+
+            assertFalse(Double.isNaN(BoundedMemoryRocksDBConfig.blockCacheCapacityBytes()));
+            assertFalse(Double.isNaN(BoundedMemoryRocksDBConfig.blockCacheUsageBytes()));
+            assertTrue(BoundedMemoryRocksDBConfig.openStoreInstances() >= 2);
+
+            first.close("account-activity-store", a);
+            second.close("account-event-buffer-store", b);
+        }
+    }
+
+    @Test
+    void testUnknownCompressionIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> BoundedMemoryRocksDBConfig.compressionType("brotli"));
+    }
+}
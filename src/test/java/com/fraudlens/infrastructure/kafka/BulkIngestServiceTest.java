@@ -0,0 +1,64 @@
+package com.fraudlens.infrastructure.kafka;
+
+import com.fraudlens.domain.model.Transaction;
+import com.fraudlens.infrastructure.serde.JsonMappers;
+import com.fraudlens.infrastructure.serde.LazyTransactionSerde;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkIngestServiceTest {
+
+    private static final String RECORD =
+            "{\"transactionId\":\"TXN-%d\",\"accountId\":\"ACC-%d\",\"amount\":25.00,\"country\":\"ES\",\"currency\":\"EUR\","
+            + "\"transactionType\":\"PURCHASE\",\"timestamp\":\"2024-03-01T10:00:00.000Z\",\"merchantName\":\"Shop\"}";
+
+    @Test
+    void testStreamsRecordsUnchangedAndCountsEachBatch() {
+        LazyTransactionSerde serde = new LazyTransactionSerde(JsonMappers.shared());
+        // Shared like the application's producer, which KafkaTemplate never really closes
+        MockProducer<String, Transaction> producer = new MockProducer<>(true, new StringSerializer(), serde.serializer()) {
+            @Override
+            public void close(Duration timeout) {
+            }
+        };
+        BulkIngestService service = new BulkIngestService();
+        ReflectionTestUtils.setField(service, "kafkaTemplate", new KafkaTemplate<>(() -> producer));
+        ReflectionTestUtils.setField(service, "transactionSerde", serde);
+        ReflectionTestUtils.setField(service, "batchSize", 2);
+
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 4; i++) {
+            body.append(String.format(RECORD, i, i % 2)).append('\n');
+        }
+        body.append("not json\n").append("{\"transactionId\":\"TXN-9\"}\n");
+
+        IngestResult result = service.ingest(new ByteArrayInputStream(body.toString().getBytes(StandardCharsets.UTF_8)),
+                                             BulkIngestService.Format.NDJSON);
+
+        assertEquals(IngestResult.Status.COMPLETE, result.getStatus());
+        assertEquals(6, result.getReceived());
+        assertEquals(4, result.getAccepted());
+        assertEquals(2, result.getRejected());
+        List<IngestResult.Batch> batches = result.getBatches();
+        assertEquals(3, batches.size());
+        assertEquals(2, batches.get(0).getAccepted());
+        assertEquals(2, batches.get(2).getRejected());
+
+        List<ProducerRecord<String, Transaction>> sent = producer.history();
+        assertEquals(4, sent.size());
+        assertEquals("ACC-1", sent.get(1).key());
+        assertEquals(String.format(RECORD, 1, 1),
+                     new String(serde.serializer().serialize("transactions", sent.get(1).value()), StandardCharsets.UTF_8));
+    }
+}
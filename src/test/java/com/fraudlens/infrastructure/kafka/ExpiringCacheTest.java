@@ -0,0 +1,49 @@
+package com.fraudlens.infrastructure.kafka;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpiringCacheTest {
+
+    @Test
+    void testEntriesExpireAfterTtl() {
+        AtomicLong clock = new AtomicLong();
+        ExpiringCache<String, String> cache = new ExpiringCache<>(Duration.ofNanos(100), 10, clock::get);
+
+        cache.put("a", "1");
+        clock.set(99);
+        assertEquals("1", cache.get("a"));
+        clock.set(100);
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testSizeStaysBounded() {
+        AtomicLong clock = new AtomicLong();
+        ExpiringCache<Integer, Integer> cache = new ExpiringCache<>(Duration.ofNanos(100), 3, clock::get);
+
+        cache.put(1, 1);
+        cache.put(2, 2);
+        clock.set(150);
+        cache.put(3, 3);
+        cache.put(4, 4);
+        // 1 and 2 expired and were purged to make room
+        assertEquals(2, cache.size());
+
+        cache.put(5, 5);
+        cache.put(6, 6);
+        assertTrue(cache.size() <= 3);
+    }
+
+    @Test
+    void testZeroTtlDisablesCaching() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(Duration.ZERO, 10);
+        cache.put("a", "1");
+        assertNull(cache.get("a"));
+    }
+}
@@ -0,0 +1,488 @@
+package com.fraudlens.infrastructure.kafka;
+
+import com.fraudlens.domain.model.AccountEventBuffer;
+import com.fraudlens.domain.model.AccountHorizonPanes;
+import com.fraudlens.domain.model.FraudAlert;
+import com.fraudlens.domain.model.MerchantAlert;
+import com.fraudlens.domain.model.MerchantFanInWindow;
+import com.fraudlens.domain.model.Transaction;
+import com.fraudlens.domain.rules.CompiledRuleSet;
+import com.fraudlens.domain.service.FraudDetectionService;
+import com.fraudlens.infrastructure.serde.AccountActivityAggregateSerde;
+import com.fraudlens.infrastructure.serde.AccountEventBufferSerde;
+import com.fraudlens.infrastructure.serde.AccountHorizonPanesSerde;
+import com.fraudlens.infrastructure.serde.AccountProfileSerde;
+import com.fraudlens.infrastructure.serde.MerchantFanInWindowSerde;
+import com.fraudlens.infrastructure.serde.JsonSerde;
+import com.fraudlens.infrastructure.serde.LazyTransactionSerde;
+import com.fraudlens.infrastructure.serde.JsonMappers;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TestOutputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FraudDetectionProcessorTest {
+
+    private static final Instant BASE = Instant.parse("2024-03-01T10:00:00.000Z");
+
+    private TopologyTestDriver driver(String engine, String windowMode) {
+        return driver(engine, windowMode, "escalation");
+    }
+
+    private TopologyTestDriver driver(String engine, String windowMode, String alertMode) {
+        return driver(processor(engine, windowMode, alertMode));
+    }
+
+    private static FraudDetectionProcessor processor(String engine, String windowMode, String alertMode) {
+        FraudDetectionProcessor processor = new FraudDetectionProcessor();
+        ReflectionTestUtils.setField(processor, "fraudDetectionService", new FraudDetectionService());
+        ReflectionTestUtils.setField(processor, "transactionSerde", new LazyTransactionSerde(JsonMappers.shared()));
+        ReflectionTestUtils.setField(processor, "accountActivityAggregateSerde", new AccountActivityAggregateSerde());
+        ReflectionTestUtils.setField(processor, "fraudAlertSerde", new JsonSerde<>(FraudAlert.class));
+        ReflectionTestUtils.setField(processor, "accountEventBufferSerde", new AccountEventBufferSerde());
+        ReflectionTestUtils.setField(processor, "accountHorizonPanesSerde", new AccountHorizonPanesSerde());
+        ReflectionTestUtils.setField(processor, "accountProfileSerde", new AccountProfileSerde());
+        ReflectionTestUtils.setField(processor, "merchantFanInWindowSerde", new MerchantFanInWindowSerde());
+        ReflectionTestUtils.setField(processor, "merchantAlertSerde", new JsonSerde<>(MerchantAlert.class));
+        ReflectionTestUtils.setField(processor, "windowMode", windowMode);
+        ReflectionTestUtils.setField(processor, "engine", engine);
+        ReflectionTestUtils.setField(processor, "sweepIntervalMs", 60_000L);
+        ReflectionTestUtils.setField(processor, "sweepPunctuation", "stream-time");
+        ReflectionTestUtils.setField(processor, "sweepBatchSize", 100);
+        ReflectionTestUtils.setField(processor, "cachedAccounts", 10);
+        ReflectionTestUtils.setField(processor, "alertMode", alertMode);
+        return processor;
+    }
+
+    private TopologyTestDriver driver(FraudDetectionProcessor processor) {
+        StreamsBuilder builder = new StreamsBuilder();
+        processor.buildPipeline(builder);
+
+        Properties props = new Properties();
+        props.put(StreamsConfig.APPLICATION_ID_CONFIG, "fraud-detection-processor-test");
+        props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "dummy:9092");
+        return new TopologyTestDriver(builder.build(), props);
+    }
+
+    private static Transaction transaction(String id, String accountId, String amount, String country, Instant timestamp) {
+        return new Transaction(id, accountId, new BigDecimal(amount), country, "EUR", "PURCHASE",
+                               timestamp, "Merchant", null);
+    }
+
+    // 10:04, 10:05:30 and 10:06 straddle the 10:05 bucket boundary
+    private List<FraudAlert> sendBoundaryBurst(TopologyTestDriver driver) {
+        TestInputTopic<String, Transaction> input = driver.createInputTopic("transactions",
+                Serdes.String().serializer(), new JsonSerde<>(Transaction.class).serializer());
+        TestOutputTopic<String, FraudAlert> output = driver.createOutputTopic("fraud-alerts",
+                Serdes.String().deserializer(), new JsonSerde<>(FraudAlert.class).deserializer());
+
+        input.pipeInput("ACC-001", transaction("TXN-1", "ACC-001", "400.00", "ES", BASE.plusSeconds(240)), BASE.plusSeconds(240));
+        input.pipeInput("ACC-001", transaction("TXN-2", "ACC-001", "400.00", "FR", BASE.plusSeconds(330)), BASE.plusSeconds(330));
+        input.pipeInput("ACC-001", transaction("TXN-3", "ACC-001", "400.00", "DE", BASE.plusSeconds(360)), BASE.plusSeconds(360));
+        return output.readValuesToList();
+    }
+
+    @Test
+    void testTumblingBucketsMissBurstAcrossBoundary() {
+        try (TopologyTestDriver driver = driver("dsl", "tumbling")) {
+            assertTrue(sendBoundaryBurst(driver).isEmpty());
+        }
+    }
+
+    @Test
+    void testSlidingModeDetectsBurstAcrossBoundary() {
+        try (TopologyTestDriver driver = driver("dsl", "sliding")) {
+            List<FraudAlert> alerts = sendBoundaryBurst(driver);
+
+            assertEquals(1, alerts.size());
+            assertEquals(new BigDecimal("1200.00"), alerts.get(0).getTotalAmount());
+            assertEquals(BASE.plusSeconds(60), alerts.get(0).getWindowStart());
+        }
+    }
+
+    @Test
+    void testSlidingModeSweepsIdleAccountsAndDropsLateRecords() {
+        try (TopologyTestDriver driver = driver("dsl", "sliding")) {
+            sendBoundaryBurst(driver);
+            KeyValueStore<String, AccountEventBuffer> store = driver.getKeyValueStore("account-event-buffer-store");
+            assertEquals(3, store.get("ACC-001").size());
+
+            // Stream time moves on through another account; the next sweep deletes ACC-001's idle buffer
+            TestInputTopic<String, Transaction> input = driver.createInputTopic("transactions",
+                    Serdes.String().serializer(), new JsonSerde<>(Transaction.class).serializer());
+            Instant later = BASE.plusSeconds(3600);
+            input.pipeInput("ACC-002", transaction("TXN-4", "ACC-002", "10.00", "ES", later), later);
+            assertNull(store.get("ACC-001"));
+
+            // A record from before the sweep's cutoff is late, so it cannot bring the account back
+            Instant late = BASE.plusSeconds(400);
+            input.pipeInput("ACC-001", transaction("TXN-5", "ACC-001", "10.00", "IT", late), late);
+            assertNull(store.get("ACC-001"));
+        }
+    }
+
+    @Test
+    void testProcessorEngineDetectsBurstAndSweepsIdleAccounts() {
+        try (TopologyTestDriver driver = driver("processor", "tumbling")) {
+            List<FraudAlert> alerts = sendBoundaryBurst(driver);
+            assertEquals(1, alerts.size());
+            assertEquals(3, alerts.get(0).getCountriesInvolved().size());
+
+            KeyValueStore<String, AccountEventBuffer> store = driver.getKeyValueStore("account-event-buffer-store");
+            assertNotNull(store.get("ACC-001"));
+
+            // Stream time moves on through another account; the next sweep drops ACC-001's expired events
+            TestInputTopic<String, Transaction> input = driver.createInputTopic("transactions",
+                    Serdes.String().serializer(), new JsonSerde<>(Transaction.class).serializer());
+            Instant later = BASE.plusSeconds(3600);
+            input.pipeInput("ACC-002", transaction("TXN-4", "ACC-002", "10.00", "ES", later), later);
+
+            assertNull(store.get("ACC-001"));
+            assertEquals(1, store.get("ACC-002").size());
+        }
+    }
+
+    // Three countries past the threshold at 10:01, then four more transactions in the same bucket
+    private List<FraudAlert> sendRepeatedFraud(TopologyTestDriver driver, boolean closeWindow) {
+        TestInputTopic<String, Transaction> input = driver.createInputTopic("transactions",
+                Serdes.String().serializer(), new JsonSerde<>(Transaction.class).serializer());
+        TestOutputTopic<String, FraudAlert> output = driver.createOutputTopic("fraud-alerts",
+                Serdes.String().deserializer(), new JsonSerde<>(FraudAlert.class).deserializer());
+
+        String[] countries = {"ES", "FR", "DE", "DE", "DE", "IT", "IT"};
+        for (int i = 0; i < countries.length; i++) {
+            Instant time = BASE.plusSeconds(60 + i);
+            input.pipeInput("ACC-001", transaction("TXN-" + i, "ACC-001", "400.00", countries[i], time), time);
+        }
+        if (closeWindow) {
+            Instant later = BASE.plusSeconds(3600);
+            input.pipeInput("ACC-009", transaction("TXN-X", "ACC-009", "1.00", "ES", later), later);
+        }
+        return output.readValuesToList();
+    }
+
+    @Test
+    void testAllModeSendsEveryFraudulentUpdate() {
+        try (TopologyTestDriver driver = driver("dsl", "tumbling", "all")) {
+            assertEquals(5, sendRepeatedFraud(driver, false).size());
+        }
+    }
+
+    @Test
+    void testEscalationModeSendsFirstAlertAndHigherScoresOnly() {
+        try (TopologyTestDriver driver = driver("dsl", "tumbling", "escalation")) {
+            List<FraudAlert> alerts = sendRepeatedFraud(driver, false);
+
+            // Five fraudulent updates; the one that does not raise the score is held back
+            List<Integer> scores = alerts.stream().map(FraudAlert::getRiskScore).toList();
+            assertEquals(4, scores.size());
+            for (int i = 1; i < scores.size(); i++) {
+                assertTrue(scores.get(i) > scores.get(i - 1));
+            }
+            assertNotEquals(alerts.get(0).getAlertId(), alerts.get(1).getAlertId());
+        }
+    }
+
+    @Test
+    void testEscalationModeAlertsOncePerTumblingBucket() {
+        try (TopologyTestDriver driver = driver("dsl", "tumbling", "escalation")) {
+            TestInputTopic<String, Transaction> input = driver.createInputTopic("transactions",
+                    Serdes.String().serializer(), new JsonSerde<>(Transaction.class).serializer());
+            TestOutputTopic<String, FraudAlert> output = driver.createOutputTopic("fraud-alerts",
+                    Serdes.String().deserializer(), new JsonSerde<>(FraudAlert.class).deserializer());
+
+            // The same burst in two consecutive buckets, starting at 10:04 and at 10:06
+            String[] countries = {"ES", "FR", "DE"};
+            for (long bucketOffset : new long[] {240, 360}) {
+                for (int i = 0; i < countries.length; i++) {
+                    Instant time = BASE.plusSeconds(bucketOffset + i);
+                    input.pipeInput("ACC-001", transaction("TXN-" + bucketOffset + "-" + i, "ACC-001", "400.00",
+                                                           countries[i], time), time);
+                }
+            }
+            List<FraudAlert> alerts = output.readValuesToList();
+
+            assertEquals(2, alerts.size());
+            assertEquals(BASE, alerts.get(0).getWindowStart());
+            assertEquals(BASE.plusSeconds(300), alerts.get(0).getWindowEnd());
+            assertEquals(BASE.plusSeconds(300), alerts.get(1).getWindowStart());
+            assertEquals(BASE.plusSeconds(600), alerts.get(1).getWindowEnd());
+            assertEquals(alerts.get(0).getRiskScore(), alerts.get(1).getRiskScore());
+            assertNotEquals(alerts.get(0).getAlertId(), alerts.get(1).getAlertId());
+        }
+    }
+
+    @Test
+    void testFinalModeSendsOneAlertWhenTheWindowCloses() {
+        try (TopologyTestDriver driver = driver("dsl", "tumbling", "final")) {
+            List<FraudAlert> alerts = sendRepeatedFraud(driver, true);
+
+            assertEquals(1, alerts.size());
+            assertEquals(7, alerts.get(0).getTransactionCount());
+        }
+    }
+
+    @Test
+    void testAlertIdsAreDeterministic() {
+        List<String> first;
+        try (TopologyTestDriver driver = driver("dsl", "tumbling", "all")) {
+            first = sendRepeatedFraud(driver, false).stream().map(FraudAlert::getAlertId).toList();
+        }
+        try (TopologyTestDriver driver = driver("dsl", "tumbling", "all")) {
+            assertEquals(first, sendRepeatedFraud(driver, false).stream().map(FraudAlert::getAlertId).toList());
+        }
+        assertTrue(first.get(0).matches("FRAUD-[0-9A-F]{8}"));
+    }
+
+    @Test
+    void testRulesFromTheRulesTopicApplyToLaterTransactions() {
+        String expectedVersion = CompiledRuleSet.parse(List.of(CompiledRuleSet.DEFAULT_RULE,
+                "TWO_COUNTRY_BURST: total >= 500.00 && countries >= 2", "@scoring-threshold: 400.00")).getVersion();
+        for (String engine : List.of("dsl", "processor")) {
+            try (TopologyTestDriver driver = driver(engine, "tumbling", "all")) {
+                TestInputTopic<String, String> rules = driver.createInputTopic("fraud-rules",
+                        Serdes.String().serializer(), Serdes.String().serializer());
+                TestInputTopic<String, Transaction> input = driver.createInputTopic("transactions",
+                        Serdes.String().serializer(), new JsonSerde<>(Transaction.class).serializer());
+                TestOutputTopic<String, FraudAlert> output = driver.createOutputTopic("fraud-alerts",
+                        Serdes.String().deserializer(), new JsonSerde<>(FraudAlert.class).deserializer());
+
+                rules.pipeInput("TWO_COUNTRY_BURST", "total >= 500.00 && countries >= 2");
+                rules.pipeInput("BROKEN", "total >>> 1");
+                rules.pipeInput("@scoring-threshold", "400.00");
+                rules.pipeInput("@scoring-threshold", "-1");
+                input.pipeInput("ACC-001", transaction("TXN-1", "ACC-001", "400.00", "ES", BASE), BASE);
+                input.pipeInput("ACC-001", transaction("TXN-2", "ACC-001", "400.00", "FR", BASE.plusSeconds(1)), BASE.plusSeconds(1));
+
+                List<FraudAlert> alerts = output.readValuesToList();
+                assertEquals(1, alerts.size(), engine);
+                assertEquals("TWO_COUNTRY_BURST", alerts.get(0).getAlertType());
+                assertEquals(expectedVersion, alerts.get(0).getRulesVersion());
+
+                // Tombstones: back to the configured rules
+                rules.pipeInput("TWO_COUNTRY_BURST", (String) null);
+                rules.pipeInput("@scoring-threshold", (String) null);
+                input.pipeInput("ACC-002", transaction("TXN-3", "ACC-002", "400.00", "ES", BASE.plusSeconds(2)), BASE.plusSeconds(2));
+                input.pipeInput("ACC-002", transaction("TXN-4", "ACC-002", "400.00", "FR", BASE.plusSeconds(3)), BASE.plusSeconds(3));
+                assertTrue(output.isEmpty(), engine);
+            }
+        }
+    }
+
+    @Test
+    void testHorizonModeEvaluatesRulesOnEveryHorizon() {
+        try (TopologyTestDriver driver = driver("dsl", "horizons", "all")) {
+            TestInputTopic<String, String> rules = driver.createInputTopic("fraud-rules",
+                    Serdes.String().serializer(), Serdes.String().serializer());
+            TestInputTopic<String, Transaction> input = driver.createInputTopic("transactions",
+                    Serdes.String().serializer(), new JsonSerde<>(Transaction.class).serializer());
+            TestOutputTopic<String, FraudAlert> output = driver.createOutputTopic("fraud-alerts",
+                    Serdes.String().deserializer(), new JsonSerde<>(FraudAlert.class).deserializer());
+
+            rules.pipeInput("RAPID_FIRE", "transactions[1m] >= 3 && total[24h] >= 100.00");
+            // Three in one minute, but only 30.00 in the last day: no alert
+            for (int i = 0; i < 3; i++) {
+                Instant time = BASE.plusSeconds(i);
+                input.pipeInput("ACC-001", transaction("TXN-" + i, "ACC-001", "10.00", "ES", time), time);
+            }
+            assertTrue(output.isEmpty());
+
+            // Two hours later the 24h total passes 100.00 with the next burst
+            for (int i = 3; i < 6; i++) {
+                Instant time = BASE.plusSeconds(7200 + i);
+                input.pipeInput("ACC-001", transaction("TXN-" + i, "ACC-001", "30.00", "ES", time), time);
+            }
+            List<FraudAlert> alerts = output.readValuesToList();
+            assertEquals(1, alerts.size());
+            assertEquals("RAPID_FIRE", alerts.get(0).getAlertType());
+            assertEquals(3, alerts.get(0).getTransactionCount());
+
+            // The regular rule still runs on the 5-minute detection horizon
+            input.pipeInput("ACC-002", transaction("TXN-7", "ACC-002", "400.00", "ES", BASE.plusSeconds(240)), BASE.plusSeconds(240));
+            input.pipeInput("ACC-002", transaction("TXN-8", "ACC-002", "400.00", "FR", BASE.plusSeconds(330)), BASE.plusSeconds(330));
+            input.pipeInput("ACC-002", transaction("TXN-9", "ACC-002", "400.00", "DE", BASE.plusSeconds(360)), BASE.plusSeconds(360));
+            assertEquals("MULTI_COUNTRY_HIGH_VALUE", output.readValue().getAlertType());
+        }
+    }
+
+    @Test
+    void testHorizonModeSweepsIdleAccountsAndDropsLateRecords() {
+        try (TopologyTestDriver driver = driver("dsl", "horizons")) {
+            TestInputTopic<String, Transaction> input = driver.createInputTopic("transactions",
+                    Serdes.String().serializer(), new JsonSerde<>(Transaction.class).serializer());
+            KeyValueStore<String, AccountHorizonPanes> store = driver.getKeyValueStore("account-horizon-store");
+            input.pipeInput("ACC-001", transaction("TXN-1", "ACC-001", "10.00", "ES", BASE), BASE);
+            assertEquals(1, store.get("ACC-001").horizon(Duration.ofHours(24).toMillis()).getTransactionCount());
+
+            // Twice the longest horizon later, through another account, the sweep deletes ACC-001's panes
+            Instant later = BASE.plus(Duration.ofHours(49));
+            input.pipeInput("ACC-002", transaction("TXN-2", "ACC-002", "10.00", "ES", later), later);
+            assertNull(store.get("ACC-001"));
+
+            // A record a day or more behind stream time is late, so it cannot bring the account back
+            Instant late = BASE.plus(Duration.ofHours(25));
+            input.pipeInput("ACC-001", transaction("TXN-3", "ACC-001", "10.00", "IT", late), late);
+            assertNull(store.get("ACC-001"));
+        }
+    }
+
+    @Test
+    void testImpossibleTravelAlertsBesideEveryEngine() {
+        for (String engine : List.of("dsl", "processor")) {
+            try (TopologyTestDriver driver = driver(engine, "tumbling")) {
+                TestInputTopic<String, Transaction> input = driver.createInputTopic("transactions",
+                        Serdes.String().serializer(), new JsonSerde<>(Transaction.class).serializer());
+                TestOutputTopic<String, FraudAlert> output = driver.createOutputTopic("fraud-alerts",
+                        Serdes.String().deserializer(), new JsonSerde<>(FraudAlert.class).deserializer());
+
+                input.pipeInput("ACC-001", transaction("TXN-1", "ACC-001", "20.00", "ES", BASE), BASE);
+                input.pipeInput("ACC-001", transaction("TXN-2", "ACC-001", "20.00", "FR", BASE.plusSeconds(60)), BASE.plusSeconds(60));
+                input.pipeInput("ACC-001", transaction("TXN-3", "ACC-001", "20.00", "JP", BASE.plusSeconds(1800)), BASE.plusSeconds(1800));
+
+                List<FraudAlert> alerts = output.readValuesToList();
+                assertEquals(1, alerts.size(), engine);
+                assertEquals("IMPOSSIBLE_TRAVEL", alerts.get(0).getAlertType());
+                assertEquals(BASE.plusSeconds(60), alerts.get(0).getWindowStart());
+                assertEquals(Set.of("FR", "JP"), alerts.get(0).getCountriesInvolved());
+            }
+        }
+    }
+
+    @Test
+    void testRepeatedJourneyAlertsOnlyOnce() {
+        for (String alertMode : List.of("escalation", "all")) {
+            try (TopologyTestDriver driver = driver("dsl", "tumbling", alertMode)) {
+                TestInputTopic<String, Transaction> input = driver.createInputTopic("transactions",
+                        Serdes.String().serializer(), new JsonSerde<>(Transaction.class).serializer());
+                TestOutputTopic<String, FraudAlert> output = driver.createOutputTopic("fraud-alerts",
+                        Serdes.String().deserializer(), new JsonSerde<>(FraudAlert.class).deserializer());
+
+                input.pipeInput("ACC-001", transaction("TXN-1", "ACC-001", "20.00", "ES", BASE), BASE);
+                input.pipeInput("ACC-001", transaction("TXN-2", "ACC-001", "20.00", "JP", BASE.plusSeconds(1800)), BASE.plusSeconds(1800));
+                // A late purchase from the same time and place makes the same journey again
+                input.pipeInput("ACC-001", transaction("TXN-3", "ACC-001", "20.00", "ES", BASE), BASE.plusSeconds(1860));
+
+                List<FraudAlert> alerts = output.readValuesToList();
+                assertEquals("escalation".equals(alertMode) ? 1 : 2, alerts.size(), alertMode);
+                assertEquals("IMPOSSIBLE_TRAVEL", alerts.get(0).getAlertType());
+                assertEquals(alerts.get(0).getAlertId(), alerts.get(alerts.size() - 1).getAlertId());
+            }
+        }
+    }
+
+    @Test
+    void testMerchantFanInAlertsOncePerWindowAndKeepsThePreviousOpenForGrace() {
+        try (TopologyTestDriver driver = driver("dsl", "tumbling")) {
+            TestInputTopic<String, Transaction> input = driver.createInputTopic("transactions",
+                    Serdes.String().serializer(), new JsonSerde<>(Transaction.class).serializer());
+            TestOutputTopic<String, MerchantAlert> output = driver.createOutputTopic("merchant-alerts",
+                    Serdes.String().deserializer(), new JsonSerde<>(MerchantAlert.class).deserializer());
+
+            // 60 distinct accounts, each twice, at one merchant within the 10:00 window
+            for (int repeat = 0; repeat < 2; repeat++) {
+                for (int i = 0; i < 60; i++) {
+                    String accountId = "ACC-" + i;
+                    Instant at = BASE.plusSeconds(repeat * 60 + i);
+                    input.pipeInput(accountId, transaction("TXN-" + repeat + "-" + i, accountId, "5.00", "ES", at), at);
+                }
+            }
+
+            List<MerchantAlert> alerts = output.readValuesToList();
+            assertEquals(1, alerts.size());
+            assertEquals("Merchant", alerts.get(0).getMerchantName());
+            assertEquals(50, alerts.get(0).getDistinctAccounts());
+            assertEquals(BASE, alerts.get(0).getWindowStart());
+            assertEquals(BASE.plusSeconds(300), alerts.get(0).getWindowEnd());
+
+            // Stored as it changes, without waiting for a schedule
+            KeyValueStore<String, MerchantFanInWindow> store = driver.getKeyValueStore("merchant-fan-in-store");
+            assertEquals(60, store.get(MerchantFanInProcessor.CURRENT_KEY).estimate("Merchant"));
+
+            // The next window counts afresh
+            Instant next = BASE.plusSeconds(300);
+            for (int i = 0; i < 50; i++) {
+                input.pipeInput("ACC-" + i, transaction("TXN-N-" + i, "ACC-" + i, "5.00", "ES", next), next);
+            }
+            assertEquals(BASE.plusSeconds(300), output.readValue().getWindowStart());
+
+            // Within the grace period a late record still counts in the window it belongs to
+            Instant late = BASE.plusSeconds(290);
+            input.pipeInput("ACC-99", transaction("TXN-L-1", "ACC-99", "5.00", "ES", late), late);
+            assertEquals(61, store.get(MerchantFanInProcessor.PREVIOUS_KEY).estimate("Merchant"));
+            assertEquals(50, store.get(MerchantFanInProcessor.CURRENT_KEY).estimate("Merchant"));
+
+            // Once stream time passes its end plus grace the window closes and late records are dropped
+            Instant afterGrace = BASE.plusSeconds(361);
+            input.pipeInput("ACC-0", transaction("TXN-G", "ACC-0", "5.00", "ES", afterGrace), afterGrace);
+            input.pipeInput("ACC-98", transaction("TXN-L-2", "ACC-98", "5.00", "ES", late), late);
+            assertNull(store.get(MerchantFanInProcessor.PREVIOUS_KEY));
+            assertEquals(50, store.get(MerchantFanInProcessor.CURRENT_KEY).estimate("Merchant"));
+            assertTrue(output.isEmpty());
+        }
+    }
+
+    @Test
+    void testDuplicateTransactionsCountOnce() {
+        try (TopologyTestDriver driver = driver("dsl", "sliding")) {
+            TestInputTopic<String, Transaction> input = driver.createInputTopic("transactions",
+                    Serdes.String().serializer(), new JsonSerde<>(Transaction.class).serializer());
+            TestOutputTopic<String, FraudAlert> output = driver.createOutputTopic("fraud-alerts",
+                    Serdes.String().deserializer(), new JsonSerde<>(FraudAlert.class).deserializer());
+
+            // A retried send of TXN-1 arrives after TXN-2
+            input.pipeInput("ACC-001", transaction("TXN-1", "ACC-001", "400.00", "ES", BASE.plusSeconds(240)), BASE.plusSeconds(240));
+            input.pipeInput("ACC-001", transaction("TXN-2", "ACC-001", "400.00", "FR", BASE.plusSeconds(330)), BASE.plusSeconds(330));
+            input.pipeInput("ACC-001", transaction("TXN-1", "ACC-001", "400.00", "ES", BASE.plusSeconds(240)), BASE.plusSeconds(335));
+            input.pipeInput("ACC-001", transaction("TXN-3", "ACC-001", "400.00", "DE", BASE.plusSeconds(360)), BASE.plusSeconds(360));
+
+            List<FraudAlert> alerts = output.readValuesToList();
+            assertEquals(1, alerts.size());
+            assertEquals(new BigDecimal("1200.00"), alerts.get(0).getTotalAmount());
+            assertEquals(3, alerts.get(0).getTransactionCount());
+        }
+    }
+
+    @Test
+    void testDuplicateMetricsArePerTaskAndMeasuredOnlyWithTheExactCheck() {
+        for (boolean exactCheck : new boolean[] {true, false}) {
+            MeterRegistry registry = new SimpleMeterRegistry();
+            FraudDetectionProcessor processor = processor("dsl", "sliding", "escalation");
+            ReflectionTestUtils.setField(processor, "meterRegistry", registry);
+            ReflectionTestUtils.setField(processor, "dedupExactCheck", exactCheck);
+            try (TopologyTestDriver driver = driver(processor)) {
+                TestInputTopic<String, Transaction> input = driver.createInputTopic("transactions",
+                        Serdes.String().serializer(), new JsonSerde<>(Transaction.class).serializer());
+                input.pipeInput("ACC-001", transaction("TXN-1", "ACC-001", "10.00", "ES", BASE), BASE);
+                input.pipeInput("ACC-001", transaction("TXN-1", "ACC-001", "10.00", "ES", BASE), BASE);
+
+                assertEquals(2, registry.get("fraudlens.dedup.checked").tag("task.id", "0_0").counter().count());
+                assertEquals(1, registry.get("fraudlens.dedup.duplicates").counter().count());
+                Gauge rate = registry.find("fraudlens.dedup.false-positive-rate").gauge();
+                if (exactCheck) {
+                    assertEquals(0.0, rate.value());
+                } else {
+                    assertNull(rate);
+                }
+            }
+            // Closing the task unregisters its meters
+            assertNull(registry.find("fraudlens.dedup.checked").counter());
+        }
+    }
+}
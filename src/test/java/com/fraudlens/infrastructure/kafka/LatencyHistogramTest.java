@@ -0,0 +1,34 @@
+package com.fraudlens.infrastructure.kafka;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void testBucketsAreContiguousAndTight() {
+        for (long micros = 0; micros < 1_000_000; micros++) {
+            int index = LatencyHistogram.index(micros);
+            assertTrue(LatencyHistogram.lowerBound(index) <= micros);
+            assertTrue(LatencyHistogram.lowerBound(index + 1) > micros);
+            assertTrue(LatencyHistogram.lowerBound(index + 1) - LatencyHistogram.lowerBound(index) <= Math.max(1, micros / 16));
+        }
+        assertTrue(LatencyHistogram.index(Long.MAX_VALUE) < 64 * 16);
+    }
+
+    @Test
+    void testPercentilesWithinTheBucketResolution() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.percentileMicros(0.99));
+        for (int i = 1; i <= 1_000; i++) {
+            histogram.recordNanos(i * 1_000_000L); // 1..1000 ms
+        }
+
+        assertEquals(1_000, histogram.count());
+        assertEquals(500_000, histogram.percentileMicros(0.50), 500_000 / 16.0);
+        assertEquals(990_000, histogram.percentileMicros(0.99), 990_000 / 16.0);
+        assertEquals(1_000_000, histogram.maxMicros());
+        assertEquals(1_000_000, histogram.percentileMicros(1.0));
+    }
+}
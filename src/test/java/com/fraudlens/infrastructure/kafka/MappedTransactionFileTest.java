@@ -0,0 +1,80 @@
+package com.fraudlens.infrastructure.kafka;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedTransactionFileTest {
+
+    @TempDir
+    Path dir;
+
+    private List<String> readAll(byte[] content, BulkIngestService.Format format, int windowBytes) throws IOException {
+        Path path = Files.write(dir.resolve("transactions"), content);
+        List<String> records = new ArrayList<>();
+        try (MappedTransactionFile file = new MappedTransactionFile(path, format, windowBytes)) {
+            byte[] record;
+            while ((record = file.next()) != null) {
+                records.add(new String(record, StandardCharsets.UTF_8));
+            }
+            assertEquals(content.length, file.position());
+        }
+        return records;
+    }
+
+    @Test
+    void testNdjsonLinesStraddleWindows() throws IOException {
+        List<String> expected = new ArrayList<>();
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            String line = "{\"n\":" + i + ",\"pad\":\"" + "p".repeat(i % 7) + "\"}";
+            expected.add(line);
+            content.append(line).append(i % 3 == 0 ? "\r\n" : "\n");
+            if (i % 10 == 0) {
+                content.append("  \n");
+            }
+        }
+        content.append("{\"last\":true}");
+        expected.add("{\"last\":true}");
+
+        // 64-byte windows: almost every line crosses a window boundary
+        assertEquals(expected, readAll(content.toString().getBytes(StandardCharsets.UTF_8), BulkIngestService.Format.NDJSON, 64));
+        assertEquals(expected, readAll(content.toString().getBytes(StandardCharsets.UTF_8), BulkIngestService.Format.NDJSON, 1 << 20));
+    }
+
+    @Test
+    void testBinaryFramesStraddleWindows() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            String record = "{\"n\":" + i + ",\"pad\":\"" + "q".repeat(i % 11) + "\"}";
+            byte[] data = record.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(data.length);
+            out.write(data);
+            expected.add(record);
+        }
+
+        assertEquals(expected, readAll(bytes.toByteArray(), BulkIngestService.Format.BINARY, 48));
+    }
+
+    @Test
+    void testRecordsLongerThanAWindowAndTruncatedFilesFail() {
+        byte[] longLine = ("{\"a\":\"" + "x".repeat(100) + "\"}\n{}").getBytes(StandardCharsets.UTF_8);
+        assertThrows(IOException.class, () -> readAll(longLine, BulkIngestService.Format.NDJSON, 64));
+
+        byte[] truncated = {0, 0, 0, 10, '{', '}'};
+        assertThrows(EOFException.class, () -> readAll(truncated, BulkIngestService.Format.BINARY, 64));
+    }
+}
@@ -0,0 +1,162 @@
+package com.fraudlens.infrastructure.kafka;
+
+import com.fraudlens.domain.model.FraudAlert;
+import com.fraudlens.domain.model.MerchantAlert;
+import com.fraudlens.domain.model.Transaction;
+import com.fraudlens.domain.service.FraudDetectionService;
+import com.fraudlens.infrastructure.serde.AccountActivityAggregateSerde;
+import com.fraudlens.infrastructure.serde.AccountEventBufferSerde;
+import com.fraudlens.infrastructure.serde.AccountHorizonPanesSerde;
+import com.fraudlens.infrastructure.serde.AccountProfileSerde;
+import com.fraudlens.infrastructure.serde.JsonMappers;
+import com.fraudlens.infrastructure.serde.JsonSerde;
+import com.fraudlens.infrastructure.serde.LazyTransactionSerde;
+import com.fraudlens.infrastructure.serde.MerchantFanInWindowSerde;
+import org.apache.kafka.streams.StreamsConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.kafka.config.KafkaStreamsConfiguration;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplayEngineTest {
+
+    private static final Instant BASE = Instant.parse("2024-03-01T10:00:00.000Z");
+
+    @TempDir
+    Path dir;
+
+    private static ReplayEngine engine() {
+        return engine(1);
+    }
+
+    private static ReplayEngine engine(int partitions) {
+        FraudDetectionProcessor processor = new FraudDetectionProcessor();
+        ReflectionTestUtils.setField(processor, "fraudDetectionService", new FraudDetectionService());
+        ReflectionTestUtils.setField(processor, "transactionSerde", new LazyTransactionSerde(JsonMappers.shared()));
+        ReflectionTestUtils.setField(processor, "accountActivityAggregateSerde", new AccountActivityAggregateSerde());
+        ReflectionTestUtils.setField(processor, "fraudAlertSerde", new JsonSerde<>(FraudAlert.class));
+        ReflectionTestUtils.setField(processor, "accountEventBufferSerde", new AccountEventBufferSerde());
+        ReflectionTestUtils.setField(processor, "accountHorizonPanesSerde", new AccountHorizonPanesSerde());
+        ReflectionTestUtils.setField(processor, "accountProfileSerde", new AccountProfileSerde());
+        ReflectionTestUtils.setField(processor, "merchantFanInWindowSerde", new MerchantFanInWindowSerde());
+        ReflectionTestUtils.setField(processor, "merchantAlertSerde", new JsonSerde<>(MerchantAlert.class));
+        ReflectionTestUtils.setField(processor, "windowMode", "tumbling");
+        ReflectionTestUtils.setField(processor, "engine", "processor");
+        ReflectionTestUtils.setField(processor, "sweepIntervalMs", 60_000L);
+        ReflectionTestUtils.setField(processor, "sweepPunctuation", "stream-time");
+        ReflectionTestUtils.setField(processor, "sweepBatchSize", 100);
+        ReflectionTestUtils.setField(processor, "cachedAccounts", 10);
+        ReflectionTestUtils.setField(processor, "alertMode", "escalation");
+
+        ReplayEngine engine = new ReplayEngine();
+        ReflectionTestUtils.setField(engine, "fraudDetectionProcessor", processor);
+        ReflectionTestUtils.setField(engine, "transactionSerde", new LazyTransactionSerde(JsonMappers.shared()));
+        ReflectionTestUtils.setField(engine, "streamsConfiguration", new KafkaStreamsConfiguration(Map.of(
+                StreamsConfig.APPLICATION_ID_CONFIG, "replay-engine-test",
+                StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "dummy:9092")));
+        ReflectionTestUtils.setField(engine, "partitions", partitions);
+        return engine;
+    }
+
+    // A burst over three countries on ACC-001, quiet activity elsewhere, and one unreadable record
+    private static List<byte[]> records() throws IOException {
+        List<byte[]> records = new ArrayList<>();
+        String[] countries = {"ES", "FR", "DE"};
+        for (int i = 0; i < countries.length; i++) {
+            records.add(json(new Transaction("TXN-" + i, "ACC-001", new BigDecimal("400.00"), countries[i], "EUR",
+                                             "PURCHASE", BASE.plusSeconds(60 + 30 * i), "Merchant", null)));
+            records.add(json(new Transaction("TXN-Q" + i, "ACC-002", new BigDecimal("12.00"), "ES", "EUR",
+                                             "PURCHASE", BASE.plusSeconds(75 + 30 * i), "Merchant", null)));
+        }
+        records.add(2, "{not json".getBytes(StandardCharsets.UTF_8));
+        return records;
+    }
+
+    private static byte[] json(Transaction transaction) throws IOException {
+        return JsonMappers.shared().writeValueAsBytes(transaction);
+    }
+
+    private void assertOneAlertForAcc001(ReplayReport report, Path output) throws IOException {
+        assertEquals(6, report.getEvents());
+        assertEquals(1, report.getRejected());
+        assertEquals(1, report.getFraudAlerts());
+        assertEquals(BASE.plusSeconds(60), report.getFirstEventTime());
+        assertEquals(BASE.plusSeconds(135), report.getLastEventTime());
+        assertTrue(report.getWallTimeSeconds() > 0);
+
+        List<String> lines = Files.readAllLines(output);
+        assertEquals(1, lines.size());
+        FraudAlert alert = JsonMappers.shared().readValue(lines.get(0), FraudAlert.class);
+        assertEquals("ACC-001", alert.getAccountId());
+        assertEquals(3, alert.getCountriesInvolved().size());
+    }
+
+    @Test
+    void testReplaysNdjsonFileInEventTimeToAlertFile() throws IOException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        for (byte[] record : records()) {
+            content.write(record);
+            content.write('\n');
+        }
+        Path input = Files.write(dir.resolve("transactions.ndjson"), content.toByteArray());
+        Path output = dir.resolve("alerts.ndjson");
+
+        assertOneAlertForAcc001(engine().replay(input, BulkIngestService.Format.NDJSON, output), output);
+    }
+
+    @Test
+    void testReplaysBinaryFile() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream content = new DataOutputStream(bytes);
+        for (byte[] record : records()) {
+            content.writeInt(record.length);
+            content.write(record);
+        }
+        Path input = Files.write(dir.resolve("transactions.bin"), bytes.toByteArray());
+        Path output = dir.resolve("alerts.ndjson");
+
+        assertOneAlertForAcc001(engine().replay(input, BulkIngestService.Format.BINARY, output), output);
+    }
+
+    @Test
+    void testPartitionedReplayFindsTheSameAlerts() throws IOException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        for (byte[] record : records()) {
+            content.write(record);
+            content.write('\n');
+        }
+        Path input = Files.write(dir.resolve("transactions.ndjson"), content.toByteArray());
+        Path output = dir.resolve("alerts.ndjson");
+
+        ReplayReport report = engine(3).replay(input, BulkIngestService.Format.NDJSON, output);
+
+        assertEquals(3, report.getPartitions());
+        assertOneAlertForAcc001(report, output);
+    }
+
+    @Test
+    void testEmptyFileWritesNoAlerts() throws IOException {
+        Path input = Files.write(dir.resolve("empty.ndjson"), new byte[0]);
+        Path output = dir.resolve("alerts.ndjson");
+
+        ReplayReport report = engine().replay(input, BulkIngestService.Format.NDJSON, output);
+
+        assertEquals(0, report.getEvents());
+        assertNull(report.getFirstEventTime());
+        assertEquals(0, Files.size(output));
+    }
+}
@@ -0,0 +1,57 @@
+package com.fraudlens.infrastructure.kafka;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionRecordReaderTest {
+
+    private static List<String> readAll(byte[] body, BulkIngestService.Format format, int maxRecordBytes) throws IOException {
+        TransactionRecordReader reader = new TransactionRecordReader(new ByteArrayInputStream(body), format, maxRecordBytes);
+        List<String> records = new ArrayList<>();
+        byte[] record;
+        while ((record = reader.next()) != null) {
+            records.add(record == TransactionRecordReader.OVERSIZED ? "<oversized>" : new String(record, StandardCharsets.UTF_8));
+        }
+        return records;
+    }
+
+    @Test
+    void testNdjsonSkipsBlankLinesAndHandlesCrlfAndNoFinalNewline() throws IOException {
+        String body = "{\"a\":1}\r\n\n  \n{\"b\":\"ñ\"}\n" + "{\"c\":\"" + "x".repeat(20_000) + "\"}\n{\"d\":4}";
+
+        assertEquals(List.of("{\"a\":1}", "{\"b\":\"ñ\"}", "<oversized>", "{\"d\":4}"),
+                     readAll(body.getBytes(StandardCharsets.UTF_8), BulkIngestService.Format.NDJSON, 10_000));
+    }
+
+    @Test
+    void testBinaryFramesAcrossReadChunks() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        String large = "{\"big\":\"" + "y".repeat(12_000) + "\"}";
+        for (String record : List.of("{\"a\":1}", large, "z".repeat(70_000), "{\"b\":2}")) {
+            byte[] data = record.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(data.length);
+            out.write(data);
+        }
+
+        assertEquals(List.of("{\"a\":1}", large, "<oversized>", "{\"b\":2}"),
+                     readAll(bytes.toByteArray(), BulkIngestService.Format.BINARY, 65_536));
+    }
+
+    @Test
+    void testTruncatedBinaryBodyFails() {
+        byte[] body = {0, 0, 0, 10, '{', '}'};
+
+        assertThrows(EOFException.class, () -> readAll(body, BulkIngestService.Format.BINARY, 100));
+    }
+}
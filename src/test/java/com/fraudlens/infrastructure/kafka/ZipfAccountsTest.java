@@ -0,0 +1,60 @@
+package com.fraudlens.infrastructure.kafka;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ZipfAccountsTest {
+
+    @Test
+    void testEverySenderOwnsWholePartitionsAndSharesAddUp() {
+        ZipfAccounts accounts = new ZipfAccounts(10_000, 1.0, 12, 4);
+
+        double shares = 0;
+        int total = 0;
+        for (int sender = 0; sender < 4; sender++) {
+            ZipfAccounts.Sampler sampler = accounts.sampler(sender);
+            shares += sampler.share();
+            total += sampler.size();
+            for (int i = 0; i < sampler.size(); i++) {
+                int partition = sampler.partition(i);
+                assertEquals(ZipfAccounts.partitionOf(ZipfAccounts.accountId(sampler.rank(i)), 12), partition);
+                assertEquals(sender, accounts.ownerOf(partition));
+            }
+            // Balanced to within the heaviest partition
+            assertEquals(0.25, sampler.share(), 0.15);
+        }
+        assertEquals(1.0, shares, 1e-9);
+        assertEquals(10_000, total);
+    }
+
+    @Test
+    void testSamplesFollowTheZipfWeights() {
+        ZipfAccounts accounts = new ZipfAccounts(1_000, 1.0, 1, 1);
+        ZipfAccounts.Sampler sampler = accounts.sampler(0);
+        int[] hits = new int[1_000];
+        for (int i = 0; i < 200_000; i++) {
+            hits[sampler.rank(sampler.next(ThreadLocalRandom.current()))]++;
+        }
+
+        // Rank 0 has weight 1/H(1000), about 13.4%; rank 1 half of that
+        assertEquals(0.134, hits[0] / 200_000.0, 0.01);
+        assertEquals(0.5, (double) hits[1] / hits[0], 0.05);
+    }
+
+    @Test
+    void testSendersWithoutPartitionsGetNoShare() {
+        ZipfAccounts accounts = new ZipfAccounts(100, 1.0, 2, 3);
+
+        int idle = 0;
+        for (int sender = 0; sender < 3; sender++) {
+            if (accounts.sampler(sender).size() == 0) {
+                assertEquals(0.0, accounts.sampler(sender).share());
+                idle++;
+            }
+        }
+        assertEquals(1, idle);
+    }
+}
@@ -0,0 +1,116 @@
+package com.fraudlens.infrastructure.serde;
+
+import com.fraudlens.domain.model.AccountActivityAggregate;
+import com.fraudlens.domain.model.AccountActivityWindow;
+import com.fraudlens.domain.model.CountryDictionary;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountActivityWindowSerdeTest {
+
+    private static final String TOPIC = "account-activity-store-changelog";
+
+    private final AccountActivityWindowSerde binarySerde = new AccountActivityWindowSerde(AccountActivityAggregateSerde.Format.BINARY);
+    private final AccountActivityWindowSerde jsonSerde = new AccountActivityWindowSerde(AccountActivityAggregateSerde.Format.JSON);
+
+    private AccountActivityWindow sampleWindow(Set<String> countries) {
+        Instant end = Instant.parse("2024-03-01T10:05:00.123Z");
+        return new AccountActivityWindow("ACC-001", end.minusSeconds(300), end,
+                                         new BigDecimal("1250.75"), 4, countries, end);
+    }
+
+    @Test
+    void testBinaryRoundTrip() {
+        AccountActivityWindow window = sampleWindow(new HashSet<>(Arrays.asList("ES", "FR", "DE", "XK")));
+
+        byte[] bytes = binarySerde.serializer().serialize(TOPIC, window);
+        AccountActivityWindow decoded = binarySerde.deserializer().deserialize(TOPIC, bytes);
+
+        assertEquals(window, decoded);
+        assertEquals(window.getTotalAmount(), decoded.getTotalAmount());
+        assertEquals(window.getTransactionCount(), decoded.getTransactionCount());
+        assertEquals(window.getCountries(), decoded.getCountries());
+        assertEquals(window.getLastUpdated(), decoded.getLastUpdated());
+    }
+
+    @Test
+    void testBinaryIsSmallerThanJson() {
+        AccountActivityWindow window = sampleWindow(new HashSet<>(Arrays.asList("ES", "FR", "DE")));
+
+        int binarySize = binarySerde.serializer().serialize(TOPIC, window).length;
+        int jsonSize = jsonSerde.serializer().serialize(TOPIC, window).length;
+
+        assertTrue(binarySize * 3 < jsonSize, "binary=" + binarySize + " json=" + jsonSize);
+    }
+
+    @Test
+    void testReadsLegacyJsonRecords() {
+        AccountActivityWindow window = sampleWindow(new HashSet<>(Arrays.asList("ES", "IT")));
+
+        byte[] legacy = new JsonSerde<>(AccountActivityWindow.class).serializer().serialize(TOPIC, window);
+        AccountActivityWindow decoded = binarySerde.deserializer().deserialize(TOPIC, legacy);
+
+        assertEquals(window, decoded);
+        assertEquals(0, window.getTotalAmount().compareTo(decoded.getTotalAmount()));
+        assertEquals(window.getCountries(), decoded.getCountries());
+    }
+
+    @Test
+    void testAggregateAndWindowShareTheWireFormat() {
+        AccountActivityWindow window = sampleWindow(new HashSet<>(Arrays.asList("ES", "JP", "XK")));
+        AccountActivityAggregateSerde aggregateSerde = new AccountActivityAggregateSerde();
+
+        byte[] bytes = binarySerde.serializer().serialize(TOPIC, window);
+        AccountActivityAggregate aggregate = aggregateSerde.deserializer().deserialize(TOPIC, bytes);
+
+        assertEquals(new BigDecimal("1250.75"), aggregate.getTotalAmount());
+        assertEquals(3, aggregate.getCountryCount());
+        assertArrayEquals(bytes, aggregateSerde.serializer().serialize(TOPIC, aggregate));
+    }
+
+    @Test
+    void testTotalsBeyondLongMinorUnitsAreRejected() {
+        AccountActivityWindow window = new AccountActivityWindow("ACC-002", Instant.EPOCH, Instant.EPOCH.plusSeconds(300),
+                new BigDecimal("123456789012345678901234.56"), 1, Set.of("ES"), Instant.EPOCH);
+
+        assertThrows(SerializationException.class, () -> binarySerde.serializer().serialize(TOPIC, window));
+    }
+
+    @Test
+    void testReadsVersion1Records() {
+        ByteBuffer v1 = ByteBuffer.allocate(64);
+        v1.put(AccountActivityAggregateSerde.VERSION_1);
+        byte[] accountId = "ACC-003".getBytes(StandardCharsets.UTF_8);
+        v1.putInt(accountId.length).put(accountId);
+        v1.putLong(0L).putLong(300_000L).putLong(300_000L);
+        v1.put((byte) 2).putLong(150_000L).putInt(3);
+        v1.putLong((1L << CountryDictionary.lookup("ES")) | (1L << CountryDictionary.lookup("CO")));
+        v1.putShort((short) 1).putShort((short) 2).put("XK".getBytes(StandardCharsets.UTF_8));
+
+        AccountActivityWindow decoded = binarySerde.deserializer()
+                .deserialize(TOPIC, Arrays.copyOf(v1.array(), v1.position()));
+
+        assertEquals(new BigDecimal("1500.00"), decoded.getTotalAmount());
+        assertEquals(Set.of("ES", "CO", "XK"), decoded.getCountries());
+    }
+
+    @Test
+    void testStaticDictionaryIdsAreStable() {
+        assertEquals(0, CountryDictionary.lookup("ES"));
+        assertEquals(63, CountryDictionary.lookup("CO"));
+        assertTrue(CountryDictionary.isStatic(CountryDictionary.lookup("ZW")));
+        for (int id = 0; id < CountryDictionary.STATIC_SIZE; id++) {
+            assertEquals(id, CountryDictionary.lookup(CountryDictionary.codeOf(id)));
+        }
+    }
+}
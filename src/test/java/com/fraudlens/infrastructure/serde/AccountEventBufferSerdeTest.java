@@ -0,0 +1,56 @@
+package com.fraudlens.infrastructure.serde;
+
+import com.fraudlens.domain.model.AccountEventBuffer;
+import com.fraudlens.domain.model.Money;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountEventBufferSerdeTest {
+
+    private static final String TOPIC = "account-event-buffer-store-changelog";
+
+    private final AccountEventBufferSerde serde = new AccountEventBufferSerde();
+
+    @Test
+    void testRoundTripKeepsEventsAndRunningTotals() {
+        AccountEventBuffer buffer = new AccountEventBuffer("ACC-001", 300_000L);
+        buffer.add(1_000L, Money.of(new BigDecimal("250.00")), "ES", 5L);
+        buffer.add(2_000L, Money.of(new BigDecimal("300.10")), "XK", 6L);
+        buffer.add(1_500L, Money.of(new BigDecimal("500.00")), "ES", 7L);
+        buffer.add(3_000L, Money.of(new BigDecimal("1.00")), null, 8L);
+
+        byte[] bytes = serde.serializer().serialize(TOPIC, buffer);
+        AccountEventBuffer decoded = serde.deserializer().deserialize(TOPIC, bytes);
+
+        assertEquals(buffer.getAccountId(), decoded.getAccountId());
+        assertEquals(buffer.size(), decoded.size());
+        assertEquals(buffer.getTotal(), decoded.getTotal());
+        assertEquals(buffer.getDistinctCountries(), decoded.getDistinctCountries());
+        assertEquals(buffer.getNewestTimestamp(), decoded.getNewestTimestamp());
+        assertEquals(buffer.getLastUpdatedMillis(), decoded.getLastUpdatedMillis());
+        for (int i = 0; i < buffer.size(); i++) {
+            assertEquals(buffer.timestampAt(i), decoded.timestampAt(i));
+            assertEquals(buffer.amountAt(i), decoded.amountAt(i));
+            assertEquals(buffer.countryAt(i), decoded.countryAt(i));
+        }
+        assertEquals(buffer.toAggregate().getCountries(), decoded.toAggregate().getCountries());
+    }
+
+    @Test
+    void testDecodedBufferKeepsSliding() {
+        AccountEventBuffer buffer = new AccountEventBuffer("ACC-002", 300_000L);
+        buffer.add(0L, Money.of(new BigDecimal("10.00")), "ES", 0L);
+        AccountEventBuffer decoded = serde.deserializer().deserialize(TOPIC, serde.serializer().serialize(TOPIC, buffer));
+
+        for (int i = 1; i <= 20; i++) {
+            decoded.add(i * 60_000L, Money.of(new BigDecimal("1.00")), "FR", 0L);
+        }
+
+        assertEquals(6, decoded.size());
+        assertEquals(Money.of(new BigDecimal("6.00")), decoded.getTotal());
+        assertEquals(1, decoded.getDistinctCountries());
+    }
+}
@@ -0,0 +1,148 @@
+package com.fraudlens.infrastructure.serde;
+
+import com.fraudlens.domain.model.AccountHorizonPanes;
+import com.fraudlens.domain.model.CountryDictionary;
+import com.fraudlens.domain.model.HyperLogLog;
+import com.fraudlens.domain.model.Money;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountHorizonPanesSerdeTest {
+
+    private static final String TOPIC = "account-horizon-store-changelog";
+    private static final long MINUTE = 60_000L;
+    private static final long[] HORIZONS = {MINUTE, 5 * MINUTE, 60 * MINUTE};
+
+    private final AccountHorizonPanesSerde serde = new AccountHorizonPanesSerde();
+
+    @Test
+    void testRoundTripKeepsTheSketchBlocks() {
+        AccountHorizonPanes panes = new AccountHorizonPanes("ACC-002", MINUTE, HORIZONS, 5 * MINUTE, 60 * MINUTE);
+        for (int i = 0; i < 400; i++) {
+            panes.add(i * 20_000L, Money.of(new BigDecimal("2.50")), i % 3 == 0 ? "ES" : "FR", "M-" + (i % 150), i);
+        }
+
+        AccountHorizonPanes decoded = serde.deserializer().deserialize(TOPIC, serde.serializer().serialize(TOPIC, panes));
+
+        assertEquals(60 * MINUTE, decoded.getSketchBlockMillis());
+        AccountHorizonPanes.Horizon hour = panes.horizon(60 * MINUTE);
+        assertEquals(hour.getMerchantCount(), decoded.horizon(60 * MINUTE).getMerchantCount());
+        assertEquals(hour.getCountryCount(), decoded.horizon(60 * MINUTE).getCountryCount());
+        assertEquals(hour.getTransactionCount(), decoded.horizon(60 * MINUTE).getTransactionCount());
+        assertEquals(panes.horizon(5 * MINUTE).getCountries(), decoded.horizon(5 * MINUTE).getCountries());
+
+        // Later events keep adding to the restored blocks
+        panes.add(400 * 20_000L, Money.of(BigDecimal.ONE), "DE", "M-NEW", 401L);
+        decoded.add(400 * 20_000L, Money.of(BigDecimal.ONE), "DE", "M-NEW", 401L);
+        assertEquals(panes.horizon(60 * MINUTE).getMerchantCount(), decoded.horizon(60 * MINUTE).getMerchantCount());
+        assertEquals(3, decoded.horizon(60 * MINUTE).getCountryCount());
+    }
+
+    @Test
+    void testDayOfActivityStaysSmall() {
+        long[] horizons = {MINUTE, 5 * MINUTE, 60 * MINUTE, 24 * 60 * MINUTE};
+        AccountHorizonPanes panes = new AccountHorizonPanes("ACC-003", MINUTE, horizons, 5 * MINUTE, 60 * MINUTE);
+        for (int i = 0; i < 24 * 60; i++) {
+            panes.add(i * MINUTE, Money.of(new BigDecimal("2.50")), i % 2 == 0 ? "ES" : "FR", "M-" + (i % 4), i);
+        }
+
+        byte[] bytes = serde.serializer().serialize(TOPIC, panes);
+        AccountHorizonPanes decoded = serde.deserializer().deserialize(TOPIC, bytes);
+
+        // 60 panes and 25 blocks with a few set registers each, rather than 1440 panes and full sketches
+        assertTrue(bytes.length < 4_000, "serialized " + bytes.length + " bytes");
+        AccountHorizonPanes.Horizon day = decoded.horizon(24 * 60 * MINUTE);
+        assertEquals(panes.horizon(24 * 60 * MINUTE).getTotal(), day.getTotal());
+        assertEquals(24 * 60, day.getTransactionCount());
+        assertEquals(4, day.getMerchantCount());
+    }
+
+    @Test
+    void testVersion2PanesGetTheirBlockTotalsFromThePanes() throws IOException {
+        long hour = 60 * MINUTE;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(AccountHorizonPanesSerde.VERSION_2);
+        out.writeInt(7);
+        out.write("ACC-004".getBytes(StandardCharsets.UTF_8));
+        out.writeLong(MINUTE);
+        out.writeLong(5 * MINUTE);
+        out.writeByte(4);
+        for (long horizon : new long[] {MINUTE, 5 * MINUTE, hour, 24 * hour}) {
+            out.writeLong(horizon);
+        }
+        out.writeLong(hour);
+        out.writeLong(2 * hour);
+        out.writeLong(2 * hour);
+        out.writeLong(9L);
+        out.writeByte(2);
+        out.writeShort(1);
+        out.writeShort(CountryDictionary.idOf("ES"));
+        // A pane two hours back, before the reach of the 1h panes, and the newest one
+        out.writeInt(2);
+        for (long delta : new long[] {2 * hour, 0L}) {
+            out.writeLong(delta);
+            out.writeLong(1_000L);
+            out.writeInt(1);
+            out.writeShort(1);
+            out.writeShort(0);
+            out.writeInt(1);
+        }
+        out.writeShort(2);
+        for (long delta : new long[] {2 * hour, 0L}) {
+            out.writeLong(delta);
+            out.write(new byte[2 * HyperLogLog.SIZE_BYTES]);
+        }
+
+        AccountHorizonPanes decoded = serde.deserializer().deserialize(TOPIC, bytes.toByteArray());
+
+        assertEquals(1, decoded.paneCount());
+        assertEquals(1, decoded.horizon(hour).getTransactionCount());
+        assertEquals(2, decoded.horizon(24 * hour).getTransactionCount());
+        assertEquals(Money.ofUnits(2_000L, 2), decoded.horizon(24 * hour).getTotal());
+    }
+
+    @Test
+    void testRoundTripRebuildsEveryHorizon() {
+        AccountHorizonPanes panes = new AccountHorizonPanes("ACC-001", MINUTE, HORIZONS, 5 * MINUTE);
+        panes.add(0L, Money.of(new BigDecimal("250.00")), "ES", 5L);
+        panes.add(2 * MINUTE, Money.of(new BigDecimal("300.10")), "XK", 6L);
+        panes.add(MINUTE, Money.of(new BigDecimal("500.005")), "ES", 7L);
+        panes.add(6 * MINUTE, Money.of(new BigDecimal("1.00")), null, 8L);
+
+        AccountHorizonPanes decoded = serde.deserializer().deserialize(TOPIC, serde.serializer().serialize(TOPIC, panes));
+
+        assertEquals(panes.getAccountId(), decoded.getAccountId());
+        assertEquals(panes.paneCount(), decoded.paneCount());
+        assertEquals(panes.getNewestTimestamp(), decoded.getNewestTimestamp());
+        assertEquals(panes.getLastUpdatedMillis(), decoded.getLastUpdatedMillis());
+        assertEquals(panes.getDetectionHorizonMillis(), decoded.getDetectionHorizonMillis());
+        for (long horizon : HORIZONS) {
+            assertEquals(panes.horizon(horizon).getTotal(), decoded.horizon(horizon).getTotal());
+            assertEquals(panes.horizon(horizon).getTransactionCount(), decoded.horizon(horizon).getTransactionCount());
+            assertEquals(panes.horizon(horizon).getCountries(), decoded.horizon(horizon).getCountries());
+        }
+    }
+
+    @Test
+    void testDecodedPanesKeepMoving() {
+        AccountHorizonPanes panes = new AccountHorizonPanes("ACC-002", MINUTE, HORIZONS, 5 * MINUTE);
+        panes.add(0L, Money.of(new BigDecimal("10.00")), "ES", 0L);
+        AccountHorizonPanes decoded = serde.deserializer().deserialize(TOPIC, serde.serializer().serialize(TOPIC, panes));
+
+        for (int i = 1; i <= 20; i++) {
+            decoded.add(i * MINUTE, Money.of(new BigDecimal("1.00")), "FR", 0L);
+        }
+
+        assertEquals(5, decoded.getTransactionCount());
+        assertEquals(21, decoded.horizon(60 * MINUTE).getTransactionCount());
+        assertEquals(2, decoded.horizon(60 * MINUTE).getCountryCount());
+    }
+}
@@ -0,0 +1,47 @@
+package com.fraudlens.infrastructure.serde;
+
+import com.fraudlens.domain.model.AccountProfile;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountProfileSerdeTest {
+
+    private static final String TOPIC = "account-profile-store-changelog";
+
+    private final AccountProfileSerde serde = new AccountProfileSerde();
+
+    @Test
+    void testRoundTripIsFixedSize() {
+        AccountProfile profile = new AccountProfile();
+        for (int i = 0; i < 50; i++) {
+            profile.rollBaseline(i * 60_000L, 300_000L);
+            profile.update(i * 60_000L, 10.0 + i, i % 3 == 0 ? "FR" : "ES", i % 2 == 0 ? "PURCHASE" : "REFUND", 0.05);
+        }
+
+        byte[] bytes = serde.serializer().serialize(TOPIC, profile);
+        AccountProfile decoded = serde.deserializer().deserialize(TOPIC, bytes);
+
+        assertEquals(AccountProfileSerde.SIZE, bytes.length);
+        assertEquals(AccountProfileSerde.SIZE, serde.serializer().serialize(TOPIC, new AccountProfile()).length);
+        assertEquals(profile.toString(), decoded.toString());
+        assertEquals(profile.getLastTimestamp(), decoded.getLastTimestamp());
+        assertEquals(profile.getLastCountryId(), decoded.getLastCountryId());
+        assertEquals(profile.getAmountVariance(), decoded.getAmountVariance());
+        assertEquals(profile.typeShare("REFUND"), decoded.typeShare("REFUND"));
+        assertEquals(profile.isUsualCountry("FR"), decoded.isUsualCountry("FR"));
+        assertEquals(profile.getBaselineAsOf(), decoded.getBaselineAsOf());
+        assertEquals(profile.getBaseline().toString(), decoded.getBaseline().toString());
+        assertEquals(profile.getPreviousBaselineAsOf(), decoded.getPreviousBaselineAsOf());
+        assertEquals(profile.getPreviousBaseline().toString(), decoded.getPreviousBaseline().toString());
+        assertNull(serde.deserializer().deserialize(TOPIC, serde.serializer().serialize(TOPIC, new AccountProfile()))
+                        .getBaseline());
+    }
+
+    @Test
+    void testRejectsUnknownFormat() {
+        assertNull(serde.deserializer().deserialize(TOPIC, null));
+        assertThrows(SerializationException.class, () -> serde.deserializer().deserialize(TOPIC, new byte[] {2, 0}));
+    }
+}
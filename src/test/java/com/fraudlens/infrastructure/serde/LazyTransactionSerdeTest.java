@@ -0,0 +1,85 @@
+package com.fraudlens.infrastructure.serde;
+
+import com.fraudlens.domain.model.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LazyTransactionSerdeTest {
+
+    private static final String TOPIC = "transactions";
+
+    private final LazyTransactionSerde lazySerde = new LazyTransactionSerde();
+    private final JsonSerde<Transaction> databindSerde = new JsonSerde<>(Transaction.class);
+
+    private static void assertSameTransaction(Transaction expected, Transaction actual) {
+        assertEquals(expected.getTransactionId(), actual.getTransactionId());
+        assertEquals(expected.getAccountId(), actual.getAccountId());
+        assertEquals(expected.getAmount(), actual.getAmount());
+        assertEquals(expected.getCountry(), actual.getCountry());
+        assertEquals(expected.getCurrency(), actual.getCurrency());
+        assertEquals(expected.getTransactionType(), actual.getTransactionType());
+        assertEquals(expected.getTimestamp(), actual.getTimestamp());
+        assertEquals(expected.getMerchantName(), actual.getMerchantName());
+        assertEquals(expected.getDescription(), actual.getDescription());
+    }
+
+    @Test
+    void testLazyViewMatchesDatabind() {
+        Transaction transaction = new Transaction("TXN-1", "ACC-001", new BigDecimal("1250.50"), "ES", "EUR", "PURCHASE",
+                Instant.parse("2024-03-01T10:15:30.123Z"), "El Corte Inglés", "Normal transaction");
+        byte[] bytes = databindSerde.serializer().serialize(TOPIC, transaction);
+
+        Transaction lazy = lazySerde.deserializer().deserialize(TOPIC, bytes);
+
+        assertInstanceOf(LazyTransaction.class, lazy);
+        assertTrue(lazy.hasAccountId());
+        assertSameTransaction(databindSerde.deserializer().deserialize(TOPIC, bytes), lazy);
+        assertEquals(transaction.getTimestamp().toEpochMilli(), ((LazyTransaction) lazy).getTimestampMillis());
+    }
+
+    @Test
+    void testNumbersAndNullsDecodeLikeJackson() {
+        String[] amounts = { "7", "0.10", "123456789012345678901.99", "1.5e3", "-2.25" };
+        for (String amount : amounts) {
+            byte[] bytes = ("{ \"transactionId\" : \"TXN-2\", \"amount\" : " + amount + ", \"accountId\" : null,"
+                    + " \"tags\" : [ \"a\", { \"b\" : true } ], \"country\" : \"FR\" }").getBytes(StandardCharsets.UTF_8);
+
+            Transaction lazy = lazySerde.deserializer().deserialize(TOPIC, bytes);
+
+            assertInstanceOf(LazyTransaction.class, lazy);
+            assertFalse(lazy.hasAccountId());
+            assertSameTransaction(databindSerde.deserializer().deserialize(TOPIC, bytes), lazy);
+        }
+    }
+
+    @Test
+    void testUnusualRecordsFallBackToDatabind() {
+        String[] records = {
+            "{\"transactionId\":\"TXN-\\u0033\",\"accountId\":\"ACC-003\",\"amount\":10}",
+            "{\"transactionId\":\"TXN-4\",\"accountId\":\"ACC-004\",\"amount\":\"10.5\"}",
+            "{\"transactionId\":\"TXN-5\",\"accountId\":\"ACC-005\",\"timestamp\":1709288130}"
+        };
+        for (String record : records) {
+            byte[] bytes = record.getBytes(StandardCharsets.UTF_8);
+
+            Transaction transaction = lazySerde.deserializer().deserialize(TOPIC, bytes);
+
+            assertFalse(transaction instanceof LazyTransaction, record);
+            assertSameTransaction(databindSerde.deserializer().deserialize(TOPIC, bytes), transaction);
+        }
+    }
+
+    @Test
+    void testLazyTransactionsSerializeToTheirOriginalBytes() {
+        byte[] bytes = "{\"transactionId\":\"TXN-6\",\"accountId\":\"ACC-006\",\"amount\":99.90}".getBytes(StandardCharsets.UTF_8);
+
+        Transaction lazy = lazySerde.deserializer().deserialize(TOPIC, bytes);
+
+        assertSame(bytes, lazySerde.serializer().serialize(TOPIC, lazy));
+    }
+}
@@ -0,0 +1,50 @@
+package com.fraudlens.infrastructure.serde;
+
+import com.fraudlens.domain.model.Hashing;
+import com.fraudlens.domain.model.HeavyHitters;
+import com.fraudlens.domain.model.MerchantFanInWindow;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MerchantFanInWindowSerdeTest {
+
+    private static final String TOPIC = "merchant-fan-in-store-changelog";
+
+    private final MerchantFanInWindowSerde serde = new MerchantFanInWindowSerde();
+
+    @Test
+    void testRoundTripKeepsCountsSeenPairsAndReportedFlags() {
+        MerchantFanInWindow window = MerchantFanInWindow.create(600_000L, 1_000, 2, 128, 4);
+        for (int account = 0; account < 12; account++) {
+            window.add("Tienda Ñ", Hashing.hash("ACC-" + account));
+        }
+        window.add("Cafe", Hashing.hash("ACC-1")).markReported();
+
+        MerchantFanInWindow restored = serde.deserializer().deserialize(TOPIC, serde.serializer().serialize(TOPIC, window));
+
+        assertEquals(600_000L, restored.getWindowStart());
+        assertEquals(12, restored.estimate("Tienda Ñ"));
+        List<HeavyHitters.Entry> top = restored.getHeaviest().top();
+        assertEquals("Tienda Ñ", top.get(0).getKey());
+        assertFalse(top.get(0).isReported());
+        assertTrue(top.get(1).isReported());
+        assertEquals(4, restored.getHeaviest().getCapacity());
+        // Pairs already seen still do not count again
+        assertNull(restored.add("Cafe", Hashing.hash("ACC-1")));
+    }
+
+    @Test
+    void testRejectsUnknownAndTruncatedData() {
+        byte[] bytes = serde.serializer().serialize(TOPIC, MerchantFanInWindow.create(0L, 100, 1, 16, 2));
+
+        assertThrows(SerializationException.class, () -> serde.deserializer().deserialize(TOPIC, new byte[] {9}));
+        assertThrows(SerializationException.class,
+                     () -> serde.deserializer().deserialize(TOPIC, Arrays.copyOf(bytes, bytes.length - 4)));
+        assertNull(serde.deserializer().deserialize(TOPIC, null));
+    }
+}
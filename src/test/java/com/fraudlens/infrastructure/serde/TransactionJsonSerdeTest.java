@@ -0,0 +1,78 @@
+package com.fraudlens.infrastructure.serde;
+
+import com.fraudlens.domain.model.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionJsonSerdeTest {
+
+    private static final String TOPIC = "transactions";
+
+    private final TransactionJsonSerde fastSerde = new TransactionJsonSerde();
+    private final JsonSerde<Transaction> databindSerde = new JsonSerde<>(Transaction.class);
+
+    private static void assertSameTransaction(Transaction expected, Transaction actual) {
+        assertEquals(expected.getTransactionId(), actual.getTransactionId());
+        assertEquals(expected.getAccountId(), actual.getAccountId());
+        assertEquals(expected.getAmount(), actual.getAmount());
+        assertEquals(expected.getCountry(), actual.getCountry());
+        assertEquals(expected.getCurrency(), actual.getCurrency());
+        assertEquals(expected.getTransactionType(), actual.getTransactionType());
+        assertEquals(expected.getTimestamp(), actual.getTimestamp());
+        assertEquals(expected.getMerchantName(), actual.getMerchantName());
+        assertEquals(expected.getDescription(), actual.getDescription());
+    }
+
+    @Test
+    void testFastPathMatchesDatabind() {
+        Transaction transaction = new Transaction("TXN-1", "ACC-001", new BigDecimal("250.00"), "ES", "EUR", "PURCHASE",
+                Instant.parse("2024-02-29T23:59:59.999Z"), "Zara \"Gran Vía\"", null);
+
+        byte[] bytes = databindSerde.serializer().serialize(TOPIC, transaction);
+
+        assertSameTransaction(databindSerde.deserializer().deserialize(TOPIC, bytes),
+                              fastSerde.deserializer().deserialize(TOPIC, bytes));
+    }
+
+    @Test
+    void testTimestampParsingAcrossCalendar() {
+        Instant instant = Instant.parse("1969-12-31T00:00:00.001Z");
+        Instant end = Instant.parse("2101-03-01T00:00:00.000Z");
+        while (instant.isBefore(end)) {
+            char[] text = JsonMappers.shared().convertValue(new Transaction("T", "A", BigDecimal.ONE, "ES", "EUR", "PURCHASE",
+                    instant, null, null), Map.class).get("timestamp").toString().toCharArray();
+            assertEquals(instant, TransactionJsonSerde.parseTimestamp(text, 0, text.length));
+            instant = instant.plus(19, ChronoUnit.DAYS).plusMillis(3_601_007L);
+        }
+    }
+
+    @Test
+    void testFallsBackForUnusualPayloads() {
+        String json = "{\"transactionId\":\"TXN-2\",\"accountId\":\"ACC-002\",\"amount\":\"99.5\",\"country\":\"FR\","
+                + "\"currency\":\"EUR\",\"transactionType\":\"PAYMENT\",\"timestamp\":\"2024-01-01T10:00:00.000Z\","
+                + "\"extra\":{\"nested\":[1,2,3]}}";
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+
+        Transaction transaction = fastSerde.deserializer().deserialize(TOPIC, bytes);
+
+        assertEquals(new BigDecimal("99.5"), transaction.getAmount());
+        assertSameTransaction(databindSerde.deserializer().deserialize(TOPIC, bytes), transaction);
+    }
+
+    @Test
+    void testMissingFieldsBehaveLikeDatabind() {
+        byte[] bytes = "{\"transactionId\":\"TXN-3\",\"amount\":10}".getBytes(StandardCharsets.UTF_8);
+
+        Transaction transaction = fastSerde.deserializer().deserialize(TOPIC, bytes);
+
+        assertEquals("TXN-3", transaction.getTransactionId());
+        assertNull(transaction.getAccountId());
+    }
+}